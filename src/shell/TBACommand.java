@@ -22,15 +22,37 @@
 
 package shell;
 
+import java.io.File;
 import java.io.PrintStream;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
 import java.util.HashMap;
+import java.util.List;
 
+import javax.json.Json;
 import javax.json.JsonArray;
+import javax.json.JsonArrayBuilder;
 import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
 import javax.json.JsonStructure;
 import javax.json.JsonValue;
 
+import webapi.CachePolicy;
+import webapi.CredentialPool;
+import webapi.HttpTransport;
+import webapi.JsonProjection;
+import webapi.LocalHttpTransport;
+import webapi.LruCachePolicy;
+import webapi.PersistentCache;
+import webapi.PooledHttpTransport;
+import webapi.RequestCancelledException;
+import webapi.RequestContext;
+import webapi.RequestScheduler;
+import webapi.ResponseHistory;
 import webapi.TbaApiV3;
+import webapi.TinyLfuCachePolicy;
 
 /**
  * This class implements a parser to parse and process TBA commands.
@@ -89,8 +111,17 @@ public class TBACommand
 
     }   //class FilterSet
 
+    private static final String HISTORY_FILE_NAME = "history.log";
+    private static final long HISTORY_MAX_BYTES = 64L*1024*1024;
+
     private TbaApiV3 tbaApi;
+    private File cacheDir = null;
+    private ResponseHistory responseHistory = null;
     private String errorMsg = null;
+    private long commandTimeout = 0;
+    private volatile RequestContext commandContext = null;
+    private boolean streamData = false;
+    private boolean dataPrinted = false;
 
     /**
      * Constructor: Create an instance of the object.
@@ -104,6 +135,99 @@ public class TBACommand
         tbaApi = new TbaApiV3(authorId, appName, appVersion);
     }   //TBACommand
 
+    /**
+     * This method enables the persistent response cache in the specified directory so that responses downloaded
+     * in previous runs can be revalidated instead of downloaded again. The filters of known keys are kept in the
+     * same directory, and so is the history of the responses if it has been turned on by the history command.
+     *
+     * @param cacheDir specifies the cache directory.
+     * @param maxBytes specifies the maximum size of the cache in bytes.
+     * @throws RuntimeException when the cache cannot be opened.
+     */
+    public void setCacheDirectory(File cacheDir, long maxBytes) throws RuntimeException
+    {
+        tbaApi.setPersistentCache(new PersistentCache(cacheDir, maxBytes));
+        tbaApi.setKeyFilterFile(new File(cacheDir, "keys.filter"));
+        this.cacheDir = cacheDir;
+        if (new File(cacheDir, HISTORY_FILE_NAME).isFile())
+        {
+            setResponseHistory(true);
+        }
+    }   //setCacheDirectory
+
+    /**
+     * This method turns the response history on or off. Turning it on creates the history file in the cache
+     * directory, so the history stays on in later runs. Turning it off discards the history file.
+     *
+     * @param enabled specifies true to record the history of the responses, false to stop and discard it.
+     * @throws RuntimeException when there is no cache directory or the history file cannot be opened.
+     */
+    public void setResponseHistory(boolean enabled) throws RuntimeException
+    {
+        if (cacheDir == null)
+        {
+            throw new RuntimeException("Response history needs the cache directory.");
+        }
+
+        File historyFile = new File(cacheDir, HISTORY_FILE_NAME);
+        if (enabled && responseHistory == null)
+        {
+            responseHistory = new ResponseHistory(historyFile, HISTORY_MAX_BYTES);
+            tbaApi.setResponseHistory(responseHistory);
+        }
+        else if (!enabled)
+        {
+            tbaApi.setResponseHistory(null);
+            if (responseHistory != null)
+            {
+                responseHistory.close();
+                responseHistory = null;
+            }
+            historyFile.delete();
+        }
+    }   //setResponseHistory
+
+    /**
+     * This method sets the TBA auth keys that take turns authenticating the requests. The least loaded key is used
+     * for each request.
+     *
+     * @param authKeys specifies the auth keys.
+     * @throws IllegalArgumentException when no key is specified.
+     */
+    public void setAuthKeys(List<String> authKeys) throws IllegalArgumentException
+    {
+        tbaApi.setAuthKeys(authKeys, CredentialPool.Selection.LEAST_LOADED);
+    }   //setAuthKeys
+
+    /**
+     * This method selects the transport that sends the requests to TBA.
+     *
+     * @param pooled specifies true to keep the connections open between requests, false to open a new connection
+     *        for every request.
+     */
+    public void setPooledTransport(boolean pooled)
+    {
+        tbaApi.setPooledTransport(pooled);
+    }   //setPooledTransport
+
+    /**
+     * This method cancels the command being processed, if any. The requests of the command fail right away and the
+     * command returns with an error.
+     *
+     * @return true if a command was being processed, false otherwise.
+     */
+    public boolean cancelCommand()
+    {
+        RequestContext context = commandContext;
+
+        if (context != null)
+        {
+            context.cancel();
+        }
+
+        return context != null;
+    }   //cancelCommand
+
     /**
      * This method returns the error message of the last request if any.
      *
@@ -166,16 +290,102 @@ public class TBACommand
      * @return resulting data of the command, null if command failed.
      */
     public JsonStructure processCommand(String[] tokens, PrintStream dataOut, PrintStream statusOut)
+    {
+        return processCommand(tokens, dataOut, statusOut, commandTimeout);
+    }   //processCommand
+
+    /**
+     * This method runs a TBA request command and prints its data. Unlike processCommand, the command does not
+     * return its data, so the data of requests that may be large, such as the raw get command and the team lists,
+     * is printed as it is parsed from the response or as its pages arrive instead of being built in memory first.
+     * Lists printed with only one or two keys per object are projected to those keys as they are parsed.
+     *
+     * @param tokens specifies the tokens split from the command line.
+     * @param dataOut specifies the output stream to print the data.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return true if the command succeeded, false if it failed or was cancelled.
+     */
+    public boolean runCommand(String[] tokens, PrintStream dataOut, PrintStream statusOut)
+    {
+        JsonStructure data;
+
+        streamData = true;
+        try
+        {
+            data = processCommand(tokens, dataOut, statusOut, commandTimeout);
+        }
+        finally
+        {
+            streamData = false;
+        }
+
+        return data != null || dataPrinted;
+    }   //runCommand
+
+    /**
+     * This method processes a TBA request command within the specified time budget. The budget covers all the
+     * requests made by the command, including their retries and the pages of a paginated list. The command can be
+     * cancelled from another thread by calling cancelCommand. The requests of the command are scheduled with the
+     * INTERACTIVE priority, ahead of any background requests.
+     *
+     * @param tokens specifies the tokens split from the command line.
+     * @param dataOut specifies the output stream to print the data, null if no data output required.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @param timeout specifies the time budget in milliseconds, 0 for no limit.
+     * @return resulting data of the command, null if command failed or was cancelled.
+     */
+    public JsonStructure processCommand(String[] tokens, PrintStream dataOut, PrintStream statusOut, long timeout)
+    {
+        RequestContext context = new RequestContext(timeout, RequestScheduler.Priority.INTERACTIVE);
+        RequestContext prevContext = context.attach();
+        JsonStructure data = null;
+
+        commandContext = context;
+        try
+        {
+            data = executeCommand(tokens, dataOut, statusOut);
+        }
+        catch (RequestCancelledException e)
+        {
+            errorMsg = e.getMessage();
+        }
+        finally
+        {
+            commandContext = null;
+            context.close();
+            RequestContext.detach(prevContext);
+        }
+
+        return data;
+    }   //processCommand
+
+    /**
+     * This method parses the TBA request command and dispatches it to its handler.
+     *
+     * @param tokens specifies the tokens split from the command line.
+     * @param dataOut specifies the output stream to print the data, null if no data output required.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return resulting data of the command, null if command failed.
+     */
+    private JsonStructure executeCommand(String[] tokens, PrintStream dataOut, PrintStream statusOut)
     {
         JsonStructure data = null;
 
         errorMsg = null;
+        dataPrinted = false;
         if (tokens[0].equals("get") && tokens.length == 2)
         {
-            data = tbaApi.get(tokens[1], statusOut);
-            if (data != null && dataOut != null)
+            if (streamData)
             {
-                tbaApi.printData(data, dataOut);
+                dataPrinted = tbaApi.print(tokens[1], statusOut, null, null, null, dataOut);
+            }
+            else
+            {
+                data = tbaApi.get(tokens[1], statusOut);
+                if (data != null && dataOut != null)
+                {
+                    tbaApi.printData(data, dataOut);
+                }
             }
         }
         else if (tokens[0].equals("list") && (tokens.length == 2 || tokens.length == 3))
@@ -301,6 +511,26 @@ public class TBACommand
                 }
             }
         }
+        else if (tokens[0].equals("cache") && tokens.length >= 2)
+        {
+            data = processCacheCommand(tokens, dataOut, statusOut);
+        }
+        else if (tokens[0].equals("history") && (tokens.length == 2 || tokens.length == 3))
+        {
+            data = processHistoryCommand(tokens, dataOut);
+        }
+        else if (tokens[0].equals("transport"))
+        {
+            data = processTransportCommand(tokens, dataOut);
+        }
+        else if (tokens[0].equals("timeout") && tokens.length <= 2)
+        {
+            data = processTimeoutCommand(tokens, dataOut);
+        }
+        else if (tokens[0].equals("queue") && tokens.length == 1)
+        {
+            data = processQueueCommand(dataOut);
+        }
         else
         {
             //
@@ -316,7 +546,311 @@ public class TBACommand
         }
 
         return data;
-    }   //processCommand
+    }   //executeCommand
+
+    /**
+     * This method processes a cache command.
+     * Syntax: cache stats
+     *         cache evict [<Request>]
+     *         cache policy (lru|tinylfu) <CapacityMB>
+     *         cache swr <MaxStaleSeconds>
+     *         cache compress (on|off)
+     *         cache lazy (on|off)
+     *
+     * @param tokens specifies the tokens split from the command line.
+     * @param dataOut specifies the output stream to print the data, null if no data output required.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return cache statistics, null if command failed.
+     */
+    private JsonStructure processCacheCommand(String[] tokens, PrintStream dataOut, PrintStream statusOut)
+    {
+        JsonStructure data = null;
+
+        if (tokens[1].equals("stats") && tokens.length == 2)
+        {
+            data = tbaApi.getCacheStats();
+        }
+        else if (tokens[1].equals("evict") && (tokens.length == 2 || tokens.length == 3))
+        {
+            int numEvicted = tbaApi.evictCache(tokens.length == 3? tokens[2]: null, null);
+            if (statusOut != null)
+            {
+                statusOut.println("Evicted " + numEvicted + " cache entries.");
+            }
+            data = tbaApi.getCacheStats();
+        }
+        else if (tokens[1].equals("policy") && tokens.length == 4)
+        {
+            try
+            {
+                long capacity = Long.parseLong(tokens[3])*1024*1024;
+                CachePolicy policy =
+                    tokens[2].equals("lru")? new LruCachePolicy(capacity):
+                    tokens[2].equals("tinylfu")? new TinyLfuCachePolicy(capacity): null;
+
+                if (policy != null && capacity > 0)
+                {
+                    tbaApi.setCachePolicy(policy);
+                    data = tbaApi.getCacheStats();
+                }
+            }
+            catch (NumberFormatException e)
+            {
+                errorMsg = "Cache capacity must be an integer: " + e.getMessage();
+            }
+        }
+        else if (tokens[1].equals("swr") && tokens.length == 3)
+        {
+            try
+            {
+                long maxStaleness = Long.parseLong(tokens[2])*1000;
+
+                if (maxStaleness >= 0)
+                {
+                    tbaApi.setStaleWhileRevalidate(maxStaleness);
+                    data = tbaApi.getCacheStats();
+                }
+            }
+            catch (NumberFormatException e)
+            {
+                errorMsg = "Max staleness must be an integer: " + e.getMessage();
+            }
+        }
+        else if (tokens[1].equals("compress") && tokens.length == 3 &&
+                 (tokens[2].equals("on") || tokens[2].equals("off")))
+        {
+            tbaApi.setCacheCompression(tokens[2].equals("on"));
+            data = tbaApi.getCacheStats();
+        }
+        else if (tokens[1].equals("lazy") && tokens.length == 3 &&
+                 (tokens[2].equals("on") || tokens[2].equals("off")))
+        {
+            tbaApi.setLazyParsing(tokens[2].equals("on"));
+            data = tbaApi.getCacheStats();
+        }
+
+        if (data == null)
+        {
+            if (errorMsg == null)
+            {
+                errorMsg = "Invalid cache command, expecting \"stats\" or \"evict [<Request>]\" or "
+                    + "\"policy (lru|tinylfu) <CapacityMB>\" or \"swr <MaxStaleSeconds>\" or "
+                    + "\"compress (on|off)\" or \"lazy (on|off)\".";
+            }
+        }
+        else if (dataOut != null)
+        {
+            tbaApi.printData(data, dataOut);
+        }
+
+        return data;
+    }   //processCacheCommand
+
+    /**
+     * This method processes a transport command.
+     * Syntax: transport [legacy|pooled|local <Dir>]
+     *  legacy      ::= Open a new connection for every request.
+     *  pooled      ::= Keep the connections open between requests.
+     *  local       ::= Serve the responses from the JSON files in <Dir> instead of TBA.
+     *
+     * @param tokens specifies the tokens split from the command line.
+     * @param dataOut specifies the output stream to print the data, null if no data output required.
+     * @return transport statistics, null if command failed.
+     */
+    private JsonStructure processTransportCommand(String[] tokens, PrintStream dataOut)
+    {
+        JsonStructure data = null;
+        boolean valid = true;
+
+        if (tokens.length == 2 && (tokens[1].equals("legacy") || tokens[1].equals("pooled")))
+        {
+            tbaApi.setPooledTransport(tokens[1].equals("pooled"));
+        }
+        else if (tokens.length == 3 && tokens[1].equals("local"))
+        {
+            tbaApi.setTransport(new LocalHttpTransport(new File(tokens[2])));
+        }
+        else if (tokens.length != 1)
+        {
+            valid = false;
+        }
+
+        if (valid)
+        {
+            HttpTransport transport = tbaApi.getTransport();
+            JsonObjectBuilder builder = Json.createObjectBuilder().add("transport", transport.getName());
+
+            if (transport instanceof PooledHttpTransport)
+            {
+                builder.add("connections", ((PooledHttpTransport)transport).getConnectionCount())
+                       .add("reused", ((PooledHttpTransport)transport).getReuseCount());
+            }
+            data = builder.build();
+
+            if (dataOut != null)
+            {
+                tbaApi.printData(data, dataOut);
+            }
+        }
+        else
+        {
+            errorMsg = "Invalid transport command, expecting \"legacy\" or \"pooled\" or \"local <Dir>\".";
+        }
+
+        return data;
+    }   //processTransportCommand
+
+    /**
+     * This method processes a queue command. It prints the number of requests waiting and in flight in each
+     * priority class.
+     * Syntax: queue
+     *
+     * @param dataOut specifies the output stream to print the data, null if no data output required.
+     * @return request queue statistics.
+     */
+    private JsonStructure processQueueCommand(PrintStream dataOut)
+    {
+        RequestScheduler scheduler = tbaApi.getRequestScheduler();
+        JsonObjectBuilder builder = Json.createObjectBuilder();
+
+        for (RequestScheduler.Priority priority: RequestScheduler.Priority.values())
+        {
+            builder.add(
+                priority.name().toLowerCase(),
+                Json.createObjectBuilder()
+                    .add("waiting", scheduler.getQueueDepth(priority))
+                    .add("in_flight", scheduler.getInFlightCount(priority)));
+        }
+        JsonStructure data = builder
+            .add("concurrency_limit", scheduler.getConcurrencyLimit())
+            .add("background_limit", scheduler.getBackgroundLimit())
+            .build();
+
+        if (dataOut != null)
+        {
+            tbaApi.printData(data, dataOut);
+        }
+
+        return data;
+    }   //processQueueCommand
+
+    /**
+     * This method processes a timeout command.
+     * Syntax: timeout [<Seconds>]
+     *  Seconds     ::= Specifies the time budget of each subsequent command, 0 for no limit.
+     *
+     * @param tokens specifies the tokens split from the command line.
+     * @param dataOut specifies the output stream to print the data, null if no data output required.
+     * @return command timeout, null if command failed.
+     */
+    private JsonStructure processTimeoutCommand(String[] tokens, PrintStream dataOut)
+    {
+        JsonStructure data = null;
+
+        if (tokens.length == 2)
+        {
+            try
+            {
+                double seconds = Double.parseDouble(tokens[1]);
+
+                if (seconds < 0.0 || Double.isNaN(seconds))
+                {
+                    errorMsg = "Timeout must not be negative.";
+                }
+                else
+                {
+                    commandTimeout = (long)(seconds*1000);
+                }
+            }
+            catch (NumberFormatException e)
+            {
+                errorMsg = "Timeout must be a number: " + e.getMessage();
+            }
+        }
+
+        if (errorMsg == null)
+        {
+            data = Json.createObjectBuilder().add("timeout", commandTimeout/1000.0).build();
+
+            if (dataOut != null)
+            {
+                tbaApi.printData(data, dataOut);
+            }
+        }
+
+        return data;
+    }   //processTimeoutCommand
+
+    /**
+     * This method processes a history command.
+     * Syntax: history (on|off)
+     *         history <Request> [<Time>]
+     *  Time        ::= Specifies the time as milliseconds since the epoch or as local date and time in ISO format
+     *                  (e.g. 2018-03-10T14:30:00).
+     *
+     * @param tokens specifies the tokens split from the command line.
+     * @param dataOut specifies the output stream to print the data, null if no data output required.
+     * @return whether the history is on if it is turned on or off, list of the versions of the response if no time
+     *         is specified, otherwise the version of the response as of the specified time, null if command failed.
+     */
+    private JsonStructure processHistoryCommand(String[] tokens, PrintStream dataOut)
+    {
+        JsonStructure data = null;
+
+        try
+        {
+            if (tokens.length == 2 && (tokens[1].equals("on") || tokens[1].equals("off")))
+            {
+                setResponseHistory(tokens[1].equals("on"));
+                data = Json.createObjectBuilder().add("history", tokens[1]).build();
+            }
+            else if (tokens.length == 2)
+            {
+                JsonArrayBuilder versions = Json.createArrayBuilder();
+
+                for (long timestamp: tbaApi.getHistoryTimestamps(tokens[1], null))
+                {
+                    versions.add(Json.createObjectBuilder()
+                        .add("timestamp", timestamp)
+                        .add("time", LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp), ZoneId.systemDefault())
+                            .toString()));
+                }
+                data = versions.build();
+            }
+            else
+            {
+                long timestamp;
+
+                try
+                {
+                    timestamp = tokens[2].chars().allMatch(Character::isDigit)?
+                        Long.parseLong(tokens[2]):
+                        LocalDateTime.parse(tokens[2]).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+                }
+                catch (NumberFormatException | DateTimeParseException e)
+                {
+                    throw new IllegalArgumentException("Invalid time: " + e.getMessage());
+                }
+
+                data = tbaApi.getHistory(tokens[1], null, timestamp);
+                if (data == null)
+                {
+                    errorMsg = "No version of <" + tokens[1] + "> as of " + tokens[2] + ".";
+                }
+            }
+        }
+        catch (RuntimeException e)
+        {
+            errorMsg = e.getMessage();
+        }
+
+        if (data != null && dataOut != null)
+        {
+            tbaApi.printData(data, dataOut);
+        }
+
+        return data;
+    }   //processHistoryCommand
 
     //
     // Process TBA requests.
@@ -396,6 +930,9 @@ public class TBACommand
     {
         JsonStructure data = null;
         int numFilters = filterSet != null? filterSet.getNumFilters(): 0;
+        String key1 = verboseLevel > 1? null: "key";
+        String key2 = verboseLevel == 1? "nickname": null;
+        JsonProjection projection = getProjection(key1, key2);
         String verbosity = verboseLevel == 0? "keys": verboseLevel == 1? "simple": null;
 
         try
@@ -405,7 +942,14 @@ public class TBACommand
                 //
                 // Get all teams.
                 //
-                data = tbaApi.getTeams(null, verbosity, statusOut);
+                if (streamData)
+                {
+                    printTeams(null, verbosity, key1, key2, dataOut, statusOut);
+                }
+                else
+                {
+                    data = tbaApi.getTeams(null, verbosity, projection, statusOut);
+                }
             }
             else if (numFilters == 1)
             {
@@ -416,7 +960,14 @@ public class TBACommand
                     //
                     // Get teams for the specified year.
                     //
-                    data = tbaApi.getTeams(value, verbosity, statusOut);
+                    if (streamData)
+                    {
+                        printTeams(value, verbosity, key1, key2, dataOut, statusOut);
+                    }
+                    else
+                    {
+                        data = tbaApi.getTeams(value, verbosity, projection, statusOut);
+                    }
                 }
                 else
                 {
@@ -425,33 +976,33 @@ public class TBACommand
                         //
                         // Get info for the specified team.
                         //
-                        data = tbaApi.getTeam(value, verboseLevel > 1? null: "simple", statusOut);
+                        data = tbaApi.getTeam(value, verboseLevel > 1? null: "simple", projection, statusOut);
                     }
                     else if ((value = filterSet.getValue("event")) != null)
                     {
                         //
                         // Get teams for the specified event.
                         //
-                        data = tbaApi.getEventTeams(value, verbosity, statusOut);
+                        data = tbaApi.getEventTeams(value, verbosity, projection, statusOut);
                     }
                     else if ((value = filterSet.getValue("district")) != null)
                     {
                         //
                         // Get teams for the specified district.
                         //
-                        data = tbaApi.getDistrictTeams(value, verbosity, statusOut);
+                        data = tbaApi.getDistrictTeams(value, verbosity, projection, statusOut);
                     }
                 }
             }
 
-            if (data == null)
+            if (data == null && !dataPrinted)
             {
                 errorMsg = "Invalid filter, expecting \"year=<Year>\" or \"team=<TeamKey>\" or "
                     + "\"event=<EventKey>\" or \"district=<DistrictKey>\".";
             }
-            else if (dataOut != null)
+            else if (data != null && dataOut != null)
             {
-                tbaApi.printData(data, verboseLevel > 1? null: "key", verboseLevel == 1? "nickname": null, dataOut);
+                tbaApi.printData(data, key1, key2, dataOut);
             }
         }
         catch (RuntimeException e)
@@ -462,6 +1013,37 @@ public class TBACommand
         return data;
     }   //processTeamsRequest
 
+    /**
+     * This method prints the team list as its pages arrive.
+     *
+     * @param year specifies the optional year, null for all years.
+     * @param verbosity specifies optional verbosity, null for full verbosity.
+     * @param key1 specifies the first key to print of each team, null to print all the nested structures.
+     * @param key2 specifies the second key to print of each team, null if none.
+     * @param dataOut specifies the output stream to print the data.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     */
+    private void printTeams(
+        String year, String verbosity, String key1, String key2, PrintStream dataOut, PrintStream statusOut)
+    {
+        tbaApi.printTeams(year, verbosity, key1, key2, statusOut, dataOut);
+        dataPrinted = true;
+    }   //printTeams
+
+    /**
+     * This method returns the projection of the requested data to the keys the command prints. The data is only
+     * projected when the command is run by runCommand, which prints the data without returning it. Otherwise, the
+     * complete data is returned.
+     *
+     * @param key1 specifies the first key to print of each object, null to print all the nested structures.
+     * @param key2 specifies the second key to print of each object, null if none.
+     * @return projection of the data, null if the complete data is needed.
+     */
+    private JsonProjection getProjection(String key1, String key2)
+    {
+        return streamData && key1 != null? new JsonProjection(key1, key2): null;
+    }   //getProjection
+
     /**
      * This method processes the Events request.
      * Syntax: events?year=<Year>
@@ -481,6 +1063,9 @@ public class TBACommand
     {
         JsonStructure data = null;
         int numFilters = filterSet != null? filterSet.getNumFilters(): 0;
+        String key1 = verboseLevel > 1? null: "key";
+        String key2 = verboseLevel == 1? "name": null;
+        JsonProjection projection = getProjection(key1, key2);
         String verbosity = verboseLevel == 0? "keys": verboseLevel == 1? "simple": null;
 
         try
@@ -494,28 +1079,28 @@ public class TBACommand
                     //
                     // Get events for the specified year.
                     //
-                    data = tbaApi.getEvents(value, verbosity, statusOut);
+                    data = tbaApi.getEvents(value, verbosity, projection, statusOut);
                 }
                 else if ((value = filterSet.getValue("team")) != null)
                 {
                     //
                     // Get events for the specified team.
                     //
-                    data = tbaApi.getTeamEvents(value, null, verbosity, statusOut);
+                    data = tbaApi.getTeamEvents(value, null, verbosity, projection, statusOut);
                 }
                 else if ((value = filterSet.getValue("event")) != null)
                 {
                     //
                     // Get info for specified event.
                     //
-                    data = tbaApi.getEvent(value, verboseLevel > 1? null: "simple", statusOut);
+                    data = tbaApi.getEvent(value, verboseLevel > 1? null: "simple", projection, statusOut);
                 }
                 else if ((value = filterSet.getValue("district")) != null)
                 {
                     //
                     // Get events for the specified district.
                     //
-                    data = tbaApi.getDistrictEvents(value, verbosity, statusOut);
+                    data = tbaApi.getDistrictEvents(value, verbosity, projection, statusOut);
                 }
             }
             else if (numFilters == 2)
@@ -527,7 +1112,7 @@ public class TBACommand
                     //
                     // Get events for the specified team and year.
                     //
-                    data = tbaApi.getTeamEvents(value1, value2, verbosity, statusOut);
+                    data = tbaApi.getTeamEvents(value1, value2, verbosity, projection, statusOut);
                 }
             }
 
@@ -538,7 +1123,7 @@ public class TBACommand
             }
             else if (dataOut != null)
             {
-                tbaApi.printData(data, verboseLevel > 1? null: "key", verboseLevel == 1? "name": null, dataOut);
+                tbaApi.printData(data, key1, key2, dataOut);
             }
         }
         catch (RuntimeException e)
@@ -565,6 +1150,9 @@ public class TBACommand
     {
         JsonStructure data = null;
         int numFilters = filterSet != null? filterSet.getNumFilters(): 0;
+        String key1 = verboseLevel > 1? null: "key";
+        String key2 = verboseLevel == 1? "display_name": null;
+        JsonProjection projection = getProjection(key1, key2);
 
         try
         {
@@ -577,14 +1165,14 @@ public class TBACommand
                     //
                     // Get districts for the specified year.
                     //
-                    data = tbaApi.getDistricts(value, statusOut);
+                    data = tbaApi.getDistricts(value, projection, statusOut);
                 }
                 else if ((value = filterSet.getValue("team")) != null)
                 {
                     //
                     // Get districts for the specified team.
                     //
-                    data = tbaApi.getTeamDistricts(value, statusOut);
+                    data = tbaApi.getTeamDistricts(value, projection, statusOut);
                 }
             }
 
@@ -594,7 +1182,7 @@ public class TBACommand
             }
             else if (dataOut != null)
             {
-                tbaApi.printData(data, verboseLevel > 1? null: "key", verboseLevel == 1? "display_name": null, dataOut);
+                tbaApi.printData(data, key1, key2, dataOut);
             }
         }
         catch (RuntimeException e)
@@ -623,6 +1211,9 @@ public class TBACommand
     {
         JsonStructure data = null;
         int numFilters = filterSet != null? filterSet.getNumFilters(): 0;
+        String key1 = verboseLevel > 0? null: "key";
+        String key2 = null;
+        JsonProjection projection = getProjection(key1, key2);
         String verbosity = verboseLevel > 0? null: "keys";
 
         try
@@ -636,14 +1227,14 @@ public class TBACommand
                     //
                     // Get matches for the specified event.
                     //
-                    data = tbaApi.getEventMatches(value, verbosity, statusOut);
+                    data = tbaApi.getEventMatches(value, verbosity, projection, statusOut);
                 }
                 else if ((value = filterSet.getValue("match")) != null)
                 {
                     //
                     // Get info for the specified match.
                     //
-                    data = tbaApi.getMatch(value, verboseLevel > 1? null: "simple", statusOut);
+                    data = tbaApi.getMatch(value, verboseLevel > 1? null: "simple", projection, statusOut);
                 }
             }
             else if (numFilters == 2)
@@ -655,14 +1246,14 @@ public class TBACommand
                     //
                     // Get matches for the specified team and year.
                     //
-                    data = tbaApi.getTeamMatches(value1, value2, verbosity, statusOut);
+                    data = tbaApi.getTeamMatches(value1, value2, verbosity, projection, statusOut);
                 }
                 else if ((value1 = filterSet.getValue("team")) != null && (value2 = filterSet.getValue("event")) != null)
                 {
                     //
                     // Get matches for the specified event and team.
                     //
-                    data = tbaApi.getTeamEventMatches(value1, value2, verbosity, statusOut);
+                    data = tbaApi.getTeamEventMatches(value1, value2, verbosity, projection, statusOut);
                 }
             }
 
@@ -673,7 +1264,7 @@ public class TBACommand
             }
             else if (dataOut != null)
             {
-                tbaApi.printData(data, verboseLevel > 0? null: "key", null, dataOut);
+                tbaApi.printData(data, key1, key2, dataOut);
             }
         }
         catch (RuntimeException e)
@@ -702,6 +1293,9 @@ public class TBACommand
     {
         JsonStructure data = null;
         int numFilters = filterSet != null? filterSet.getNumFilters(): 0;
+        String key1 = verboseLevel > 1? null: "name";
+        String key2 = verboseLevel == 1? "event_key": null;
+        JsonProjection projection = getProjection(key1, key2);
 
         try
         {
@@ -714,14 +1308,14 @@ public class TBACommand
                     //
                     // Get awards for the specified team.
                     //
-                    data = tbaApi.getTeamAwards(value, null, statusOut);
+                    data = tbaApi.getTeamAwards(value, null, projection, statusOut);
                 }
                 else if ((value = filterSet.getValue("event")) != null)
                 {
                     //
                     // Get awards for the specified event.
                     //
-                    data = tbaApi.getEventAwards(value, statusOut);
+                    data = tbaApi.getEventAwards(value, projection, statusOut);
                 }
             }
             else if (numFilters == 2)
@@ -733,14 +1327,14 @@ public class TBACommand
                     //
                     // Get awards for the specified team and year.
                     //
-                    data = tbaApi.getTeamAwards(value1, value2, statusOut);
+                    data = tbaApi.getTeamAwards(value1, value2, projection, statusOut);
                 }
                 else if ((value1 = filterSet.getValue("team")) != null && (value2 = filterSet.getValue("event")) != null)
                 {
                     //
                     // Get awards for the specified event and team.
                     //
-                    data = tbaApi.getTeamEventAwards(value1, value2, statusOut);
+                    data = tbaApi.getTeamEventAwards(value1, value2, projection, statusOut);
                 }
             }
 
@@ -751,7 +1345,7 @@ public class TBACommand
             }
             else if (dataOut != null)
             {
-                tbaApi.printData(data, verboseLevel > 1? null: "name", verboseLevel == 1? "event_key": null, dataOut);
+                tbaApi.printData(data, key1, key2, dataOut);
             }
         }
         catch (RuntimeException e)
@@ -778,6 +1372,9 @@ public class TBACommand
     {
         JsonStructure data = null;
         int numFilters = filterSet != null? filterSet.getNumFilters(): 0;
+        String key1 = verboseLevel > 1? null: "rank";
+        String key2 = verboseLevel == 1? "team_key": null;
+        JsonProjection projection = getProjection(key1, key2);
 
         try
         {
@@ -790,14 +1387,14 @@ public class TBACommand
                     //
                     // Get rankings for the specified event.
                     //
-                    data = tbaApi.getEventRankings(value, verboseLevel, statusOut);
+                    data = tbaApi.getEventRankings(value, verboseLevel, projection, statusOut);
                 }
                 else if ((value = filterSet.getValue("district")) != null)
                 {
                     //
                     // Get rankings for the specified district.
                     //
-                    data = tbaApi.getDistrictRankings(value, statusOut);
+                    data = tbaApi.getDistrictRankings(value, projection, statusOut);
                 }
             }
 
@@ -807,7 +1404,7 @@ public class TBACommand
             }
             else if (dataOut != null)
             {
-                tbaApi.printData(data, verboseLevel > 1? null: "rank", verboseLevel == 1? "team_key": null, dataOut);
+                tbaApi.printData(data, key1, key2, dataOut);
             }
         }
         catch (RuntimeException e)
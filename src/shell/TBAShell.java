@@ -22,15 +22,25 @@
 
 package shell;
 
+import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintStream;
+import java.lang.reflect.Proxy;
+import java.util.List;
 import java.util.Scanner;
 
+import webapi.CredentialPool;
+
 public class TBAShell
 {
     private static final String AUTHOR_ID = "frc492";
     private static final String APP_NAME = "TBAShell";
     private static final String APP_VERSION = "v0.1";
+    private static final File CACHE_DIR = new File(System.getProperty("user.home"), ".tbashell/cache");
+    private static final long CACHE_MAX_BYTES = 256L*1024*1024;
+    private static final File AUTH_KEYS_FILE = new File(System.getProperty("user.home"), ".tbashell/auth_keys");
+    private static final String AUTH_KEYS_ENV = "TBA_AUTH_KEYS";
     private static final InputStream consoleIn = System.in;
     private static final PrintStream consoleOut = System.out;
     private static final PrintStream statusOut = System.out;
@@ -53,6 +63,23 @@ public class TBAShell
         Scanner console = args.length == 0? new Scanner(consoleIn): null;
         boolean done = false;
 
+        try
+        {
+            parser.setCacheDirectory(CACHE_DIR, CACHE_MAX_BYTES);
+        }
+        catch (RuntimeException e)
+        {
+            //
+            // Not fatal, we just won't have a persistent cache.
+            //
+            consoleOut.println(e.getMessage());
+        }
+        loadAuthKeys();
+        if (args.length == 0)
+        {
+            installInterruptHandler();
+        }
+
         while (!done)
         {
             if (args.length == 0)
@@ -75,7 +102,7 @@ public class TBAShell
                 {
                     printHelpMsg(true);
                 }
-                else if (parser.processCommand(command.split("\\s+"), dataOut, statusOut) == null)
+                else if (!parser.runCommand(command.split("\\s+"), dataOut, statusOut))
                 {
                     printErrorMsg();
                 }
@@ -85,7 +112,7 @@ public class TBAShell
                 //
                 // Batch mode: process the command and exit.
                 //
-                if (parser.processCommand(args, dataOut, statusOut) == null)
+                if (!parser.runCommand(args, dataOut, statusOut))
                 {
                     printErrorMsg();
                 }
@@ -99,6 +126,88 @@ public class TBAShell
         }
     }   //main
 
+    /**
+     * This method loads the TBA auth keys from the TBA_AUTH_KEYS environment variable or, if it is not set, from
+     * the auth_keys file next to the cache directory. The keys are separated by commas or white space. If neither
+     * provides a key, the built-in key is used.
+     */
+    private static void loadAuthKeys()
+    {
+        String envKeys = System.getenv(AUTH_KEYS_ENV);
+
+        try
+        {
+            List<String> authKeys =
+                envKeys != null? CredentialPool.parseCredentials(envKeys):
+                AUTH_KEYS_FILE.exists()? CredentialPool.loadCredentials(AUTH_KEYS_FILE): null;
+
+            if (authKeys != null && !authKeys.isEmpty())
+            {
+                parser.setAuthKeys(authKeys);
+            }
+        }
+        catch (IOException e)
+        {
+            //
+            // Not fatal, we just use the built-in key.
+            //
+            consoleOut.println("Failed to read auth keys from " + AUTH_KEYS_FILE + ": " + e.getMessage());
+        }
+    }   //loadAuthKeys
+
+    /**
+     * This method installs the Ctrl-C handler of the interactive mode. Ctrl-C cancels the command being processed
+     * and returns to the prompt. If no command is being processed, it terminates the program as usual. The signal
+     * API is not part of the standard Java API, so it is accessed by reflection and the handler is simply not
+     * installed if it is not available.
+     */
+    private static void installInterruptHandler()
+    {
+        try
+        {
+            Class<?> signalClass = Class.forName("sun.misc.Signal");
+            Class<?> handlerClass = Class.forName("sun.misc.SignalHandler");
+            Object handler = Proxy.newProxyInstance(
+                TBAShell.class.getClassLoader(), new Class<?>[] {handlerClass},
+                (proxy, method, methodArgs) ->
+                {
+                    Object result = null;
+
+                    if (method.getName().equals("handle"))
+                    {
+                        if (!parser.cancelCommand())
+                        {
+                            consoleOut.println("\nProgram terminated.");
+                            System.exit(130);
+                        }
+                    }
+                    else if (method.getName().equals("equals"))
+                    {
+                        result = proxy == methodArgs[0];
+                    }
+                    else if (method.getName().equals("hashCode"))
+                    {
+                        result = System.identityHashCode(proxy);
+                    }
+                    else if (method.getName().equals("toString"))
+                    {
+                        result = "InterruptHandler";
+                    }
+
+                    return result;
+                });
+
+            signalClass.getMethod("handle", signalClass, handlerClass).invoke(
+                null, signalClass.getConstructor(String.class).newInstance("INT"), handler);
+        }
+        catch (ReflectiveOperationException | RuntimeException e)
+        {
+            //
+            // Not fatal, Ctrl-C will just terminate the program.
+            //
+        }
+    }   //installInterruptHandler
+
     /**
      * This method prints the help message.
      *
@@ -114,7 +223,19 @@ public class TBAShell
             "\tquit\t\t\t\t- Exit this program.\n" +
             "\texit\t\t\t\t- Exit this program.\n" +
             "\tlist [<Options>] <Model>\t- Retrieve and list model data.\n" +
-            "\tget <Request>\t\t\t- Send raw <Request> to the web server.\n");
+            "\tget <Request>\t\t\t- Send raw <Request> to the web server.\n" +
+            "\thistory (on|off)\t\t- Start recording the history of the responses, or stop and discard it.\n" +
+            "\thistory <Request> [<Time>]\t- List the versions of the <Request> response or print it as of <Time>.\n" +
+            "\tcache stats\t\t\t- Print the response cache statistics.\n" +
+            "\tcache evict [<Request>]\t\t- Evict all or the specified <Request> from the response cache.\n" +
+            "\tcache policy (lru|tinylfu) <MB>\t- Set the response cache eviction policy and capacity.\n" +
+            "\tcache swr <Seconds>\t\t- Serve cached data up to <Seconds> stale while revalidating, 0 to disable.\n" +
+            "\tcache compress (on|off)\t\t- Enable or disable compression of the cached responses.\n" +
+            "\tcache lazy (on|off)\t\t- Enable or disable lazy parsing of the responses.\n" +
+            "\ttransport [legacy|pooled|local <Dir>]\n" +
+            "\t\t\t\t\t- Select how requests are sent or print the transport statistics.\n" +
+            "\ttimeout [<Seconds>]\t\t- Set the time budget of each command, 0 for no limit, or print it.\n" +
+            "\tqueue\t\t\t\t- Print the number of requests waiting and in flight by priority.\n");
         parser.printCommandHelp(longVersion, consoleOut);
     }   //printHelpMsg
 
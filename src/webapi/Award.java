@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2017 Titan Robotics Club (http://www.titanrobotics.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package webapi;
+
+import java.util.ArrayList;
+
+import javax.json.stream.JsonParser;
+
+/**
+ * This class represents an award as returned by the award requests. The recipients are kept in two parallel
+ * arrays, an award given to a person has the name of the awardee and the team key if the person is on a team.
+ */
+public class Award
+{
+    public final String name;
+    public final int awardType;
+    public final String eventKey;
+    public final int year;
+    public final String[] teamKeys;
+    public final String[] awardees;
+
+    /**
+     * Constructor: Create an instance of the object.
+     *
+     * @param name specifies the name of the award.
+     * @param awardType specifies the award type as defined by the TBA API.
+     * @param eventKey specifies the key of the event the award was given at.
+     * @param year specifies the year of the award.
+     * @param teamKeys specifies the team key of each recipient, null elements for recipients without a team.
+     * @param awardees specifies the name of each recipient, null elements for awards given to a team.
+     */
+    public Award(String name, int awardType, String eventKey, int year, String[] teamKeys, String[] awardees)
+    {
+        this.name = name;
+        this.awardType = awardType;
+        this.eventKey = eventKey;
+        this.year = year;
+        this.teamKeys = teamKeys;
+        this.awardees = awardees;
+    }   //Award
+
+    /**
+     * This method decodes the award from the JSON object whose START_OBJECT event has just been read.
+     *
+     * @param parser specifies the parser.
+     * @return decoded award.
+     */
+    public static Award decode(JsonParser parser)
+    {
+        String name = null;
+        int awardType = -1;
+        String eventKey = null;
+        int year = 0;
+        ArrayList<String> teamKeys = new ArrayList<>();
+        ArrayList<String> awardees = new ArrayList<>();
+        JsonParser.Event event;
+
+        while ((event = parser.next()) != JsonParser.Event.END_OBJECT)
+        {
+            String field = parser.getString();
+
+            event = parser.next();
+            switch (field)
+            {
+                case "name":
+                    name = ModelDecoder.readKey(parser, event);
+                    break;
+
+                case "award_type":
+                    awardType = ModelDecoder.readInt(parser, event, -1);
+                    break;
+
+                case "event_key":
+                    eventKey = ModelDecoder.readKey(parser, event);
+                    break;
+
+                case "year":
+                    year = ModelDecoder.readInt(parser, event, 0);
+                    break;
+
+                case "recipient_list":
+                    if (event == JsonParser.Event.START_ARRAY)
+                    {
+                        while ((event = parser.next()) != JsonParser.Event.END_ARRAY)
+                        {
+                            decodeRecipient(parser, event, teamKeys, awardees);
+                        }
+                    }
+                    else
+                    {
+                        ModelDecoder.skipValue(parser, event);
+                    }
+                    break;
+
+                default:
+                    ModelDecoder.skipValue(parser, event);
+                    break;
+            }
+        }
+
+        return new Award(
+            name, awardType, eventKey, year, teamKeys.toArray(new String[teamKeys.size()]),
+            awardees.toArray(new String[awardees.size()]));
+    }   //decode
+
+    /**
+     * This method decodes a recipient of the award.
+     *
+     * @param parser specifies the parser.
+     * @param event specifies the first event of the recipient.
+     * @param teamKeys specifies the list to add the team key of the recipient to.
+     * @param awardees specifies the list to add the name of the recipient to.
+     */
+    private static void decodeRecipient(
+        JsonParser parser, JsonParser.Event event, ArrayList<String> teamKeys, ArrayList<String> awardees)
+    {
+        if (event == JsonParser.Event.START_OBJECT)
+        {
+            String teamKey = null;
+            String awardee = null;
+
+            while ((event = parser.next()) != JsonParser.Event.END_OBJECT)
+            {
+                String field = parser.getString();
+
+                event = parser.next();
+                if (field.equals("team_key"))
+                {
+                    teamKey = ModelDecoder.readKey(parser, event);
+                }
+                else if (field.equals("awardee"))
+                {
+                    awardee = ModelDecoder.readString(parser, event);
+                }
+                else
+                {
+                    ModelDecoder.skipValue(parser, event);
+                }
+            }
+            teamKeys.add(teamKey);
+            awardees.add(awardee);
+        }
+        else
+        {
+            ModelDecoder.skipValue(parser, event);
+        }
+    }   //decodeRecipient
+
+    /**
+     * This method returns the string form of the award for display.
+     *
+     * @return string form of the award.
+     */
+    @Override
+    public String toString()
+    {
+        return eventKey + ": " + name;
+    }   //toString
+
+}   //class Award
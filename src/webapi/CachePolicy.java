@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2017 Titan Robotics Club (http://www.titanrobotics.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package webapi;
+
+import java.util.List;
+
+/**
+ * This interface specifies the eviction policy of the in-memory response cache. The policy keeps track of the keys
+ * and weights of the cached entries and decides which entries to evict to stay within its capacity.
+ */
+public interface CachePolicy
+{
+    /**
+     * This method returns the name of the policy.
+     *
+     * @return policy name.
+     */
+    String getName();
+
+    /**
+     * This method returns the capacity of the cache.
+     *
+     * @return capacity in bytes.
+     */
+    long getCapacity();
+
+    /**
+     * This method returns the total weight of the entries currently tracked by the policy.
+     *
+     * @return total weight in bytes.
+     */
+    long getWeightedSize();
+
+    /**
+     * This method records a cache hit on the specified key.
+     *
+     * @param key specifies the key of the entry.
+     */
+    void recordAccess(String key);
+
+    /**
+     * This method records the insertion or replacement of an entry and returns the keys of the entries that must
+     * be evicted to stay within capacity. The returned keys may include the inserted key itself if the policy
+     * declines to admit it.
+     *
+     * @param key specifies the key of the entry.
+     * @param weight specifies the weight of the entry in bytes.
+     * @return keys of the entries to be evicted, empty if none.
+     */
+    List<String> recordInsert(String key, long weight);
+
+    /**
+     * This method records the removal of an entry that was not evicted by the policy.
+     *
+     * @param key specifies the key of the entry.
+     */
+    void recordRemove(String key);
+
+    /**
+     * This method forgets all entries.
+     */
+    void clear();
+
+}   //interface CachePolicy
@@ -0,0 +1,475 @@
+/*
+ * Copyright (c) 2017 Titan Robotics Club (http://www.titanrobotics.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package webapi;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class implements a pool of credentials, such as the API keys of several registered apps, that take turns
+ * authenticating the requests. Each credential has its own token bucket so that the requests sent with it stay
+ * within the rate allowed for one key, while the aggregate rate grows with the number of keys. A credential that
+ * the web server rejects (401) or throttles (429) is quarantined for a while and the request is sent again right
+ * away with another credential, so the request scheduler only sees the failure when no other credential is left.
+ */
+public class CredentialPool
+{
+    /**
+     * Specifies how the credential of a request is chosen among the available ones.
+     */
+    public enum Selection
+    {
+        ROUND_ROBIN,
+        LEAST_LOADED
+    }   //enum Selection
+
+    private static final long REJECTED_QUARANTINE = 60*60*1000L;
+    private static final long BASE_THROTTLED_QUARANTINE = 1000;
+    private static final long MAX_THROTTLED_QUARANTINE = 5*60*1000L;
+    private static final long CONTEXT_POLL_INTERVAL = 100;
+
+    /**
+     * This class keeps the throttling state of one credential.
+     */
+    private static class Credential
+    {
+        final String value;
+        double tokens;
+        long lastRefillTime;
+        int numInFlight = 0;
+        int numStrikes = 0;
+        long quarantinedUntil = 0;
+
+        /**
+         * Constructor: Create an instance of the object.
+         *
+         * @param value specifies the credential sent in the request header.
+         * @param burst specifies the number of tokens the bucket starts with.
+         */
+        Credential(String value, double burst)
+        {
+            this.value = value;
+            this.tokens = burst;
+            this.lastRefillTime = System.nanoTime();
+        }   //Credential
+
+    }   //class Credential
+
+    /**
+     * This class implements the transport that sends the requests of another transport with the credentials of
+     * the pool.
+     */
+    private class PooledCredentialTransport implements HttpTransport
+    {
+        private final HttpTransport transport;
+
+        /**
+         * Constructor: Create an instance of the object.
+         *
+         * @param transport specifies the transport that sends the requests.
+         */
+        PooledCredentialTransport(HttpTransport transport)
+        {
+            this.transport = transport;
+        }   //PooledCredentialTransport
+
+        //
+        // Implements the HttpTransport interface.
+        //
+
+        /**
+         * This method returns the name of the transport.
+         *
+         * @return transport name.
+         */
+        @Override
+        public String getName()
+        {
+            return transport.getName();
+        }   //getName
+
+        /**
+         * This method sends a GET request to the web server and returns its response.
+         *
+         * @param url specifies the request URL.
+         * @param requestHeaders specifies the request headers.
+         * @return response of the web server.
+         * @throws IOException when the web server could not be reached.
+         */
+        @Override
+        public HttpResponse send(URL url, Map<String, String> requestHeaders) throws IOException
+        {
+            return CredentialPool.this.send(transport, url, requestHeaders);
+        }   //send
+
+        /**
+         * This method does nothing, the underlying transport is closed by its owner.
+         */
+        @Override
+        public void close()
+        {
+        }   //close
+
+    }   //class PooledCredentialTransport
+
+    private final String headerName;
+    private final double rate;
+    private final double burst;
+    private final Selection selection;
+    private final ArrayList<Credential> credentials = new ArrayList<>();
+    private int nextIndex = 0;
+    private long quarantineCount = 0;
+    private long failoverCount = 0;
+
+    /**
+     * Constructor: Create an instance of the object.
+     *
+     * @param headerName specifies the request header carrying the credential.
+     * @param values specifies the credentials.
+     * @param rate specifies the number of requests per second allowed for each credential.
+     * @param burst specifies the number of requests each credential can send at once after being idle.
+     * @param selection specifies how the credential of a request is chosen.
+     * @throws IllegalArgumentException when no credential is specified.
+     */
+    public CredentialPool(String headerName, List<String> values, double rate, int burst, Selection selection)
+        throws IllegalArgumentException
+    {
+        if (values.isEmpty())
+        {
+            throw new IllegalArgumentException("Credential pool needs at least one credential.");
+        }
+
+        this.headerName = headerName;
+        this.rate = rate;
+        this.burst = burst;
+        this.selection = selection;
+        for (String value: values)
+        {
+            credentials.add(new Credential(value, burst));
+        }
+    }   //CredentialPool
+
+    /**
+     * This method parses a list of credentials separated by commas or white space. Lines starting with '#' are
+     * comments.
+     *
+     * @param text specifies the list of credentials.
+     * @return credentials.
+     */
+    public static List<String> parseCredentials(String text)
+    {
+        ArrayList<String> values = new ArrayList<>();
+
+        for (String line: text.split("\\r?\\n"))
+        {
+            if (!line.trim().startsWith("#"))
+            {
+                for (String value: line.split("[,\\s]+"))
+                {
+                    if (!value.isEmpty())
+                    {
+                        values.add(value);
+                    }
+                }
+            }
+        }
+
+        return values;
+    }   //parseCredentials
+
+    /**
+     * This method reads a list of credentials from the specified file.
+     *
+     * @param file specifies the file listing the credentials, see parseCredentials for the format.
+     * @return credentials.
+     * @throws IOException when the file cannot be read.
+     */
+    public static List<String> loadCredentials(File file) throws IOException
+    {
+        return parseCredentials(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+    }   //loadCredentials
+
+    /**
+     * This method returns a transport that sends the requests on the specified transport with the credentials of
+     * the pool.
+     *
+     * @param transport specifies the transport that sends the requests.
+     * @return transport adding the credentials.
+     */
+    public HttpTransport bind(HttpTransport transport)
+    {
+        return new PooledCredentialTransport(transport);
+    }   //bind
+
+    /**
+     * This method returns the number of credentials in the pool.
+     *
+     * @return number of credentials.
+     */
+    public int getSize()
+    {
+        return credentials.size();
+    }   //getSize
+
+    /**
+     * This method returns the number of credentials not currently quarantined.
+     *
+     * @return number of available credentials.
+     */
+    public synchronized int getAvailableCount()
+    {
+        long now = System.currentTimeMillis();
+        int count = 0;
+
+        for (Credential credential: credentials)
+        {
+            if (credential.quarantinedUntil <= now)
+            {
+                count++;
+            }
+        }
+
+        return count;
+    }   //getAvailableCount
+
+    /**
+     * This method returns the number of times a credential was quarantined.
+     *
+     * @return number of quarantines.
+     */
+    public synchronized long getQuarantineCount()
+    {
+        return quarantineCount;
+    }   //getQuarantineCount
+
+    /**
+     * This method returns the number of requests sent again with another credential after being rejected or
+     * throttled.
+     *
+     * @return number of failovers.
+     */
+    public synchronized long getFailoverCount()
+    {
+        return failoverCount;
+    }   //getFailoverCount
+
+    /**
+     * This method sends the request on the specified transport with a credential of the pool. If the credential
+     * is rejected or throttled, the request is sent again with another available credential, trying each
+     * credential at most once.
+     *
+     * @param transport specifies the transport that sends the request.
+     * @param url specifies the request URL.
+     * @param requestHeaders specifies the request headers.
+     * @return response of the web server, the last one if all credentials were rejected or throttled.
+     * @throws IOException when the web server could not be reached.
+     */
+    private HttpResponse send(HttpTransport transport, URL url, Map<String, String> requestHeaders)
+        throws IOException
+    {
+        HttpResponse response = null;
+
+        for (int attempt = 1; response == null; attempt++)
+        {
+            Credential credential = acquire();
+            LinkedHashMap<String, String> headers = new LinkedHashMap<>(requestHeaders);
+
+            headers.put(headerName, credential.value);
+            try
+            {
+                response = transport.send(url, headers);
+            }
+            finally
+            {
+                release(credential, response);
+            }
+
+            int statusCode = response.getStatusCode();
+            if ((statusCode == 401 || statusCode == 429) && attempt < credentials.size() && getAvailableCount() > 0)
+            {
+                synchronized (this)
+                {
+                    failoverCount++;
+                }
+                response = null;
+            }
+        }
+
+        return response;
+    }   //send
+
+    /**
+     * This method waits until a credential that is not quarantined has a token in its bucket and takes it. If all
+     * credentials are quarantined, the one whose quarantine ends first is used anyway: the request scheduler then
+     * backs off on the response of the web server, rather than the request waiting here for up to an hour.
+     *
+     * @return credential to send the request with.
+     * @throws RequestCancelledException when the request context is done before a credential is available.
+     */
+    private synchronized Credential acquire()
+    {
+        RequestContext context = RequestContext.current();
+        boolean interrupted = false;
+        int selectedIndex = -1;
+
+        while (selectedIndex == -1)
+        {
+            if (context != null && context.isDone())
+            {
+                if (interrupted)
+                {
+                    Thread.currentThread().interrupt();
+                }
+                throw context.getException();
+            }
+
+            long now = System.currentTimeMillis();
+            long nanoNow = System.nanoTime();
+            int earliestIndex = -1;
+            boolean available = false;
+            long waitTime = Long.MAX_VALUE;
+
+            for (int i = 0; i < credentials.size(); i++)
+            {
+                int index = (nextIndex + i) % credentials.size();
+                Credential credential = credentials.get(index);
+
+                credential.tokens = Math.min(
+                    burst, credential.tokens + (nanoNow - credential.lastRefillTime)*rate/1e9);
+                credential.lastRefillTime = nanoNow;
+
+                if (credential.quarantinedUntil > now)
+                {
+                    if (earliestIndex == -1 ||
+                        credential.quarantinedUntil < credentials.get(earliestIndex).quarantinedUntil)
+                    {
+                        earliestIndex = index;
+                    }
+                }
+                else if (credential.tokens < 1.0)
+                {
+                    available = true;
+                    waitTime = Math.min(waitTime, Math.max(1, (long)Math.ceil((1.0 - credential.tokens)*1000/rate)));
+                }
+                else
+                {
+                    //
+                    // Round robin takes the first credential after the last one used. Least loaded takes the one
+                    // with the fewest requests in flight, breaking ties the same way.
+                    //
+                    available = true;
+                    if (selectedIndex == -1 ||
+                        selection == Selection.LEAST_LOADED &&
+                        credential.numInFlight < credentials.get(selectedIndex).numInFlight)
+                    {
+                        selectedIndex = index;
+                    }
+                }
+            }
+
+            if (!available)
+            {
+                selectedIndex = earliestIndex;
+            }
+            else if (selectedIndex == -1)
+            {
+                if (context != null)
+                {
+                    waitTime = Math.min(waitTime, CONTEXT_POLL_INTERVAL);
+                }
+
+                try
+                {
+                    wait(waitTime);
+                }
+                catch (InterruptedException e)
+                {
+                    interrupted = true;
+                }
+            }
+        }
+
+        Credential credential = credentials.get(selectedIndex);
+        credential.tokens -= 1.0;
+        credential.numInFlight++;
+        nextIndex = (selectedIndex + 1) % credentials.size();
+
+        if (interrupted)
+        {
+            Thread.currentThread().interrupt();
+        }
+
+        return credential;
+    }   //acquire
+
+    /**
+     * This method records the completion of a request and quarantines its credential if the web server rejected
+     * or throttled it. A rejected credential is quarantined for an hour. A throttled credential is quarantined for
+     * as long as the web server asked, or for a time that doubles with every consecutive throttled request.
+     *
+     * @param credential specifies the credential the request was sent with.
+     * @param response specifies the response of the web server, null if it could not be reached.
+     */
+    private synchronized void release(Credential credential, HttpResponse response)
+    {
+        credential.numInFlight--;
+
+        if (response != null)
+        {
+            int statusCode = response.getStatusCode();
+            long quarantine = 0;
+
+            if (statusCode == 401)
+            {
+                quarantine = REJECTED_QUARANTINE;
+            }
+            else if (statusCode == 429)
+            {
+                long backoff = BASE_THROTTLED_QUARANTINE << Math.min(credential.numStrikes, 16);
+
+                credential.numStrikes++;
+                quarantine = Math.min(MAX_THROTTLED_QUARANTINE, Math.max(response.getRetryAfter(), backoff));
+            }
+            else if (statusCode < 400)
+            {
+                credential.numStrikes = 0;
+            }
+
+            if (quarantine > 0)
+            {
+                credential.quarantinedUntil = System.currentTimeMillis() + quarantine;
+                quarantineCount++;
+            }
+        }
+
+        notifyAll();
+    }   //release
+
+}   //class CredentialPool
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2017 Titan Robotics Club (http://www.titanrobotics.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package webapi;
+
+import javax.json.stream.JsonParser;
+
+/**
+ * This class represents a district as returned by the district requests.
+ */
+public class District
+{
+    public final String key;
+    public final String abbreviation;
+    public final String displayName;
+    public final int year;
+
+    /**
+     * Constructor: Create an instance of the object.
+     *
+     * @param key specifies the district key, such as "2018pnw".
+     * @param abbreviation specifies the district abbreviation, such as "pnw".
+     * @param displayName specifies the display name of the district.
+     * @param year specifies the year of the district.
+     */
+    public District(String key, String abbreviation, String displayName, int year)
+    {
+        this.key = key;
+        this.abbreviation = abbreviation;
+        this.displayName = displayName;
+        this.year = year;
+    }   //District
+
+    /**
+     * This method decodes the district from the JSON object whose START_OBJECT event has just been read.
+     *
+     * @param parser specifies the parser.
+     * @return decoded district.
+     */
+    public static District decode(JsonParser parser)
+    {
+        String key = null;
+        String abbreviation = null;
+        String displayName = null;
+        int year = 0;
+        JsonParser.Event event;
+
+        while ((event = parser.next()) != JsonParser.Event.END_OBJECT)
+        {
+            String field = parser.getString();
+
+            event = parser.next();
+            switch (field)
+            {
+                case "key":
+                    key = ModelDecoder.readKey(parser, event);
+                    break;
+
+                case "abbreviation":
+                    abbreviation = ModelDecoder.readKey(parser, event);
+                    break;
+
+                case "display_name":
+                    displayName = ModelDecoder.readKey(parser, event);
+                    break;
+
+                case "year":
+                    year = ModelDecoder.readInt(parser, event, 0);
+                    break;
+
+                default:
+                    ModelDecoder.skipValue(parser, event);
+                    break;
+            }
+        }
+
+        return new District(key, abbreviation, displayName, year);
+    }   //decode
+
+    /**
+     * This method returns the string form of the district for display.
+     *
+     * @return string form of the district.
+     */
+    @Override
+    public String toString()
+    {
+        return key + ": " + displayName;
+    }   //toString
+
+}   //class District
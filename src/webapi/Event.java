@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2017 Titan Robotics Club (http://www.titanrobotics.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package webapi;
+
+import javax.json.stream.JsonParser;
+
+/**
+ * This class represents an event as returned by the event requests. It is decoded from either the simple or the
+ * full event data, fields not present in the data are null, 0 or -1 as documented.
+ */
+public class Event
+{
+    public final String key;
+    public final String name;
+    public final String eventCode;
+    public final int eventType;
+    public final String districtKey;
+    public final String city;
+    public final String stateProv;
+    public final String country;
+    public final String startDate;
+    public final String endDate;
+    public final int year;
+    public final int week;
+
+    /**
+     * Constructor: Create an instance of the object.
+     *
+     * @param key specifies the event key, such as "2018wasno".
+     * @param name specifies the official name of the event.
+     * @param eventCode specifies the event code, the event key without the year.
+     * @param eventType specifies the event type as defined by the TBA API.
+     * @param districtKey specifies the key of the district of the event, null if none.
+     * @param city specifies the city of the event.
+     * @param stateProv specifies the state or province of the event.
+     * @param country specifies the country of the event.
+     * @param startDate specifies the start date of the event as yyyy-mm-dd.
+     * @param endDate specifies the end date of the event as yyyy-mm-dd.
+     * @param year specifies the year of the event.
+     * @param week specifies the week of the event starting at 0, -1 if unknown or not a regular season event.
+     */
+    public Event(
+        String key, String name, String eventCode, int eventType, String districtKey, String city, String stateProv,
+        String country, String startDate, String endDate, int year, int week)
+    {
+        this.key = key;
+        this.name = name;
+        this.eventCode = eventCode;
+        this.eventType = eventType;
+        this.districtKey = districtKey;
+        this.city = city;
+        this.stateProv = stateProv;
+        this.country = country;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.year = year;
+        this.week = week;
+    }   //Event
+
+    /**
+     * This method decodes the event from the JSON object whose START_OBJECT event has just been read. Only the
+     * key of the district object is kept.
+     *
+     * @param parser specifies the parser.
+     * @return decoded event.
+     */
+    public static Event decode(JsonParser parser)
+    {
+        String key = null;
+        String name = null;
+        String eventCode = null;
+        int eventType = -1;
+        String districtKey = null;
+        String city = null;
+        String stateProv = null;
+        String country = null;
+        String startDate = null;
+        String endDate = null;
+        int year = 0;
+        int week = -1;
+        JsonParser.Event event;
+
+        while ((event = parser.next()) != JsonParser.Event.END_OBJECT)
+        {
+            String field = parser.getString();
+
+            event = parser.next();
+            switch (field)
+            {
+                case "key":
+                    key = ModelDecoder.readKey(parser, event);
+                    break;
+
+                case "name":
+                    name = ModelDecoder.readString(parser, event);
+                    break;
+
+                case "event_code":
+                    eventCode = ModelDecoder.readString(parser, event);
+                    break;
+
+                case "event_type":
+                    eventType = ModelDecoder.readInt(parser, event, -1);
+                    break;
+
+                case "district":
+                    if (event == JsonParser.Event.START_OBJECT)
+                    {
+                        districtKey = District.decode(parser).key;
+                    }
+                    else
+                    {
+                        ModelDecoder.skipValue(parser, event);
+                    }
+                    break;
+
+                case "city":
+                    city = ModelDecoder.readKey(parser, event);
+                    break;
+
+                case "state_prov":
+                    stateProv = ModelDecoder.readKey(parser, event);
+                    break;
+
+                case "country":
+                    country = ModelDecoder.readKey(parser, event);
+                    break;
+
+                case "start_date":
+                    startDate = ModelDecoder.readKey(parser, event);
+                    break;
+
+                case "end_date":
+                    endDate = ModelDecoder.readKey(parser, event);
+                    break;
+
+                case "year":
+                    year = ModelDecoder.readInt(parser, event, 0);
+                    break;
+
+                case "week":
+                    week = ModelDecoder.readInt(parser, event, -1);
+                    break;
+
+                default:
+                    ModelDecoder.skipValue(parser, event);
+                    break;
+            }
+        }
+
+        return new Event(
+            key, name, eventCode, eventType, districtKey, city, stateProv, country, startDate, endDate, year, week);
+    }   //decode
+
+    /**
+     * This method returns the string form of the event for display.
+     *
+     * @return string form of the event.
+     */
+    @Override
+    public String toString()
+    {
+        return key + ": " + name;
+    }   //toString
+
+}   //class Event
@@ -0,0 +1,234 @@
+/*
+ * Copyright (c) 2017 Titan Robotics Club (http://www.titanrobotics.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package webapi;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * This class represents the response of the web server to an HTTP request. Header names are case insensitive.
+ */
+public class HttpResponse
+{
+    private final int statusCode;
+    private final String message;
+    private final TreeMap<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private final byte[] body;
+
+    /**
+     * Constructor: Create an instance of the object.
+     *
+     * @param statusCode specifies the HTTP status code.
+     * @param message specifies the status message.
+     * @param headers specifies the response headers.
+     * @param body specifies the response body, empty if none.
+     */
+    public HttpResponse(int statusCode, String message, Map<String, String> headers, byte[] body)
+    {
+        this.statusCode = statusCode;
+        this.message = message;
+        this.headers.putAll(headers);
+        this.body = body;
+    }   //HttpResponse
+
+    /**
+     * This method returns the HTTP status code.
+     *
+     * @return status code.
+     */
+    public int getStatusCode()
+    {
+        return statusCode;
+    }   //getStatusCode
+
+    /**
+     * This method returns the status message.
+     *
+     * @return status message.
+     */
+    public String getMessage()
+    {
+        return message;
+    }   //getMessage
+
+    /**
+     * This method returns the response headers.
+     *
+     * @return unmodifiable map of the response headers.
+     */
+    public Map<String, String> getHeaders()
+    {
+        return Collections.unmodifiableMap(headers);
+    }   //getHeaders
+
+    /**
+     * This method returns the value of the specified header.
+     *
+     * @param name specifies the header name.
+     * @return header value, null if the header is absent.
+     */
+    public String getHeader(String name)
+    {
+        return headers.get(name);
+    }   //getHeader
+
+    /**
+     * This method returns the value of the specified header as an integer.
+     *
+     * @param name specifies the header name.
+     * @param defaultValue specifies the value to return if the header is absent or not an integer.
+     * @return header value.
+     */
+    public int getIntHeader(String name, int defaultValue)
+    {
+        String value = headers.get(name);
+        int result = defaultValue;
+
+        if (value != null)
+        {
+            try
+            {
+                result = Integer.parseInt(value.trim());
+            }
+            catch (NumberFormatException e)
+            {
+                result = defaultValue;
+            }
+        }
+
+        return result;
+    }   //getIntHeader
+
+    /**
+     * This method returns the value of the specified header as a time.
+     *
+     * @param name specifies the header name.
+     * @return time in milliseconds since the epoch, zero if the header is absent or not a valid HTTP date.
+     */
+    public long getDateHeader(String name)
+    {
+        String value = headers.get(name);
+
+        return value != null? parseDate(value): 0;
+    }   //getDateHeader
+
+    /**
+     * This method returns the time the web server asked to wait before sending another request, given in the
+     * Retry-After header either in seconds or as an HTTP date.
+     *
+     * @return time to wait in milliseconds, zero if none.
+     */
+    public long getRetryAfter()
+    {
+        String value = headers.get("Retry-After");
+        long delay = 0;
+
+        if (value != null)
+        {
+            try
+            {
+                delay = Long.parseLong(value.trim())*1000;
+            }
+            catch (NumberFormatException e)
+            {
+                long retryTime = parseDate(value);
+                delay = retryTime != 0? retryTime - System.currentTimeMillis(): 0;
+            }
+        }
+
+        return Math.max(0, delay);
+    }   //getRetryAfter
+
+    /**
+     * This method returns the response body.
+     *
+     * @return response body, empty if none.
+     */
+    public byte[] getBody()
+    {
+        return body;
+    }   //getBody
+
+    /**
+     * This method formats the specified time as an HTTP date.
+     *
+     * @param time specifies the time in milliseconds since the epoch.
+     * @return HTTP date.
+     */
+    public static String formatDate(long time)
+    {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(Instant.ofEpochMilli(time).atOffset(ZoneOffset.UTC));
+    }   //formatDate
+
+    /**
+     * This method parses the specified HTTP date.
+     *
+     * @param date specifies the HTTP date.
+     * @return time in milliseconds since the epoch, zero if the date is not valid.
+     */
+    public static long parseDate(String date)
+    {
+        long time;
+
+        try
+        {
+            time = DateTimeFormatter.RFC_1123_DATE_TIME.parse(date.trim(), Instant::from).toEpochMilli();
+        }
+        catch (DateTimeParseException e)
+        {
+            time = 0;
+        }
+
+        return time;
+    }   //parseDate
+
+    /**
+     * This method reads the input stream to the end.
+     *
+     * @param is specifies the input stream.
+     * @return bytes read.
+     * @throws IOException when the read failed.
+     */
+    static byte[] readBody(InputStream is) throws IOException
+    {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int len;
+
+        while ((len = is.read(buffer)) != -1)
+        {
+            body.write(buffer, 0, len);
+        }
+
+        return body.toByteArray();
+    }   //readBody
+
+}   //class HttpResponse
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2017 Titan Robotics Club (http://www.titanrobotics.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package webapi;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.Map;
+
+/**
+ * This interface specifies the transport that sends the HTTP requests to the web server. The transport decides how
+ * connections are opened and whether they are reused between requests.
+ */
+public interface HttpTransport
+{
+    /**
+     * This method returns the name of the transport.
+     *
+     * @return transport name.
+     */
+    String getName();
+
+    /**
+     * This method sends a GET request to the web server and returns its response. The response body is read
+     * completely before the method returns.
+     *
+     * @param url specifies the request URL.
+     * @param requestHeaders specifies the request headers.
+     * @return response of the web server.
+     * @throws IOException when the web server could not be reached or the connection failed.
+     */
+    HttpResponse send(URL url, Map<String, String> requestHeaders) throws IOException;
+
+    /**
+     * This method closes the connections kept open by the transport.
+     */
+    void close();
+
+}   //interface HttpTransport
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2017 Titan Robotics Club (http://www.titanrobotics.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package webapi;
+
+import java.io.InputStream;
+
+import javax.json.JsonStructure;
+import javax.json.stream.JsonParsingException;
+
+/**
+ * This interface specifies a consumer of the replied JSON data that takes the data in place of the caller of the
+ * request. The data is either already parsed, if it was found parsed in the cache, or a stream of JSON text the
+ * consumer parses itself, so it can process the data without the JSON structure ever being built.
+ */
+public interface JsonConsumer
+{
+    /**
+     * This method consumes the parsed JSON data.
+     *
+     * @param data specifies the JSON structure.
+     */
+    void accept(JsonStructure data);
+
+    /**
+     * This method consumes the JSON data read from the input stream.
+     *
+     * @param is specifies the input stream of the JSON text.
+     * @throws JsonParsingException when the JSON text is invalid.
+     */
+    void accept(InputStream is) throws JsonParsingException;
+
+}   //interface JsonConsumer
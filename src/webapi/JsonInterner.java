@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2017 Titan Robotics Club (http://www.titanrobotics.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package webapi;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonBuilderFactory;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonStructure;
+import javax.json.JsonValue;
+
+/**
+ * This class deduplicates JSON objects and arrays by content. Parsed JSON data is passed through the interner so
+ * that every object or array equal to one seen before is replaced by the same shared instance. This lets the
+ * cached responses of different requests, such as the team lists of an event and of its district, share the
+ * objects they have in common. The shared instances are only weakly referenced and are forgotten once no cached
+ * response uses them.
+ */
+public class JsonInterner
+{
+    private final JsonBuilderFactory builderFactory = Json.createBuilderFactory(null);
+    private final WeakHashMap<JsonValue, WeakReference<JsonValue>> canonicalValues = new WeakHashMap<>();
+    private long internCount = 0;
+    private long hitCount = 0;
+
+    /**
+     * This method returns the deduplicated equivalent of the specified JSON data.
+     *
+     * @param data specifies the JSON data.
+     * @return JSON data equal to the specified data, sharing objects and arrays seen before.
+     */
+    public synchronized JsonStructure intern(JsonStructure data)
+    {
+        return (JsonStructure)internValue(data);
+    }   //intern
+
+    /**
+     * This method returns the number of objects and arrays currently shared by the interner.
+     *
+     * @return number of shared objects and arrays.
+     */
+    public synchronized int getSize()
+    {
+        return canonicalValues.size();
+    }   //getSize
+
+    /**
+     * This method returns the number of objects and arrays passed through the interner.
+     *
+     * @return number of interned objects and arrays.
+     */
+    public synchronized long getInternCount()
+    {
+        return internCount;
+    }   //getInternCount
+
+    /**
+     * This method returns the number of objects and arrays that were replaced by a shared instance.
+     *
+     * @return number of deduplicated objects and arrays.
+     */
+    public synchronized long getHitCount()
+    {
+        return hitCount;
+    }   //getHitCount
+
+    /**
+     * This method deduplicates the JSON value bottom up. The members of an object or the elements of an array are
+     * deduplicated first, then the object or array itself is looked up by content.
+     *
+     * @param value specifies the JSON value.
+     * @return deduplicated JSON value.
+     */
+    private JsonValue internValue(JsonValue value)
+    {
+        JsonValue result;
+
+        switch (value.getValueType())
+        {
+            case OBJECT:
+                result = lookup(internMembers((JsonObject)value));
+                break;
+
+            case ARRAY:
+                result = lookup(internElements((JsonArray)value));
+                break;
+
+            default:
+                //
+                // Strings, numbers and constants are small, they are not worth deduplicating on their own.
+                //
+                result = value;
+                break;
+        }
+
+        return result;
+    }   //internValue
+
+    /**
+     * This method deduplicates the members of the JSON object. The object is rebuilt only if some members were
+     * replaced by shared instances.
+     *
+     * @param obj specifies the JSON object.
+     * @return JSON object with deduplicated members.
+     */
+    private JsonObject internMembers(JsonObject obj)
+    {
+        ArrayList<JsonValue> members = new ArrayList<>(obj.size());
+        boolean changed = false;
+
+        for (JsonValue member: obj.values())
+        {
+            JsonValue interned = internValue(member);
+            members.add(interned);
+            changed |= interned != member;
+        }
+
+        if (changed)
+        {
+            JsonObjectBuilder builder = builderFactory.createObjectBuilder();
+            int i = 0;
+
+            for (Map.Entry<String, JsonValue> entry: obj.entrySet())
+            {
+                builder.add(entry.getKey(), members.get(i++));
+            }
+            obj = builder.build();
+        }
+
+        return obj;
+    }   //internMembers
+
+    /**
+     * This method deduplicates the elements of the JSON array. The array is rebuilt only if some elements were
+     * replaced by shared instances.
+     *
+     * @param array specifies the JSON array.
+     * @return JSON array with deduplicated elements.
+     */
+    private JsonArray internElements(JsonArray array)
+    {
+        ArrayList<JsonValue> elements = new ArrayList<>(array.size());
+        boolean changed = false;
+
+        for (JsonValue element: array)
+        {
+            JsonValue interned = internValue(element);
+            elements.add(interned);
+            changed |= interned != element;
+        }
+
+        if (changed)
+        {
+            JsonArrayBuilder builder = builderFactory.createArrayBuilder();
+
+            for (JsonValue element: elements)
+            {
+                builder.add(element);
+            }
+            array = builder.build();
+        }
+
+        return array;
+    }   //internElements
+
+    /**
+     * This method returns the shared instance equal to the specified value, making the value the shared instance
+     * if there is none.
+     *
+     * @param value specifies the JSON object or array.
+     * @return shared instance.
+     */
+    private JsonValue lookup(JsonValue value)
+    {
+        WeakReference<JsonValue> ref = canonicalValues.get(value);
+        JsonValue canonical = ref != null? ref.get(): null;
+
+        internCount++;
+        if (canonical != null)
+        {
+            hitCount++;
+        }
+        else
+        {
+            canonicalValues.put(value, new WeakReference<>(value));
+            canonical = value;
+        }
+
+        return canonical;
+    }   //lookup
+
+}   //class JsonInterner
@@ -0,0 +1,731 @@
+/*
+ * Copyright (c) 2017 Titan Robotics Club (http://www.titanrobotics.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package webapi;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.Map;
+
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonNumber;
+import javax.json.JsonObject;
+import javax.json.JsonString;
+import javax.json.JsonStructure;
+import javax.json.JsonValue;
+import javax.json.stream.JsonParser;
+import javax.json.stream.JsonParsingException;
+
+/**
+ * This class prints JSON data as an indented outline with one value per line. If key1 is provided, each JSON
+ * object is printed on a single line with only the values of key1 and optionally key2. The data is either a
+ * parsed JSON structure or a stream of JSON text. A stream is printed token by token as it is parsed, without
+ * ever building the JSON structure, so printing starts right away and the memory used does not grow with the size
+ * of the data. Both produce exactly the same output. The output is rendered into a reusable buffer and written to
+ * the channel in large chunks, so printing a large dump costs little more than writing its bytes.
+ */
+public class JsonPrinter implements JsonConsumer
+{
+    private static final int FLUSH_SIZE = 64*1024;
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+    private static final String INDENTATION = "    ";
+    private static final String[] indentations = new String[16];
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    static
+    {
+        indentations[0] = "";
+        for (int i = 1; i < indentations.length; i++)
+        {
+            indentations[i] = indentations[i - 1] + INDENTATION;
+        }
+    }
+
+    private final WritableByteChannel channel;
+    private final CharsetEncoder encoder;
+    private final String key1;
+    private final String key2;
+    private final StringBuilder buffer = new StringBuilder();
+    private char[] chars = new char[0];
+    private ByteBuffer bytes = null;
+    private boolean printed = false;
+
+    /**
+     * Constructor: Create an instance of the object. The output is encoded with the default charset, the same as
+     * the print stream encodes the text printed to it.
+     *
+     * @param dataOut specifies the output print stream for the data.
+     * @param key1 specifies the first key, null to print all the nested structures.
+     * @param key2 specifies the second key, null if none.
+     */
+    public JsonPrinter(PrintStream dataOut, String key1, String key2)
+    {
+        this(Channels.newChannel(dataOut), Charset.defaultCharset(), key1, key2);
+    }   //JsonPrinter
+
+    /**
+     * Constructor: Create an instance of the object. Characters that can't be encoded with the charset are
+     * replaced, like a print stream does.
+     *
+     * @param channel specifies the output channel for the data.
+     * @param charset specifies the charset to encode the output with.
+     * @param key1 specifies the first key, null to print all the nested structures.
+     * @param key2 specifies the second key, null if none.
+     */
+    public JsonPrinter(WritableByteChannel channel, Charset charset, String key1, String key2)
+    {
+        this.channel = channel;
+        this.encoder = charset.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.key1 = key1;
+        this.key2 = key2;
+    }   //JsonPrinter
+
+    /**
+     * This method prints the JSON structure.
+     *
+     * @param data specifies the JSON structure.
+     */
+    public void print(JsonStructure data)
+    {
+        try
+        {
+            printValue(null, data, 0);
+        }
+        finally
+        {
+            flush();
+        }
+        printed = true;
+    }   //print
+
+    /**
+     * This method prints the JSON data read from the input stream as it is parsed. If the JSON text turns out to
+     * be invalid, whatever was parsed before the error has already been printed.
+     *
+     * @param is specifies the input stream of the JSON text.
+     * @throws JsonParsingException when the JSON text is invalid.
+     */
+    public void print(InputStream is) throws JsonParsingException
+    {
+        try (JsonParser parser = Json.createParser(is))
+        {
+            if (!parser.hasNext())
+            {
+                throw new JsonParsingException("No JSON data.", parser.getLocation());
+            }
+            printValue(parser, parser.next(), null, 0);
+        }
+        finally
+        {
+            flush();
+        }
+        printed = true;
+    }   //print
+
+    //
+    // Implements the JsonConsumer interface.
+    //
+
+    /**
+     * This method consumes the parsed JSON data by printing it.
+     *
+     * @param data specifies the JSON structure.
+     */
+    @Override
+    public void accept(JsonStructure data)
+    {
+        print(data);
+    }   //accept
+
+    /**
+     * This method consumes the JSON data read from the input stream by printing it as it is parsed.
+     *
+     * @param is specifies the input stream of the JSON text.
+     * @throws JsonParsingException when the JSON text is invalid.
+     */
+    @Override
+    public void accept(InputStream is) throws JsonParsingException
+    {
+        print(is);
+    }   //accept
+
+    /**
+     * This method starts printing a JSON array whose elements are printed one at a time as they become available.
+     * The array must be finished by calling endArray.
+     */
+    public void beginArray()
+    {
+        buffer.append('[');
+        newLine();
+    }   //beginArray
+
+    /**
+     * This method prints an element of the JSON array started by beginArray. The element may stay buffered until
+     * flush or endArray is called.
+     *
+     * @param element specifies the JSON value of the element.
+     */
+    public void printElement(JsonValue element)
+    {
+        printValue(null, element, 1);
+    }   //printElement
+
+    /**
+     * This method finishes printing the JSON array started by beginArray. The output is the same as printing the
+     * whole array at once.
+     */
+    public void endArray()
+    {
+        buffer.append(']');
+        newLine();
+        flush();
+        printed = true;
+    }   //endArray
+
+    /**
+     * This method checks if JSON data has been printed completely by this printer.
+     *
+     * @return true if data has been printed, false otherwise.
+     */
+    public boolean hasPrinted()
+    {
+        return printed;
+    }   //hasPrinted
+
+    /**
+     * This method writes out the buffered output. Output is only buffered between the lines, so the data printed
+     * so far is complete up to the last line.
+     *
+     * @throws RuntimeException when the output channel failed.
+     */
+    public void flush() throws RuntimeException
+    {
+        int length = buffer.length();
+
+        if (length > 0)
+        {
+            if (chars.length < length)
+            {
+                chars = new char[Math.max(length, FLUSH_SIZE + FLUSH_SIZE/4)];
+            }
+            if (bytes == null)
+            {
+                bytes = ByteBuffer.allocate((int)(FLUSH_SIZE*encoder.averageBytesPerChar()) + 16);
+            }
+            buffer.getChars(0, length, chars, 0);
+            buffer.setLength(0);
+
+            CharBuffer in = CharBuffer.wrap(chars, 0, length);
+            CoderResult result;
+
+            try
+            {
+                encoder.reset();
+                do
+                {
+                    result = encoder.encode(in, bytes, true);
+                    if (result.isOverflow())
+                    {
+                        writeBytes();
+                    }
+                } while (result.isOverflow());
+
+                while (encoder.flush(bytes).isOverflow())
+                {
+                    writeBytes();
+                }
+                writeBytes();
+            }
+            catch (IOException e)
+            {
+                throw new RuntimeException("Failed to write data: " + e.getMessage(), e);
+            }
+        }
+    }   //flush
+
+    /**
+     * This method writes the encoded bytes to the output channel.
+     *
+     * @throws IOException when the output channel failed.
+     */
+    private void writeBytes() throws IOException
+    {
+        bytes.flip();
+        while (bytes.hasRemaining())
+        {
+            channel.write(bytes);
+        }
+        bytes.clear();
+    }   //writeBytes
+
+    /**
+     * This method prints the value of the JSON data. If the value is a JSON object and key1 is provided, it will
+     * only print the values of key1 and optionally key2. If key1 is null, it will recurse into the JSON object
+     * and print all the nested structures.
+     *
+     * @param key specifies the key string of the JSON object, can be null if no associated key.
+     * @param value specifies the JSON value.
+     * @param level specifies the indentation level.
+     */
+    private void printValue(String key, JsonValue value, int level)
+    {
+        switch (value.getValueType())
+        {
+            case OBJECT:
+                JsonObject obj = (JsonObject)value;
+                appendIndentation(level);
+                if (key1 != null)
+                {
+                    appendMember(obj.get(key1));
+                    if (key2 != null)
+                    {
+                        buffer.append(": ");
+                        appendMember(obj.get(key2));
+                    }
+                    newLine();
+                }
+                else
+                {
+                    appendKey(key);
+                    buffer.append('{');
+                    newLine();
+                    for (Map.Entry<String, JsonValue> entry: obj.entrySet())
+                    {
+                        printValue(entry.getKey(), entry.getValue(), level + 1);
+                    }
+                    appendIndentation(level);
+                    buffer.append('}');
+                    newLine();
+                }
+                break;
+
+            case ARRAY:
+                appendIndentation(level);
+                appendKey(key);
+                buffer.append('[');
+                newLine();
+                for (JsonValue element: (JsonArray)value)
+                {
+                    printValue(null, element, level + 1);
+                }
+                appendIndentation(level);
+                buffer.append(']');
+                newLine();
+                break;
+
+            default:
+                appendIndentation(level);
+                appendKey(key);
+                appendValue(value, false);
+                newLine();
+                break;
+        }
+    }   //printValue
+
+    /**
+     * This method prints the JSON value starting with the specified parser event, the same way as the JSON value
+     * would be printed once parsed. Only an object projected to key1 and key2 is held back until its end, and
+     * even then only the values of the two keys are kept.
+     *
+     * @param parser specifies the JSON parser.
+     * @param event specifies the first event of the value.
+     * @param key specifies the key string of the JSON object, can be null if no associated key.
+     * @param level specifies the indentation level.
+     */
+    private void printValue(JsonParser parser, JsonParser.Event event, String key, int level)
+    {
+        switch (event)
+        {
+            case START_OBJECT:
+                if (key1 != null)
+                {
+                    printProjection(parser, level);
+                }
+                else
+                {
+                    appendIndentation(level);
+                    appendKey(key);
+                    buffer.append('{');
+                    newLine();
+                    while (parser.next() != JsonParser.Event.END_OBJECT)
+                    {
+                        String childKey = parser.getString();
+                        printValue(parser, parser.next(), childKey, level + 1);
+                    }
+                    appendIndentation(level);
+                    buffer.append('}');
+                    newLine();
+                }
+                break;
+
+            case START_ARRAY:
+                appendIndentation(level);
+                appendKey(key);
+                buffer.append('[');
+                newLine();
+                while ((event = parser.next()) != JsonParser.Event.END_ARRAY)
+                {
+                    printValue(parser, event, null, level + 1);
+                }
+                appendIndentation(level);
+                buffer.append(']');
+                newLine();
+                break;
+
+            default:
+                appendIndentation(level);
+                appendKey(key);
+                readValue(parser, event, false, buffer);
+                newLine();
+                break;
+        }
+    }   //printValue
+
+    /**
+     * This method prints the JSON object whose START_OBJECT event was just parsed as a single line with the values
+     * of key1 and optionally key2. A missing key is printed as null. If a key appears more than once, its last
+     * value is printed.
+     *
+     * @param parser specifies the JSON parser.
+     * @param level specifies the indentation level.
+     */
+    private void printProjection(JsonParser parser, int level)
+    {
+        String value1 = null;
+        String value2 = null;
+
+        while (parser.next() != JsonParser.Event.END_OBJECT)
+        {
+            String childKey = parser.getString();
+            JsonParser.Event event = parser.next();
+
+            if (childKey.equals(key1) || childKey.equals(key2))
+            {
+                String value = readValue(parser, event, false, new StringBuilder()).toString();
+
+                if (childKey.equals(key1))
+                {
+                    value1 = value;
+                }
+                if (childKey.equals(key2))
+                {
+                    value2 = value;
+                }
+            }
+            else
+            {
+                ModelDecoder.skipValue(parser, event);
+            }
+        }
+
+        appendIndentation(level);
+        buffer.append(value1 != null? value1: "null");
+        if (key2 != null)
+        {
+            buffer.append(": ").append(value2 != null? value2: "null");
+        }
+        newLine();
+    }   //printProjection
+
+    /**
+     * This method reads the JSON value starting with the specified parser event and appends it as compact JSON
+     * text, formatted the same way as the JSON value would be by its toString method. Note that the toString
+     * method of a JSON string quotes it without escaping anything, while the strings nested in an object or an
+     * array are escaped.
+     *
+     * @param parser specifies the JSON parser.
+     * @param event specifies the first event of the value.
+     * @param nested specifies true if the value is nested in an object or an array being read.
+     * @param text specifies the buffer to append the JSON text to.
+     * @return the buffer.
+     */
+    private static StringBuilder readValue(
+        JsonParser parser, JsonParser.Event event, boolean nested, StringBuilder text)
+    {
+        switch (event)
+        {
+            case START_OBJECT:
+                text.append('{');
+                for (boolean first = true; parser.next() != JsonParser.Event.END_OBJECT; first = false)
+                {
+                    if (!first)
+                    {
+                        text.append(',');
+                    }
+                    appendString(text, parser.getString()).append(':');
+                    readValue(parser, parser.next(), true, text);
+                }
+                text.append('}');
+                break;
+
+            case START_ARRAY:
+                text.append('[');
+                for (boolean first = true; (event = parser.next()) != JsonParser.Event.END_ARRAY; first = false)
+                {
+                    if (!first)
+                    {
+                        text.append(',');
+                    }
+                    readValue(parser, event, true, text);
+                }
+                text.append(']');
+                break;
+
+            case VALUE_STRING:
+                if (nested)
+                {
+                    appendString(text, parser.getString());
+                }
+                else
+                {
+                    text.append('"').append(parser.getString()).append('"');
+                }
+                break;
+
+            case VALUE_NUMBER:
+                text.append(parser.getBigDecimal());
+                break;
+
+            case VALUE_TRUE:
+                text.append("true");
+                break;
+
+            case VALUE_FALSE:
+                text.append("false");
+                break;
+
+            default:
+                text.append("null");
+                break;
+        }
+
+        return text;
+    }   //readValue
+
+    /**
+     * This method appends the parsed JSON value as compact JSON text, formatted the same way as by its toString
+     * method, with the same exception for strings as readValue.
+     *
+     * @param value specifies the JSON value.
+     * @param nested specifies true if the value is nested in an object or an array being appended.
+     */
+    private void appendValue(JsonValue value, boolean nested)
+    {
+        switch (value.getValueType())
+        {
+            case OBJECT:
+                buffer.append('{');
+                boolean firstMember = true;
+                for (Map.Entry<String, JsonValue> entry: ((JsonObject)value).entrySet())
+                {
+                    if (!firstMember)
+                    {
+                        buffer.append(',');
+                    }
+                    appendString(buffer, entry.getKey()).append(':');
+                    appendValue(entry.getValue(), true);
+                    firstMember = false;
+                }
+                buffer.append('}');
+                break;
+
+            case ARRAY:
+                buffer.append('[');
+                boolean firstElement = true;
+                for (JsonValue element: (JsonArray)value)
+                {
+                    if (!firstElement)
+                    {
+                        buffer.append(',');
+                    }
+                    appendValue(element, true);
+                    firstElement = false;
+                }
+                buffer.append(']');
+                break;
+
+            case STRING:
+                if (nested)
+                {
+                    appendString(buffer, ((JsonString)value).getString());
+                }
+                else
+                {
+                    buffer.append('"').append(((JsonString)value).getString()).append('"');
+                }
+                break;
+
+            case NUMBER:
+                buffer.append(((JsonNumber)value).toString());
+                break;
+
+            case TRUE:
+                buffer.append("true");
+                break;
+
+            case FALSE:
+                buffer.append("false");
+                break;
+
+            default:
+                buffer.append("null");
+                break;
+        }
+    }   //appendValue
+
+    /**
+     * This method appends the value of a projected member, or null if the member is missing.
+     *
+     * @param value specifies the JSON value of the member, null if missing.
+     */
+    private void appendMember(JsonValue value)
+    {
+        if (value != null)
+        {
+            appendValue(value, false);
+        }
+        else
+        {
+            buffer.append("null");
+        }
+    }   //appendMember
+
+    /**
+     * This method appends the key of the value being printed, if any.
+     *
+     * @param key specifies the key string of the JSON object, can be null if no associated key.
+     */
+    private void appendKey(String key)
+    {
+        if (key != null)
+        {
+            buffer.append(key).append(": ");
+        }
+    }   //appendKey
+
+    /**
+     * This method appends the string as a quoted JSON string, escaping the quote, the backslash and the control
+     * characters. Runs of characters that need no escaping are appended at once.
+     *
+     * @param text specifies the buffer to append the JSON string to.
+     * @param str specifies the string.
+     * @return the buffer.
+     */
+    private static StringBuilder appendString(StringBuilder text, String str)
+    {
+        int start = 0;
+
+        text.append('"');
+        for (int i = 0; i < str.length(); i++)
+        {
+            char c = str.charAt(i);
+
+            if (c < 0x20 || c == '"' || c == '\\')
+            {
+                text.append(str, start, i);
+                start = i + 1;
+
+                switch (c)
+                {
+                    case '"':
+                        text.append("\\\"");
+                        break;
+
+                    case '\\':
+                        text.append("\\\\");
+                        break;
+
+                    case '\b':
+                        text.append("\\b");
+                        break;
+
+                    case '\f':
+                        text.append("\\f");
+                        break;
+
+                    case '\n':
+                        text.append("\\n");
+                        break;
+
+                    case '\r':
+                        text.append("\\r");
+                        break;
+
+                    case '\t':
+                        text.append("\\t");
+                        break;
+
+                    default:
+                        text.append("\\u00").append(HEX_DIGITS[c >> 4]).append(HEX_DIGITS[c & 0xf]);
+                        break;
+                }
+            }
+        }
+        text.append(str, start, str.length());
+
+        return text.append('"');
+    }   //appendString
+
+    /**
+     * This method indents the line with the specified indentation level.
+     *
+     * @param level specifies the indentation level.
+     */
+    private void appendIndentation(int level)
+    {
+        if (level < indentations.length)
+        {
+            buffer.append(indentations[level]);
+        }
+        else
+        {
+            for (int i = 0; i < level; i++)
+            {
+                buffer.append(INDENTATION);
+            }
+        }
+    }   //appendIndentation
+
+    /**
+     * This method ends the line and writes out the buffered output if there is enough of it.
+     */
+    private void newLine()
+    {
+        buffer.append(LINE_SEPARATOR);
+        if (buffer.length() >= FLUSH_SIZE)
+        {
+            flush();
+        }
+    }   //newLine
+
+}   //class JsonPrinter
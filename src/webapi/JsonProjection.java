@@ -0,0 +1,448 @@
+/*
+ * Copyright (c) 2017 Titan Robotics Club (http://www.titanrobotics.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package webapi;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonBuilderFactory;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonStructure;
+import javax.json.JsonValue;
+import javax.json.stream.JsonParser;
+import javax.json.stream.JsonParsingException;
+
+/**
+ * This class projects the replied JSON data to the fields a command actually prints. Every object found at the top
+ * level or in arrays is reduced to the projected fields, whose values are kept whole. A projection for a list held
+ * in a member of the top-level object keeps only that member and projects it. A stream of JSON text is projected
+ * as it is parsed, skipping everything else without building it, so the memory used grows with the projected data
+ * and not with the size of the reply. Printing the projected data with the projected fields as keys produces the
+ * same output as printing the whole data.
+ */
+public class JsonProjection implements JsonConsumer
+{
+    private static final JsonBuilderFactory builderFactory = Json.createBuilderFactory(null);
+
+    private final String listName;
+    private final List<String> fields;
+    private JsonStructure data = null;
+
+    /**
+     * Constructor: Create an instance of the object.
+     *
+     * @param fields specifies the fields to keep in each object, null entries are ignored.
+     */
+    public JsonProjection(String... fields)
+    {
+        ArrayList<String> fieldList = new ArrayList<>(Arrays.asList(fields));
+
+        fieldList.removeIf(field -> field == null);
+        this.listName = null;
+        this.fields = fieldList;
+    }   //JsonProjection
+
+    /**
+     * Constructor: Create an instance of the object.
+     *
+     * @param listName specifies the member of the top-level object to keep.
+     * @param fields specifies the fields to keep in each object.
+     */
+    private JsonProjection(String listName, List<String> fields)
+    {
+        this.listName = listName;
+        this.fields = fields;
+    }   //JsonProjection
+
+    /**
+     * This method returns a projection of the same fields for data whose top-level object holds the projected
+     * data in the specified member. Only that member is kept.
+     *
+     * @param listName specifies the member of the top-level object holding the projected data.
+     * @return new projection.
+     */
+    public JsonProjection forList(String listName)
+    {
+        return new JsonProjection(listName, fields);
+    }   //forList
+
+    /**
+     * This method returns the projected data.
+     *
+     * @return projected data, null if no data was consumed.
+     */
+    public JsonStructure getData()
+    {
+        return data;
+    }   //getData
+
+    /**
+     * This method returns the string representation of the projection.
+     *
+     * @return string representation of the projection.
+     */
+    @Override
+    public String toString()
+    {
+        return (listName != null? listName + ": ": "") + fields;
+    }   //toString
+
+    //
+    // Implements the JsonConsumer interface.
+    //
+
+    /**
+     * This method projects the parsed JSON data. The projected data shares the kept values with the data.
+     *
+     * @param data specifies the JSON structure.
+     */
+    @Override
+    public void accept(JsonStructure data)
+    {
+        if (listName != null && data.getValueType() == JsonValue.ValueType.OBJECT)
+        {
+            JsonObjectBuilder builder = builderFactory.createObjectBuilder();
+            JsonValue list = ((JsonObject)data).get(listName);
+
+            if (list != null)
+            {
+                builder.add(listName, project(list));
+            }
+            this.data = builder.build();
+        }
+        else
+        {
+            this.data = (JsonStructure)project(data);
+        }
+    }   //accept
+
+    /**
+     * This method projects the JSON data read from the input stream as it is parsed. The whole top-level
+     * structure is read, so invalid JSON text is always detected.
+     *
+     * @param is specifies the input stream of the JSON text.
+     * @throws JsonParsingException when the JSON text is invalid.
+     */
+    @Override
+    public void accept(InputStream is) throws JsonParsingException
+    {
+        try (JsonParser parser = Json.createParser(is))
+        {
+            JsonParser.Event event = parser.hasNext()? parser.next(): null;
+
+            if (event == JsonParser.Event.START_OBJECT && listName != null)
+            {
+                JsonObjectBuilder builder = builderFactory.createObjectBuilder();
+
+                while (parser.next() != JsonParser.Event.END_OBJECT)
+                {
+                    String key = parser.getString();
+
+                    event = parser.next();
+                    if (key.equals(listName))
+                    {
+                        projectMember(builder, key, parser, event);
+                    }
+                    else
+                    {
+                        ModelDecoder.skipValue(parser, event);
+                    }
+                }
+                data = builder.build();
+            }
+            else if (event == JsonParser.Event.START_OBJECT)
+            {
+                data = projectObject(parser);
+            }
+            else if (event == JsonParser.Event.START_ARRAY)
+            {
+                data = projectArray(parser);
+            }
+            else
+            {
+                throw new JsonParsingException("Expecting a JSON object or array.", parser.getLocation());
+            }
+        }
+    }   //accept
+
+    /**
+     * This method projects the parsed JSON value.
+     *
+     * @param value specifies the JSON value.
+     * @return projected JSON value.
+     */
+    private JsonValue project(JsonValue value)
+    {
+        JsonValue result;
+
+        switch (value.getValueType())
+        {
+            case OBJECT:
+                JsonObject obj = (JsonObject)value;
+                JsonObjectBuilder objBuilder = builderFactory.createObjectBuilder();
+
+                for (String field: fields)
+                {
+                    JsonValue member = obj.get(field);
+
+                    if (member != null)
+                    {
+                        objBuilder.add(field, member);
+                    }
+                }
+                result = objBuilder.build();
+                break;
+
+            case ARRAY:
+                JsonArrayBuilder arrBuilder = builderFactory.createArrayBuilder();
+
+                for (JsonValue element: (JsonArray)value)
+                {
+                    arrBuilder.add(project(element));
+                }
+                result = arrBuilder.build();
+                break;
+
+            default:
+                result = value;
+                break;
+        }
+
+        return result;
+    }   //project
+
+    /**
+     * This method projects the JSON object whose START_OBJECT event was just parsed, skipping the members that are
+     * not projected. If a field appears more than once, its last value is kept.
+     *
+     * @param parser specifies the JSON parser.
+     * @return projected JSON object.
+     */
+    private JsonObject projectObject(JsonParser parser)
+    {
+        JsonObjectBuilder builder = builderFactory.createObjectBuilder();
+
+        while (parser.next() != JsonParser.Event.END_OBJECT)
+        {
+            String key = parser.getString();
+            JsonParser.Event event = parser.next();
+
+            if (fields.contains(key))
+            {
+                readMember(builder, key, parser, event);
+            }
+            else
+            {
+                ModelDecoder.skipValue(parser, event);
+            }
+        }
+
+        return builder.build();
+    }   //projectObject
+
+    /**
+     * This method projects the JSON array whose START_ARRAY event was just parsed.
+     *
+     * @param parser specifies the JSON parser.
+     * @return projected JSON array.
+     */
+    private JsonArray projectArray(JsonParser parser)
+    {
+        JsonArrayBuilder builder = builderFactory.createArrayBuilder();
+        JsonParser.Event event;
+
+        while ((event = parser.next()) != JsonParser.Event.END_ARRAY)
+        {
+            if (event == JsonParser.Event.START_OBJECT)
+            {
+                builder.add(projectObject(parser));
+            }
+            else if (event == JsonParser.Event.START_ARRAY)
+            {
+                builder.add(projectArray(parser));
+            }
+            else
+            {
+                readElement(builder, parser, event);
+            }
+        }
+
+        return builder.build();
+    }   //projectArray
+
+    /**
+     * This method projects the JSON value starting with the specified parser event and adds it to the object
+     * builder.
+     *
+     * @param builder specifies the object builder.
+     * @param key specifies the key of the value.
+     * @param parser specifies the JSON parser.
+     * @param event specifies the first event of the value.
+     */
+    private void projectMember(JsonObjectBuilder builder, String key, JsonParser parser, JsonParser.Event event)
+    {
+        if (event == JsonParser.Event.START_OBJECT)
+        {
+            builder.add(key, projectObject(parser));
+        }
+        else if (event == JsonParser.Event.START_ARRAY)
+        {
+            builder.add(key, projectArray(parser));
+        }
+        else
+        {
+            readMember(builder, key, parser, event);
+        }
+    }   //projectMember
+
+    /**
+     * This method reads the whole JSON value starting with the specified parser event and adds it to the object
+     * builder. Numbers keep their decimal representation, so they print the same as the numbers of the parsed
+     * JSON data.
+     *
+     * @param builder specifies the object builder.
+     * @param key specifies the key of the value.
+     * @param parser specifies the JSON parser.
+     * @param event specifies the first event of the value.
+     */
+    private static void readMember(JsonObjectBuilder builder, String key, JsonParser parser, JsonParser.Event event)
+    {
+        switch (event)
+        {
+            case START_OBJECT:
+                builder.add(key, readObject(parser));
+                break;
+
+            case START_ARRAY:
+                builder.add(key, readArray(parser));
+                break;
+
+            case VALUE_STRING:
+                builder.add(key, parser.getString());
+                break;
+
+            case VALUE_NUMBER:
+                builder.add(key, parser.getBigDecimal());
+                break;
+
+            case VALUE_TRUE:
+                builder.add(key, true);
+                break;
+
+            case VALUE_FALSE:
+                builder.add(key, false);
+                break;
+
+            default:
+                builder.addNull(key);
+                break;
+        }
+    }   //readMember
+
+    /**
+     * This method reads the whole JSON value starting with the specified parser event and adds it to the array
+     * builder.
+     *
+     * @param builder specifies the array builder.
+     * @param parser specifies the JSON parser.
+     * @param event specifies the first event of the value.
+     */
+    private static void readElement(JsonArrayBuilder builder, JsonParser parser, JsonParser.Event event)
+    {
+        switch (event)
+        {
+            case START_OBJECT:
+                builder.add(readObject(parser));
+                break;
+
+            case START_ARRAY:
+                builder.add(readArray(parser));
+                break;
+
+            case VALUE_STRING:
+                builder.add(parser.getString());
+                break;
+
+            case VALUE_NUMBER:
+                builder.add(parser.getBigDecimal());
+                break;
+
+            case VALUE_TRUE:
+                builder.add(true);
+                break;
+
+            case VALUE_FALSE:
+                builder.add(false);
+                break;
+
+            default:
+                builder.addNull();
+                break;
+        }
+    }   //readElement
+
+    /**
+     * This method reads the whole JSON object whose START_OBJECT event was just parsed.
+     *
+     * @param parser specifies the JSON parser.
+     * @return JSON object.
+     */
+    private static JsonObject readObject(JsonParser parser)
+    {
+        JsonObjectBuilder builder = builderFactory.createObjectBuilder();
+
+        while (parser.next() != JsonParser.Event.END_OBJECT)
+        {
+            String key = parser.getString();
+            readMember(builder, key, parser, parser.next());
+        }
+
+        return builder.build();
+    }   //readObject
+
+    /**
+     * This method reads the whole JSON array whose START_ARRAY event was just parsed.
+     *
+     * @param parser specifies the JSON parser.
+     * @return JSON array.
+     */
+    private static JsonArray readArray(JsonParser parser)
+    {
+        JsonArrayBuilder builder = builderFactory.createArrayBuilder();
+        JsonParser.Event event;
+
+        while ((event = parser.next()) != JsonParser.Event.END_ARRAY)
+        {
+            readElement(builder, parser, event);
+        }
+
+        return builder.build();
+    }   //readArray
+
+}   //class JsonProjection
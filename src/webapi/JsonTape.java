@@ -0,0 +1,1191 @@
+/*
+ * Copyright (c) 2017 Titan Robotics Club (http://www.titanrobotics.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package webapi;
+
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonNumber;
+import javax.json.JsonObject;
+import javax.json.JsonString;
+import javax.json.JsonStructure;
+import javax.json.JsonValue;
+import javax.json.JsonWriter;
+import javax.json.stream.JsonLocation;
+import javax.json.stream.JsonParsingException;
+
+/**
+ * This class implements a lazily decoded representation of JSON text. A single pass over the raw bytes validates
+ * the text and records the position of every value on a tape of integers. The JSON objects and arrays returned
+ * are decoded from the tape only when they are first accessed, and only one level at a time, so a caller that
+ * reads a couple of fields of each object never pays for decoding the nested structures it does not touch. The
+ * decoded values behave exactly like the ones built by the JSON reader, including equality and their string
+ * forms.
+ *
+ * The tape holds two integers per value. The first is the offset of the value in the raw bytes, which also tells
+ * the type of the value from its first byte. The second is the tape position just past the last descendant for
+ * an object or array, and the end offset for any other value, stored complemented for a string with escapes.
+ */
+public class JsonTape
+{
+    private static final int INITIAL_DEPTH = 16;
+
+    private final byte[] data;
+    private int[] tape;
+    private int tapeLength = 0;
+
+    /**
+     * Constructor: Create an instance of the object.
+     *
+     * @param data specifies the raw bytes of the JSON text in UTF-8.
+     */
+    private JsonTape(byte[] data)
+    {
+        this.data = data;
+        this.tape = new int[Math.max(16, data.length/4)];
+    }   //JsonTape
+
+    /**
+     * This method indexes the JSON text and returns its top-level object or array. The raw bytes are referenced,
+     * not copied, so they must not be modified afterwards. Like the JSON reader, anything following the top-level
+     * object or array is ignored.
+     *
+     * @param data specifies the raw bytes of the JSON text in UTF-8.
+     * @return lazily decoded JSON structure.
+     * @throws JsonParsingException when the JSON text is invalid.
+     */
+    public static JsonStructure parse(byte[] data) throws JsonParsingException
+    {
+        JsonTape jsonTape = new JsonTape(data);
+
+        jsonTape.index();
+        jsonTape.tape = Arrays.copyOf(jsonTape.tape, jsonTape.tapeLength);
+
+        return (JsonStructure)jsonTape.getValue(0);
+    }   //parse
+
+    /**
+     * This method returns the tape of the specified value if it was returned by the parse method.
+     *
+     * @param value specifies the JSON value.
+     * @return tape of the value, null if the value was not returned by the parse method.
+     */
+    public static JsonTape getTape(JsonValue value)
+    {
+        return value instanceof TapeObject? ((TapeObject)value).jsonTape:
+               value instanceof TapeArray? ((TapeArray)value).jsonTape: null;
+    }   //getTape
+
+    /**
+     * This method returns the approximate memory size of the raw bytes and the tape, not counting the values
+     * decoded from them.
+     *
+     * @return memory size in bytes.
+     */
+    public long getSize()
+    {
+        return 16 + data.length + 16 + 4L*tape.length;
+    }   //getSize
+
+    /**
+     * This method returns the number of values on the tape.
+     *
+     * @return number of values.
+     */
+    public int getNumValues()
+    {
+        return tape.length/2;
+    }   //getNumValues
+
+    /**
+     * This method validates the JSON text and records every value on the tape. The nesting is tracked with a
+     * stack of the tape positions of the open objects and arrays instead of recursion, so deeply nested text can't
+     * overflow the call stack.
+     *
+     * @throws JsonParsingException when the JSON text is invalid.
+     */
+    private void index() throws JsonParsingException
+    {
+        int[] stack = new int[INITIAL_DEPTH];
+        int depth = 0;
+        boolean first = false;
+        int pos = 0;
+
+        if (data.length >= 3 && data[0] == (byte)0xef && data[1] == (byte)0xbb && data[2] == (byte)0xbf)
+        {
+            //
+            // Skip the byte order mark.
+            //
+            pos = 3;
+        }
+
+        pos = skipWhitespace(pos);
+        if (pos >= data.length || (data[pos] != '{' && data[pos] != '['))
+        {
+            throw error(pos, "expecting '{' or '['");
+        }
+
+        do
+        {
+            int top = depth > 0? stack[depth - 1]: -1;
+            boolean inObject = top >= 0 && data[tape[top]] == '{';
+
+            if (top >= 0)
+            {
+                byte close = inObject? (byte)'}': (byte)']';
+
+                pos = skipWhitespace(pos);
+                if (pos < data.length && data[pos] == close)
+                {
+                    //
+                    // The object or array ends, it is a value of its parent.
+                    //
+                    tape[top + 1] = tapeLength;
+                    depth--;
+                    pos++;
+                    first = false;
+                    continue;
+                }
+                else if (!first)
+                {
+                    if (pos >= data.length || data[pos] != ',')
+                    {
+                        throw error(pos, "expecting ',' or '" + (char)close + "'");
+                    }
+                    pos = skipWhitespace(pos + 1);
+                }
+
+                if (inObject)
+                {
+                    if (pos >= data.length || data[pos] != '"')
+                    {
+                        throw error(pos, "expecting a string key");
+                    }
+                    pos = skipWhitespace(scanString(pos));
+                    if (pos >= data.length || data[pos] != ':')
+                    {
+                        throw error(pos, "expecting ':'");
+                    }
+                    pos = skipWhitespace(pos + 1);
+                }
+            }
+
+            if (pos >= data.length)
+            {
+                throw error(pos, "expecting a value");
+            }
+            else if (data[pos] == '{' || data[pos] == '[')
+            {
+                if (depth == stack.length)
+                {
+                    stack = Arrays.copyOf(stack, depth*2);
+                }
+                stack[depth++] = tapeLength;
+                append(pos, 0);
+                pos++;
+                first = true;
+            }
+            else
+            {
+                pos = scanScalar(pos);
+                first = false;
+            }
+        } while (depth > 0);
+    }   //index
+
+    /**
+     * This method scans the string starting at the specified position and records it on the tape.
+     *
+     * @param pos specifies the position of the opening quote.
+     * @return position following the closing quote.
+     * @throws JsonParsingException when the string is invalid.
+     */
+    private int scanString(int pos) throws JsonParsingException
+    {
+        int start = pos;
+        boolean escaped = false;
+
+        for (pos++; pos < data.length && data[pos] != '"'; pos++)
+        {
+            int b = data[pos];
+
+            if (b == '\\')
+            {
+                escaped = true;
+                pos++;
+                if (pos >= data.length)
+                {
+                    break;
+                }
+                else if (data[pos] == 'u')
+                {
+                    for (int i = 0; i < 4; i++)
+                    {
+                        pos++;
+                        if (pos >= data.length || Character.digit(data[pos], 16) < 0)
+                        {
+                            throw error(pos, "expecting a hexadecimal digit");
+                        }
+                    }
+                }
+                else if ("\"\\/bfnrt".indexOf(data[pos]) < 0)
+                {
+                    throw error(pos, "invalid escape character");
+                }
+            }
+            else if (b >= 0 && b < 0x20)
+            {
+                throw error(pos, "unescaped control character in string");
+            }
+        }
+
+        if (pos >= data.length)
+        {
+            throw error(pos, "unterminated string");
+        }
+        append(start, escaped? ~pos: pos);
+
+        return pos + 1;
+    }   //scanString
+
+    /**
+     * This method scans the string, number or literal starting at the specified position and records it on the
+     * tape.
+     *
+     * @param pos specifies the position of the value.
+     * @return position following the value.
+     * @throws JsonParsingException when the value is invalid.
+     */
+    private int scanScalar(int pos) throws JsonParsingException
+    {
+        int start = pos;
+
+        switch (data[pos])
+        {
+            case '"':
+                return scanString(pos);
+
+            case 't':
+                pos = scanLiteral(pos, "true");
+                break;
+
+            case 'f':
+                pos = scanLiteral(pos, "false");
+                break;
+
+            case 'n':
+                pos = scanLiteral(pos, "null");
+                break;
+
+            default:
+                //
+                // A number: -?(0|[1-9][0-9]*)(.[0-9]+)?([eE][+-]?[0-9]+)?
+                //
+                if (data[pos] == '-')
+                {
+                    pos++;
+                }
+                if (pos < data.length && data[pos] == '0')
+                {
+                    pos++;
+                }
+                else
+                {
+                    pos = scanDigits(pos);
+                }
+                if (pos < data.length && data[pos] == '.')
+                {
+                    pos = scanDigits(pos + 1);
+                }
+                if (pos < data.length && (data[pos] == 'e' || data[pos] == 'E'))
+                {
+                    pos++;
+                    if (pos < data.length && (data[pos] == '+' || data[pos] == '-'))
+                    {
+                        pos++;
+                    }
+
+                    int exponentStart = pos;
+                    pos = scanDigits(pos);
+                    while (exponentStart < pos && data[exponentStart] == '0')
+                    {
+                        exponentStart++;
+                    }
+                    if (pos - exponentStart > 9)
+                    {
+                        //
+                        // The number is decoded later, so make sure now that its exponent is in range.
+                        //
+                        try
+                        {
+                            new BigDecimal(new String(data, start, pos - start, StandardCharsets.US_ASCII));
+                        }
+                        catch (NumberFormatException e)
+                        {
+                            throw error(start, "number out of range");
+                        }
+                    }
+                }
+                break;
+        }
+        append(start, pos);
+
+        return pos;
+    }   //scanScalar
+
+    /**
+     * This method scans one or more digits of a number.
+     *
+     * @param pos specifies the position of the first digit.
+     * @return position following the digits.
+     * @throws JsonParsingException when there is no digit.
+     */
+    private int scanDigits(int pos) throws JsonParsingException
+    {
+        int start = pos;
+
+        while (pos < data.length && data[pos] >= '0' && data[pos] <= '9')
+        {
+            pos++;
+        }
+
+        if (pos == start)
+        {
+            throw error(pos, "expecting a digit");
+        }
+
+        return pos;
+    }   //scanDigits
+
+    /**
+     * This method scans the literal true, false or null.
+     *
+     * @param pos specifies the position of the literal.
+     * @param literal specifies the expected literal.
+     * @return position following the literal.
+     * @throws JsonParsingException when the literal does not match.
+     */
+    private int scanLiteral(int pos, String literal) throws JsonParsingException
+    {
+        for (int i = 0; i < literal.length(); i++, pos++)
+        {
+            if (pos >= data.length || data[pos] != literal.charAt(i))
+            {
+                throw error(pos, "expecting '" + literal + "'");
+            }
+        }
+
+        return pos;
+    }   //scanLiteral
+
+    /**
+     * This method skips the whitespace starting at the specified position.
+     *
+     * @param pos specifies the position.
+     * @return position of the first non-whitespace byte.
+     */
+    private int skipWhitespace(int pos)
+    {
+        while (pos < data.length && (data[pos] == ' ' || data[pos] == '\t' || data[pos] == '\n' || data[pos] == '\r'))
+        {
+            pos++;
+        }
+
+        return pos;
+    }   //skipWhitespace
+
+    /**
+     * This method appends a value to the tape.
+     *
+     * @param offset specifies the offset of the value in the raw bytes.
+     * @param end specifies the end of the value.
+     */
+    private void append(int offset, int end)
+    {
+        if (tapeLength + 2 > tape.length)
+        {
+            tape = Arrays.copyOf(tape, tape.length*2);
+        }
+        tape[tapeLength++] = offset;
+        tape[tapeLength++] = end;
+    }   //append
+
+    /**
+     * This method creates the parsing exception for the error at the specified position.
+     *
+     * @param pos specifies the position of the error.
+     * @param message specifies the error message.
+     * @return parsing exception.
+     */
+    private JsonParsingException error(int pos, String message)
+    {
+        long line = 1;
+        long column = 1;
+
+        for (int i = 0; i < pos && i < data.length; i++)
+        {
+            if (data[i] == '\n')
+            {
+                line++;
+                column = 1;
+            }
+            else
+            {
+                column++;
+            }
+        }
+
+        final long lineNumber = line;
+        final long columnNumber = column;
+        final long streamOffset = pos;
+        JsonLocation location = new JsonLocation()
+        {
+            @Override
+            public long getLineNumber()
+            {
+                return lineNumber;
+            }
+
+            @Override
+            public long getColumnNumber()
+            {
+                return columnNumber;
+            }
+
+            @Override
+            public long getStreamOffset()
+            {
+                return streamOffset;
+            }
+
+            @Override
+            public String toString()
+            {
+                return "(line no=" + lineNumber + ", column no=" + columnNumber + ", offset=" + streamOffset + ")";
+            }
+        };
+
+        return new JsonParsingException("Invalid JSON " + location + ": " + message + ".", location);
+    }   //error
+
+    /**
+     * This method returns the tape position of the value following the value at the specified position.
+     *
+     * @param index specifies the tape position of the value.
+     * @return tape position of the next value.
+     */
+    private int next(int index)
+    {
+        byte b = data[tape[index]];
+
+        return b == '{' || b == '['? tape[index + 1]: index + 2;
+    }   //next
+
+    /**
+     * This method returns the value at the specified tape position. Objects and arrays are returned undecoded.
+     *
+     * @param index specifies the tape position of the value.
+     * @return JSON value.
+     */
+    private JsonValue getValue(int index)
+    {
+        int offset = tape[index];
+        JsonValue value;
+
+        switch (data[offset])
+        {
+            case '{':
+                value = new TapeObject(this, index);
+                break;
+
+            case '[':
+                value = new TapeArray(this, index);
+                break;
+
+            case '"':
+                value = new TapeString(getString(index));
+                break;
+
+            case 't':
+                value = JsonValue.TRUE;
+                break;
+
+            case 'f':
+                value = JsonValue.FALSE;
+                break;
+
+            case 'n':
+                value = JsonValue.NULL;
+                break;
+
+            default:
+                char[] digits = new char[tape[index + 1] - offset];
+                for (int i = 0; i < digits.length; i++)
+                {
+                    digits[i] = (char)data[offset + i];
+                }
+                value = new TapeNumber(new BigDecimal(digits));
+                break;
+        }
+
+        return value;
+    }   //getValue
+
+    /**
+     * This method decodes the string at the specified tape position.
+     *
+     * @param index specifies the tape position of the string.
+     * @return decoded string.
+     */
+    private String getString(int index)
+    {
+        int start = tape[index] + 1;
+        int end = tape[index + 1];
+        String string;
+
+        if (end >= 0)
+        {
+            string = new String(data, start, end - start, StandardCharsets.UTF_8);
+        }
+        else
+        {
+            StringBuilder builder = new StringBuilder();
+            int pos = start;
+
+            end = ~end;
+            while (pos < end)
+            {
+                int runEnd = pos;
+
+                while (runEnd < end && data[runEnd] != '\\')
+                {
+                    runEnd++;
+                }
+                builder.append(new String(data, pos, runEnd - pos, StandardCharsets.UTF_8));
+                if (runEnd < end)
+                {
+                    char c = (char)data[runEnd + 1];
+
+                    pos = runEnd + 2;
+                    switch (c)
+                    {
+                        case 'b':
+                            builder.append('\b');
+                            break;
+
+                        case 'f':
+                            builder.append('\f');
+                            break;
+
+                        case 'n':
+                            builder.append('\n');
+                            break;
+
+                        case 'r':
+                            builder.append('\r');
+                            break;
+
+                        case 't':
+                            builder.append('\t');
+                            break;
+
+                        case 'u':
+                            builder.append(
+                                (char)Integer.parseInt(new String(data, pos, 4, StandardCharsets.US_ASCII), 16));
+                            pos += 4;
+                            break;
+
+                        default:
+                            builder.append(c);
+                            break;
+                    }
+                }
+                else
+                {
+                    pos = runEnd;
+                }
+            }
+            string = builder.toString();
+        }
+
+        return string;
+    }   //getString
+
+    /**
+     * This method decodes the members of the object at the specified tape position. Nested objects and arrays are
+     * left undecoded. Like the JSON reader, the last of duplicate keys wins.
+     *
+     * @param index specifies the tape position of the object.
+     * @return members of the object.
+     */
+    private Map<String, JsonValue> getMembers(int index)
+    {
+        LinkedHashMap<String, JsonValue> members = new LinkedHashMap<>();
+
+        for (int i = index + 2; i < tape[index + 1]; i = next(i + 2))
+        {
+            members.put(getString(i), getValue(i + 2));
+        }
+
+        return members;
+    }   //getMembers
+
+    /**
+     * This method decodes the elements of the array at the specified tape position. Nested objects and arrays are
+     * left undecoded.
+     *
+     * @param index specifies the tape position of the array.
+     * @return elements of the array.
+     */
+    private JsonValue[] getElements(int index)
+    {
+        int count = 0;
+
+        for (int i = index + 2; i < tape[index + 1]; i = next(i))
+        {
+            count++;
+        }
+
+        JsonValue[] elements = new JsonValue[count];
+        count = 0;
+        for (int i = index + 2; i < tape[index + 1]; i = next(i))
+        {
+            elements[count++] = getValue(i);
+        }
+
+        return elements;
+    }   //getElements
+
+    /**
+     * This method writes the JSON structure in the same form as the structures built by the JSON reader.
+     *
+     * @param structure specifies the JSON structure.
+     * @return JSON text.
+     */
+    private static String toJson(JsonStructure structure)
+    {
+        StringWriter writer = new StringWriter();
+
+        try (JsonWriter jsonWriter = Json.createWriter(writer))
+        {
+            jsonWriter.write(structure);
+        }
+
+        return writer.toString();
+    }   //toJson
+
+    /**
+     * This method converts the JSON literal to a boolean.
+     *
+     * @param value specifies the JSON value.
+     * @return true if the value is the literal true, false if it is the literal false.
+     * @throws NullPointerException when there is no value.
+     * @throws ClassCastException when the value is not a boolean literal.
+     */
+    private static boolean toBoolean(JsonValue value)
+    {
+        if (value == null)
+        {
+            throw new NullPointerException();
+        }
+        else if (value != JsonValue.TRUE && value != JsonValue.FALSE)
+        {
+            throw new ClassCastException();
+        }
+
+        return value == JsonValue.TRUE;
+    }   //toBoolean
+
+    /**
+     * This class implements a JSON object decoded from the tape on first access.
+     */
+    private static class TapeObject extends AbstractMap<String, JsonValue> implements JsonObject
+    {
+        final JsonTape jsonTape;
+        private final int index;
+        private volatile Map<String, JsonValue> members = null;
+
+        /**
+         * Constructor: Create an instance of the object.
+         *
+         * @param jsonTape specifies the tape.
+         * @param index specifies the tape position of the object.
+         */
+        TapeObject(JsonTape jsonTape, int index)
+        {
+            this.jsonTape = jsonTape;
+            this.index = index;
+        }   //TapeObject
+
+        /**
+         * This method returns the members of the object, decoding them on first access. Decoding is idempotent,
+         * so threads racing to decode the object just do the same work.
+         *
+         * @return members of the object.
+         */
+        private Map<String, JsonValue> members()
+        {
+            Map<String, JsonValue> decoded = members;
+
+            if (decoded == null)
+            {
+                decoded = Collections.unmodifiableMap(jsonTape.getMembers(index));
+                members = decoded;
+            }
+
+            return decoded;
+        }   //members
+
+        @Override
+        public Set<Map.Entry<String, JsonValue>> entrySet()
+        {
+            return members().entrySet();
+        }   //entrySet
+
+        @Override
+        public Set<String> keySet()
+        {
+            return members().keySet();
+        }   //keySet
+
+        @Override
+        public Collection<JsonValue> values()
+        {
+            return members().values();
+        }   //values
+
+        @Override
+        public JsonValue get(Object key)
+        {
+            return members().get(key);
+        }   //get
+
+        @Override
+        public boolean containsKey(Object key)
+        {
+            return members().containsKey(key);
+        }   //containsKey
+
+        @Override
+        public int size()
+        {
+            return members().size();
+        }   //size
+
+        @Override
+        public ValueType getValueType()
+        {
+            return ValueType.OBJECT;
+        }   //getValueType
+
+        @Override
+        public JsonArray getJsonArray(String name)
+        {
+            return (JsonArray)get(name);
+        }   //getJsonArray
+
+        @Override
+        public JsonObject getJsonObject(String name)
+        {
+            return (JsonObject)get(name);
+        }   //getJsonObject
+
+        @Override
+        public JsonNumber getJsonNumber(String name)
+        {
+            return (JsonNumber)get(name);
+        }   //getJsonNumber
+
+        @Override
+        public JsonString getJsonString(String name)
+        {
+            return (JsonString)get(name);
+        }   //getJsonString
+
+        @Override
+        public String getString(String name)
+        {
+            return getJsonString(name).getString();
+        }   //getString
+
+        @Override
+        public String getString(String name, String defaultValue)
+        {
+            JsonValue value = get(name);
+
+            return value instanceof JsonString? ((JsonString)value).getString(): defaultValue;
+        }   //getString
+
+        @Override
+        public int getInt(String name)
+        {
+            return getJsonNumber(name).intValue();
+        }   //getInt
+
+        @Override
+        public int getInt(String name, int defaultValue)
+        {
+            JsonValue value = get(name);
+
+            return value instanceof JsonNumber? ((JsonNumber)value).intValue(): defaultValue;
+        }   //getInt
+
+        @Override
+        public boolean getBoolean(String name)
+        {
+            return toBoolean(get(name));
+        }   //getBoolean
+
+        @Override
+        public boolean getBoolean(String name, boolean defaultValue)
+        {
+            JsonValue value = get(name);
+
+            return value == JsonValue.TRUE || value == JsonValue.FALSE? value == JsonValue.TRUE: defaultValue;
+        }   //getBoolean
+
+        @Override
+        public boolean isNull(String name)
+        {
+            return get(name).equals(JsonValue.NULL);
+        }   //isNull
+
+        @Override
+        public String toString()
+        {
+            return toJson(this);
+        }   //toString
+
+    }   //class TapeObject
+
+    /**
+     * This class implements a JSON array decoded from the tape on first access.
+     */
+    private static class TapeArray extends AbstractList<JsonValue> implements JsonArray
+    {
+        final JsonTape jsonTape;
+        private final int index;
+        private volatile JsonValue[] elements = null;
+
+        /**
+         * Constructor: Create an instance of the object.
+         *
+         * @param jsonTape specifies the tape.
+         * @param index specifies the tape position of the array.
+         */
+        TapeArray(JsonTape jsonTape, int index)
+        {
+            this.jsonTape = jsonTape;
+            this.index = index;
+        }   //TapeArray
+
+        /**
+         * This method returns the elements of the array, decoding them on first access. Decoding is idempotent,
+         * so threads racing to decode the array just do the same work.
+         *
+         * @return elements of the array.
+         */
+        private JsonValue[] elements()
+        {
+            JsonValue[] decoded = elements;
+
+            if (decoded == null)
+            {
+                decoded = jsonTape.getElements(index);
+                elements = decoded;
+            }
+
+            return decoded;
+        }   //elements
+
+        @Override
+        public JsonValue get(int index)
+        {
+            return elements()[index];
+        }   //get
+
+        @Override
+        public int size()
+        {
+            return elements().length;
+        }   //size
+
+        @Override
+        public ValueType getValueType()
+        {
+            return ValueType.ARRAY;
+        }   //getValueType
+
+        @Override
+        public JsonObject getJsonObject(int index)
+        {
+            return (JsonObject)get(index);
+        }   //getJsonObject
+
+        @Override
+        public JsonArray getJsonArray(int index)
+        {
+            return (JsonArray)get(index);
+        }   //getJsonArray
+
+        @Override
+        public JsonNumber getJsonNumber(int index)
+        {
+            return (JsonNumber)get(index);
+        }   //getJsonNumber
+
+        @Override
+        public JsonString getJsonString(int index)
+        {
+            return (JsonString)get(index);
+        }   //getJsonString
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T extends JsonValue> List<T> getValuesAs(Class<T> clazz)
+        {
+            return (List<T>)this;
+        }   //getValuesAs
+
+        @Override
+        public String getString(int index)
+        {
+            return getJsonString(index).getString();
+        }   //getString
+
+        @Override
+        public String getString(int index, String defaultValue)
+        {
+            JsonValue value = index >= 0 && index < size()? get(index): null;
+
+            return value instanceof JsonString? ((JsonString)value).getString(): defaultValue;
+        }   //getString
+
+        @Override
+        public int getInt(int index)
+        {
+            return getJsonNumber(index).intValue();
+        }   //getInt
+
+        @Override
+        public int getInt(int index, int defaultValue)
+        {
+            JsonValue value = index >= 0 && index < size()? get(index): null;
+
+            return value instanceof JsonNumber? ((JsonNumber)value).intValue(): defaultValue;
+        }   //getInt
+
+        @Override
+        public boolean getBoolean(int index)
+        {
+            return toBoolean(get(index));
+        }   //getBoolean
+
+        @Override
+        public boolean getBoolean(int index, boolean defaultValue)
+        {
+            JsonValue value = index >= 0 && index < size()? get(index): null;
+
+            return value == JsonValue.TRUE || value == JsonValue.FALSE? value == JsonValue.TRUE: defaultValue;
+        }   //getBoolean
+
+        @Override
+        public boolean isNull(int index)
+        {
+            return get(index).equals(JsonValue.NULL);
+        }   //isNull
+
+        @Override
+        public String toString()
+        {
+            return toJson(this);
+        }   //toString
+
+    }   //class TapeArray
+
+    /**
+     * This class implements a JSON string. Like the strings built by the JSON reader, its string form is the
+     * string in quotes without escaping.
+     */
+    private static class TapeString implements JsonString
+    {
+        private final String value;
+
+        /**
+         * Constructor: Create an instance of the object.
+         *
+         * @param value specifies the decoded string.
+         */
+        TapeString(String value)
+        {
+            this.value = value;
+        }   //TapeString
+
+        @Override
+        public ValueType getValueType()
+        {
+            return ValueType.STRING;
+        }   //getValueType
+
+        @Override
+        public String getString()
+        {
+            return value;
+        }   //getString
+
+        @Override
+        public CharSequence getChars()
+        {
+            return value;
+        }   //getChars
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            return obj instanceof JsonString && value.equals(((JsonString)obj).getString());
+        }   //equals
+
+        @Override
+        public int hashCode()
+        {
+            return value.hashCode();
+        }   //hashCode
+
+        @Override
+        public String toString()
+        {
+            return "\"" + value + "\"";
+        }   //toString
+
+    }   //class TapeString
+
+    /**
+     * This class implements a JSON number.
+     */
+    private static class TapeNumber implements JsonNumber
+    {
+        private final BigDecimal value;
+
+        /**
+         * Constructor: Create an instance of the object.
+         *
+         * @param value specifies the decoded number.
+         */
+        TapeNumber(BigDecimal value)
+        {
+            this.value = value;
+        }   //TapeNumber
+
+        @Override
+        public ValueType getValueType()
+        {
+            return ValueType.NUMBER;
+        }   //getValueType
+
+        @Override
+        public boolean isIntegral()
+        {
+            return value.scale() == 0;
+        }   //isIntegral
+
+        @Override
+        public int intValue()
+        {
+            return value.intValue();
+        }   //intValue
+
+        @Override
+        public int intValueExact()
+        {
+            return value.intValueExact();
+        }   //intValueExact
+
+        @Override
+        public long longValue()
+        {
+            return value.longValue();
+        }   //longValue
+
+        @Override
+        public long longValueExact()
+        {
+            return value.longValueExact();
+        }   //longValueExact
+
+        @Override
+        public BigInteger bigIntegerValue()
+        {
+            return value.toBigInteger();
+        }   //bigIntegerValue
+
+        @Override
+        public BigInteger bigIntegerValueExact()
+        {
+            return value.toBigIntegerExact();
+        }   //bigIntegerValueExact
+
+        @Override
+        public double doubleValue()
+        {
+            return value.doubleValue();
+        }   //doubleValue
+
+        @Override
+        public BigDecimal bigDecimalValue()
+        {
+            return value;
+        }   //bigDecimalValue
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            return obj instanceof JsonNumber && value.equals(((JsonNumber)obj).bigDecimalValue());
+        }   //equals
+
+        @Override
+        public int hashCode()
+        {
+            return value.hashCode();
+        }   //hashCode
+
+        @Override
+        public String toString()
+        {
+            return value.toString();
+        }   //toString
+
+    }   //class TapeNumber
+
+}   //class JsonTape
@@ -0,0 +1,239 @@
+/*
+ * Copyright (c) 2017 Titan Robotics Club (http://www.titanrobotics.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package webapi;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This class implements a Bloom filter of known keys, such as team or event keys. The filter can tell that a key
+ * definitely does not exist, but only for the seasons whose complete key list has been added to it recently. For
+ * any other season, or if the key might exist, the caller has to ask the web server.
+ */
+public class KeyFilter
+{
+    private final long[] bits;
+    private final int numBits;
+    private final int numHashes;
+    private final HashMap<Integer, Long> completeTimes = new HashMap<>();
+    private int numKeys = 0;
+
+    /**
+     * Constructor: Create an instance of the object.
+     *
+     * @param expectedKeys specifies the expected number of keys.
+     * @param falsePositiveRate specifies the acceptable rate of unknown keys reported as possibly existing.
+     */
+    public KeyFilter(int expectedKeys, double falsePositiveRate)
+    {
+        double ln2 = Math.log(2);
+
+        numBits = Math.max(64, (int)Math.ceil(-expectedKeys*Math.log(falsePositiveRate)/(ln2*ln2)));
+        numHashes = Math.max(1, (int)Math.round((double)numBits/expectedKeys*ln2));
+        bits = new long[(numBits + 63)/64];
+    }   //KeyFilter
+
+    /**
+     * This method adds the specified key to the filter.
+     *
+     * @param key specifies the key.
+     */
+    public synchronized void add(String key)
+    {
+        long hash = hash(key);
+        int h1 = (int)hash;
+        int h2 = (int)(hash >>> 32);
+        boolean added = false;
+
+        for (int i = 0; i < numHashes; i++)
+        {
+            int index = ((h1 + i*h2) & Integer.MAX_VALUE) % numBits;
+            long mask = 1L << index;
+
+            if ((bits[index >>> 6] & mask) == 0)
+            {
+                bits[index >>> 6] |= mask;
+                added = true;
+            }
+        }
+
+        if (added)
+        {
+            numKeys++;
+        }
+    }   //add
+
+    /**
+     * This method checks if the specified key might have been added to the filter.
+     *
+     * @param key specifies the key.
+     * @return true if the key might have been added, false if it definitely was not.
+     */
+    public synchronized boolean mightContain(String key)
+    {
+        long hash = hash(key);
+        int h1 = (int)hash;
+        int h2 = (int)(hash >>> 32);
+        boolean found = true;
+
+        for (int i = 0; i < numHashes && found; i++)
+        {
+            int index = ((h1 + i*h2) & Integer.MAX_VALUE) % numBits;
+            found = (bits[index >>> 6] & (1L << index)) != 0;
+        }
+
+        return found;
+    }   //mightContain
+
+    /**
+     * This method records that the complete key list of the specified season has been added to the filter.
+     *
+     * @param season specifies the season, 0 if the key list covers all seasons.
+     */
+    public synchronized void setComplete(int season)
+    {
+        completeTimes.put(season, System.currentTimeMillis());
+    }   //setComplete
+
+    /**
+     * This method checks if the specified key definitely does not exist. This is only known if the complete key
+     * list of the season has been added to the filter no longer than the specified time ago.
+     *
+     * @param key specifies the key.
+     * @param season specifies the season of the key, 0 if the key is not specific to a season.
+     * @param maxAge specifies the maximum age in milliseconds of the complete key list.
+     * @return true if the key definitely does not exist, false if it might.
+     */
+    public synchronized boolean isKnownAbsent(String key, int season, long maxAge)
+    {
+        return isComplete(season, maxAge) && !mightContain(key);
+    }   //isKnownAbsent
+
+    /**
+     * This method checks if the complete key list of the specified season has been added to the filter no longer
+     * than the specified time ago.
+     *
+     * @param season specifies the season, 0 if the key list covers all seasons.
+     * @param maxAge specifies the maximum age in milliseconds of the complete key list.
+     * @return true if the complete key list is known, false otherwise.
+     */
+    public synchronized boolean isComplete(int season, long maxAge)
+    {
+        Long completeTime = completeTimes.get(season);
+
+        return completeTime != null && System.currentTimeMillis() - completeTime < maxAge;
+    }   //isComplete
+
+    /**
+     * This method returns the approximate number of keys added to the filter.
+     *
+     * @return number of keys.
+     */
+    public synchronized int getNumKeys()
+    {
+        return numKeys;
+    }   //getNumKeys
+
+    /**
+     * This method writes the filter to the output stream.
+     *
+     * @param out specifies the output stream.
+     * @throws IOException when the write failed.
+     */
+    public synchronized void write(DataOutputStream out) throws IOException
+    {
+        out.writeInt(numBits);
+        out.writeInt(numHashes);
+        out.writeInt(numKeys);
+        for (long word: bits)
+        {
+            out.writeLong(word);
+        }
+
+        out.writeInt(completeTimes.size());
+        for (Map.Entry<Integer, Long> entry: completeTimes.entrySet())
+        {
+            out.writeInt(entry.getKey());
+            out.writeLong(entry.getValue());
+        }
+    }   //write
+
+    /**
+     * This method reads the filter written by the write method from the input stream, replacing the content of
+     * this filter.
+     *
+     * @param in specifies the input stream.
+     * @throws IOException when the read failed or the filter was written with a different size.
+     */
+    public synchronized void read(DataInputStream in) throws IOException
+    {
+        if (in.readInt() != numBits || in.readInt() != numHashes)
+        {
+            throw new IOException("Key filter size mismatch.");
+        }
+
+        numKeys = in.readInt();
+        for (int i = 0; i < bits.length; i++)
+        {
+            bits[i] = in.readLong();
+        }
+
+        completeTimes.clear();
+        for (int n = in.readInt(); n > 0; n--)
+        {
+            int season = in.readInt();
+            completeTimes.put(season, in.readLong());
+        }
+    }   //read
+
+    /**
+     * This method computes the 64-bit FNV-1a hash of the key, followed by a final mix. The two halves of the hash
+     * are combined to derive the bit indices of the key.
+     *
+     * @param key specifies the key.
+     * @return hash of the key.
+     */
+    private static long hash(String key)
+    {
+        long hash = 0xcbf29ce484222325L;
+
+        for (int i = 0; i < key.length(); i++)
+        {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+
+        //
+        // Mix the bits so that both halves depend on every character.
+        //
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+
+        return hash;
+    }   //hash
+
+}   //class KeyFilter
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2017 Titan Robotics Club (http://www.titanrobotics.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package webapi;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * This class keeps the recently observed latencies of the requests to each endpoint, so that percentiles of the
+ * latency can be estimated per endpoint. An endpoint is a request path with the parts that identify a particular
+ * team, event, match or year replaced by a wildcard, so that e.g. team/frc254/events/2018 and
+ * team/frc492/events/2017 share the statistics of team/&#42;/events/&#42;.
+ */
+public class LatencyTracker
+{
+    /**
+     * This class keeps the most recent latencies of an endpoint in a circular buffer.
+     */
+    private static class Window
+    {
+        final long[] samples;
+        int numSamples = 0;
+        int next = 0;
+
+        /**
+         * Constructor: Create an instance of the object.
+         *
+         * @param windowSize specifies the number of latencies to keep.
+         */
+        public Window(int windowSize)
+        {
+            samples = new long[windowSize];
+        }   //Window
+
+    }   //class Window
+
+    private final int windowSize;
+    private final HashMap<String, Window> windows = new HashMap<>();
+
+    /**
+     * Constructor: Create an instance of the object.
+     *
+     * @param windowSize specifies the number of most recent latencies kept per endpoint.
+     */
+    public LatencyTracker(int windowSize)
+    {
+        this.windowSize = windowSize;
+    }   //LatencyTracker
+
+    /**
+     * This method returns the endpoint of the specified request path. Path segments containing a digit are
+     * replaced by a wildcard and any query string is dropped.
+     *
+     * @param path specifies the request path.
+     * @return endpoint of the request.
+     */
+    public static String getEndpoint(String path)
+    {
+        int query = path.indexOf('?');
+        StringBuilder endpoint = new StringBuilder();
+
+        for (String segment: (query >= 0? path.substring(0, query): path).split("/"))
+        {
+            if (endpoint.length() > 0)
+            {
+                endpoint.append('/');
+            }
+            endpoint.append(segment.chars().anyMatch(Character::isDigit)? "*": segment);
+        }
+
+        return endpoint.toString();
+    }   //getEndpoint
+
+    /**
+     * This method records the latency of a request to the specified endpoint.
+     *
+     * @param endpoint specifies the endpoint.
+     * @param latency specifies the latency in milliseconds.
+     */
+    public synchronized void record(String endpoint, long latency)
+    {
+        Window window = windows.get(endpoint);
+
+        if (window == null)
+        {
+            window = new Window(windowSize);
+            windows.put(endpoint, window);
+        }
+
+        window.samples[window.next] = latency;
+        window.next = (window.next + 1)%windowSize;
+        window.numSamples = Math.min(window.numSamples + 1, windowSize);
+    }   //record
+
+    /**
+     * This method returns the specified percentile of the recent latencies of the endpoint.
+     *
+     * @param endpoint specifies the endpoint.
+     * @param percentile specifies the percentile between 0.0 and 1.0 (e.g. 0.95).
+     * @param minSamples specifies the minimum number of latencies needed for a meaningful estimate.
+     * @return latency percentile in milliseconds, -1 if fewer latencies than required have been recorded.
+     */
+    public synchronized long getPercentile(String endpoint, double percentile, int minSamples)
+    {
+        Window window = windows.get(endpoint);
+        long latency = -1;
+
+        if (window != null && window.numSamples >= minSamples)
+        {
+            long[] sorted = Arrays.copyOf(window.samples, window.numSamples);
+
+            Arrays.sort(sorted);
+            latency = sorted[Math.max(0, Math.min(sorted.length - 1, (int)Math.ceil(percentile*sorted.length) - 1))];
+        }
+
+        return latency;
+    }   //getPercentile
+
+}   //class LatencyTracker
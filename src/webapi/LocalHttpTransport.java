@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2017 Titan Robotics Club (http://www.titanrobotics.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package webapi;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * This class implements a transport that serves the responses from memory or from local files instead of a web
+ * server, so the program can be tested without network access. The response of a request is looked up by the path
+ * of its URL, first among the responses put in memory, then as a JSON file of the same path under the root
+ * directory (e.g. /api/v3/team/frc492 is served from &lt;RootDir&gt;/api/v3/team/frc492.json). Conditional
+ * requests are answered with "Not Modified" when the response has not changed.
+ */
+public class LocalHttpTransport implements HttpTransport
+{
+    private final File rootDir;
+    private final HashMap<String, byte[]> responseBodies = new HashMap<>();
+    private final HashMap<String, Long> modifiedTimes = new HashMap<>();
+
+    /**
+     * Constructor: Create an instance of the object.
+     *
+     * @param rootDir specifies the root directory of the response files, null to serve from memory only.
+     */
+    public LocalHttpTransport(File rootDir)
+    {
+        this.rootDir = rootDir;
+    }   //LocalHttpTransport
+
+    /**
+     * This method sets the response served for the specified path in memory.
+     *
+     * @param path specifies the URL path (e.g. /api/v3/team/frc492).
+     * @param body specifies the response body.
+     */
+    public synchronized void put(String path, String body)
+    {
+        responseBodies.put(path, body.getBytes(StandardCharsets.UTF_8));
+        modifiedTimes.put(path, System.currentTimeMillis());
+    }   //put
+
+    /**
+     * This method removes the response served for the specified path from memory.
+     *
+     * @param path specifies the URL path.
+     */
+    public synchronized void remove(String path)
+    {
+        responseBodies.remove(path);
+        modifiedTimes.remove(path);
+    }   //remove
+
+    //
+    // Implements the HttpTransport interface.
+    //
+
+    /**
+     * This method returns the name of the transport.
+     *
+     * @return transport name.
+     */
+    @Override
+    public String getName()
+    {
+        return "local";
+    }   //getName
+
+    /**
+     * This method looks up the response of the GET request in memory or in the local files.
+     *
+     * @param url specifies the request URL.
+     * @param requestHeaders specifies the request headers.
+     * @return response for the request, "Not Found" if there is none.
+     * @throws IOException when the response file could not be read.
+     */
+    @Override
+    public HttpResponse send(URL url, Map<String, String> requestHeaders) throws IOException
+    {
+        RequestContext.check();
+
+        String path = url.getPath();
+        TreeMap<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        byte[] body = null;
+        long modifiedTime = 0;
+        HttpResponse response;
+
+        synchronized (this)
+        {
+            body = responseBodies.get(path);
+            if (body != null)
+            {
+                modifiedTime = modifiedTimes.get(path);
+            }
+        }
+
+        if (body == null && rootDir != null && !path.contains(".."))
+        {
+            File file = new File(rootDir, path + ".json");
+
+            if (file.isFile())
+            {
+                body = Files.readAllBytes(file.toPath());
+                modifiedTime = file.lastModified();
+            }
+        }
+
+        if (body == null)
+        {
+            response = new HttpResponse(404, "Not Found", headers, new byte[0]);
+        }
+        else
+        {
+            TreeMap<String, String> conditions = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            String etag = "\"" + Integer.toHexString(Arrays.hashCode(body)) + "\"";
+            String ifNoneMatch;
+            long ifModifiedSince;
+
+            conditions.putAll(requestHeaders);
+            ifNoneMatch = conditions.get("If-None-Match");
+            ifModifiedSince = conditions.containsKey("If-Modified-Since")?
+                HttpResponse.parseDate(conditions.get("If-Modified-Since")): 0;
+            //
+            // HTTP dates have a resolution of one second.
+            //
+            modifiedTime -= modifiedTime%1000;
+            headers.put("ETag", etag);
+            headers.put("Last-Modified", HttpResponse.formatDate(modifiedTime));
+
+            if (ifNoneMatch != null? ifNoneMatch.equals(etag): ifModifiedSince != 0 && modifiedTime <= ifModifiedSince)
+            {
+                response = new HttpResponse(304, "Not Modified", headers, new byte[0]);
+            }
+            else
+            {
+                headers.put("Content-Type", "application/json; charset=utf-8");
+                response = new HttpResponse(200, "OK", headers, body);
+            }
+        }
+
+        return response;
+    }   //send
+
+    /**
+     * This method closes the connections kept open by the transport. There are none for local responses.
+     */
+    @Override
+    public void close()
+    {
+    }   //close
+
+}   //class LocalHttpTransport
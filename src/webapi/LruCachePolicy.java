@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2017 Titan Robotics Club (http://www.titanrobotics.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package webapi;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class implements a byte-weighted least recently used cache policy. When the total weight exceeds the
+ * capacity, the least recently used entries are evicted first.
+ */
+public class LruCachePolicy implements CachePolicy
+{
+    private final long capacity;
+    private final LinkedHashMap<String, Long> weights = new LinkedHashMap<>(16, 0.75f, true);
+    private long weightedSize = 0;
+
+    /**
+     * Constructor: Create an instance of the object.
+     *
+     * @param capacity specifies the capacity in bytes.
+     */
+    public LruCachePolicy(long capacity)
+    {
+        this.capacity = capacity;
+    }   //LruCachePolicy
+
+    //
+    // Implements the CachePolicy interface.
+    //
+
+    /**
+     * This method returns the name of the policy.
+     *
+     * @return policy name.
+     */
+    @Override
+    public String getName()
+    {
+        return "lru";
+    }   //getName
+
+    /**
+     * This method returns the capacity of the cache.
+     *
+     * @return capacity in bytes.
+     */
+    @Override
+    public long getCapacity()
+    {
+        return capacity;
+    }   //getCapacity
+
+    /**
+     * This method returns the total weight of the entries currently tracked by the policy.
+     *
+     * @return total weight in bytes.
+     */
+    @Override
+    public long getWeightedSize()
+    {
+        return weightedSize;
+    }   //getWeightedSize
+
+    /**
+     * This method records a cache hit on the specified key by moving it to the most recently used position.
+     *
+     * @param key specifies the key of the entry.
+     */
+    @Override
+    public void recordAccess(String key)
+    {
+        weights.get(key);
+    }   //recordAccess
+
+    /**
+     * This method records the insertion or replacement of an entry and evicts the least recently used entries
+     * until the total weight is within capacity.
+     *
+     * @param key specifies the key of the entry.
+     * @param weight specifies the weight of the entry in bytes.
+     * @return keys of the entries to be evicted, empty if none.
+     */
+    @Override
+    public List<String> recordInsert(String key, long weight)
+    {
+        ArrayList<String> victims = new ArrayList<>();
+        Long oldWeight = weights.put(key, weight);
+
+        weightedSize += weight - (oldWeight != null? oldWeight: 0);
+
+        Iterator<Map.Entry<String, Long>> iterator = weights.entrySet().iterator();
+        while (weightedSize > capacity && iterator.hasNext())
+        {
+            Map.Entry<String, Long> eldest = iterator.next();
+            victims.add(eldest.getKey());
+            weightedSize -= eldest.getValue();
+            iterator.remove();
+        }
+
+        return victims;
+    }   //recordInsert
+
+    /**
+     * This method records the removal of an entry that was not evicted by the policy.
+     *
+     * @param key specifies the key of the entry.
+     */
+    @Override
+    public void recordRemove(String key)
+    {
+        Long weight = weights.remove(key);
+
+        if (weight != null)
+        {
+            weightedSize -= weight;
+        }
+    }   //recordRemove
+
+    /**
+     * This method forgets all entries.
+     */
+    @Override
+    public void clear()
+    {
+        weights.clear();
+        weightedSize = 0;
+    }   //clear
+
+}   //class LruCachePolicy
@@ -0,0 +1,490 @@
+/*
+ * Copyright (c) 2017 Titan Robotics Club (http://www.titanrobotics.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package webapi;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.json.stream.JsonParser;
+
+/**
+ * This class represents a match as returned by the match requests, with both alliances and their score
+ * breakdowns. The times are in seconds since the epoch, 0 if unknown.
+ */
+public class Match
+{
+    /**
+     * This class represents an alliance of a match.
+     */
+    public static class Alliance
+    {
+        public final int score;
+        public final String[] teamKeys;
+        public final String[] surrogateTeamKeys;
+        public final String[] dqTeamKeys;
+
+        /**
+         * Constructor: Create an instance of the object.
+         *
+         * @param score specifies the score of the alliance, -1 if the match has not been played.
+         * @param teamKeys specifies the keys of the teams of the alliance.
+         * @param surrogateTeamKeys specifies the keys of the teams playing as surrogates.
+         * @param dqTeamKeys specifies the keys of the teams disqualified in the match.
+         */
+        public Alliance(int score, String[] teamKeys, String[] surrogateTeamKeys, String[] dqTeamKeys)
+        {
+            this.score = score;
+            this.teamKeys = teamKeys;
+            this.surrogateTeamKeys = surrogateTeamKeys;
+            this.dqTeamKeys = dqTeamKeys;
+        }   //Alliance
+
+        /**
+         * This method decodes the alliance from the JSON object whose START_OBJECT event has just been read.
+         *
+         * @param parser specifies the parser.
+         * @return decoded alliance.
+         */
+        static Alliance decode(JsonParser parser)
+        {
+            int score = -1;
+            String[] teamKeys = null;
+            String[] surrogateTeamKeys = null;
+            String[] dqTeamKeys = null;
+            JsonParser.Event event;
+
+            while ((event = parser.next()) != JsonParser.Event.END_OBJECT)
+            {
+                String field = parser.getString();
+
+                event = parser.next();
+                switch (field)
+                {
+                    case "score":
+                        score = ModelDecoder.readInt(parser, event, -1);
+                        break;
+
+                    case "team_keys":
+                        teamKeys = ModelDecoder.readKeys(parser, event);
+                        break;
+
+                    case "surrogate_team_keys":
+                        surrogateTeamKeys = ModelDecoder.readKeys(parser, event);
+                        break;
+
+                    case "dq_team_keys":
+                        dqTeamKeys = ModelDecoder.readKeys(parser, event);
+                        break;
+
+                    default:
+                        ModelDecoder.skipValue(parser, event);
+                        break;
+                }
+            }
+
+            return new Alliance(
+                score, teamKeys != null? teamKeys: ModelDecoder.NO_KEYS,
+                surrogateTeamKeys != null? surrogateTeamKeys: ModelDecoder.NO_KEYS,
+                dqTeamKeys != null? dqTeamKeys: ModelDecoder.NO_KEYS);
+        }   //decode
+
+    }   //class Alliance
+
+    /**
+     * This class represents the score breakdown of an alliance. The fields of the breakdown differ every season,
+     * so they are looked up by name. Numbers are kept as integers and booleans as 1 or 0, in a single array. The
+     * field names are shared by all the breakdowns with the same fields. Nested objects and arrays are skipped.
+     */
+    public static class ScoreBreakdown
+    {
+        private static final ConcurrentHashMap<List<String>, Layout> layouts = new ConcurrentHashMap<>();
+
+        /**
+         * This class represents the field names of the breakdowns with the same fields, in the same order.
+         */
+        private static class Layout
+        {
+            final List<String> names;
+            final HashMap<String, Integer> indices = new HashMap<>();
+
+            /**
+             * Constructor: Create an instance of the object.
+             *
+             * @param names specifies the field names.
+             */
+            Layout(List<String> names)
+            {
+                this.names = names;
+                for (int i = 0; i < names.size(); i++)
+                {
+                    indices.put(names.get(i), i);
+                }
+            }   //Layout
+
+        }   //class Layout
+
+        private final Layout layout;
+        private final int[] values;
+        private final String[] strings;
+
+        /**
+         * Constructor: Create an instance of the object.
+         *
+         * @param layout specifies the field names.
+         * @param values specifies the values of the number and boolean fields.
+         * @param strings specifies the values of the string fields, null if there are none.
+         */
+        private ScoreBreakdown(Layout layout, int[] values, String[] strings)
+        {
+            this.layout = layout;
+            this.values = values;
+            this.strings = strings;
+        }   //ScoreBreakdown
+
+        /**
+         * This method returns the field names of the breakdown.
+         *
+         * @return field names.
+         */
+        public List<String> getNames()
+        {
+            return layout.names;
+        }   //getNames
+
+        /**
+         * This method checks if the breakdown has the specified field.
+         *
+         * @param name specifies the field name.
+         * @return true if the breakdown has the field, false otherwise.
+         */
+        public boolean has(String name)
+        {
+            return layout.indices.containsKey(name);
+        }   //has
+
+        /**
+         * This method returns the value of the number or boolean field.
+         *
+         * @param name specifies the field name.
+         * @param defaultValue specifies the value returned if the field does not exist or is a string.
+         * @return field value.
+         */
+        public int getInt(String name, int defaultValue)
+        {
+            Integer index = layout.indices.get(name);
+
+            return index != null && (strings == null || strings[index] == null)? values[index]: defaultValue;
+        }   //getInt
+
+        /**
+         * This method returns the value of the boolean field.
+         *
+         * @param name specifies the field name.
+         * @return true if the field is true, false otherwise.
+         */
+        public boolean getBoolean(String name)
+        {
+            return getInt(name, 0) != 0;
+        }   //getBoolean
+
+        /**
+         * This method returns the value of the string field.
+         *
+         * @param name specifies the field name.
+         * @return field value, null if the field does not exist or is not a string.
+         */
+        public String getString(String name)
+        {
+            Integer index = layout.indices.get(name);
+
+            return index != null && strings != null? strings[index]: null;
+        }   //getString
+
+        /**
+         * This method decodes the score breakdown from the JSON object whose START_OBJECT event has just been
+         * read.
+         *
+         * @param parser specifies the parser.
+         * @return decoded score breakdown.
+         */
+        static ScoreBreakdown decode(JsonParser parser)
+        {
+            ArrayList<String> names = new ArrayList<>();
+            int[] values = new int[64];
+            String[] strings = null;
+            JsonParser.Event event;
+
+            while ((event = parser.next()) != JsonParser.Event.END_OBJECT)
+            {
+                String name = parser.getString();
+                int index = names.size();
+
+                event = parser.next();
+                if (event == JsonParser.Event.START_OBJECT || event == JsonParser.Event.START_ARRAY)
+                {
+                    ModelDecoder.skipValue(parser, event);
+                    continue;
+                }
+
+                if (index == values.length)
+                {
+                    values = Arrays.copyOf(values, index*2);
+                }
+                names.add(name);
+                if (event == JsonParser.Event.VALUE_STRING)
+                {
+                    if (strings == null)
+                    {
+                        strings = new String[values.length];
+                    }
+                    else if (strings.length < values.length)
+                    {
+                        strings = Arrays.copyOf(strings, values.length);
+                    }
+                    strings[index] = ModelDecoder.readKey(parser, event);
+                }
+                else if (event == JsonParser.Event.VALUE_NUMBER)
+                {
+                    values[index] = parser.getInt();
+                }
+                else
+                {
+                    values[index] = event == JsonParser.Event.VALUE_TRUE? 1: 0;
+                }
+            }
+
+            Layout layout = layouts.get(names);
+            if (layout == null)
+            {
+                List<String> sharedNames = new ArrayList<>(names.size());
+
+                for (String name: names)
+                {
+                    sharedNames.add(name.intern());
+                }
+                layout = new Layout(Collections.unmodifiableList(sharedNames));
+                Layout prevLayout = layouts.putIfAbsent(layout.names, layout);
+                if (prevLayout != null)
+                {
+                    layout = prevLayout;
+                }
+            }
+
+            return new ScoreBreakdown(
+                layout, Arrays.copyOf(values, names.size()),
+                strings != null? Arrays.copyOf(strings, names.size()): null);
+        }   //decode
+
+    }   //class ScoreBreakdown
+
+    public final String key;
+    public final String eventKey;
+    public final String compLevel;
+    public final int setNumber;
+    public final int matchNumber;
+    public final String winningAlliance;
+    public final long time;
+    public final long actualTime;
+    public final long predictedTime;
+    public final Alliance red;
+    public final Alliance blue;
+    public final ScoreBreakdown redBreakdown;
+    public final ScoreBreakdown blueBreakdown;
+
+    /**
+     * Constructor: Create an instance of the object.
+     *
+     * @param key specifies the match key, such as "2018wasno_qm1".
+     * @param eventKey specifies the key of the event of the match.
+     * @param compLevel specifies the competition level, one of qm, ef, qf, sf and f.
+     * @param setNumber specifies the set number of the match in an elimination series.
+     * @param matchNumber specifies the match number.
+     * @param winningAlliance specifies the winning alliance, red or blue, empty if tied or not played.
+     * @param time specifies the scheduled time of the match.
+     * @param actualTime specifies the time the match was played.
+     * @param predictedTime specifies the predicted time of the match.
+     * @param red specifies the red alliance, null if none.
+     * @param blue specifies the blue alliance, null if none.
+     * @param redBreakdown specifies the score breakdown of the red alliance, null if none.
+     * @param blueBreakdown specifies the score breakdown of the blue alliance, null if none.
+     */
+    public Match(
+        String key, String eventKey, String compLevel, int setNumber, int matchNumber, String winningAlliance,
+        long time, long actualTime, long predictedTime, Alliance red, Alliance blue, ScoreBreakdown redBreakdown,
+        ScoreBreakdown blueBreakdown)
+    {
+        this.key = key;
+        this.eventKey = eventKey;
+        this.compLevel = compLevel;
+        this.setNumber = setNumber;
+        this.matchNumber = matchNumber;
+        this.winningAlliance = winningAlliance;
+        this.time = time;
+        this.actualTime = actualTime;
+        this.predictedTime = predictedTime;
+        this.red = red;
+        this.blue = blue;
+        this.redBreakdown = redBreakdown;
+        this.blueBreakdown = blueBreakdown;
+    }   //Match
+
+    /**
+     * This method decodes the match from the JSON object whose START_OBJECT event has just been read.
+     *
+     * @param parser specifies the parser.
+     * @return decoded match.
+     */
+    public static Match decode(JsonParser parser)
+    {
+        String key = null;
+        String eventKey = null;
+        String compLevel = null;
+        int setNumber = 0;
+        int matchNumber = 0;
+        String winningAlliance = null;
+        long time = 0;
+        long actualTime = 0;
+        long predictedTime = 0;
+        Alliance[] alliances = new Alliance[2];
+        ScoreBreakdown[] breakdowns = new ScoreBreakdown[2];
+        JsonParser.Event event;
+
+        while ((event = parser.next()) != JsonParser.Event.END_OBJECT)
+        {
+            String field = parser.getString();
+
+            event = parser.next();
+            switch (field)
+            {
+                case "key":
+                    key = ModelDecoder.readString(parser, event);
+                    break;
+
+                case "event_key":
+                    eventKey = ModelDecoder.readKey(parser, event);
+                    break;
+
+                case "comp_level":
+                    compLevel = ModelDecoder.readKey(parser, event);
+                    break;
+
+                case "set_number":
+                    setNumber = ModelDecoder.readInt(parser, event, 0);
+                    break;
+
+                case "match_number":
+                    matchNumber = ModelDecoder.readInt(parser, event, 0);
+                    break;
+
+                case "winning_alliance":
+                    winningAlliance = ModelDecoder.readKey(parser, event);
+                    break;
+
+                case "time":
+                    time = ModelDecoder.readLong(parser, event, 0);
+                    break;
+
+                case "actual_time":
+                    actualTime = ModelDecoder.readLong(parser, event, 0);
+                    break;
+
+                case "predicted_time":
+                    predictedTime = ModelDecoder.readLong(parser, event, 0);
+                    break;
+
+                case "alliances":
+                    decodeAlliances(parser, event, alliances, null);
+                    break;
+
+                case "score_breakdown":
+                    decodeAlliances(parser, event, null, breakdowns);
+                    break;
+
+                default:
+                    ModelDecoder.skipValue(parser, event);
+                    break;
+            }
+        }
+
+        return new Match(
+            key, eventKey, compLevel, setNumber, matchNumber, winningAlliance, time, actualTime, predictedTime,
+            alliances[0], alliances[1], breakdowns[0], breakdowns[1]);
+    }   //decode
+
+    /**
+     * This method decodes the red and blue members of the alliances or the score breakdown object.
+     *
+     * @param parser specifies the parser.
+     * @param event specifies the first event of the object.
+     * @param alliances specifies the array to store the red and blue alliances in, null if decoding breakdowns.
+     * @param breakdowns specifies the array to store the red and blue breakdowns in, null if decoding alliances.
+     */
+    private static void decodeAlliances(
+        JsonParser parser, JsonParser.Event event, Alliance[] alliances, ScoreBreakdown[] breakdowns)
+    {
+        if (event == JsonParser.Event.START_OBJECT)
+        {
+            while ((event = parser.next()) != JsonParser.Event.END_OBJECT)
+            {
+                String color = parser.getString();
+                int index = color.equals("red")? 0: color.equals("blue")? 1: -1;
+
+                event = parser.next();
+                if (index >= 0 && event == JsonParser.Event.START_OBJECT)
+                {
+                    if (alliances != null)
+                    {
+                        alliances[index] = Alliance.decode(parser);
+                    }
+                    else
+                    {
+                        breakdowns[index] = ScoreBreakdown.decode(parser);
+                    }
+                }
+                else
+                {
+                    ModelDecoder.skipValue(parser, event);
+                }
+            }
+        }
+        else
+        {
+            ModelDecoder.skipValue(parser, event);
+        }
+    }   //decodeAlliances
+
+    /**
+     * This method returns the string form of the match for display.
+     *
+     * @return string form of the match.
+     */
+    @Override
+    public String toString()
+    {
+        return key + ": " + (red != null? red.score: -1) + "-" + (blue != null? blue.score: -1);
+    }   //toString
+
+}   //class Match
@@ -0,0 +1,431 @@
+/*
+ * Copyright (c) 2017 Titan Robotics Club (http://www.titanrobotics.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package webapi;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonObject;
+import javax.json.JsonStructure;
+import javax.json.stream.JsonParser;
+import javax.json.stream.JsonParserFactory;
+import javax.json.stream.JsonParsingException;
+
+/**
+ * This class decodes the replied JSON data into typed model objects such as Team or Match. The models are decoded
+ * straight from the parser events, so a model read from the response stream never exists as a JSON structure. The
+ * data is either a single JSON object, an array of them, or an object holding the array in one of its members.
+ * This class also provides the helpers the models use to read their fields from the parser.
+ *
+ * @param <T> specifies the model type.
+ */
+public class ModelDecoder<T> implements JsonConsumer
+{
+    /**
+     * This interface specifies the method that decodes a model from the parser.
+     *
+     * @param <T> specifies the model type.
+     */
+    public interface Decoder<T>
+    {
+        /**
+         * This method decodes the model from the JSON object whose START_OBJECT event has just been read. It reads
+         * up to and including the END_OBJECT event of the object.
+         *
+         * @param parser specifies the parser.
+         * @return decoded model.
+         */
+        T decode(JsonParser parser);
+
+    }   //interface Decoder
+
+    static final String[] NO_KEYS = new String[0];
+    private static final JsonParserFactory parserFactory = Json.createParserFactory(null);
+
+    private final Decoder<T> decoder;
+    private final String listName;
+    private List<T> models = null;
+
+    /**
+     * Constructor: Create an instance of the object.
+     *
+     * @param decoder specifies the method that decodes a model.
+     * @param listName specifies the member of the top-level object holding the array of models, null if the data
+     *        is the model or the array of models itself.
+     */
+    public ModelDecoder(Decoder<T> decoder, String listName)
+    {
+        this.decoder = decoder;
+        this.listName = listName;
+    }   //ModelDecoder
+
+    /**
+     * This method returns the decoded models.
+     *
+     * @return decoded models, null if no data was decoded.
+     */
+    public List<T> getModels()
+    {
+        return models;
+    }   //getModels
+
+    /**
+     * This method returns the first decoded model, which is the model itself if the data was a single object.
+     *
+     * @return decoded model, null if there is none.
+     */
+    public T getModel()
+    {
+        return models != null && !models.isEmpty()? models.get(0): null;
+    }   //getModel
+
+    //
+    // Implements the JsonConsumer interface.
+    //
+
+    /**
+     * This method decodes the models from the parsed JSON data.
+     *
+     * @param data specifies the JSON structure.
+     */
+    @Override
+    public void accept(JsonStructure data)
+    {
+        try (JsonParser parser = data instanceof JsonObject?
+                parserFactory.createParser((JsonObject)data): parserFactory.createParser((JsonArray)data))
+        {
+            decode(parser);
+        }
+    }   //accept
+
+    /**
+     * This method decodes the models from the JSON data read from the input stream as it is parsed.
+     *
+     * @param is specifies the input stream of the JSON text.
+     * @throws JsonParsingException when the JSON text is invalid.
+     */
+    @Override
+    public void accept(InputStream is) throws JsonParsingException
+    {
+        try (JsonParser parser = Json.createParser(is))
+        {
+            decode(parser);
+        }
+    }   //accept
+
+    /**
+     * This method decodes the models from the parser. The whole top-level structure is read even if the models
+     * are found early, so invalid JSON text is always detected.
+     *
+     * @param parser specifies the parser.
+     * @throws JsonParsingException when the JSON text is invalid.
+     */
+    private void decode(JsonParser parser) throws JsonParsingException
+    {
+        ArrayList<T> list = new ArrayList<>();
+
+        if (!parser.hasNext())
+        {
+            throw new JsonParsingException("No JSON data.", parser.getLocation());
+        }
+
+        JsonParser.Event event = parser.next();
+        if (listName != null && event == JsonParser.Event.START_OBJECT)
+        {
+            while ((event = parser.next()) != JsonParser.Event.END_OBJECT)
+            {
+                boolean isList = parser.getString().equals(listName);
+
+                event = parser.next();
+                if (isList)
+                {
+                    decodeValue(parser, event, list);
+                }
+                else
+                {
+                    skipValue(parser, event);
+                }
+            }
+        }
+        else
+        {
+            decodeValue(parser, event, list);
+        }
+
+        list.trimToSize();
+        models = Collections.unmodifiableList(list);
+    }   //decode
+
+    /**
+     * This method decodes the models from the JSON value, which is either a model or an array of models. Anything
+     * else is skipped.
+     *
+     * @param parser specifies the parser.
+     * @param event specifies the first event of the value.
+     * @param list specifies the list to add the models to.
+     */
+    private void decodeValue(JsonParser parser, JsonParser.Event event, List<T> list)
+    {
+        if (event == JsonParser.Event.START_OBJECT)
+        {
+            list.add(decoder.decode(parser));
+        }
+        else if (event == JsonParser.Event.START_ARRAY)
+        {
+            while ((event = parser.next()) != JsonParser.Event.END_ARRAY)
+            {
+                decodeValue(parser, event, list);
+            }
+        }
+        else
+        {
+            skipValue(parser, event);
+        }
+    }   //decodeValue
+
+    //
+    // Helpers for decoding the fields of the models.
+    //
+
+    /**
+     * This method skips the JSON value, including all its nested values.
+     *
+     * @param parser specifies the parser.
+     * @param event specifies the first event of the value.
+     */
+    static void skipValue(JsonParser parser, JsonParser.Event event)
+    {
+        if (event == JsonParser.Event.START_OBJECT || event == JsonParser.Event.START_ARRAY)
+        {
+            int depth = 1;
+
+            while (depth > 0)
+            {
+                event = parser.next();
+                if (event == JsonParser.Event.START_OBJECT || event == JsonParser.Event.START_ARRAY)
+                {
+                    depth++;
+                }
+                else if (event == JsonParser.Event.END_OBJECT || event == JsonParser.Event.END_ARRAY)
+                {
+                    depth--;
+                }
+            }
+        }
+    }   //skipValue
+
+    /**
+     * This method reads a string value. A number is read as its text.
+     *
+     * @param parser specifies the parser.
+     * @param event specifies the first event of the value.
+     * @return string value, null if the value is null or not a string.
+     */
+    static String readString(JsonParser parser, JsonParser.Event event)
+    {
+        String value = null;
+
+        if (event == JsonParser.Event.VALUE_STRING || event == JsonParser.Event.VALUE_NUMBER)
+        {
+            value = parser.getString();
+        }
+        else
+        {
+            skipValue(parser, event);
+        }
+
+        return value;
+    }   //readString
+
+    /**
+     * This method reads a string value that is repeated across many models, such as a team or event key. The
+     * string is interned so all the models share a single copy.
+     *
+     * @param parser specifies the parser.
+     * @param event specifies the first event of the value.
+     * @return interned string value, null if the value is null or not a string.
+     */
+    static String readKey(JsonParser parser, JsonParser.Event event)
+    {
+        String value = readString(parser, event);
+
+        return value != null? value.intern(): null;
+    }   //readKey
+
+    /**
+     * This method reads an integer value.
+     *
+     * @param parser specifies the parser.
+     * @param event specifies the first event of the value.
+     * @param defaultValue specifies the value returned if the value is null or not a number.
+     * @return integer value.
+     */
+    static int readInt(JsonParser parser, JsonParser.Event event, int defaultValue)
+    {
+        int value = defaultValue;
+
+        if (event == JsonParser.Event.VALUE_NUMBER)
+        {
+            value = parser.getInt();
+        }
+        else
+        {
+            skipValue(parser, event);
+        }
+
+        return value;
+    }   //readInt
+
+    /**
+     * This method reads a long integer value.
+     *
+     * @param parser specifies the parser.
+     * @param event specifies the first event of the value.
+     * @param defaultValue specifies the value returned if the value is null or not a number.
+     * @return long integer value.
+     */
+    static long readLong(JsonParser parser, JsonParser.Event event, long defaultValue)
+    {
+        long value = defaultValue;
+
+        if (event == JsonParser.Event.VALUE_NUMBER)
+        {
+            value = parser.getLong();
+        }
+        else
+        {
+            skipValue(parser, event);
+        }
+
+        return value;
+    }   //readLong
+
+    /**
+     * This method reads a floating point value.
+     *
+     * @param parser specifies the parser.
+     * @param event specifies the first event of the value.
+     * @param defaultValue specifies the value returned if the value is null or not a number.
+     * @return floating point value.
+     */
+    static double readDouble(JsonParser parser, JsonParser.Event event, double defaultValue)
+    {
+        double value = defaultValue;
+
+        if (event == JsonParser.Event.VALUE_NUMBER)
+        {
+            value = parser.getBigDecimal().doubleValue();
+        }
+        else
+        {
+            skipValue(parser, event);
+        }
+
+        return value;
+    }   //readDouble
+
+    /**
+     * This method reads a boolean value.
+     *
+     * @param parser specifies the parser.
+     * @param event specifies the first event of the value.
+     * @return true if the value is true, false otherwise.
+     */
+    static boolean readBoolean(JsonParser parser, JsonParser.Event event)
+    {
+        skipValue(parser, event);
+
+        return event == JsonParser.Event.VALUE_TRUE;
+    }   //readBoolean
+
+    /**
+     * This method reads an array of keys, such as the team keys of an alliance. The keys are interned.
+     *
+     * @param parser specifies the parser.
+     * @param event specifies the first event of the value.
+     * @return array of keys, empty if the value is not an array.
+     */
+    static String[] readKeys(JsonParser parser, JsonParser.Event event)
+    {
+        String[] keys = NO_KEYS;
+
+        if (event == JsonParser.Event.START_ARRAY)
+        {
+            ArrayList<String> list = new ArrayList<>();
+
+            while ((event = parser.next()) != JsonParser.Event.END_ARRAY)
+            {
+                list.add(readKey(parser, event));
+            }
+
+            if (!list.isEmpty())
+            {
+                keys = list.toArray(new String[list.size()]);
+            }
+        }
+        else
+        {
+            skipValue(parser, event);
+        }
+
+        return keys;
+    }   //readKeys
+
+    /**
+     * This method reads an array of numbers.
+     *
+     * @param parser specifies the parser.
+     * @param event specifies the first event of the value.
+     * @return array of numbers, empty if the value is not an array. Elements that are not numbers are NaN.
+     */
+    static double[] readDoubles(JsonParser parser, JsonParser.Event event)
+    {
+        double[] values = new double[0];
+
+        if (event == JsonParser.Event.START_ARRAY)
+        {
+            int count = 0;
+
+            while ((event = parser.next()) != JsonParser.Event.END_ARRAY)
+            {
+                if (count == values.length)
+                {
+                    values = Arrays.copyOf(values, Math.max(8, count*2));
+                }
+                values[count++] = readDouble(parser, event, Double.NaN);
+            }
+            values = Arrays.copyOf(values, count);
+        }
+        else
+        {
+            skipValue(parser, event);
+        }
+
+        return values;
+    }   //readDoubles
+
+}   //class ModelDecoder
@@ -0,0 +1,937 @@
+/*
+ * Copyright (c) 2017 Titan Robotics Club (http://www.titanrobotics.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package webapi;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * This class implements a persistent response cache on the local disk that can be shared by several processes.
+ * The cache is an append-only log file of records, each containing the request URL, the validators and
+ * expiration time of the response and the response body. A memory-mapped index file maps the hash of each URL to
+ * its latest record, so the cache can be opened without scanning the log. Access is coordinated between processes
+ * by locking the index file, shared for lookups and exclusive for updates. Records superseded by a newer one
+ * become garbage which is reclaimed by compacting the log file in a background thread. Compaction also drops the
+ * oldest records if the live data grows beyond the size limit. The log file is rewritten in place rather than
+ * replaced, because a file held open by other processes cannot be replaced on every platform. Each compaction
+ * increments the generation number in the index file, telling the other processes to remap the index file.
+ */
+public class PersistentCache
+{
+    private static final int FILE_MAGIC = 0x54424143;           //"TBAC"
+    private static final int FILE_VERSION = 2;
+    private static final int FILE_HEADER_SIZE = 8;
+    private static final int RECORD_MAGIC = 0x5245434f;         //"RECO"
+    private static final int INDEX_MAGIC = 0x54424149;          //"TBAI"
+    private static final int INDEX_VERSION = 1;
+    private static final int INDEX_HEADER_SIZE = 64;
+    private static final int INDEX_GENERATION = 8;
+    private static final int INDEX_LOG_LENGTH = 16;
+    private static final int INDEX_LIVE_BYTES = 24;
+    private static final int INDEX_NUM_SLOTS = 32;
+    private static final int INDEX_NUM_ENTRIES = 36;
+    private static final int INDEX_COMPACTING = 40;
+    private static final int SLOT_SIZE = 24;
+    private static final int MIN_INDEX_SLOTS = 4096;
+    private static final double MAX_LOAD_FACTOR = 0.75;
+    private static final long MIN_COMPACTION_SIZE = 1024*1024;
+    private static final String LOG_FILE_NAME = "responses.log";
+    private static final String INDEX_FILE_NAME = "responses.idx";
+    private static final String TEMP_FILE_NAME = "responses.tmp";
+    private static final String COMPACTION_LOCK_FILE_NAME = "compaction.lock";
+
+    /**
+     * This class represents a cached response read back from the disk.
+     */
+    public class Entry
+    {
+        public final long lastModified;
+        public final String etag;
+        public final long expireTime;
+        public final byte[] body;
+
+        /**
+         * Constructor: Create an instance of the object.
+         *
+         * @param lastModified specifies the last modified time stamp.
+         * @param etag specifies the entity tag, null if none.
+         * @param expireTime specifies the time the response becomes stale.
+         * @param body specifies the response body.
+         */
+        public Entry(long lastModified, String etag, long expireTime, byte[] body)
+        {
+            this.lastModified = lastModified;
+            this.etag = etag;
+            this.expireTime = expireTime;
+            this.body = body;
+        }   //Entry
+
+    }   //class Entry
+
+    /**
+     * This class represents the location of the latest record of a URL in the log file.
+     */
+    private class IndexEntry
+    {
+        long urlHash;
+        long recordOffset;
+        int recordSize;
+
+        /**
+         * Constructor: Create an instance of the object.
+         *
+         * @param urlHash specifies the hash of the request URL.
+         * @param recordOffset specifies the file offset of the record.
+         * @param recordSize specifies the size of the record in bytes.
+         */
+        public IndexEntry(long urlHash, long recordOffset, int recordSize)
+        {
+            this.urlHash = urlHash;
+            this.recordOffset = recordOffset;
+            this.recordSize = recordSize;
+        }   //IndexEntry
+
+    }   //class IndexEntry
+
+    private final File cacheDir;
+    private final File logFile;
+    private final long maxBytes;
+    private FileChannel indexChannel;
+    private MappedByteBuffer index;
+    private FileLock indexLock = null;
+    private RandomAccessFile log = null;
+    private long generation = -1;
+    private Thread compactionThread = null;
+
+    /**
+     * Constructor: Create an instance of the object. It opens the index and log files in the specified cache
+     * directory, creating them if necessary. If the index file is missing or does not match the log file, it is
+     * rebuilt from the records in the log file.
+     *
+     * @param cacheDir specifies the cache directory.
+     * @param maxBytes specifies the maximum size of the live data in bytes.
+     * @throws RuntimeException when the cache files cannot be opened.
+     */
+    public PersistentCache(File cacheDir, long maxBytes) throws RuntimeException
+    {
+        this.cacheDir = cacheDir;
+        this.logFile = new File(cacheDir, LOG_FILE_NAME);
+        this.maxBytes = maxBytes;
+
+        try
+        {
+            if (!cacheDir.isDirectory() && !cacheDir.mkdirs())
+            {
+                throw new IOException("Failed to create directory.");
+            }
+
+            indexChannel = FileChannel.open(
+                new File(cacheDir, INDEX_FILE_NAME).toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+            indexLock = indexChannel.lock();
+            if (!isIndexValid())
+            {
+                rebuildIndex();
+            }
+            syncGeneration();
+        }
+        catch (IOException e)
+        {
+            throw new RuntimeException("Failed to open cache <" + cacheDir + ">.\n" + e.getMessage());
+        }
+        finally
+        {
+            unlockIndex();
+        }
+
+        scheduleCompaction();
+    }   //PersistentCache
+
+    /**
+     * This method returns the cached response of the specified URL.
+     *
+     * @param url specifies the request URL.
+     * @return cached response, null if not found.
+     */
+    public synchronized Entry get(String url)
+    {
+        Entry entry = null;
+
+        try
+        {
+            lockIndex(true);
+            long urlHash = hash(url);
+            int slot = findSlot(urlHash);
+
+            if (index.getLong(slotOffset(slot)) == urlHash)
+            {
+                byte[] record = new byte[index.getInt(slotOffset(slot) + 16)];
+                log.seek(index.getLong(slotOffset(slot) + 8));
+                log.readFully(record);
+                entry = decodeRecord(url, record);
+            }
+        }
+        catch (IOException e)
+        {
+            //
+            // The cache is best effort, treat a read failure as a cache miss.
+            //
+            entry = null;
+        }
+        finally
+        {
+            unlockIndex();
+        }
+
+        return entry;
+    }   //get
+
+    /**
+     * This method stores the response of the specified URL, superseding any previous record of the URL.
+     *
+     * @param url specifies the request URL.
+     * @param lastModified specifies the last modified time stamp.
+     * @param etag specifies the entity tag, null if none.
+     * @param expireTime specifies the time the response becomes stale.
+     * @param body specifies the response body.
+     */
+    public synchronized void put(String url, long lastModified, String etag, long expireTime, byte[] body)
+    {
+        try
+        {
+            lockIndex(false);
+            byte[] record = encodeRecord(url, lastModified, etag, expireTime, body);
+            long urlHash = hash(url);
+
+            if (index.getInt(INDEX_NUM_ENTRIES) + 1 > index.getInt(INDEX_NUM_SLOTS)*MAX_LOAD_FACTOR)
+            {
+                writeIndex(readIndex(), index.getLong(INDEX_LOG_LENGTH), index.getLong(INDEX_LIVE_BYTES));
+            }
+
+            //
+            // The record is appended at the end of the log recorded in the index, overwriting any partial record
+            // left behind by an interrupted write. It only becomes visible once the index is updated.
+            //
+            long logLength = index.getLong(INDEX_LOG_LENGTH);
+            log.seek(logLength);
+            log.write(record);
+
+            int slot = findSlot(urlHash);
+            int offset = slotOffset(slot);
+            long liveBytes = index.getLong(INDEX_LIVE_BYTES) + record.length;
+            if (index.getLong(offset) == urlHash)
+            {
+                liveBytes -= index.getInt(offset + 16);
+            }
+            else
+            {
+                index.putInt(INDEX_NUM_ENTRIES, index.getInt(INDEX_NUM_ENTRIES) + 1);
+            }
+            index.putLong(offset, urlHash);
+            index.putLong(offset + 8, logLength);
+            index.putInt(offset + 16, record.length);
+            index.putLong(INDEX_LIVE_BYTES, liveBytes);
+            index.putLong(INDEX_LOG_LENGTH, logLength + record.length);
+        }
+        catch (IOException e)
+        {
+            //
+            // The cache is best effort, the response is just not persisted.
+            //
+        }
+        finally
+        {
+            unlockIndex();
+        }
+
+        scheduleCompaction();
+    }   //put
+
+    /**
+     * This method returns the total size of the log file in bytes.
+     *
+     * @return size of the log file.
+     */
+    public synchronized long getFileSize()
+    {
+        long fileSize;
+
+        try
+        {
+            lockIndex(true);
+            fileSize = index.getLong(INDEX_LOG_LENGTH);
+        }
+        catch (IOException e)
+        {
+            fileSize = 0;
+        }
+        finally
+        {
+            unlockIndex();
+        }
+
+        return fileSize;
+    }   //getFileSize
+
+    /**
+     * This method returns the size of the live records in bytes.
+     *
+     * @return size of the live records.
+     */
+    public synchronized long getLiveSize()
+    {
+        long liveSize;
+
+        try
+        {
+            lockIndex(true);
+            liveSize = index.getLong(INDEX_LIVE_BYTES);
+        }
+        catch (IOException e)
+        {
+            liveSize = 0;
+        }
+        finally
+        {
+            unlockIndex();
+        }
+
+        return liveSize;
+    }   //getLiveSize
+
+    /**
+     * This method locks the index file against the other processes and picks up any index resize or compaction
+     * done by them. If a compaction was interrupted while rewriting the log file, the index is rebuilt, in which
+     * case the lock is exclusive even if a shared one was requested. The lock must be released by calling
+     * unlockIndex. The caller must hold the lock of this object, because a process can only hold one lock on the
+     * file at a time.
+     *
+     * @param shared specifies true for a shared lock to read the cache, false for an exclusive lock to update it.
+     * @throws IOException when the file cannot be locked or reopened.
+     */
+    private void lockIndex(boolean shared) throws IOException
+    {
+        indexLock = indexChannel.lock(0, Long.MAX_VALUE, shared);
+        syncGeneration();
+
+        if (index.getInt(INDEX_COMPACTING) != 0)
+        {
+            //
+            // A process died while rewriting the log file. Rebuild the index from the records that are left.
+            //
+            if (shared)
+            {
+                indexLock.release();
+                indexLock = indexChannel.lock();
+                syncGeneration();
+            }
+
+            if (index.getInt(INDEX_COMPACTING) != 0)
+            {
+                rebuildIndex();
+                syncGeneration();
+            }
+        }
+    }   //lockIndex
+
+    /**
+     * This method releases the lock of the index file if it is held.
+     */
+    private void unlockIndex()
+    {
+        if (indexLock != null)
+        {
+            try
+            {
+                indexLock.release();
+            }
+            catch (IOException e)
+            {
+                //
+                // The lock is released anyway when the channel is closed.
+                //
+            }
+            indexLock = null;
+        }
+    }   //unlockIndex
+
+    /**
+     * This method remaps the index file and reopens the log file if the generation number in the index file has
+     * changed since they were last opened. The caller must hold the file lock.
+     *
+     * @throws IOException when the files cannot be opened.
+     */
+    private void syncGeneration() throws IOException
+    {
+        if (index == null || index.getLong(INDEX_GENERATION) != generation)
+        {
+            index = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, indexChannel.size());
+            generation = index.getLong(INDEX_GENERATION);
+            if (log != null)
+            {
+                log.close();
+            }
+            log = new RandomAccessFile(logFile, "rw");
+        }
+    }   //syncGeneration
+
+    /**
+     * This method checks if the index file is usable with the log file. The caller must hold the file lock.
+     *
+     * @return true if the index file is usable, false if it must be rebuilt.
+     * @throws IOException when the files cannot be read.
+     */
+    private boolean isIndexValid() throws IOException
+    {
+        boolean valid = false;
+
+        if (indexChannel.size() >= INDEX_HEADER_SIZE)
+        {
+            MappedByteBuffer header = indexChannel.map(FileChannel.MapMode.READ_ONLY, 0, INDEX_HEADER_SIZE);
+            long numSlots = header.getInt(INDEX_NUM_SLOTS);
+
+            valid = header.getInt(0) == INDEX_MAGIC && header.getInt(4) == INDEX_VERSION &&
+                    header.getInt(INDEX_COMPACTING) == 0 &&
+                    numSlots >= MIN_INDEX_SLOTS && (numSlots & (numSlots - 1)) == 0 &&
+                    indexChannel.size() >= INDEX_HEADER_SIZE + numSlots*SLOT_SIZE &&
+                    header.getLong(INDEX_LOG_LENGTH) <= logFile.length();
+        }
+
+        return valid;
+    }   //isIndexValid
+
+    /**
+     * This method rebuilds the index file by scanning the log file. If the log file is not a recognized log file,
+     * it is discarded. The caller must hold the exclusive file lock.
+     *
+     * @throws IOException when the files cannot be read or written.
+     */
+    private void rebuildIndex() throws IOException
+    {
+        HashMap<Long, IndexEntry> entries = new HashMap<>();
+        long logLength = FILE_HEADER_SIZE;
+        boolean valid = false;
+
+        if (logFile.isFile() && logFile.length() >= FILE_HEADER_SIZE)
+        {
+            try (RandomAccessFile raf = new RandomAccessFile(logFile, "r"))
+            {
+                valid = raf.readInt() == FILE_MAGIC && raf.readInt() == FILE_VERSION;
+                if (valid)
+                {
+                    logLength = scanRecords(raf, FILE_HEADER_SIZE, raf.length(), entries);
+                }
+            }
+        }
+
+        if (!valid)
+        {
+            try (RandomAccessFile raf = new RandomAccessFile(logFile, "rw"))
+            {
+                raf.setLength(0);
+                raf.writeInt(FILE_MAGIC);
+                raf.writeInt(FILE_VERSION);
+            }
+        }
+
+        long liveBytes = 0;
+        for (IndexEntry entry: entries.values())
+        {
+            liveBytes += entry.recordSize;
+        }
+        writeIndex(entries.values(), logLength, liveBytes);
+    }   //rebuildIndex
+
+    /**
+     * This method scans the records in the specified range of the log file and adds them to the index entries,
+     * superseding the entries of the same URL. Scanning stops at the first incomplete or corrupted record, so a
+     * log file truncated by a crash is still usable.
+     *
+     * @param raf specifies the log file.
+     * @param start specifies the file offset of the first record.
+     * @param end specifies the file offset to stop scanning at.
+     * @param entries specifies the index entries keyed by URL hash, updated by this method.
+     * @return file offset after the last complete record.
+     * @throws IOException when the file cannot be read.
+     */
+    private long scanRecords(RandomAccessFile raf, long start, long end, HashMap<Long, IndexEntry> entries)
+        throws IOException
+    {
+        DataInputStream in = new DataInputStream(
+            new BufferedInputStream(Channels.newInputStream(raf.getChannel().position(start))));
+        long offset = start;
+
+        try
+        {
+            while (offset < end && in.readInt() == RECORD_MAGIC)
+            {
+                int urlLength = in.readInt();
+                if (urlLength < 0 || urlLength > end - offset)
+                {
+                    break;
+                }
+                byte[] urlBytes = new byte[urlLength];
+                in.readFully(urlBytes);
+                in.readLong();
+                in.readLong();
+                int etagLength = in.readInt();
+                if (etagLength < 0 || in.skipBytes(etagLength) != etagLength)
+                {
+                    break;
+                }
+                int bodyLength = in.readInt();
+                if (bodyLength < 0 || in.skipBytes(bodyLength) != bodyLength)
+                {
+                    break;
+                }
+
+                int recordSize = 4 + 4 + urlLength + 8 + 8 + 4 + etagLength + 4 + bodyLength;
+                if (offset + recordSize > end)
+                {
+                    break;
+                }
+                long urlHash = hash(new String(urlBytes, StandardCharsets.UTF_8));
+                entries.put(urlHash, new IndexEntry(urlHash, offset, recordSize));
+                offset += recordSize;
+            }
+        }
+        catch (EOFException e)
+        {
+            //
+            // Reached the end of the file or a truncated record.
+            //
+        }
+
+        return offset;
+    }   //scanRecords
+
+    /**
+     * This method reads all entries of the index file. The caller must hold the file lock.
+     *
+     * @return index entries.
+     */
+    private List<IndexEntry> readIndex()
+    {
+        int numSlots = index.getInt(INDEX_NUM_SLOTS);
+        ArrayList<IndexEntry> entries = new ArrayList<>(index.getInt(INDEX_NUM_ENTRIES));
+
+        for (int slot = 0; slot < numSlots; slot++)
+        {
+            int offset = slotOffset(slot);
+            long urlHash = index.getLong(offset);
+
+            if (urlHash != 0)
+            {
+                entries.add(new IndexEntry(urlHash, index.getLong(offset + 8), index.getInt(offset + 16)));
+            }
+        }
+
+        return entries;
+    }   //readIndex
+
+    /**
+     * This method rewrites the index file with the specified entries and increments its generation number. The
+     * index file is never shrunk, because the other processes may still have it mapped. The caller must hold the
+     * exclusive file lock.
+     *
+     * @param entries specifies the index entries.
+     * @param logLength specifies the length of the log file.
+     * @param liveBytes specifies the size of the live records in bytes.
+     * @throws IOException when the index file cannot be written.
+     */
+    private void writeIndex(Collection<IndexEntry> entries, long logLength, long liveBytes) throws IOException
+    {
+        int numSlots = MIN_INDEX_SLOTS;
+        while (numSlots*MAX_LOAD_FACTOR < 2*entries.size())
+        {
+            numSlots *= 2;
+        }
+
+        long indexSize = INDEX_HEADER_SIZE + (long)numSlots*SLOT_SIZE;
+        long oldGeneration = index != null? index.getLong(INDEX_GENERATION): 0;
+        if (index == null || index.capacity() < indexSize)
+        {
+            index = indexChannel.map(
+                FileChannel.MapMode.READ_WRITE, 0, Math.max(indexSize, indexChannel.size()));
+        }
+
+        for (int i = 0; i < indexSize; i += 8)
+        {
+            index.putLong(i, 0);
+        }
+        index.putInt(INDEX_NUM_SLOTS, numSlots);
+        for (IndexEntry entry: entries)
+        {
+            int offset = slotOffset(findSlot(entry.urlHash));
+            index.putLong(offset, entry.urlHash);
+            index.putLong(offset + 8, entry.recordOffset);
+            index.putInt(offset + 16, entry.recordSize);
+        }
+        index.putInt(0, INDEX_MAGIC);
+        index.putInt(4, INDEX_VERSION);
+        index.putLong(INDEX_GENERATION, Math.max(oldGeneration, generation) + 1);
+        index.putLong(INDEX_LOG_LENGTH, logLength);
+        index.putLong(INDEX_LIVE_BYTES, liveBytes);
+        index.putInt(INDEX_NUM_ENTRIES, entries.size());
+    }   //writeIndex
+
+    /**
+     * This method finds the index slot of the URL hash by linear probing. The caller must hold the file lock.
+     *
+     * @param urlHash specifies the hash of the request URL.
+     * @return slot holding the hash, or the empty slot where it would be added.
+     */
+    private int findSlot(long urlHash)
+    {
+        int mask = index.getInt(INDEX_NUM_SLOTS) - 1;
+        int slot = (int)(urlHash ^ (urlHash >>> 32)) & mask;
+
+        while (index.getLong(slotOffset(slot)) != 0 && index.getLong(slotOffset(slot)) != urlHash)
+        {
+            slot = (slot + 1) & mask;
+        }
+
+        return slot;
+    }   //findSlot
+
+    /**
+     * This method returns the offset of the index slot in the index file.
+     *
+     * @param slot specifies the slot.
+     * @return offset of the slot.
+     */
+    private static int slotOffset(int slot)
+    {
+        return INDEX_HEADER_SIZE + slot*SLOT_SIZE;
+    }   //slotOffset
+
+    /**
+     * This method computes the 64-bit hash of the URL. Zero marks an empty index slot, so it is never returned.
+     *
+     * @param url specifies the request URL.
+     * @return hash of the URL.
+     */
+    private static long hash(String url)
+    {
+        long hash = 0xcbf29ce484222325L;
+
+        for (int i = 0; i < url.length(); i++)
+        {
+            hash ^= url.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+
+        return hash != 0? hash: 1;
+    }   //hash
+
+    /**
+     * This method encodes a log record.
+     *
+     * @param url specifies the request URL.
+     * @param lastModified specifies the last modified time stamp.
+     * @param etag specifies the entity tag, null if none.
+     * @param expireTime specifies the time the response becomes stale.
+     * @param body specifies the response body.
+     * @return encoded record.
+     * @throws IOException when encoding failed.
+     */
+    private byte[] encodeRecord(String url, long lastModified, String etag, long expireTime, byte[] body)
+        throws IOException
+    {
+        byte[] urlBytes = url.getBytes(StandardCharsets.UTF_8);
+        byte[] etagBytes = (etag != null? etag: "").getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(
+            4 + 4 + urlBytes.length + 8 + 8 + 4 + etagBytes.length + 4 + body.length);
+        DataOutputStream out = new DataOutputStream(buffer);
+
+        out.writeInt(RECORD_MAGIC);
+        out.writeInt(urlBytes.length);
+        out.write(urlBytes);
+        out.writeLong(lastModified);
+        out.writeLong(expireTime);
+        out.writeInt(etagBytes.length);
+        out.write(etagBytes);
+        out.writeInt(body.length);
+        out.write(body);
+        out.flush();
+
+        return buffer.toByteArray();
+    }   //encodeRecord
+
+    /**
+     * This method decodes a log record. The URL of the record is checked, because different URLs may share the
+     * same hash and the index may refer to a record that has been overwritten after a crash.
+     *
+     * @param url specifies the request URL.
+     * @param record specifies the encoded record.
+     * @return cached response, null if the record is not a record of the URL.
+     * @throws IOException when the record is corrupted.
+     */
+    private Entry decodeRecord(String url, byte[] record) throws IOException
+    {
+        Entry entry = null;
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+
+        if (in.readInt() == RECORD_MAGIC)
+        {
+            int urlLength = in.readInt();
+            if (urlLength >= 0 && urlLength <= in.available())
+            {
+                byte[] urlBytes = new byte[urlLength];
+                in.readFully(urlBytes);
+                if (url.equals(new String(urlBytes, StandardCharsets.UTF_8)))
+                {
+                    long lastModified = in.readLong();
+                    long expireTime = in.readLong();
+                    byte[] etagBytes = readBytes(in);
+                    byte[] body = readBytes(in);
+                    entry = new Entry(
+                        lastModified, etagBytes.length > 0? new String(etagBytes, StandardCharsets.UTF_8): null,
+                        expireTime, body);
+                }
+            }
+        }
+
+        return entry;
+    }   //decodeRecord
+
+    /**
+     * This method reads a length-prefixed byte array of a record.
+     *
+     * @param in specifies the input stream of the record.
+     * @return byte array.
+     * @throws IOException when the length is not within the record.
+     */
+    private static byte[] readBytes(DataInputStream in) throws IOException
+    {
+        int length = in.readInt();
+
+        if (length < 0 || length > in.available())
+        {
+            throw new IOException("Corrupted record.");
+        }
+
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+
+        return bytes;
+    }   //readBytes
+
+    /**
+     * This method starts a background compaction if the log file contains too much garbage or the live data
+     * exceeds the size limit.
+     */
+    private synchronized void scheduleCompaction()
+    {
+        long logLength = getFileSize();
+        long liveBytes = getLiveSize();
+        long garbageBytes = logLength - FILE_HEADER_SIZE - liveBytes;
+
+        if (compactionThread == null && logLength >= MIN_COMPACTION_SIZE &&
+            (garbageBytes > liveBytes || liveBytes > maxBytes))
+        {
+            //
+            // The compaction thread is not a daemon so that a batch mode JVM will wait for it to finish before
+            // exiting.
+            //
+            compactionThread = new Thread(this::compact, "CacheCompaction");
+            compactionThread.start();
+        }
+    }   //scheduleCompaction
+
+    /**
+     * This method compacts the log file. Only one process compacts at a time, the others skip compaction. The
+     * live records are copied to a temporary file without holding the index lock, so lookups and new records are
+     * not blocked while copying. Records written during the copy are transferred with the exclusive index lock
+     * held before the compacted records are copied back over the log file. A failure is reported on the standard
+     * error stream since nobody waits for the compaction thread.
+     */
+    private void compact()
+    {
+        File tempFile = new File(cacheDir, TEMP_FILE_NAME);
+
+        try (FileChannel compactionChannel = FileChannel.open(
+                 new File(cacheDir, COMPACTION_LOCK_FILE_NAME).toPath(), StandardOpenOption.CREATE,
+                 StandardOpenOption.WRITE);
+             FileLock compactionLock = compactionChannel.tryLock())
+        {
+            if (compactionLock != null)
+            {
+                compact(tempFile);
+            }
+        }
+        catch (IOException | RuntimeException e)
+        {
+            //
+            // Compaction failed, keep using the old log file. Nobody waits for this thread, so report it here.
+            //
+            System.err.println("Failed to compact cache <" + cacheDir + ">: " + e);
+        }
+        finally
+        {
+            tempFile.delete();
+            synchronized (this)
+            {
+                compactionThread = null;
+            }
+        }
+    }   //compact
+
+    /**
+     * This method compacts the log file by way of the specified temporary file. The caller must hold the compaction
+     * lock, so no other process compacts the log file at the same time. The live records are first copied to the
+     * temporary file, then copied back over the log file with the exclusive index lock held. The index is marked
+     * while the log file is being rewritten, so that if the process dies halfway, the next process to lock the
+     * index rebuilds it from the log file.
+     *
+     * @param tempFile specifies the temporary file.
+     * @throws IOException when the files cannot be read or written.
+     */
+    private void compact(File tempFile) throws IOException
+    {
+        List<IndexEntry> snapshot;
+        long snapshotLength;
+
+        synchronized (this)
+        {
+            try
+            {
+                lockIndex(true);
+                snapshot = readIndex();
+                snapshotLength = index.getLong(INDEX_LOG_LENGTH);
+            }
+            finally
+            {
+                unlockIndex();
+            }
+        }
+
+        //
+        // Keep the most recently written records that fit within the size limit.
+        //
+        snapshot.sort((a, b) -> Long.compare(b.recordOffset, a.recordOffset));
+
+        HashMap<Long, IndexEntry> newEntries = new HashMap<>();
+        long newLength = FILE_HEADER_SIZE;
+        long newLiveBytes = 0;
+
+        try (RandomAccessFile src = new RandomAccessFile(logFile, "r");
+             RandomAccessFile dst = new RandomAccessFile(tempFile, "rw"))
+        {
+            dst.setLength(0);
+            dst.writeInt(FILE_MAGIC);
+            dst.writeInt(FILE_VERSION);
+
+            for (IndexEntry entry: snapshot)
+            {
+                if (newLiveBytes + entry.recordSize <= maxBytes)
+                {
+                    byte[] record = new byte[entry.recordSize];
+                    src.seek(entry.recordOffset);
+                    src.readFully(record);
+                    dst.write(record);
+                    newEntries.put(entry.urlHash, new IndexEntry(entry.urlHash, newLength, entry.recordSize));
+                    newLength += entry.recordSize;
+                    newLiveBytes += entry.recordSize;
+                }
+            }
+        }
+
+        synchronized (this)
+        {
+            try (RandomAccessFile dst = new RandomAccessFile(tempFile, "rw"))
+            {
+                lockIndex(false);
+                //
+                // Transfer the records written since the snapshot was taken, by any process.
+                //
+                long logLength = index.getLong(INDEX_LOG_LENGTH);
+                HashMap<Long, IndexEntry> newRecords = new HashMap<>();
+                scanRecords(log, snapshotLength, logLength, newRecords);
+
+                for (IndexEntry entry: newRecords.values())
+                {
+                    byte[] record = new byte[entry.recordSize];
+                    log.seek(entry.recordOffset);
+                    log.readFully(record);
+                    dst.seek(newLength);
+                    dst.write(record);
+
+                    IndexEntry oldEntry =
+                        newEntries.put(entry.urlHash, new IndexEntry(entry.urlHash, newLength, entry.recordSize));
+                    if (oldEntry != null)
+                    {
+                        newLiveBytes -= oldEntry.recordSize;
+                    }
+                    newLength += entry.recordSize;
+                    newLiveBytes += entry.recordSize;
+                }
+
+                index.putInt(INDEX_COMPACTING, 1);
+                index.force();
+
+                FileChannel src = dst.getChannel().position(0);
+                FileChannel logChannel = log.getChannel();
+                for (long position = 0; position < newLength;)
+                {
+                    long numBytes = logChannel.transferFrom(src, position, newLength - position);
+                    if (numBytes <= 0)
+                    {
+                        throw new EOFException("Compacted log file is truncated.");
+                    }
+                    position += numBytes;
+                }
+                log.setLength(newLength);
+                log.getFD().sync();
+
+                writeIndex(newEntries.values(), newLength, newLiveBytes);
+                generation = index.getLong(INDEX_GENERATION);
+            }
+            finally
+            {
+                unlockIndex();
+            }
+        }
+    }   //compact
+
+}   //class PersistentCache
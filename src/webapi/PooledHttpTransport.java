@@ -0,0 +1,601 @@
+/*
+ * Copyright (c) 2017 Titan Robotics Club (http://www.titanrobotics.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package webapi;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.MalformedURLException;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+
+/**
+ * This class implements the transport that keeps a pool of persistent HTTP/1.1 connections to each web server.
+ * A request is sent on an idle connection if there is one, so it does not pay for the TCP and TLS handshakes again.
+ * TLS sessions are resumed through the session cache of the default SSL context when a new connection is opened.
+ * Connections can be opened ahead of time by prewarming the pool. The connections are opened directly to the web
+ * server, the proxy settings and the default ProxySelector are not used.
+ */
+public class PooledHttpTransport implements HttpTransport
+{
+    /**
+     * This class represents a connection to a web server.
+     */
+    private static class Connection
+    {
+        final String hostKey;
+        final Socket socket;
+        final InputStream in;
+        final OutputStream out;
+        long idleTime = 0;
+        boolean keepAlive = false;
+        boolean responseStarted = false;
+
+        /**
+         * Constructor: Create an instance of the object.
+         *
+         * @param hostKey specifies the scheme, host and port of the web server.
+         * @param socket specifies the connected socket.
+         * @throws IOException when the socket streams could not be opened.
+         */
+        public Connection(String hostKey, Socket socket) throws IOException
+        {
+            this.hostKey = hostKey;
+            this.socket = socket;
+            this.in = new BufferedInputStream(socket.getInputStream());
+            this.out = new BufferedOutputStream(socket.getOutputStream());
+        }   //Connection
+
+        /**
+         * This method closes the connection, ignoring any error.
+         */
+        public void close()
+        {
+            try
+            {
+                socket.close();
+            }
+            catch (IOException e)
+            {
+                // Nothing to do, the connection is discarded anyway.
+            }
+        }   //close
+
+    }   //class Connection
+
+    private static final int CONNECT_TIMEOUT = 10000;
+    private static final int READ_TIMEOUT = 30000;
+    private static final long MAX_IDLE_TIME = 30000;
+    private static final int MAX_IDLE_CONNECTIONS = 8;
+
+    private final SSLSocketFactory sslSocketFactory = (SSLSocketFactory)SSLSocketFactory.getDefault();
+    private final HashMap<String, ArrayDeque<Connection>> idleConnections = new HashMap<>();
+    private long connectionCount = 0;
+    private long reuseCount = 0;
+
+    /**
+     * This method opens the specified number of connections to the web server of the specified URL in the
+     * background and adds them to the pool, so the first requests do not wait for the handshakes.
+     *
+     * @param urlString specifies the URL of the web server.
+     * @param numConnections specifies the number of connections to open.
+     */
+    public void prewarm(String urlString, int numConnections)
+    {
+        Thread thread = new Thread(
+            () ->
+            {
+                for (int i = 0; i < numConnections; i++)
+                {
+                    try
+                    {
+                        Connection conn = connect(new URL(urlString));
+
+                        conn.keepAlive = true;
+                        release(conn);
+                    }
+                    catch (IOException e)
+                    {
+                        //
+                        // Not fatal, the requests will open their own connections and report the error.
+                        //
+                        break;
+                    }
+                }
+            },
+            "Prewarm");
+
+        thread.setDaemon(true);
+        thread.start();
+    }   //prewarm
+
+    /**
+     * This method returns the number of connections opened so far.
+     *
+     * @return number of connections opened.
+     */
+    public synchronized long getConnectionCount()
+    {
+        return connectionCount;
+    }   //getConnectionCount
+
+    /**
+     * This method returns the number of requests sent on a connection taken from the pool.
+     *
+     * @return number of reused connections.
+     */
+    public synchronized long getReuseCount()
+    {
+        return reuseCount;
+    }   //getReuseCount
+
+    //
+    // Implements the HttpTransport interface.
+    //
+
+    /**
+     * This method returns the name of the transport.
+     *
+     * @return transport name.
+     */
+    @Override
+    public String getName()
+    {
+        return "pooled";
+    }   //getName
+
+    /**
+     * This method sends a GET request to the web server and returns its response. The response body is read
+     * completely before the method returns. If a pooled connection turns out to have been closed or reset by the
+     * web server before any byte of the response was read, the request is sent again on another connection since
+     * GET requests can safely be repeated. Any other failure, such as a read timeout, is not retried here. The
+     * connect and read timeouts are bounded by the time left in the request context, and the connection is closed
+     * if the context is cancelled.
+     *
+     * @param url specifies the request URL.
+     * @param requestHeaders specifies the request headers.
+     * @return response of the web server.
+     * @throws IOException when the web server could not be reached or the connection failed.
+     */
+    @Override
+    public HttpResponse send(URL url, Map<String, String> requestHeaders) throws IOException
+    {
+        String hostKey = getHostKey(url);
+        RequestContext context = RequestContext.current();
+        HttpResponse response = null;
+
+        while (response == null)
+        {
+            RequestContext.check();
+
+            Connection conn = acquire(hostKey);
+            boolean reused = conn != null;
+
+            if (!reused)
+            {
+                conn = connect(url);
+            }
+
+            Runnable abort = conn::close;
+            if (context != null)
+            {
+                context.addCancelListener(abort);
+            }
+
+            try
+            {
+                conn.socket.setSoTimeout(RequestContext.getTimeout(READ_TIMEOUT));
+                response = exchange(conn, url, requestHeaders);
+                release(conn);
+            }
+            catch (IOException e)
+            {
+                conn.close();
+                if (!reused || conn.responseStarted || !(e instanceof EOFException || e instanceof SocketException) ||
+                    context != null && context.isDone())
+                {
+                    throw e;
+                }
+            }
+            finally
+            {
+                if (context != null)
+                {
+                    context.removeCancelListener(abort);
+                }
+            }
+        }
+
+        return response;
+    }   //send
+
+    /**
+     * This method closes all idle connections in the pool.
+     */
+    @Override
+    public synchronized void close()
+    {
+        for (ArrayDeque<Connection> connections: idleConnections.values())
+        {
+            for (Connection conn: connections)
+            {
+                conn.close();
+            }
+        }
+        idleConnections.clear();
+    }   //close
+
+    /**
+     * This method takes the most recently used idle connection to the web server from the pool. Connections idle
+     * for too long are closed since the web server has most likely closed them already.
+     *
+     * @param hostKey specifies the scheme, host and port of the web server.
+     * @return idle connection, null if there is none.
+     */
+    private synchronized Connection acquire(String hostKey)
+    {
+        ArrayDeque<Connection> connections = idleConnections.get(hostKey);
+        Connection conn = null;
+        long currTime = System.currentTimeMillis();
+
+        while (conn == null && connections != null && !connections.isEmpty())
+        {
+            conn = connections.pollFirst();
+            if (currTime - conn.idleTime > MAX_IDLE_TIME || conn.socket.isClosed())
+            {
+                conn.close();
+                conn = null;
+            }
+        }
+
+        if (conn != null)
+        {
+            reuseCount++;
+        }
+
+        return conn;
+    }   //acquire
+
+    /**
+     * This method returns the connection to the pool, or closes it if it cannot be reused or the pool is full.
+     *
+     * @param conn specifies the connection.
+     */
+    private synchronized void release(Connection conn)
+    {
+        ArrayDeque<Connection> connections = idleConnections.get(conn.hostKey);
+
+        if (connections == null)
+        {
+            connections = new ArrayDeque<>();
+            idleConnections.put(conn.hostKey, connections);
+        }
+
+        if (conn.keepAlive && connections.size() < MAX_IDLE_CONNECTIONS)
+        {
+            conn.idleTime = System.currentTimeMillis();
+            connections.addFirst(conn);
+        }
+        else
+        {
+            conn.close();
+        }
+    }   //release
+
+    /**
+     * This method opens a new connection to the web server of the specified URL. For HTTPS, the TLS handshake is
+     * completed and the host name of the web server is verified.
+     *
+     * @param url specifies the URL of the web server.
+     * @return new connection.
+     * @throws IOException when the connection failed.
+     */
+    private Connection connect(URL url) throws IOException
+    {
+        boolean secure = url.getProtocol().equals("https");
+
+        if (!secure && !url.getProtocol().equals("http"))
+        {
+            throw new MalformedURLException("Unsupported protocol <" + url.getProtocol() + ">.");
+        }
+
+        int port = url.getPort() != -1? url.getPort(): url.getDefaultPort();
+        Socket socket = new Socket();
+        try
+        {
+            socket.connect(new InetSocketAddress(url.getHost(), port), RequestContext.getTimeout(CONNECT_TIMEOUT));
+            socket.setSoTimeout(RequestContext.getTimeout(READ_TIMEOUT));
+            socket.setTcpNoDelay(true);
+            if (secure)
+            {
+                SSLSocket sslSocket = (SSLSocket)sslSocketFactory.createSocket(socket, url.getHost(), port, true);
+                SSLParameters sslParams = sslSocket.getSSLParameters();
+
+                sslParams.setEndpointIdentificationAlgorithm("HTTPS");
+                sslSocket.setSSLParameters(sslParams);
+                sslSocket.startHandshake();
+                socket = sslSocket;
+            }
+        }
+        catch (IOException e)
+        {
+            socket.close();
+            throw e;
+        }
+
+        synchronized (this)
+        {
+            connectionCount++;
+        }
+
+        return new Connection(getHostKey(url), socket);
+    }   //connect
+
+    /**
+     * This method sends the GET request on the connection and reads the response. It also determines whether the
+     * connection can be reused after the response.
+     *
+     * @param conn specifies the connection.
+     * @param url specifies the request URL.
+     * @param requestHeaders specifies the request headers.
+     * @return response of the web server.
+     * @throws IOException when the connection failed.
+     */
+    private HttpResponse exchange(Connection conn, URL url, Map<String, String> requestHeaders) throws IOException
+    {
+        StringBuilder request = new StringBuilder();
+        String file = url.getFile();
+
+        request.append("GET ").append(file.isEmpty()? "/": file).append(" HTTP/1.1\r\n");
+        request.append("Host: ").append(url.getHost());
+        if (url.getPort() != -1)
+        {
+            request.append(':').append(url.getPort());
+        }
+        request.append("\r\n");
+        for (Map.Entry<String, String> header: requestHeaders.entrySet())
+        {
+            request.append(header.getKey()).append(": ").append(header.getValue()).append("\r\n");
+        }
+        request.append("\r\n");
+        conn.responseStarted = false;
+        conn.out.write(request.toString().getBytes(StandardCharsets.ISO_8859_1));
+        conn.out.flush();
+
+        //
+        // A pooled connection closed by the web server fails before the first byte of the response, which is when
+        // the request can still be sent again.
+        //
+        conn.in.mark(1);
+        if (conn.in.read() == -1)
+        {
+            throw new EOFException("Connection closed by the web server.");
+        }
+        conn.in.reset();
+        conn.responseStarted = true;
+
+        //
+        // Skip any informational responses.
+        //
+        String[] status;
+        int statusCode;
+        TreeMap<String, String> headers;
+        do
+        {
+            String statusLine = readLine(conn.in);
+            status = statusLine.split(" ", 3);
+            try
+            {
+                statusCode = Integer.parseInt(status[1]);
+            }
+            catch (ArrayIndexOutOfBoundsException | NumberFormatException e)
+            {
+                throw new IOException("Invalid status line <" + statusLine + ">.");
+            }
+            headers = readHeaders(conn.in);
+        } while (statusCode >= 100 && statusCode < 200);
+
+        String connection = headers.get("Connection");
+        conn.keepAlive = status[0].equals("HTTP/1.1")?
+            !"close".equalsIgnoreCase(connection): "keep-alive".equalsIgnoreCase(connection);
+
+        byte[] body;
+        String transferEncoding = headers.get("Transfer-Encoding");
+        String contentLength = headers.get("Content-Length");
+        if (statusCode == 204 || statusCode == 304)
+        {
+            body = new byte[0];
+        }
+        else if (transferEncoding != null && transferEncoding.toLowerCase().contains("chunked"))
+        {
+            body = readChunkedBody(conn.in);
+        }
+        else if (contentLength != null)
+        {
+            try
+            {
+                body = readFully(conn.in, Integer.parseInt(contentLength.trim()));
+            }
+            catch (NumberFormatException e)
+            {
+                throw new IOException("Invalid Content-Length <" + contentLength + ">.");
+            }
+        }
+        else
+        {
+            //
+            // The body extends to the end of the connection.
+            //
+            body = HttpResponse.readBody(conn.in);
+            conn.keepAlive = false;
+        }
+
+        return new HttpResponse(statusCode, status.length == 3? status[2]: "", headers, body);
+    }   //exchange
+
+    /**
+     * This method reads the header lines up to the empty line that ends them. Repeated headers are combined into
+     * a comma separated list.
+     *
+     * @param in specifies the input stream of the connection.
+     * @return headers read.
+     * @throws IOException when the connection failed.
+     */
+    private TreeMap<String, String> readHeaders(InputStream in) throws IOException
+    {
+        TreeMap<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+        for (String line = readLine(in); !line.isEmpty(); line = readLine(in))
+        {
+            int colon = line.indexOf(':');
+
+            if (colon > 0)
+            {
+                String name = line.substring(0, colon).trim();
+                String value = line.substring(colon + 1).trim();
+                String prevValue = headers.get(name);
+
+                headers.put(name, prevValue != null? prevValue + ", " + value: value);
+            }
+        }
+
+        return headers;
+    }   //readHeaders
+
+    /**
+     * This method reads a body sent with chunked transfer encoding, including the trailer that ends it.
+     *
+     * @param in specifies the input stream of the connection.
+     * @return body read.
+     * @throws IOException when the connection failed or the chunks are malformed.
+     */
+    private byte[] readChunkedBody(InputStream in) throws IOException
+    {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        int chunkSize;
+
+        do
+        {
+            String line = readLine(in);
+            int semicolon = line.indexOf(';');
+            try
+            {
+                chunkSize = Integer.parseInt((semicolon >= 0? line.substring(0, semicolon): line).trim(), 16);
+            }
+            catch (NumberFormatException e)
+            {
+                throw new IOException("Invalid chunk size <" + line + ">.");
+            }
+
+            if (chunkSize > 0)
+            {
+                body.write(readFully(in, chunkSize));
+                readLine(in);
+            }
+        } while (chunkSize > 0);
+        readHeaders(in);
+
+        return body.toByteArray();
+    }   //readChunkedBody
+
+    /**
+     * This method reads exactly the specified number of bytes.
+     *
+     * @param in specifies the input stream of the connection.
+     * @param length specifies the number of bytes to read.
+     * @return bytes read.
+     * @throws IOException when the connection failed or was closed early.
+     */
+    private byte[] readFully(InputStream in, int length) throws IOException
+    {
+        byte[] data = new byte[length];
+        int offset = 0;
+
+        while (offset < length)
+        {
+            int len = in.read(data, offset, length - offset);
+            if (len == -1)
+            {
+                throw new EOFException("Connection closed before end of body.");
+            }
+            offset += len;
+        }
+
+        return data;
+    }   //readFully
+
+    /**
+     * This method reads a line terminated by CRLF or LF.
+     *
+     * @param in specifies the input stream of the connection.
+     * @return line read without the terminator.
+     * @throws IOException when the connection failed or was closed.
+     */
+    private String readLine(InputStream in) throws IOException
+    {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+
+        while ((b = in.read()) != '\n')
+        {
+            if (b == -1)
+            {
+                throw new EOFException("Connection closed by the web server.");
+            }
+            else if (b != '\r')
+            {
+                line.write(b);
+            }
+        }
+
+        return new String(line.toByteArray(), StandardCharsets.ISO_8859_1);
+    }   //readLine
+
+    /**
+     * This method returns the key identifying the web server of the specified URL in the pool.
+     *
+     * @param url specifies the URL.
+     * @return scheme, host and port of the web server.
+     */
+    private static String getHostKey(URL url)
+    {
+        return url.getProtocol() + "://" + url.getHost().toLowerCase() + ":" +
+               (url.getPort() != -1? url.getPort(): url.getDefaultPort());
+    }   //getHostKey
+
+}   //class PooledHttpTransport
@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2017 Titan Robotics Club (http://www.titanrobotics.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package webapi;
+
+import javax.json.stream.JsonParser;
+
+/**
+ * This class represents the ranking of a team at an event as returned by the event rankings request. The meaning
+ * of the sort orders depends on the season and is described by the sort order info of the rankings.
+ */
+public class Ranking
+{
+    public final int rank;
+    public final String teamKey;
+    public final int matchesPlayed;
+    public final int wins;
+    public final int losses;
+    public final int ties;
+    public final int dq;
+    public final double qualAverage;
+    public final double[] sortOrders;
+
+    /**
+     * Constructor: Create an instance of the object.
+     *
+     * @param rank specifies the rank of the team.
+     * @param teamKey specifies the team key.
+     * @param matchesPlayed specifies the number of matches played.
+     * @param wins specifies the number of qualification matches won.
+     * @param losses specifies the number of qualification matches lost.
+     * @param ties specifies the number of qualification matches tied.
+     * @param dq specifies the number of times the team was disqualified.
+     * @param qualAverage specifies the average qualification score, NaN if not ranked by it.
+     * @param sortOrders specifies the values the ranking is sorted by.
+     */
+    public Ranking(
+        int rank, String teamKey, int matchesPlayed, int wins, int losses, int ties, int dq, double qualAverage,
+        double[] sortOrders)
+    {
+        this.rank = rank;
+        this.teamKey = teamKey;
+        this.matchesPlayed = matchesPlayed;
+        this.wins = wins;
+        this.losses = losses;
+        this.ties = ties;
+        this.dq = dq;
+        this.qualAverage = qualAverage;
+        this.sortOrders = sortOrders;
+    }   //Ranking
+
+    /**
+     * This method decodes the ranking from the JSON object whose START_OBJECT event has just been read.
+     *
+     * @param parser specifies the parser.
+     * @return decoded ranking.
+     */
+    public static Ranking decode(JsonParser parser)
+    {
+        int rank = 0;
+        String teamKey = null;
+        int matchesPlayed = 0;
+        int wins = 0;
+        int losses = 0;
+        int ties = 0;
+        int dq = 0;
+        double qualAverage = Double.NaN;
+        double[] sortOrders = null;
+        JsonParser.Event event;
+
+        while ((event = parser.next()) != JsonParser.Event.END_OBJECT)
+        {
+            String field = parser.getString();
+
+            event = parser.next();
+            switch (field)
+            {
+                case "rank":
+                    rank = ModelDecoder.readInt(parser, event, 0);
+                    break;
+
+                case "team_key":
+                    teamKey = ModelDecoder.readKey(parser, event);
+                    break;
+
+                case "matches_played":
+                    matchesPlayed = ModelDecoder.readInt(parser, event, 0);
+                    break;
+
+                case "dq":
+                    dq = ModelDecoder.readInt(parser, event, 0);
+                    break;
+
+                case "qual_average":
+                    qualAverage = ModelDecoder.readDouble(parser, event, Double.NaN);
+                    break;
+
+                case "sort_orders":
+                    sortOrders = ModelDecoder.readDoubles(parser, event);
+                    break;
+
+                case "record":
+                    if (event == JsonParser.Event.START_OBJECT)
+                    {
+                        while ((event = parser.next()) != JsonParser.Event.END_OBJECT)
+                        {
+                            String recordField = parser.getString();
+
+                            event = parser.next();
+                            if (recordField.equals("wins"))
+                            {
+                                wins = ModelDecoder.readInt(parser, event, 0);
+                            }
+                            else if (recordField.equals("losses"))
+                            {
+                                losses = ModelDecoder.readInt(parser, event, 0);
+                            }
+                            else if (recordField.equals("ties"))
+                            {
+                                ties = ModelDecoder.readInt(parser, event, 0);
+                            }
+                            else
+                            {
+                                ModelDecoder.skipValue(parser, event);
+                            }
+                        }
+                    }
+                    else
+                    {
+                        ModelDecoder.skipValue(parser, event);
+                    }
+                    break;
+
+                default:
+                    ModelDecoder.skipValue(parser, event);
+                    break;
+            }
+        }
+
+        return new Ranking(
+            rank, teamKey, matchesPlayed, wins, losses, ties, dq, qualAverage,
+            sortOrders != null? sortOrders: new double[0]);
+    }   //decode
+
+    /**
+     * This method returns the string form of the ranking for display.
+     *
+     * @return string form of the ranking.
+     */
+    @Override
+    public String toString()
+    {
+        return rank + ": " + teamKey;
+    }   //toString
+
+}   //class Ranking
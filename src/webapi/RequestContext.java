@@ -0,0 +1,429 @@
+/*
+ * Copyright (c) 2017 Titan Robotics Club (http://www.titanrobotics.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package webapi;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * This class carries the deadline and the cancellation of a command across all the requests made on its behalf.
+ * The context is attached to the thread running the command, and the asynchronous requests started by the command
+ * carry it to the threads they run on. Every layer that may block checks the context of its thread: the request
+ * scheduler stops waiting, the transports bound their connect and read timeouts by the time left and close their
+ * connections when the context is cancelled, and callers waiting for other requests stop waiting. The context also
+ * carries the priority class its requests are scheduled with.
+ */
+public class RequestContext
+{
+    private static final ThreadLocal<RequestContext> currentContext = new ThreadLocal<>();
+    private static ScheduledExecutorService timer = null;
+
+    private final long deadline;
+    private final RequestScheduler.Priority priority;
+    private final RequestContext parent;
+    private final Runnable parentListener;
+    private final ArrayList<Runnable> cancelListeners = new ArrayList<>();
+    private ScheduledFuture<?> deadlineTask = null;
+    private String failure = null;
+
+    /**
+     * Constructor: Create an instance of the object.
+     *
+     * @param timeout specifies the time budget in milliseconds, 0 for no deadline.
+     * @param priority specifies the priority class of the requests made on behalf of the context.
+     */
+    public RequestContext(long timeout, RequestScheduler.Priority priority)
+    {
+        this.priority = priority;
+        this.parent = null;
+        this.parentListener = null;
+        if (timeout > 0)
+        {
+            deadline = System.currentTimeMillis() + timeout;
+            deadlineTask = getTimer().schedule(() -> fail("Deadline exceeded"), timeout, TimeUnit.MILLISECONDS);
+        }
+        else
+        {
+            deadline = Long.MAX_VALUE;
+        }
+    }   //RequestContext
+
+    /**
+     * Constructor: Create an instance of the object with the NORMAL priority.
+     *
+     * @param timeout specifies the time budget in milliseconds, 0 for no deadline.
+     */
+    public RequestContext(long timeout)
+    {
+        this(timeout, RequestScheduler.Priority.NORMAL);
+    }   //RequestContext
+
+    /**
+     * Constructor: Create an instance of the object as a child of the specified context. The child has the deadline
+     * and priority of its parent and is cancelled when its parent is, but it can also be cancelled on its own.
+     *
+     * @param parent specifies the parent context.
+     */
+    private RequestContext(RequestContext parent)
+    {
+        this.priority = parent.priority;
+        this.parent = parent;
+        this.deadline = parent.deadline;
+        this.parentListener = () -> fail(parent.getFailure());
+        parent.addCancelListener(parentListener);
+    }   //RequestContext
+
+    /**
+     * This method creates a context for one of several requests made on behalf of the context of the current
+     * thread, so that the request can be cancelled without cancelling the others. The new context is not attached
+     * to any thread and must be closed when the request completes.
+     *
+     * @return child of the context of the current thread, a context without deadline if there is none.
+     */
+    public static RequestContext fork()
+    {
+        RequestContext context = currentContext.get();
+
+        return context != null? new RequestContext(context): new RequestContext(0);
+    }   //fork
+
+    /**
+     * This method returns the context attached to the current thread.
+     *
+     * @return context of the current thread, null if none.
+     */
+    public static RequestContext current()
+    {
+        return currentContext.get();
+    }   //current
+
+    /**
+     * This method attaches this context to the current thread.
+     *
+     * @return context previously attached to the current thread, to be restored by detach.
+     */
+    public RequestContext attach()
+    {
+        RequestContext prevContext = currentContext.get();
+
+        currentContext.set(this);
+
+        return prevContext;
+    }   //attach
+
+    /**
+     * This method restores the context previously attached to the current thread.
+     *
+     * @param prevContext specifies the context returned by attach.
+     */
+    public static void detach(RequestContext prevContext)
+    {
+        if (prevContext != null)
+        {
+            currentContext.set(prevContext);
+        }
+        else
+        {
+            currentContext.remove();
+        }
+    }   //detach
+
+    /**
+     * This method returns the priority class of the requests made on behalf of the context.
+     *
+     * @return priority class.
+     */
+    public RequestScheduler.Priority getPriority()
+    {
+        return priority;
+    }   //getPriority
+
+    /**
+     * This method cancels the context. All blocked requests made on behalf of the context fail right away.
+     */
+    public void cancel()
+    {
+        fail("Cancelled");
+    }   //cancel
+
+    /**
+     * This method releases the deadline timer of the context and detaches it from its parent if it has one. It
+     * should be called when the command completes.
+     */
+    public synchronized void close()
+    {
+        if (deadlineTask != null)
+        {
+            deadlineTask.cancel(false);
+            deadlineTask = null;
+        }
+
+        if (parent != null)
+        {
+            parent.removeCancelListener(parentListener);
+        }
+    }   //close
+
+    /**
+     * This method checks if the context has been cancelled or has run past its deadline.
+     *
+     * @return true if the context is done, false if requests can still be made.
+     */
+    public synchronized boolean isDone()
+    {
+        return failure != null || System.currentTimeMillis() >= deadline;
+    }   //isDone
+
+    /**
+     * This method returns why the context is done.
+     *
+     * @return reason the context is done, null if it has not been cancelled or timed out.
+     */
+    private synchronized String getFailure()
+    {
+        return failure;
+    }   //getFailure
+
+    /**
+     * This method returns the exception describing why the context is done.
+     *
+     * @return exception for the requests made on behalf of the context.
+     */
+    public synchronized RequestCancelledException getException()
+    {
+        return new RequestCancelledException("Request failed: " + (failure != null? failure: "Deadline exceeded"));
+    }   //getException
+
+    /**
+     * This method returns the time left before the deadline.
+     *
+     * @return time left in milliseconds, 0 if the context is done, Long.MAX_VALUE if there is no deadline.
+     */
+    public long getRemainingTime()
+    {
+        return isDone()? 0: deadline == Long.MAX_VALUE? Long.MAX_VALUE: deadline - System.currentTimeMillis();
+    }   //getRemainingTime
+
+    /**
+     * This method registers an action to run when the context is cancelled or runs past its deadline. If the
+     * context is already done, the action runs right away.
+     *
+     * @param listener specifies the action.
+     */
+    public void addCancelListener(Runnable listener)
+    {
+        boolean done;
+
+        synchronized (this)
+        {
+            done = failure != null;
+            if (!done)
+            {
+                cancelListeners.add(listener);
+            }
+        }
+
+        if (done)
+        {
+            listener.run();
+        }
+    }   //addCancelListener
+
+    /**
+     * This method unregisters an action registered by addCancelListener.
+     *
+     * @param listener specifies the action.
+     */
+    public synchronized void removeCancelListener(Runnable listener)
+    {
+        cancelListeners.remove(listener);
+    }   //removeCancelListener
+
+    /**
+     * This method throws if the context of the current thread is done.
+     *
+     * @throws RequestCancelledException when the context has been cancelled or has run past its deadline.
+     */
+    public static void check() throws RequestCancelledException
+    {
+        RequestContext context = currentContext.get();
+
+        if (context != null && context.isDone())
+        {
+            throw context.getException();
+        }
+    }   //check
+
+    /**
+     * This method returns the specified timeout, shortened to the time left in the context of the current thread.
+     *
+     * @param timeout specifies the timeout in milliseconds.
+     * @return timeout in milliseconds, at least 1 so that it is never mistaken for an infinite timeout.
+     */
+    public static int getTimeout(int timeout)
+    {
+        RequestContext context = currentContext.get();
+
+        return context != null? (int)Math.max(1, Math.min(timeout, context.getRemainingTime())): timeout;
+    }   //getTimeout
+
+    /**
+     * This method wraps the specified supplier so that it runs in the context of the current thread, whichever
+     * thread it runs on.
+     *
+     * @param supplier specifies the supplier.
+     * @return supplier running in the context of the current thread.
+     */
+    public static <T> Supplier<T> propagate(Supplier<T> supplier)
+    {
+        RequestContext context = currentContext.get();
+        Supplier<T> result = supplier;
+
+        if (context != null)
+        {
+            result =
+                () ->
+                {
+                    RequestContext prevContext = context.attach();
+                    try
+                    {
+                        return supplier.get();
+                    }
+                    finally
+                    {
+                        detach(prevContext);
+                    }
+                };
+        }
+
+        return result;
+    }   //propagate
+
+    /**
+     * This method returns a future that completes as the specified future does, or fails with a
+     * RequestCancelledException as soon as the context of the current thread is done, whichever comes first.
+     * Waiting for the returned future instead of the specified one lets a cancelled command stop waiting.
+     *
+     * @param future specifies the future to wait for.
+     * @return future to wait for in place of the specified one.
+     */
+    public static <T> CompletableFuture<T> bound(CompletableFuture<T> future)
+    {
+        RequestContext context = currentContext.get();
+        CompletableFuture<T> result = future;
+
+        if (context != null)
+        {
+            CompletableFuture<T> bounded = new CompletableFuture<>();
+            Runnable listener = () -> bounded.completeExceptionally(context.getException());
+
+            context.addCancelListener(listener);
+            future.whenComplete(
+                (value, e) ->
+                {
+                    context.removeCancelListener(listener);
+                    if (e == null)
+                    {
+                        bounded.complete(value);
+                    }
+                    else
+                    {
+                        bounded.completeExceptionally(e);
+                    }
+                });
+            result = bounded;
+        }
+
+        return result;
+    }   //bound
+
+    /**
+     * This method returns a future that completes after the specified delay.
+     *
+     * @param delay specifies the delay in milliseconds.
+     * @return future completing after the delay.
+     */
+    public static CompletableFuture<Void> delay(long delay)
+    {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+
+        getTimer().schedule(() -> future.complete(null), delay, TimeUnit.MILLISECONDS);
+
+        return future;
+    }   //delay
+
+    /**
+     * This method marks the context done and runs the cancel listeners, unless it is already done.
+     *
+     * @param reason specifies why the context is done.
+     */
+    private void fail(String reason)
+    {
+        ArrayList<Runnable> listeners = null;
+
+        synchronized (this)
+        {
+            if (failure == null)
+            {
+                failure = reason;
+                listeners = new ArrayList<>(cancelListeners);
+                cancelListeners.clear();
+            }
+        }
+
+        if (listeners != null)
+        {
+            for (Runnable listener: listeners)
+            {
+                listener.run();
+            }
+        }
+    }   //fail
+
+    /**
+     * This method returns the timer shared by all contexts, creating it if necessary.
+     *
+     * @return shared timer.
+     */
+    private static synchronized ScheduledExecutorService getTimer()
+    {
+        if (timer == null)
+        {
+            timer = Executors.newSingleThreadScheduledExecutor(
+                r ->
+                {
+                    Thread thread = new Thread(r, "Deadline");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        }
+
+        return timer;
+    }   //getTimer
+
+}   //class RequestContext
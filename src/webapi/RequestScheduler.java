@@ -0,0 +1,458 @@
+/*
+ * Copyright (c) 2017 Titan Robotics Club (http://www.titanrobotics.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package webapi;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * This class schedules the requests sent to the web server so that they stay within the rate the web server
+ * tolerates. Requests are admitted by a token bucket that limits the request rate, and by a concurrency limit
+ * that adapts to the web server: after a slow start, it grows by one request per round of successful requests and
+ * is halved when the web server throttles (429), fails (5xx), cannot be reached, or its latency rises well above
+ * the lowest latency seen. Throttled and failed requests are retried with jittered exponential backoff, waiting at
+ * least as long as the Retry-After header asks. While a Retry-After period is pending, no other request is sent
+ * either. Requests are admitted in the order of the priority class of their request context, so interactive
+ * requests never queue behind background ones.
+ */
+public class RequestScheduler
+{
+    /**
+     * Specifies the priority class of a request. Waiting requests are admitted strictly in priority order, and
+     * background requests are held to a share of the concurrency limit and of the token bucket so that they
+     * leave room for the interactive ones.
+     */
+    public enum Priority
+    {
+        INTERACTIVE,
+        NORMAL,
+        BACKGROUND
+    }   //enum Priority
+
+    private static final int MAX_RETRIES = 4;
+    private static final long BASE_BACKOFF = 250;
+    private static final long MAX_BACKOFF = 30000;
+    private static final long MAX_RETRY_AFTER = 5*60*1000;
+    private static final double LATENCY_TOLERANCE = 2.0;
+    private static final double BASELINE_DECAY = 0.01;
+    private static final long CONTEXT_POLL_INTERVAL = 100;
+    private static final double BACKGROUND_CONCURRENCY_SHARE = 0.5;
+    private static final double BACKGROUND_TOKEN_RESERVE = 0.5;
+
+    private final double rate;
+    private final double burst;
+    private final int minConcurrency;
+    private final int maxConcurrency;
+    private double tokens;
+    private long lastRefillTime;
+    private double concurrencyLimit;
+    private int numInFlight = 0;
+    private final int[] numWaitingByPriority = new int[Priority.values().length];
+    private final int[] numInFlightByPriority = new int[Priority.values().length];
+    private long pausedUntil = 0;
+    private long lastDecreaseTime = 0;
+    private double baselineLatency = 0;
+    private boolean slowStart = true;
+    private long requestCount = 0;
+    private long retryCount = 0;
+    private long throttledCount = 0;
+
+    /**
+     * Constructor: Create an instance of the object.
+     *
+     * @param rate specifies the maximum sustained request rate in requests per second.
+     * @param burst specifies the maximum number of requests that can be sent at once after an idle period.
+     * @param minConcurrency specifies the minimum number of concurrent requests.
+     * @param maxConcurrency specifies the maximum number of concurrent requests.
+     */
+    public RequestScheduler(double rate, int burst, int minConcurrency, int maxConcurrency)
+    {
+        this.rate = rate;
+        this.burst = burst;
+        this.minConcurrency = minConcurrency;
+        this.maxConcurrency = maxConcurrency;
+        this.tokens = burst;
+        this.lastRefillTime = System.nanoTime();
+        this.concurrencyLimit = minConcurrency;
+    }   //RequestScheduler
+
+    /**
+     * This method sends the GET request on the transport when the scheduler admits it and retries it if the web
+     * server throttles it, fails or cannot be reached. GET requests are idempotent, so they can safely be retried.
+     * Waiting and retrying stop when the request context of the calling thread is done. The request is admitted
+     * with the priority of the request context, NORMAL if there is none.
+     *
+     * @param transport specifies the transport to send the request on.
+     * @param url specifies the request URL.
+     * @param requestHeaders specifies the request headers.
+     * @return response of the web server, the last one if all retries were throttled or failed.
+     * @throws IOException when the web server could not be reached on the last retry.
+     * @throws RequestCancelledException when the request context is done before the request is sent.
+     */
+    public HttpResponse send(HttpTransport transport, URL url, Map<String, String> requestHeaders)
+        throws IOException
+    {
+        RequestContext context = RequestContext.current();
+        Priority priority = context != null? context.getPriority(): Priority.NORMAL;
+        HttpResponse response = null;
+
+        for (int attempt = 0; response == null; attempt++)
+        {
+            IOException failure = null;
+            long retryAfter = 0;
+            boolean retry;
+
+            RequestContext.check();
+            acquire(context, priority);
+            long startTime = System.nanoTime();
+            try
+            {
+                response = transport.send(url, requestHeaders);
+                retry = isRetriable(response.getStatusCode());
+                if (retry)
+                {
+                    retryAfter = Math.min(MAX_RETRY_AFTER, response.getRetryAfter());
+                }
+                release(
+                    priority, retry? -1: System.nanoTime() - startTime, response.getStatusCode() == 429, retryAfter);
+            }
+            catch (IOException e)
+            {
+                release(priority, -1, false, 0);
+                failure = e;
+                retry = true;
+            }
+
+            if (retry && attempt < MAX_RETRIES)
+            {
+                //
+                // Full jitter: wait a random time up to the exponential backoff so that the retries of concurrent
+                // requests spread out, but never less than the web server asked for. A retry that cannot be sent
+                // before the deadline of the request context is not worth waiting for.
+                //
+                long backoff = Math.min(MAX_BACKOFF, BASE_BACKOFF << attempt);
+                long delay = Math.max(retryAfter, ThreadLocalRandom.current().nextLong(backoff + 1));
+
+                if (context == null || delay < context.getRemainingTime())
+                {
+                    synchronized (this)
+                    {
+                        retryCount++;
+                    }
+                    sleep(delay);
+                    response = null;
+                    failure = null;
+                }
+            }
+
+            if (failure != null)
+            {
+                throw failure;
+            }
+        }
+
+        return response;
+    }   //send
+
+    /**
+     * This method returns the current concurrency limit.
+     *
+     * @return maximum number of concurrent requests currently allowed.
+     */
+    public synchronized int getConcurrencyLimit()
+    {
+        return (int)concurrencyLimit;
+    }   //getConcurrencyLimit
+
+    /**
+     * This method returns the maximum number of background requests currently allowed in flight.
+     *
+     * @return background concurrency limit.
+     */
+    public synchronized int getBackgroundLimit()
+    {
+        return Math.max(1, (int)(concurrencyLimit*BACKGROUND_CONCURRENCY_SHARE));
+    }   //getBackgroundLimit
+
+    /**
+     * This method returns the number of requests of the specified priority waiting to be admitted.
+     *
+     * @param priority specifies the priority class.
+     * @return number of waiting requests.
+     */
+    public synchronized int getQueueDepth(Priority priority)
+    {
+        return numWaitingByPriority[priority.ordinal()];
+    }   //getQueueDepth
+
+    /**
+     * This method returns the number of requests of the specified priority in flight.
+     *
+     * @param priority specifies the priority class.
+     * @return number of requests in flight.
+     */
+    public synchronized int getInFlightCount(Priority priority)
+    {
+        return numInFlightByPriority[priority.ordinal()];
+    }   //getInFlightCount
+
+    /**
+     * This method returns the number of requests sent, including retries.
+     *
+     * @return number of requests sent.
+     */
+    public synchronized long getRequestCount()
+    {
+        return requestCount;
+    }   //getRequestCount
+
+    /**
+     * This method returns the number of retries.
+     *
+     * @return number of retries.
+     */
+    public synchronized long getRetryCount()
+    {
+        return retryCount;
+    }   //getRetryCount
+
+    /**
+     * This method returns the number of requests throttled by the web server.
+     *
+     * @return number of 429 responses.
+     */
+    public synchronized long getThrottledCount()
+    {
+        return throttledCount;
+    }   //getThrottledCount
+
+    /**
+     * This method waits until the request is admitted, that is until no request of a higher priority is waiting,
+     * there is a token in the bucket, the number of requests in flight is below the concurrency limit and no
+     * Retry-After period is pending. Background requests are further held to the background concurrency limit and
+     * leave part of the bucket for the other requests. While waiting on behalf of a request context, the context
+     * is checked at least every CONTEXT_POLL_INTERVAL milliseconds.
+     *
+     * @param context specifies the request context of the caller, null if none.
+     * @param priority specifies the priority class of the request.
+     * @throws RequestCancelledException when the request context is done before the request is admitted.
+     */
+    private synchronized void acquire(RequestContext context, Priority priority)
+    {
+        boolean background = priority == Priority.BACKGROUND;
+        double minTokens = background? 1.0 + burst*BACKGROUND_TOKEN_RESERVE: 1.0;
+        boolean interrupted = false;
+
+        numWaitingByPriority[priority.ordinal()]++;
+        try
+        {
+            while (true)
+            {
+                if (context != null && context.isDone())
+                {
+                    throw context.getException();
+                }
+
+                long now = System.nanoTime();
+                long waitTime;
+
+                tokens = Math.min(burst, tokens + (now - lastRefillTime)*rate/1e9);
+                lastRefillTime = now;
+
+                if (System.currentTimeMillis() < pausedUntil)
+                {
+                    waitTime = Math.max(1, pausedUntil - System.currentTimeMillis());
+                }
+                else if (isHigherPriorityWaiting(priority) || numInFlight >= (int)concurrencyLimit ||
+                         background && numInFlightByPriority[priority.ordinal()] >= getBackgroundLimit())
+                {
+                    //
+                    // Woken up when a request is admitted or completes.
+                    //
+                    waitTime = 0;
+                }
+                else if (tokens < minTokens)
+                {
+                    waitTime = Math.max(1, (long)Math.ceil((minTokens - tokens)*1000/rate));
+                }
+                else
+                {
+                    break;
+                }
+
+                if (context != null)
+                {
+                    waitTime = waitTime == 0? CONTEXT_POLL_INTERVAL: Math.min(waitTime, CONTEXT_POLL_INTERVAL);
+                }
+
+                try
+                {
+                    wait(waitTime);
+                }
+                catch (InterruptedException e)
+                {
+                    interrupted = true;
+                }
+            }
+        }
+        finally
+        {
+            //
+            // Requests of lower priority may proceed once this one is no longer waiting.
+            //
+            numWaitingByPriority[priority.ordinal()]--;
+            notifyAll();
+
+            if (interrupted)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        tokens -= 1.0;
+        numInFlight++;
+        numInFlightByPriority[priority.ordinal()]++;
+        requestCount++;
+    }   //acquire
+
+    /**
+     * This method checks if a request of a higher priority than the specified one is waiting to be admitted.
+     *
+     * @param priority specifies the priority class.
+     * @return true if a request of a higher priority is waiting, false otherwise.
+     */
+    private boolean isHigherPriorityWaiting(Priority priority)
+    {
+        boolean waiting = false;
+
+        for (int i = 0; i < priority.ordinal() && !waiting; i++)
+        {
+            waiting = numWaitingByPriority[i] > 0;
+        }
+
+        return waiting;
+    }   //isHigherPriorityWaiting
+
+    /**
+     * This method records the completion of a request and adapts the concurrency limit. A fast success grows the
+     * limit additively, a failure or a slow success halves it, at most once per baseline round trip so that a
+     * burst of failures from the same round does not collapse the limit.
+     *
+     * @param priority specifies the priority class of the request.
+     * @param latency specifies the latency of the request in nanoseconds, negative if it failed.
+     * @param throttled specifies true if the web server throttled the request.
+     * @param retryAfter specifies the time in milliseconds the web server asked to wait, zero if none.
+     */
+    private synchronized void release(Priority priority, long latency, boolean throttled, long retryAfter)
+    {
+        long now = System.nanoTime();
+        boolean congested;
+
+        numInFlight--;
+        numInFlightByPriority[priority.ordinal()]--;
+        if (throttled)
+        {
+            throttledCount++;
+        }
+        if (retryAfter > 0)
+        {
+            pausedUntil = Math.max(pausedUntil, System.currentTimeMillis() + retryAfter);
+        }
+
+        if (latency >= 0)
+        {
+            //
+            // The baseline follows new minimums right away but only drifts up slowly, so it tracks the latency of
+            // an unloaded web server even if the network path changes.
+            //
+            baselineLatency = baselineLatency == 0 || latency < baselineLatency?
+                latency: baselineLatency + (latency - baselineLatency)*BASELINE_DECAY;
+            congested = latency > baselineLatency*LATENCY_TOLERANCE;
+        }
+        else
+        {
+            congested = true;
+        }
+
+        if (!congested)
+        {
+            //
+            // Only grow the limit while it is being used, otherwise it would grow without bound while the request
+            // rate is held back by the token bucket. Until the first sign of congestion, grow the limit by one
+            // request per success so that it doubles every round.
+            //
+            if (numInFlight + 1 >= concurrencyLimit/2)
+            {
+                concurrencyLimit = Math.min(
+                    maxConcurrency, concurrencyLimit + (slowStart? 1.0: 1.0/concurrencyLimit));
+            }
+        }
+        else if (now - lastDecreaseTime > baselineLatency)
+        {
+            concurrencyLimit = Math.max(minConcurrency, concurrencyLimit/2.0);
+            lastDecreaseTime = now;
+            slowStart = false;
+        }
+
+        notifyAll();
+    }   //release
+
+    /**
+     * This method checks if a response with the specified status code should be retried.
+     *
+     * @param statusCode specifies the HTTP status code.
+     * @return true if the web server was throttling or temporarily failing, false otherwise.
+     */
+    private boolean isRetriable(int statusCode)
+    {
+        return statusCode == 429 || statusCode == 500 || statusCode == 502 || statusCode == 503 ||
+               statusCode == 504;
+    }   //isRetriable
+
+    /**
+     * This method sleeps for the specified time, preserving the interrupt status of the thread. The sleep ends
+     * early if the request context of the current thread is cancelled.
+     *
+     * @param time specifies the time in milliseconds.
+     * @throws RequestCancelledException when the request context is done before the time has passed.
+     */
+    private void sleep(long time)
+    {
+        try
+        {
+            RequestContext.bound(RequestContext.delay(time)).get();
+        }
+        catch (ExecutionException e)
+        {
+            throw (RequestCancelledException)e.getCause();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }   //sleep
+
+}   //class RequestScheduler
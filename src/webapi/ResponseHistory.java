@@ -0,0 +1,726 @@
+/*
+ * Copyright (c) 2017 Titan Robotics Club (http://www.titanrobotics.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package webapi;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonReader;
+import javax.json.JsonString;
+import javax.json.JsonStructure;
+import javax.json.JsonValue;
+import javax.json.JsonWriter;
+
+/**
+ * This class implements a history of the responses of each URL on the local disk. Every distinct version of a
+ * response is kept, most of them as a delta against the previous version so that a response changing a little at
+ * a time, such as the rankings of an event, takes little space. Every so often a version is stored in full so
+ * that reconstructing a version never needs too many deltas. The history is an append-only file that can be
+ * shared by several processes. When the file grows past its size limit, it is compacted in place down to half the
+ * limit by dropping the oldest versions, and its generation number is incremented, telling the other processes to
+ * index it again.
+ *
+ * A delta is a JSON object in one of the following forms:
+ *  {"v": Value}                              - The value is replaced by Value.
+ *  {"o": {Key: Delta, ...}, "d": [Key, ...]} - The members of an object are changed or deleted.
+ *  {"a": {Index: Delta, ...}, "n": Length}   - The elements of an array are changed and the array is resized.
+ */
+public class ResponseHistory
+{
+    private static final int FILE_MAGIC = 0x54424148;           //"TBAH"
+    private static final int FILE_VERSION = 2;
+    private static final int FILE_HEADER_SIZE = 16;
+    private static final int FILE_GENERATION = 8;
+    private static final int RECORD_MAGIC = 0x56455253;         //"VERS"
+    private static final int KEYFRAME_INTERVAL = 16;
+    private static final long DEFAULT_MAX_BYTES = 64L*1024*1024;
+
+    /**
+     * This class represents the location of a version of a response in the history file.
+     */
+    private class Version
+    {
+        long timestamp;
+        boolean full;
+        long payloadOffset;
+        int payloadLength;
+
+        /**
+         * Constructor: Create an instance of the object.
+         *
+         * @param timestamp specifies the time the version was received.
+         * @param full specifies true if the version is stored in full, false if it is a delta.
+         * @param payloadOffset specifies the file offset of the stored JSON text.
+         * @param payloadLength specifies the length of the stored JSON text in bytes.
+         */
+        public Version(long timestamp, boolean full, long payloadOffset, int payloadLength)
+        {
+            this.timestamp = timestamp;
+            this.full = full;
+            this.payloadOffset = payloadOffset;
+            this.payloadLength = payloadLength;
+        }   //Version
+
+    }   //class Version
+
+    private final File historyFile;
+    private final long maxBytes;
+    private final RandomAccessFile history;
+    private final HashMap<String, ArrayList<Version>> versions = new HashMap<>();
+    private long indexedLength = FILE_HEADER_SIZE;
+    private long generation = -1;
+
+    /**
+     * Constructor: Create an instance of the object. It opens the history file, creating it if necessary. A file
+     * written in an older format is discarded.
+     *
+     * @param historyFile specifies the history file.
+     * @param maxBytes specifies the maximum size of the history file in bytes.
+     * @throws RuntimeException when the history file cannot be opened.
+     */
+    public ResponseHistory(File historyFile, long maxBytes) throws RuntimeException
+    {
+        this.historyFile = historyFile;
+        this.maxBytes = maxBytes;
+
+        try
+        {
+            history = new RandomAccessFile(historyFile, "rw");
+            FileLock lock = history.getChannel().lock();
+            try
+            {
+                if (history.length() < FILE_HEADER_SIZE ||
+                    history.readInt() != FILE_MAGIC || history.readInt() != FILE_VERSION)
+                {
+                    history.setLength(0);
+                    history.writeInt(FILE_MAGIC);
+                    history.writeInt(FILE_VERSION);
+                    history.writeLong(0);
+                }
+                refresh();
+            }
+            finally
+            {
+                lock.release();
+            }
+        }
+        catch (IOException e)
+        {
+            throw new RuntimeException("Failed to open history <" + historyFile + ">.\n" + e.getMessage());
+        }
+    }   //ResponseHistory
+
+    /**
+     * Constructor: Create an instance of the object with the default size limit.
+     *
+     * @param historyFile specifies the history file.
+     * @throws RuntimeException when the history file cannot be opened.
+     */
+    public ResponseHistory(File historyFile) throws RuntimeException
+    {
+        this(historyFile, DEFAULT_MAX_BYTES);
+    }   //ResponseHistory
+
+    /**
+     * This method closes the history file. The history cannot be used afterwards.
+     */
+    public synchronized void close()
+    {
+        try
+        {
+            history.close();
+        }
+        catch (IOException e)
+        {
+            //
+            // Nothing more can be done with the file anyway.
+            //
+        }
+    }   //close
+
+    /**
+     * This method records a response of the specified URL. Nothing is recorded if the response is the same as the
+     * latest version.
+     *
+     * @param url specifies the request URL.
+     * @param timestamp specifies the time the response was received.
+     * @param data specifies the response data.
+     */
+    public synchronized void record(String url, long timestamp, JsonStructure data)
+    {
+        try
+        {
+            FileLock lock = history.getChannel().lock();
+            try
+            {
+                refresh();
+
+                ArrayList<Version> urlVersions = versions.get(url);
+                int numVersions = urlVersions != null? urlVersions.size(): 0;
+                JsonValue delta = numVersions > 0? diff(reconstruct(urlVersions, numVersions - 1), data): null;
+
+                //
+                // Nothing is recorded if the response has not changed.
+                //
+                if (numVersions == 0 || delta != null)
+                {
+                    String payload = toText(data);
+                    boolean full = true;
+
+                    if (delta != null && numVersions % KEYFRAME_INTERVAL != 0)
+                    {
+                        String deltaText = toText(delta);
+                        if (deltaText.length() < payload.length())
+                        {
+                            payload = deltaText;
+                            full = false;
+                        }
+                    }
+                    append(url, timestamp, full, payload.getBytes(StandardCharsets.UTF_8));
+                    if (indexedLength > maxBytes)
+                    {
+                        compact();
+                    }
+                }
+            }
+            finally
+            {
+                lock.release();
+            }
+        }
+        catch (IOException e)
+        {
+            //
+            // The history is best effort, the version is just not recorded.
+            //
+        }
+    }   //record
+
+    /**
+     * This method returns the times the versions of the response of the specified URL were received.
+     *
+     * @param url specifies the request URL.
+     * @return list of time stamps in ascending order, empty if there is no history.
+     */
+    public synchronized List<Long> getTimestamps(String url)
+    {
+        ArrayList<Long> timestamps = new ArrayList<>();
+
+        try
+        {
+            FileLock lock = history.getChannel().lock(0, Long.MAX_VALUE, true);
+            try
+            {
+                refresh();
+            }
+            finally
+            {
+                lock.release();
+            }
+        }
+        catch (IOException e)
+        {
+            //
+            // Return the versions we already know about.
+            //
+        }
+
+        ArrayList<Version> urlVersions = versions.get(url);
+        if (urlVersions != null)
+        {
+            for (Version version: urlVersions)
+            {
+                timestamps.add(version.timestamp);
+            }
+        }
+
+        return timestamps;
+    }   //getTimestamps
+
+    /**
+     * This method returns the version of the response of the specified URL as of the specified time.
+     *
+     * @param url specifies the request URL.
+     * @param timestamp specifies the time.
+     * @return latest version received no later than the specified time, null if there is none.
+     * @throws RuntimeException when the history file cannot be read.
+     */
+    public synchronized JsonStructure get(String url, long timestamp) throws RuntimeException
+    {
+        JsonStructure data = null;
+
+        try
+        {
+            FileLock lock = history.getChannel().lock(0, Long.MAX_VALUE, true);
+            try
+            {
+                refresh();
+
+                ArrayList<Version> urlVersions = versions.get(url);
+                if (urlVersions != null)
+                {
+                    int i = urlVersions.size() - 1;
+                    while (i >= 0 && urlVersions.get(i).timestamp > timestamp)
+                    {
+                        i--;
+                    }
+
+                    if (i >= 0)
+                    {
+                        data = reconstruct(urlVersions, i);
+                    }
+                }
+            }
+            finally
+            {
+                lock.release();
+            }
+        }
+        catch (IOException e)
+        {
+            throw new RuntimeException("Failed to read history <" + historyFile + ">.\n" + e.getMessage());
+        }
+
+        return data;
+    }   //get
+
+    /**
+     * This method indexes the versions appended to the history file since it was last indexed, possibly by other
+     * processes. If another process has compacted the file since, the whole file is indexed again. Indexing stops
+     * at the first incomplete record. The caller must hold the lock of the history file.
+     *
+     * @throws IOException when the file cannot be read.
+     */
+    private void refresh() throws IOException
+    {
+        history.seek(FILE_GENERATION);
+        long fileGeneration = history.readLong();
+        long fileLength = history.length();
+
+        if (fileGeneration != generation)
+        {
+            versions.clear();
+            indexedLength = FILE_HEADER_SIZE;
+            generation = fileGeneration;
+        }
+
+        if (fileLength > indexedLength)
+        {
+            DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Channels.newInputStream(history.getChannel().position(indexedLength))));
+            long offset = indexedLength;
+
+            try
+            {
+                while (offset < fileLength && in.readInt() == RECORD_MAGIC)
+                {
+                    int urlLength = in.readInt();
+                    if (urlLength < 0 || urlLength > fileLength - offset)
+                    {
+                        break;
+                    }
+                    byte[] urlBytes = new byte[urlLength];
+                    in.readFully(urlBytes);
+                    long timestamp = in.readLong();
+                    boolean full = in.readBoolean();
+                    int payloadLength = in.readInt();
+                    int headerSize = 4 + 4 + urlLength + 8 + 1 + 4;
+                    if (payloadLength < 0 || offset + headerSize + payloadLength > fileLength)
+                    {
+                        break;
+                    }
+                    in.skipBytes(payloadLength);
+
+                    versions.computeIfAbsent(new String(urlBytes, StandardCharsets.UTF_8), k -> new ArrayList<>())
+                        .add(new Version(timestamp, full, offset + headerSize, payloadLength));
+                    offset += headerSize + payloadLength;
+                }
+            }
+            catch (EOFException e)
+            {
+                //
+                // Reached a record that is still being written.
+                //
+            }
+            indexedLength = offset;
+        }
+    }   //refresh
+
+    /**
+     * This method appends a version to the end of the history file. The caller must hold the exclusive lock of
+     * the history file and must have refreshed the index.
+     *
+     * @param url specifies the request URL.
+     * @param timestamp specifies the time the version was received.
+     * @param full specifies true if the payload is the full response, false if it is a delta.
+     * @param payload specifies the JSON text of the response or the delta.
+     * @throws IOException when the file cannot be written.
+     */
+    private void append(String url, long timestamp, boolean full, byte[] payload) throws IOException
+    {
+        byte[] record = encodeRecord(url, timestamp, full, payload);
+        int headerSize = record.length - payload.length;
+
+        //
+        // Overwrite any partial record left behind by an interrupted write.
+        //
+        history.seek(indexedLength);
+        history.write(record);
+        versions.computeIfAbsent(url, k -> new ArrayList<>())
+            .add(new Version(timestamp, full, indexedLength + headerSize, payload.length));
+        indexedLength += record.length;
+    }   //append
+
+    /**
+     * This method encodes a version record.
+     *
+     * @param url specifies the request URL.
+     * @param timestamp specifies the time the version was received.
+     * @param full specifies true if the payload is the full response, false if it is a delta.
+     * @param payload specifies the JSON text of the response or the delta.
+     * @return encoded record.
+     * @throws IOException when encoding failed.
+     */
+    private static byte[] encodeRecord(String url, long timestamp, boolean full, byte[] payload) throws IOException
+    {
+        byte[] urlBytes = url.getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(4 + 4 + urlBytes.length + 8 + 1 + 4 + payload.length);
+        DataOutputStream out = new DataOutputStream(buffer);
+
+        out.writeInt(RECORD_MAGIC);
+        out.writeInt(urlBytes.length);
+        out.write(urlBytes);
+        out.writeLong(timestamp);
+        out.writeBoolean(full);
+        out.writeInt(payload.length);
+        out.write(payload);
+        out.flush();
+
+        return buffer.toByteArray();
+    }   //encodeRecord
+
+    /**
+     * This method compacts the history file down to half its size limit, keeping the most recent versions of all
+     * URLs together. The oldest version kept of each URL is stored in full, since the versions it was a delta
+     * against are dropped. The file is rewritten in place rather than replaced, because a file held open by other
+     * processes cannot be replaced on every platform. The caller must hold the exclusive lock of the history file
+     * and must have refreshed the index.
+     *
+     * @throws IOException when the file cannot be read or written.
+     */
+    private void compact() throws IOException
+    {
+        //
+        // Find the oldest time of the versions to keep, newest first until half the size limit is used up.
+        //
+        ArrayList<long[]> sizes = new ArrayList<>();
+        for (Map.Entry<String, ArrayList<Version>> entry: versions.entrySet())
+        {
+            int urlLength = entry.getKey().getBytes(StandardCharsets.UTF_8).length;
+            for (Version version: entry.getValue())
+            {
+                sizes.add(new long[] {version.timestamp, 4 + 4 + urlLength + 8 + 1 + 4 + version.payloadLength});
+            }
+        }
+        sizes.sort((a, b) -> Long.compare(b[0], a[0]));
+
+        long minTimestamp = Long.MAX_VALUE;
+        long keptBytes = FILE_HEADER_SIZE;
+        for (long[] size: sizes)
+        {
+            if (keptBytes + size[1] > maxBytes/2)
+            {
+                break;
+            }
+            keptBytes += size[1];
+            minTimestamp = size[0];
+        }
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream((int)Math.min(keptBytes, Integer.MAX_VALUE - 8));
+        for (Map.Entry<String, ArrayList<Version>> entry: versions.entrySet())
+        {
+            ArrayList<Version> urlVersions = entry.getValue();
+            int first = 0;
+            while (first < urlVersions.size() && urlVersions.get(first).timestamp < minTimestamp)
+            {
+                first++;
+            }
+
+            for (int i = first; i < urlVersions.size(); i++)
+            {
+                Version version = urlVersions.get(i);
+                byte[] payload;
+
+                if (i == first && !version.full)
+                {
+                    payload = toText(reconstruct(urlVersions, i)).getBytes(StandardCharsets.UTF_8);
+                }
+                else
+                {
+                    payload = new byte[version.payloadLength];
+                    history.seek(version.payloadOffset);
+                    history.readFully(payload);
+                }
+                buffer.write(encodeRecord(entry.getKey(), version.timestamp, i == first || version.full, payload));
+            }
+        }
+
+        history.seek(0);
+        history.writeInt(FILE_MAGIC);
+        history.writeInt(FILE_VERSION);
+        history.writeLong(generation + 1);
+        buffer.writeTo(Channels.newOutputStream(history.getChannel().position(FILE_HEADER_SIZE)));
+        history.setLength(FILE_HEADER_SIZE + buffer.size());
+        refresh();
+    }   //compact
+
+    /**
+     * This method reconstructs the specified version from the nearest preceding full version and the deltas
+     * after it.
+     *
+     * @param urlVersions specifies the versions of the URL.
+     * @param index specifies the index of the version to reconstruct.
+     * @return reconstructed response data.
+     * @throws IOException when the file cannot be read.
+     */
+    private JsonStructure reconstruct(ArrayList<Version> urlVersions, int index) throws IOException
+    {
+        int start = index;
+        while (start > 0 && !urlVersions.get(start).full)
+        {
+            start--;
+        }
+
+        JsonValue data = readPayload(urlVersions.get(start));
+        for (int i = start + 1; i <= index; i++)
+        {
+            data = apply(data, (JsonObject)readPayload(urlVersions.get(i)));
+        }
+
+        return (JsonStructure)data;
+    }   //reconstruct
+
+    /**
+     * This method reads and parses the stored JSON text of a version.
+     *
+     * @param version specifies the version.
+     * @return parsed response data or delta.
+     * @throws IOException when the file cannot be read.
+     */
+    private JsonStructure readPayload(Version version) throws IOException
+    {
+        byte[] payload = new byte[version.payloadLength];
+
+        history.seek(version.payloadOffset);
+        history.readFully(payload);
+        try (JsonReader rdr = Json.createReader(new StringReader(new String(payload, StandardCharsets.UTF_8))))
+        {
+            return rdr.read();
+        }
+    }   //readPayload
+
+    /**
+     * This method converts the JSON data to compact JSON text.
+     *
+     * @param data specifies the JSON data.
+     * @return JSON text.
+     */
+    private static String toText(JsonValue data)
+    {
+        StringWriter text = new StringWriter();
+
+        try (JsonWriter writer = Json.createWriter(text))
+        {
+            writer.write((JsonStructure)data);
+        }
+
+        return text.toString();
+    }   //toText
+
+    /**
+     * This method computes the delta that changes the old value into the new value.
+     *
+     * @param oldValue specifies the old value.
+     * @param newValue specifies the new value.
+     * @return delta, null if the values are equal.
+     */
+    private static JsonObject diff(JsonValue oldValue, JsonValue newValue)
+    {
+        JsonObject delta = null;
+
+        if (oldValue.equals(newValue))
+        {
+            delta = null;
+        }
+        else if (oldValue.getValueType() == JsonValue.ValueType.OBJECT &&
+                 newValue.getValueType() == JsonValue.ValueType.OBJECT)
+        {
+            JsonObject oldObj = (JsonObject)oldValue;
+            JsonObject newObj = (JsonObject)newValue;
+            JsonObjectBuilder changed = Json.createObjectBuilder();
+            JsonArrayBuilder deleted = Json.createArrayBuilder();
+
+            for (Map.Entry<String, JsonValue> entry: newObj.entrySet())
+            {
+                JsonValue oldMember = oldObj.get(entry.getKey());
+                JsonObject memberDelta =
+                    oldMember != null? diff(oldMember, entry.getValue()): replace(entry.getValue());
+
+                if (memberDelta != null)
+                {
+                    changed.add(entry.getKey(), memberDelta);
+                }
+            }
+
+            for (String key: oldObj.keySet())
+            {
+                if (!newObj.containsKey(key))
+                {
+                    deleted.add(key);
+                }
+            }
+
+            delta = Json.createObjectBuilder().add("o", changed).add("d", deleted).build();
+        }
+        else if (oldValue.getValueType() == JsonValue.ValueType.ARRAY &&
+                 newValue.getValueType() == JsonValue.ValueType.ARRAY)
+        {
+            JsonArray oldArray = (JsonArray)oldValue;
+            JsonArray newArray = (JsonArray)newValue;
+            JsonObjectBuilder changed = Json.createObjectBuilder();
+
+            for (int i = 0; i < newArray.size(); i++)
+            {
+                JsonObject elementDelta =
+                    i < oldArray.size()? diff(oldArray.get(i), newArray.get(i)): replace(newArray.get(i));
+
+                if (elementDelta != null)
+                {
+                    changed.add(Integer.toString(i), elementDelta);
+                }
+            }
+
+            delta = Json.createObjectBuilder().add("a", changed).add("n", newArray.size()).build();
+        }
+        else
+        {
+            delta = replace(newValue);
+        }
+
+        return delta;
+    }   //diff
+
+    /**
+     * This method creates the delta that replaces a value.
+     *
+     * @param newValue specifies the new value.
+     * @return delta.
+     */
+    private static JsonObject replace(JsonValue newValue)
+    {
+        return Json.createObjectBuilder().add("v", newValue).build();
+    }   //replace
+
+    /**
+     * This method applies the delta to the old value.
+     *
+     * @param oldValue specifies the old value, null if the value did not exist.
+     * @param delta specifies the delta.
+     * @return new value.
+     */
+    private static JsonValue apply(JsonValue oldValue, JsonObject delta)
+    {
+        JsonValue newValue;
+
+        if (delta.containsKey("v"))
+        {
+            newValue = delta.get("v");
+        }
+        else if (delta.containsKey("o"))
+        {
+            JsonObject oldObj = (JsonObject)oldValue;
+            JsonObject changed = delta.getJsonObject("o");
+            HashSet<String> deleted = new HashSet<>();
+            JsonObjectBuilder builder = Json.createObjectBuilder();
+
+            for (JsonString key: delta.getJsonArray("d").getValuesAs(JsonString.class))
+            {
+                deleted.add(key.getString());
+            }
+
+            for (Map.Entry<String, JsonValue> entry: oldObj.entrySet())
+            {
+                if (!changed.containsKey(entry.getKey()) && !deleted.contains(entry.getKey()))
+                {
+                    builder.add(entry.getKey(), entry.getValue());
+                }
+            }
+
+            for (Map.Entry<String, JsonValue> entry: changed.entrySet())
+            {
+                builder.add(entry.getKey(), apply(oldObj.get(entry.getKey()), (JsonObject)entry.getValue()));
+            }
+            newValue = builder.build();
+        }
+        else
+        {
+            JsonArray oldArray = (JsonArray)oldValue;
+            JsonObject changed = delta.getJsonObject("a");
+            int length = delta.getInt("n");
+            JsonArrayBuilder builder = Json.createArrayBuilder();
+
+            for (int i = 0; i < length; i++)
+            {
+                JsonObject elementDelta = changed.getJsonObject(Integer.toString(i));
+                JsonValue oldElement = i < oldArray.size()? oldArray.get(i): null;
+
+                builder.add(elementDelta != null? apply(oldElement, elementDelta): oldElement);
+            }
+            newValue = builder.build();
+        }
+
+        return newValue;
+    }   //apply
+
+}   //class ResponseHistory
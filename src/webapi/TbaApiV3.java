@@ -22,12 +22,34 @@
 
 package webapi;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 import javax.json.Json;
 import javax.json.JsonArray;
 import javax.json.JsonArrayBuilder;
 import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonString;
 import javax.json.JsonStructure;
 import javax.json.JsonValue;
 
@@ -38,7 +60,27 @@ public class TbaApiV3 extends WebRequest
 {
     private static final String TBA_API_BASE = "https://www.thebluealliance.com/api/v3";
     private static final String TBA_AUTH_KEY = "UQmqq10GkWyNGmsSuN1WvKp0jpG0x4tSfaNc46E6ZGemWK6JL4sM8mPWZthOpHDN";
+    private static final int KEY_FILTER_MAGIC = 0x54424b46;
+    private static final int KEY_FILTER_VERSION = 1;
+    private static final long KEY_LIST_MAX_AGE = 24*60*60*1000L;
+    private static final long KEY_LIST_REFRESH_AGE = 60*60*1000L;
+    private static final int PREWARM_CONNECTIONS = 2;
+    private static final int TEAM_PAGE_WINDOW = 8;
+    private static final long STATUS_RETRY_INTERVAL = 2*60*1000L;
+    private static final String AUTH_KEY_HEADER = "X-TBA-Auth-Key";
+    private static final double AUTH_KEY_RATE = 20.0;
+    private static final int AUTH_KEY_BURST = 20;
+    private static final int AUTH_KEY_CONCURRENCY = 16;
     private String header = null;
+    private volatile int currentSeason = 0;
+    private volatile long statusFailureTime = 0;
+    private final AtomicBoolean seasonLookupPending = new AtomicBoolean(false);
+    private KeyFilter teamKeys = new KeyFilter(20000, 0.01);
+    private KeyFilter eventKeys = new KeyFilter(20000, 0.01);
+    private KeyFilter districtKeys = new KeyFilter(1000, 0.01);
+    private File keyFilterFile = null;
+    private long unknownKeyCount = 0;
+    private HashMap<String, Integer> teamPageCounts = new HashMap<>();
 
     /**
      * Constructor: Create an instance of the object.
@@ -52,7 +94,7 @@ public class TbaApiV3 extends WebRequest
         super(TBA_API_BASE);
         addRequestProperty("User-Agent", appId);
         addRequestProperty("X-TBA-App-Id", authorId + ":" + appId + ":" + appVersion);
-        addRequestProperty("X-TBA-Auth-Key", TBA_AUTH_KEY);
+        addRequestProperty(AUTH_KEY_HEADER, TBA_AUTH_KEY);
     }   //TbaApiV3
 
     /**
@@ -95,480 +137,2092 @@ public class TbaApiV3 extends WebRequest
             "\tmatch/<MatchKey>[/simple]\t\t\t\t- Match Request with optional verbosity.\n");
     }   //printApiHelp
 
+    /**
+     * This method sets the TBA auth keys that take turns authenticating the requests, in place of the built-in key.
+     * Each key gets its own request rate budget, so the request scheduler is allowed the combined rate of all the
+     * keys. A key that TBA rejects or throttles is set aside for a while and its requests are sent with the others.
+     *
+     * @param authKeys specifies the auth keys.
+     * @param selection specifies how the key of a request is chosen.
+     * @throws IllegalArgumentException when no key is specified.
+     */
+    public void setAuthKeys(List<String> authKeys, CredentialPool.Selection selection)
+        throws IllegalArgumentException
+    {
+        int numKeys = authKeys.size();
+
+        setCredentialPool(new CredentialPool(AUTH_KEY_HEADER, authKeys, AUTH_KEY_RATE, AUTH_KEY_BURST, selection));
+        setRequestScheduler(
+            new RequestScheduler(AUTH_KEY_RATE*numKeys, AUTH_KEY_BURST*numKeys, 1, AUTH_KEY_CONCURRENCY*numKeys));
+    }   //setAuthKeys
+
+    /**
+     * This method selects the transport that sends the requests to TBA. The pooled transport keeps the connections
+     * to TBA open between requests and starts opening them in the background right away, so most requests skip the
+     * TCP and TLS handshakes. It connects to TBA directly though, ignoring the proxy settings. The legacy transport
+     * opens a new HttpURLConnection for every request and is the default.
+     *
+     * @param pooled specifies true to use the pooled transport, false to use the legacy transport.
+     */
+    public void setPooledTransport(boolean pooled)
+    {
+        if (pooled)
+        {
+            PooledHttpTransport transport = new PooledHttpTransport();
+
+            transport.prewarm(TBA_API_BASE, PREWARM_CONNECTIONS);
+            setTransport(transport);
+        }
+        else
+        {
+            setTransport(new UrlConnectionTransport());
+        }
+    }   //setPooledTransport
+
+    /**
+     * This method sets the file that keeps the filters of known team, event and district keys across runs of the
+     * program and loads the filters from it if it exists.
+     *
+     * @param keyFilterFile specifies the key filter file, null to keep the filters in memory only.
+     */
+    public synchronized void setKeyFilterFile(File keyFilterFile)
+    {
+        this.keyFilterFile = keyFilterFile;
+
+        if (keyFilterFile != null && keyFilterFile.exists())
+        {
+            try (DataInputStream in =
+                     new DataInputStream(new BufferedInputStream(new FileInputStream(keyFilterFile))))
+            {
+                if (in.readInt() != KEY_FILTER_MAGIC || in.readInt() != KEY_FILTER_VERSION)
+                {
+                    throw new IOException("Unsupported key filter file.");
+                }
+                teamKeys.read(in);
+                eventKeys.read(in);
+                districtKeys.read(in);
+            }
+            catch (IOException e)
+            {
+                //
+                // The file is unusable, start with empty filters. It will be overwritten when a complete key list
+                // is received.
+                //
+                teamKeys = new KeyFilter(20000, 0.01);
+                eventKeys = new KeyFilter(20000, 0.01);
+                districtKeys = new KeyFilter(1000, 0.01);
+            }
+        }
+    }   //setKeyFilterFile
+
+    /**
+     * This method returns the statistics of the in-memory cache, including the statistics of the key filters.
+     *
+     * @return cache statistics.
+     */
+    @Override
+    public synchronized JsonObject getCacheStats()
+    {
+        JsonObjectBuilder builder = Json.createObjectBuilder();
+
+        for (Map.Entry<String, JsonValue> entry: super.getCacheStats().entrySet())
+        {
+            builder.add(entry.getKey(), entry.getValue());
+        }
+
+        return builder
+            .add("known_teams", teamKeys.getNumKeys())
+            .add("known_events", eventKeys.getNumKeys())
+            .add("known_districts", districtKeys.getNumKeys())
+            .add("unknown_key_hits", unknownKeyCount)
+            .build();
+    }   //getCacheStats
+
+    /**
+     * This method sends the GET request to the web server and returns the replied data if any. Requests for team,
+     * event or district keys that definitely do not exist fail right away without being sent. Keys in the replied
+     * data are added to the key filters. If a consumer is specified, the replied data is passed to it instead.
+     * Consumed data is streamed without being parsed into a JSON structure, so its keys are not learned, except
+     * for the complete event and district lists of a season which are always parsed.
+     *
+     * @param request specifies the request string.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @param header specifies the optional header, null if none.
+     * @param consumer specifies the consumer of the replied data, null to return the data.
+     * @return replied JSON data, null if request failed or the data was passed to the consumer.
+     * @throws RuntimeException when request failed.
+     */
+    @Override
+    protected JsonStructure get(String request, PrintStream statusOut, String header, JsonConsumer consumer)
+        throws RuntimeException
+    {
+        String unknownKey = findUnknownKey(request);
+
+        if (unknownKey != null)
+        {
+            synchronized (this)
+            {
+                unknownKeyCount++;
+            }
+            if (statusOut != null)
+            {
+                statusOut.println("Unknown key <" + unknownKey + ">: Not Found");
+            }
+            throw new RuntimeException("Request failed: Not Found (unknown key " + unknownKey + ")");
+        }
+
+        boolean keyList = isKeyListRequest(request);
+        JsonStructure data = super.get(request, statusOut, header, keyList? null: consumer);
+        if (data != null)
+        {
+            learnKeys(request, data);
+            if (consumer != null)
+            {
+                consumer.accept(data);
+                data = null;
+            }
+        }
+
+        return data;
+    }   //get
+
+    /**
+     * This method sends the GET request to the web server and returns the replied data reduced to the fields of
+     * the projection. Keys kept by the projection are added to the key filters, the complete event and district
+     * lists of a season have already been learned in full by the get method.
+     *
+     * @param request specifies the request string.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @param header specifies the optional header, null if none.
+     * @param projection specifies the projection of the replied data, null to return the complete data.
+     * @return replied JSON data projected, null if request failed.
+     * @throws RuntimeException when request failed.
+     */
+    @Override
+    public JsonStructure getProjected(String request, PrintStream statusOut, String header, JsonProjection projection)
+        throws RuntimeException
+    {
+        JsonStructure data = super.getProjected(request, statusOut, header, projection);
+
+        if (data != null && projection != null && !isKeyListRequest(request))
+        {
+            learnKeys(request, data);
+        }
+
+        return data;
+    }   //getProjected
+
+    /**
+     * This method checks if the request is for the complete event or district list of a season.
+     *
+     * @param request specifies the request string.
+     * @return true if the request is for a complete key list, false otherwise.
+     */
+    private boolean isKeyListRequest(String request)
+    {
+        String[] path = request.split("/");
+
+        return path.length >= 2 && (path[0].equals("events") || path[0].equals("districts")) &&
+               parseYear(path[1]) > 0;
+    }   //isKeyListRequest
+
+    /**
+     * This method checks if the request refers to a team, event or district key that definitely does not exist.
+     *
+     * @param request specifies the request string.
+     * @return the key that does not exist, null if all keys might exist.
+     */
+    private String findUnknownKey(String request)
+    {
+        String[] path = request.split("/");
+        String unknownKey = null;
+
+        if (path.length >= 2)
+        {
+            switch (path[0])
+            {
+                case "team":
+                    //
+                    // team/<TeamKey>[/...] or team/<TeamKey>/event/<EventKey>/...
+                    //
+                    if (teamKeys.isKnownAbsent(path[1], 0, KEY_LIST_MAX_AGE))
+                    {
+                        unknownKey = path[1];
+                    }
+                    else if (path.length >= 4 && path[2].equals("event") && isUnknownEvent(path[3]))
+                    {
+                        unknownKey = path[3];
+                    }
+                    break;
+
+                case "event":
+                    if (isUnknownEvent(path[1]))
+                    {
+                        unknownKey = path[1];
+                    }
+                    break;
+
+                case "district":
+                    if (districtKeys.isKnownAbsent(path[1], parseYear(path[1]), KEY_LIST_MAX_AGE))
+                    {
+                        unknownKey = path[1];
+                    }
+                    break;
+
+                case "match":
+                    //
+                    // The match key is the event key followed by an underscore and the match name.
+                    //
+                    int separator = path[1].indexOf('_');
+                    if (separator > 0 && isUnknownEvent(path[1].substring(0, separator)))
+                    {
+                        unknownKey = path[1].substring(0, separator);
+                    }
+                    break;
+            }
+        }
+
+        return unknownKey;
+    }   //findUnknownKey
+
+    /**
+     * This method checks if the event key definitely does not exist.
+     *
+     * @param eventKey specifies the event key.
+     * @return true if the event does not exist, false if it might.
+     */
+    private boolean isUnknownEvent(String eventKey)
+    {
+        return eventKeys.isKnownAbsent(eventKey, parseYear(eventKey), KEY_LIST_MAX_AGE);
+    }   //isUnknownEvent
+
+    /**
+     * This method adds the team, event and district keys found in the replied data to the key filters. If the
+     * replied data is the complete event or district list of a season, the list is marked complete so that
+     * unknown keys of the season can be rejected.
+     *
+     * @param request specifies the request string.
+     * @param data specifies the replied data.
+     */
+    private void learnKeys(String request, JsonStructure data)
+    {
+        String[] path = request.split("/");
+        boolean districtList = path[0].equals("districts") || path[path.length - 1].equals("districts");
+        KeyFilter seasonKeys = districtList? districtKeys: eventKeys;
+
+        if (data.getValueType() == JsonValue.ValueType.ARRAY)
+        {
+            for (JsonValue element: (JsonArray)data)
+            {
+                addKey(element, seasonKeys);
+            }
+
+            if (isKeyListRequest(request))
+            {
+                if (path[0].equals("events"))
+                {
+                    setKeyListComplete(eventKeys, parseYear(path[1]));
+                }
+                else if (path[0].equals("districts"))
+                {
+                    setKeyListComplete(districtKeys, parseYear(path[1]));
+                }
+            }
+        }
+        else
+        {
+            addKey(data, seasonKeys);
+        }
+    }   //learnKeys
+
+    /**
+     * This method adds the key of the JSON value to the key filters. The value is either a key string or an
+     * object with a key field. Team keys start with "frc", event and district keys start with the season.
+     *
+     * @param value specifies the JSON value.
+     * @param seasonKeys specifies the filter for keys that start with the season.
+     */
+    private void addKey(JsonValue value, KeyFilter seasonKeys)
+    {
+        JsonValue keyValue =
+            value.getValueType() == JsonValue.ValueType.OBJECT? ((JsonObject)value).get("key"): value;
+
+        if (keyValue != null && keyValue.getValueType() == JsonValue.ValueType.STRING)
+        {
+            String key = ((JsonString)keyValue).getString();
+            //
+            // Match and robot keys contain an underscore, they are not tracked.
+            //
+            if (key.indexOf('_') == -1)
+            {
+                if (key.startsWith("frc"))
+                {
+                    teamKeys.add(key);
+                }
+                else if (parseYear(key) > 0)
+                {
+                    seasonKeys.add(key);
+                }
+            }
+        }
+    }   //addKey
+
+    /**
+     * This method marks the key list of the season complete and saves the key filters. It does nothing if the key
+     * list was marked complete recently.
+     *
+     * @param keyFilter specifies the key filter.
+     * @param season specifies the season, 0 if the key list covers all seasons.
+     */
+    private synchronized void setKeyListComplete(KeyFilter keyFilter, int season)
+    {
+        if (!keyFilter.isComplete(season, KEY_LIST_REFRESH_AGE))
+        {
+            keyFilter.setComplete(season);
+            if (keyFilterFile != null)
+            {
+                File tempFile = new File(keyFilterFile.getPath() + ".tmp");
+
+                try
+                {
+                    try (DataOutputStream out =
+                             new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile))))
+                    {
+                        out.writeInt(KEY_FILTER_MAGIC);
+                        out.writeInt(KEY_FILTER_VERSION);
+                        teamKeys.write(out);
+                        eventKeys.write(out);
+                        districtKeys.write(out);
+                    }
+                    Files.move(tempFile.toPath(), keyFilterFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                }
+                catch (IOException e)
+                {
+                    //
+                    // Not fatal, the key lists will be downloaded again next time.
+                    //
+                    tempFile.delete();
+                }
+            }
+        }
+    }   //setKeyListComplete
+
+    /**
+     * This method checks if the replied data of the request belongs to a completed season. Data of a completed
+     * season can never change, so it never needs to be revalidated. Only the current season already known is used,
+     * so this never waits for the status request. Until the current season is known, every season is treated as
+     * current and the status is looked up in the background.
+     *
+     * @param request specifies the request string.
+     * @return true if the data belongs to a completed season, false otherwise.
+     */
+    @Override
+    protected boolean isImmutable(String request)
+    {
+        int year = getRequestYear(request);
+        int season = currentSeason;
+        //
+        // Only look up the current season if the request is for a specific season. This also prevents the status
+        // request from looking it up again.
+        //
+        if (year > 0 && season == 0)
+        {
+            lookUpCurrentSeason();
+        }
+
+        return year > 0 && year < season;
+    }   //isImmutable
+
+    /**
+     * This method looks up the current season from the TBA status in the background, unless the lookup is already
+     * pending. If the status cannot be retrieved, it is not retried for a while, so that every request made while
+     * the web server is failing does not also send a status request.
+     */
+    private void lookUpCurrentSeason()
+    {
+        if (System.currentTimeMillis() - statusFailureTime >= STATUS_RETRY_INTERVAL &&
+            seasonLookupPending.compareAndSet(false, true))
+        {
+            getInternalExecutor().execute(
+                () ->
+                {
+                    //
+                    // Nobody is waiting for the status, so it must not hold up the requests that someone is.
+                    //
+                    RequestContext context = new RequestContext(0, RequestScheduler.Priority.BACKGROUND);
+                    RequestContext prevContext = context.attach();
+                    try
+                    {
+                        getStatus(null);
+                    }
+                    catch (RuntimeException e)
+                    {
+                        //
+                        // Status is not available, treat every season as current until we retry.
+                        //
+                        statusFailureTime = System.currentTimeMillis();
+                    }
+                    finally
+                    {
+                        RequestContext.detach(prevContext);
+                        seasonLookupPending.set(false);
+                    }
+                });
+        }
+    }   //lookUpCurrentSeason
+
+    /**
+     * This method determines the season of the request from the year or the event, district or match key in the
+     * request path.
+     *
+     * @param request specifies the request string.
+     * @return season of the request, 0 if the request is not specific to a season.
+     */
+    private int getRequestYear(String request)
+    {
+        String[] path = request.split("/");
+        int year = 0;
+
+        if (path.length >= 2)
+        {
+            switch (path[0])
+            {
+                case "teams":
+                    //
+                    // teams/<Year>/<PageNum>[/(simple|keys)], the year is optional.
+                    //
+                    year = path.length >= 3? parseYear(path[1]): 0;
+                    break;
+
+                case "team":
+                    //
+                    // team/<TeamKey>/(events|awards|matches|media)/<Year>[/...] or team/<TeamKey>/event/<EventKey>/...
+                    //
+                    if (path.length >= 4)
+                    {
+                        switch (path[2])
+                        {
+                            case "events":
+                            case "awards":
+                            case "matches":
+                            case "media":
+                            case "event":
+                                year = parseYear(path[3]);
+                                break;
+                        }
+                    }
+                    break;
+
+                case "events":
+                case "districts":
+                case "event":
+                case "district":
+                case "match":
+                    //
+                    // The year is either the path element or the prefix of the event, district or match key.
+                    //
+                    year = parseYear(path[1]);
+                    break;
+            }
+        }
+
+        return year;
+    }   //getRequestYear
+
+    /**
+     * This method parses the year from the first four characters of the string, which is either a year or a key
+     * prefixed with the year.
+     *
+     * @param s specifies the string.
+     * @return parsed year, 0 if the string does not start with a year.
+     */
+    private static int parseYear(String s)
+    {
+        int year = 0;
+
+        if (s.length() >= 4 && s.substring(0, 4).chars().allMatch(Character::isDigit))
+        {
+            year = Integer.parseInt(s.substring(0, 4));
+        }
+
+        return year;
+    }   //parseYear
+
     //
     // TBA API v3.
     //
 
     /**
-     * This method sends a Status Request.
+     * This method sends a Status Request. The current season in the status is remembered to tell which seasons
+     * are completed.
+     *
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return status data.
+     */
+    public JsonStructure getStatus(PrintStream statusOut)
+    {
+        JsonStructure status = get("status", statusOut, header);
+
+        if (status instanceof JsonObject)
+        {
+            currentSeason = ((JsonObject)status).getInt("current_season", currentSeason);
+        }
+
+        return status;
+    }   //getStatus
+
+    /**
+     * This method sends the Team List Request of the specified page asynchronously. If the page turns out to be
+     * empty, it is recorded as the first empty page unless an earlier one is already known. The page is requested
+     * on the internal executor, so the team list request waiting for it may itself run on a bounded asynchronous
+     * executor without starving its own pages. Each page is requested in its own child of the request context of
+     * the caller, added to the page contexts in page order, so that the pages past the end of the list can be
+     * cancelled as soon as an empty page is seen.
+     *
+     * @param year specifies the optional year, null for all years.
+     * @param pageNum specifies the page number.
+     * @param verbosity specifies optional verbosity, null for full verbosity.
+     * @param firstEmptyPage specifies the first page known to be empty.
+     * @param pageContexts specifies the request contexts of the pages requested so far.
+     * @return future completing with the teams of the page, null if the page is empty.
+     */
+    private CompletableFuture<JsonArray> getTeamsPageAsync(
+        String year, int pageNum, String verbosity, AtomicInteger firstEmptyPage, List<RequestContext> pageContexts)
+    {
+        String request = "teams/";
+        if (year != null) request += year + "/";
+        request += pageNum;
+        if (verbosity != null) request += "/" + verbosity;
+
+        String pageRequest = request;
+        RequestContext pageContext = RequestContext.fork();
+        synchronized (pageContexts)
+        {
+            pageContexts.add(pageContext);
+        }
+
+        return supplyInternal(
+            () ->
+            {
+                RequestContext prevContext = pageContext.attach();
+                try
+                {
+                    return get(pageRequest, null, header);
+                }
+                finally
+                {
+                    RequestContext.detach(prevContext);
+                }
+            }).thenApply(
+            data ->
+            {
+                JsonArray teams = null;
+
+                if (data != null && data.getValueType() == JsonValue.ValueType.ARRAY && !((JsonArray)data).isEmpty())
+                {
+                    teams = (JsonArray)data;
+                }
+                else
+                {
+                    int lastPage = firstEmptyPage.accumulateAndGet(pageNum, Math::min);
+                    //
+                    // The list ends here, the pages after it are not worth waiting for.
+                    //
+                    synchronized (pageContexts)
+                    {
+                        for (int page = lastPage + 1; page < pageContexts.size(); page++)
+                        {
+                            pageContexts.get(page).cancel();
+                        }
+                    }
+                }
+
+                return teams;
+            });
+    }   //getTeamsPageAsync
+
+    /**
+     * This method sends a Team List Request. The pages of the team list are requested concurrently, keeping a
+     * window of pages in flight ahead of the page being assembled until an empty page is seen. The number of pages
+     * is remembered so the next request for the same year can request exactly the pages it needs right away.
+     * Requests for pages past the end of the list are cancelled as soon as the end is known, whether they are still
+     * waiting for the scheduler or already sent. The pages are requested in children of the request context of
+     * the caller, so its deadline bounds the whole list.
+     *
+     * @param year specifies the optional year, null for all years.
+     * @param verbosity specifies optional verbosity, null for full verbosity.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return team list data.
+     */
+    public JsonStructure getTeams(String year, String verbosity, PrintStream statusOut)
+    {
+        return getTeams(year, verbosity, null, statusOut);
+    }   //getTeams
+
+    /**
+     * This method sends a Team List Request. The pages of the team list are requested concurrently, keeping a
+     * window of pages in flight ahead of the page being assembled until an empty page is seen. The number of pages
+     * is remembered so the next request for the same year can request exactly the pages it needs right away.
+     * Requests for pages past the end of the list are cancelled as soon as the end is known, whether they are still
+     * waiting for the scheduler or already sent. The pages are requested in children of the request context of
+     * the caller, so its deadline bounds the whole list.
+     *
+     * @param year specifies the optional year, null for all years.
+     * @param verbosity specifies optional verbosity, null for full verbosity.
+     * @param projection specifies the projection of the replied data, null for the complete data.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return team list data.
+     */
+    public JsonStructure getTeams(String year, String verbosity, JsonProjection projection, PrintStream statusOut)
+    {
+        JsonArrayBuilder arrBuilder = Json.createArrayBuilder();
+
+        forEachTeamsPage(
+            year, verbosity, statusOut,
+            teams ->
+            {
+                if (projection != null)
+                {
+                    projection.accept(teams);
+                    teams = (JsonArray)projection.getData();
+                }
+                for (JsonValue team: teams)
+                {
+                    arrBuilder.add(team);
+                }
+            });
+
+        return arrBuilder.build();
+    }   //getTeams
+
+    /**
+     * This method sends a Team List Request and prints the team list. Each page is printed as soon as it and the
+     * pages before it have arrived, so the list is never assembled in memory and the first teams are printed while
+     * the later pages are still being requested. The output is the same as printing the list returned by getTeams.
+     *
+     * @param year specifies the optional year, null for all years.
+     * @param verbosity specifies optional verbosity, null for full verbosity.
+     * @param key1 specifies the first key to print of each team, null to print all the nested structures.
+     * @param key2 specifies the second key to print of each team, null if none.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @param dataOut specifies the output print stream for the data.
+     */
+    public void printTeams(
+        String year, String verbosity, String key1, String key2, PrintStream statusOut, PrintStream dataOut)
+    {
+        JsonPrinter printer = new JsonPrinter(dataOut, key1, key2);
+        AtomicBoolean begun = new AtomicBoolean(false);
+
+        //
+        // The list is begun on the first page so that nothing is printed if the first page failed.
+        //
+        forEachTeamsPage(
+            year, verbosity, statusOut,
+            teams ->
+            {
+                if (!begun.getAndSet(true))
+                {
+                    printer.beginArray();
+                }
+                for (JsonValue team: teams)
+                {
+                    printer.printElement(team);
+                }
+                printer.flush();
+            });
+        if (!begun.get())
+        {
+            printer.beginArray();
+        }
+        printer.endArray();
+    }   //printTeams
+
+    /**
+     * This method requests the pages of the team list and passes each non-empty page to the consumer in page
+     * order as soon as it and the pages before it have arrived.
+     *
+     * @param year specifies the optional year, null for all years.
+     * @param verbosity specifies optional verbosity, null for full verbosity.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @param pageConsumer specifies the consumer of the pages.
+     */
+    private void forEachTeamsPage(
+        String year, String verbosity, PrintStream statusOut, Consumer<JsonArray> pageConsumer)
+    {
+        String pageCountKey = year != null? year: "all";
+        Integer knownPageCount;
+        synchronized (this)
+        {
+            knownPageCount = teamPageCounts.get(pageCountKey);
+        }
+        AtomicInteger firstEmptyPage = new AtomicInteger(Integer.MAX_VALUE);
+        ArrayList<CompletableFuture<JsonArray>> pages = new ArrayList<>();
+        ArrayList<RequestContext> pageContexts = new ArrayList<>();
+        int numTeams = 0;
+
+        try
+        {
+            for (int page = 0; page < firstEmptyPage.get(); page++)
+            {
+                //
+                // If we know the page count, request exactly the known pages plus the one after the last to confirm
+                // the end. Otherwise, or if the list has grown past it, keep a window of pages in flight.
+                //
+                int numPagesWanted = knownPageCount != null && page <= knownPageCount?
+                    knownPageCount + 1: page + TEAM_PAGE_WINDOW;
+                while (pages.size() < Math.min(numPagesWanted, firstEmptyPage.get()))
+                {
+                    pages.add(getTeamsPageAsync(year, pages.size(), verbosity, firstEmptyPage, pageContexts));
+                }
+
+                JsonArray teams = RequestContext.bound(pages.get(page)).join();
+                if (teams != null)
+                {
+                    pageConsumer.accept(teams);
+                    numTeams += teams.size();
+                }
+            }
+        }
+        catch (CompletionException e)
+        {
+            throw e.getCause() instanceof RuntimeException? (RuntimeException)e.getCause(): e;
+        }
+        finally
+        {
+            //
+            // Cancel the pages still outstanding, past the end of the list or abandoned on failure, so that they
+            // give back their scheduler slots and connections.
+            //
+            synchronized (pageContexts)
+            {
+                for (int page = 0; page < pageContexts.size(); page++)
+                {
+                    if (page >= pages.size() || !pages.get(page).isDone())
+                    {
+                        pageContexts.get(page).cancel();
+                    }
+                    pageContexts.get(page).close();
+                }
+            }
+        }
+
+        synchronized (this)
+        {
+            teamPageCounts.put(pageCountKey, firstEmptyPage.get());
+        }
+
+        if (statusOut != null)
+        {
+            statusOut.println(
+                "Received " + numTeams + " teams in " + firstEmptyPage.get() + " pages (" + pages.size() +
+                " page requests).");
+        }
+
+        if (year == null)
+        {
+            //
+            // We have seen every team there is.
+            //
+            setKeyListComplete(teamKeys, 0);
+        }
+    }   //forEachTeamsPage
+
+    /**
+     * This method sends a Single Team Request.
+     *
+     * @param teamKey specifies the team key.
+     * @param verbosity specifies optional verbosity, null for full verbosity.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return single team data.
+     */
+    public JsonStructure getTeam(String teamKey, String verbosity, PrintStream statusOut)
+    {
+        return getTeam(teamKey, verbosity, null, statusOut);
+    }   //getTeam
+
+    /**
+     * This method sends a Single Team Request.
+     *
+     * @param teamKey specifies the team key.
+     * @param verbosity specifies optional verbosity, null for full verbosity.
+     * @param projection specifies the projection of the replied data, null for the complete data.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return single team data.
+     */
+    public JsonStructure getTeam(String teamKey, String verbosity, JsonProjection projection, PrintStream statusOut)
+    {
+        String request = "team/" + teamKey;
+        if (verbosity != null) request += "/" + verbosity;
+        return getProjected(request, statusOut, header, projection);
+    }   //getTeam
+
+    /**
+     * This method sends the Team Years Participated Request.
+     *
+     * @param teamKey specifies the team key.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return team years participated data.
+     */
+    public JsonStructure getTeamYearsParticipated(String teamKey, PrintStream statusOut)
+    {
+        return get("team/" + teamKey + "/years_participated", statusOut, header);
+    }   //getTeamYearsParticipated
+
+    /**
+     * This method sends the Team Districts Request.
+     *
+     * @param teamKey specifies the team key.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return team districts data.
+     */
+    public JsonStructure getTeamDistricts(String teamKey, PrintStream statusOut)
+    {
+        return getTeamDistricts(teamKey, null, statusOut);
+    }   //getTeamDistricts
+
+    /**
+     * This method sends the Team Districts Request.
+     *
+     * @param teamKey specifies the team key.
+     * @param projection specifies the projection of the replied data, null for the complete data.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return team districts data.
+     */
+    public JsonStructure getTeamDistricts(String teamKey, JsonProjection projection, PrintStream statusOut)
+    {
+        return getProjected("team/" + teamKey + "/districts", statusOut, header, projection);
+    }   //getTeamDistricts
+
+    /**
+     * This method sends the Team Robots Request.
+     *
+     * @param teamKey specifies the team key.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return team robots data.
+     */
+    public JsonStructure getTeamRobots(String teamKey, PrintStream statusOut)
+    {
+        return get("team/" + teamKey + "/robots", statusOut, header);
+    }   //getTeamRobots
+
+    /**
+     * This method sends a Team Events Request.
+     *
+     * @param teamKey specifies the team key.
+     * @param year specifies the optional year, null for all years.
+     * @param verbosity specifies optional verbosity, null for full verbosity.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return team events data.
+     */
+    public JsonStructure getTeamEvents(String teamKey, String year, String verbosity, PrintStream statusOut)
+    {
+        return getTeamEvents(teamKey, year, verbosity, null, statusOut);
+    }   //getTeamEvents
+
+    /**
+     * This method sends a Team Events Request.
+     *
+     * @param teamKey specifies the team key.
+     * @param year specifies the optional year, null for all years.
+     * @param verbosity specifies optional verbosity, null for full verbosity.
+     * @param projection specifies the projection of the replied data, null for the complete data.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return team events data.
+     */
+    public JsonStructure getTeamEvents(
+        String teamKey, String year, String verbosity, JsonProjection projection, PrintStream statusOut)
+    {
+        String request = "team/" + teamKey + "/events";
+        if (year != null) request += "/" + year;
+        if (verbosity != null) request += "/" + verbosity;
+        return getProjected(request, statusOut, header, projection);
+    }   //getTeamEvents
+
+    /**
+     * This method sends the Team Event Matches Request.
+     *
+     * @param teamKey specifies the team key.
+     * @param eventKey specifies the event key.
+     * @param verbosity specifies optional verbosity, null for full verbosity.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return team event matches data.
+     */
+    public JsonStructure getTeamEventMatches(String teamKey, String eventKey, String verbosity, PrintStream statusOut)
+    {
+        return getTeamEventMatches(teamKey, eventKey, verbosity, null, statusOut);
+    }   //getTeamEventMatches
+
+    /**
+     * This method sends the Team Event Matches Request.
+     *
+     * @param teamKey specifies the team key.
+     * @param eventKey specifies the event key.
+     * @param verbosity specifies optional verbosity, null for full verbosity.
+     * @param projection specifies the projection of the replied data, null for the complete data.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return team event matches data.
+     */
+    public JsonStructure getTeamEventMatches(
+        String teamKey, String eventKey, String verbosity, JsonProjection projection, PrintStream statusOut)
+    {
+        String request = "team/" + teamKey + "/event/" + eventKey + "/matches";
+        if (verbosity != null) request += "/" + verbosity;
+        return getProjected(request, statusOut, header, projection);
+    }   //getTeamEventMatches
+
+    /**
+     * This method sends the Team Event Awards Request.
+     *
+     * @param teamKey specifies the team key.
+     * @param eventKey specifies the event key.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return team event awards data.
+     */
+    public JsonStructure getTeamEventAwards(String teamKey, String eventKey, PrintStream statusOut)
+    {
+        return getTeamEventAwards(teamKey, eventKey, null, statusOut);
+    }   //getTeamEventAwards
+
+    /**
+     * This method sends the Team Event Awards Request.
+     *
+     * @param teamKey specifies the team key.
+     * @param eventKey specifies the event key.
+     * @param projection specifies the projection of the replied data, null for the complete data.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return team event awards data.
+     */
+    public JsonStructure getTeamEventAwards(
+        String teamKey, String eventKey, JsonProjection projection, PrintStream statusOut)
+    {
+        return getProjected("team/" + teamKey + "/event/" + eventKey + "/awards", statusOut, header, projection);
+    }   //getTeamEventAwards
+
+    /**
+     * This method sends the Team Event Status Request.
+     *
+     * @param teamKey specifies the team key.
+     * @param eventKey specifies the event key.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return team event status data.
+     */
+    public JsonStructure getTeamEventStatus(String teamKey, String eventKey, PrintStream statusOut)
+    {
+        return get("team/" + teamKey + "/event/" + eventKey + "/status", statusOut, header);
+    }   //getTeamEventStatus
+
+    /**
+     * This method sends the Team Awards Request.
+     *
+     * @param teamKey specifies the team key.
+     * @param year specifies the optional year, null for all years.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return team awards data.
+     */
+    public JsonStructure getTeamAwards(String teamKey, String year, PrintStream statusOut)
+    {
+        return getTeamAwards(teamKey, year, null, statusOut);
+    }   //getTeamAwards
+
+    /**
+     * This method sends the Team Awards Request.
+     *
+     * @param teamKey specifies the team key.
+     * @param year specifies the optional year, null for all years.
+     * @param projection specifies the projection of the replied data, null for the complete data.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return team awards data.
+     */
+    public JsonStructure getTeamAwards(String teamKey, String year, JsonProjection projection, PrintStream statusOut)
+    {
+        String request = "team/" + teamKey + "/awards";
+        if (year != null) request += "/" + year;
+        return getProjected(request, statusOut, header, projection);
+    }   //getTeamAwards
+
+    /**
+     * This method sends the Team Matches Request.
+     *
+     * @param teamKey specifies the team key.
+     * @param year specifies the optional year, null for all years.
+     * @param verbosity specifies optional verbosity, null for full verbosity.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return team matches data.
+     */
+    public JsonStructure getTeamMatches(String teamKey, String year, String verbosity, PrintStream statusOut)
+    {
+        return getTeamMatches(teamKey, year, verbosity, null, statusOut);
+    }   //getTeamMatches
+
+    /**
+     * This method sends the Team Matches Request.
+     *
+     * @param teamKey specifies the team key.
+     * @param year specifies the optional year, null for all years.
+     * @param verbosity specifies optional verbosity, null for full verbosity.
+     * @param projection specifies the projection of the replied data, null for the complete data.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return team matches data.
+     */
+    public JsonStructure getTeamMatches(
+        String teamKey, String year, String verbosity, JsonProjection projection, PrintStream statusOut)
+    {
+        String request = "team/" + teamKey + "/matches";
+        if (year != null) request += "/" + year;
+        if (verbosity != null) request += "/" + verbosity;
+        return getProjected(request, statusOut, header, projection);
+    }   //getTeamMatches
+
+    /**
+     * This method sends the Team Media Request.
+     *
+     * @param teamKey specifies the team key.
+     * @param year specifies the year.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return team media data.
+     */
+    public JsonStructure getTeamMedia(String teamKey, String year, PrintStream statusOut)
+    {
+        return get("team/" + teamKey + "/media/" + year, statusOut, header);
+    }   //getTeamMedia
+
+    /**
+     * This method sends the Team Social Media Request.
+     *
+     * @param teamKey specifies the team key.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return team social media data.
+     */
+    public JsonStructure getTeamSocialMedia(String teamKey, PrintStream statusOut)
+    {
+        return get("team/" + teamKey + "/social_media", statusOut, header);
+    }   //getTeamSocialMedia
+
+    /**
+     * This methods sends the Event List Request.
+     *
+     * @param year specifies the year.
+     * @param verbosity specifies optional verbosity, null for full verbosity.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return event list data.
+     */
+    public JsonStructure getEvents(String year, String verbosity, PrintStream statusOut)
+    {
+        return getEvents(year, verbosity, null, statusOut);
+    }   //getEvents
+
+    /**
+     * This methods sends the Event List Request.
+     *
+     * @param year specifies the year.
+     * @param verbosity specifies optional verbosity, null for full verbosity.
+     * @param projection specifies the projection of the replied data, null for the complete data.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return event list data.
+     */
+    public JsonStructure getEvents(String year, String verbosity, JsonProjection projection, PrintStream statusOut)
+    {
+        String request = "events/" + year;
+        if (verbosity != null) request += "/" + verbosity;
+        return getProjected(request, statusOut, header, projection);
+    }   //getEvents
+
+    /**
+     * This method sends the Event Info Request.
+     *
+     * @param eventKey specifies the event key.
+     * @param verbosity specifies optional verbosity, null for full verbosity.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return event info data.
+     */
+    public JsonStructure getEvent(String eventKey, String verbosity, PrintStream statusOut)
+    {
+        return getEvent(eventKey, verbosity, null, statusOut);
+    }   //getEvent
+
+    /**
+     * This method sends the Event Info Request.
+     *
+     * @param eventKey specifies the event key.
+     * @param verbosity specifies optional verbosity, null for full verbosity.
+     * @param projection specifies the projection of the replied data, null for the complete data.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return event info data.
+     */
+    public JsonStructure getEvent(String eventKey, String verbosity, JsonProjection projection, PrintStream statusOut)
+    {
+        String request = "event/" + eventKey;
+        if (verbosity != null) request += "/" + verbosity;
+        return getProjected(request, statusOut, header, projection);
+    }   //getEvent
+
+    /**
+     * This method sends the Event Teams Request.
+     *
+     * @param eventKey specifies the event key.
+     * @param verbosity specifies optional verbosity, null for full verbosity.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return event teams data.
+     */
+    public JsonStructure getEventTeams(String eventKey, String verbosity, PrintStream statusOut)
+    {
+        return getEventTeams(eventKey, verbosity, null, statusOut);
+    }   //getEventTeams
+
+    /**
+     * This method sends the Event Teams Request.
+     *
+     * @param eventKey specifies the event key.
+     * @param verbosity specifies optional verbosity, null for full verbosity.
+     * @param projection specifies the projection of the replied data, null for the complete data.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return event teams data.
+     */
+    public JsonStructure getEventTeams(
+        String eventKey, String verbosity, JsonProjection projection, PrintStream statusOut)
+    {
+        String request = "event/" + eventKey + "/teams";
+        if (verbosity != null) request += "/" + verbosity;
+        return getProjected(request, statusOut, header, projection);
+    }   //getEventTeams
+
+    /**
+     * This method sends the Event Alliances Request.
+     *
+     * @param eventKey specifies the event key.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return event alliances data.
+     */
+    public JsonStructure getEventAlliances(String eventKey, PrintStream statusOut)
+    {
+        return get("event/" + eventKey + "/alliances", statusOut, header);
+    }   //getEventAlliances
+
+    /**
+     * This method sends the Event Insights Request.
+     *
+     * @param eventKey specifies the event key.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return event insights data.
+     */
+    public JsonStructure getEventInsights(String eventKey, PrintStream statusOut)
+    {
+        return get("event/" + eventKey + "/insights", statusOut, header);
+    }   //getEventInsights
+
+    /**
+     * This method sends the Event OPR Request.
+     *
+     * @param eventKey specifies the event key.
+     * @param verboseLevel specifies verbose level.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return event OPR data.
+     */
+    public JsonStructure getEventOprs(String eventKey, int verboseLevel, PrintStream statusOut)
+    {
+        JsonStructure data = get("event/" + eventKey + "/oprs", statusOut, header);
+
+        if (data != null && verboseLevel < 2)
+        {
+            data = (JsonStructure)((JsonObject)data).get("oprs");
+        }
+
+        return data;
+    }   //getEventOpr
+
+    /**
+     * This method sends the Event Predictions Request.
+     *
+     * @param eventKey specifies the event key.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return event rankings data.
+     */
+    public JsonStructure getEventPredictions(String eventKey, PrintStream statusOut)
+    {
+        return get("event/" + eventKey + "/predictions", statusOut, header);
+    }   //getEventPreditions
+
+    /**
+     * This method sends the Event Rankings Request.
+     *
+     * @param eventKey specifies the event key.
+     * @param verboseLevel specifies verbose level.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return event rankings data.
+     */
+    public JsonStructure getEventRankings(String eventKey, int verboseLevel, PrintStream statusOut)
+    {
+        return getEventRankings(eventKey, verboseLevel, null, statusOut);
+    }   //getEventRankings
+
+    /**
+     * This method sends the Event Rankings Request.
+     *
+     * @param eventKey specifies the event key.
+     * @param verboseLevel specifies verbose level.
+     * @param projection specifies the projection of the returned data, null for the complete data.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return event rankings data.
+     */
+    public JsonStructure getEventRankings(
+        String eventKey, int verboseLevel, JsonProjection projection, PrintStream statusOut)
+    {
+        if (projection != null && verboseLevel < 2)
+        {
+            //
+            // Only the rankings list is returned, project it and skip the rest.
+            //
+            projection = projection.forList("rankings");
+        }
+
+        JsonStructure data = getProjected("event/" + eventKey + "/rankings", statusOut, header, projection);
+
+        if (data != null && verboseLevel < 2)
+        {
+            data = (JsonStructure)((JsonObject)data).get("rankings");
+        }
+
+        return data;
+    }   //getEventRankings
+
+    /**
+     * This method sends the Event District Points Request.
+     *
+     * @param eventKey specifies the event key.
+     * @param verboseLevel specifies verbose level.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return event district points data.
+     */
+    public JsonStructure getEventDistrictPoints(String eventKey, int verboseLevel, PrintStream statusOut)
+    {
+        JsonStructure data = get("event/" + eventKey + "/district_points", statusOut, header);
+
+        if (data != null && verboseLevel < 2)
+        {
+            data = (JsonStructure)((JsonObject)data).get("points");
+        }
+
+        return data;
+    }   //getEventDistrictPoints
+
+    /**
+     * This method sends the Event Matches Request.
+     *
+     * @param eventKey specifies the event key.
+     * @param verbosity specifies optional verbosity, null for full verbosity.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return event matches data.
+     */
+    public JsonStructure getEventMatches(String eventKey, String verbosity, PrintStream statusOut)
+    {
+        return getEventMatches(eventKey, verbosity, null, statusOut);
+    }   //getEventMatches
+
+    /**
+     * This method sends the Event Matches Request.
+     *
+     * @param eventKey specifies the event key.
+     * @param verbosity specifies optional verbosity, null for full verbosity.
+     * @param projection specifies the projection of the replied data, null for the complete data.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return event matches data.
+     */
+    public JsonStructure getEventMatches(
+        String eventKey, String verbosity, JsonProjection projection, PrintStream statusOut)
+    {
+        String request = "event/" + eventKey + "/matches";
+        if (verbosity != null) request += "/" + verbosity;
+        return getProjected(request, statusOut, header, projection);
+    }   //getEventMatches
+
+    /**
+     * This method sends the Event Awards Request.
+     *
+     * @param eventKey specifies the event key.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return event awards data.
+     */
+    public JsonStructure getEventAwards(String eventKey, PrintStream statusOut)
+    {
+        return getEventAwards(eventKey, null, statusOut);
+    }   //getEventAwards
+
+    /**
+     * This method sends the Event Awards Request.
+     *
+     * @param eventKey specifies the event key.
+     * @param projection specifies the projection of the replied data, null for the complete data.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return event awards data.
+     */
+    public JsonStructure getEventAwards(String eventKey, JsonProjection projection, PrintStream statusOut)
+    {
+        return getProjected("event/" + eventKey + "/awards", statusOut, header, projection);
+    }   //getEventAwards
+
+    /**
+     * This method sends the District List Request.
+     *
+     * @param year specifies the year.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return district list data.
+     */
+    public JsonStructure getDistricts(String year, PrintStream statusOut)
+    {
+        return getDistricts(year, null, statusOut);
+    }   //getDistricts
+
+    /**
+     * This method sends the District List Request.
+     *
+     * @param year specifies the year.
+     * @param projection specifies the projection of the replied data, null for the complete data.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return district list data.
+     */
+    public JsonStructure getDistricts(String year, JsonProjection projection, PrintStream statusOut)
+    {
+        return getProjected("districts/" + year, statusOut, header, projection);
+    }   //getDistricts
+
+    /**
+     * This method sends the District Teams Request.
+     *
+     * @param districtKey specifies the district key.
+     * @param verbosity specifies optional verbosity, null for full verbosity.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return district teams data.
+     */
+    public JsonStructure getDistrictTeams(String districtKey, String verbosity, PrintStream statusOut)
+    {
+        return getDistrictTeams(districtKey, verbosity, null, statusOut);
+    }   //getDistrictTeams
+
+    /**
+     * This method sends the District Teams Request.
+     *
+     * @param districtKey specifies the district key.
+     * @param verbosity specifies optional verbosity, null for full verbosity.
+     * @param projection specifies the projection of the replied data, null for the complete data.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return district teams data.
+     */
+    public JsonStructure getDistrictTeams(
+        String districtKey, String verbosity, JsonProjection projection, PrintStream statusOut)
+    {
+        String request = "district/" + districtKey + "/teams";
+        if (verbosity != null) request += "/" + verbosity;
+        return getProjected(request, statusOut, header, projection);
+    }   //getDistrictTeams
+
+    /**
+     * This method sends the District Rankings Request.
+     *
+     * @param districtKey specifies the district key.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return district rankings data.
+     */
+    public JsonStructure getDistrictRankings(String districtKey, PrintStream statusOut)
+    {
+        return getDistrictRankings(districtKey, null, statusOut);
+    }   //getDistrictRankings
+
+    /**
+     * This method sends the District Rankings Request.
+     *
+     * @param districtKey specifies the district key.
+     * @param projection specifies the projection of the replied data, null for the complete data.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return district rankings data.
+     */
+    public JsonStructure getDistrictRankings(String districtKey, JsonProjection projection, PrintStream statusOut)
+    {
+        return getProjected("district/" + districtKey + "/rankings", statusOut, header, projection);
+    }   //getDistrictRankings
+
+    /**
+     * This method sends the District Events Request.
+     *
+     * @param districtKey specifies the district key.
+     * @param verbosity specifies optional verbosity, null for full verbosity.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return district events data.
+     */
+    public JsonStructure getDistrictEvents(String districtKey, String verbosity, PrintStream statusOut)
+    {
+        return getDistrictEvents(districtKey, verbosity, null, statusOut);
+    }   //getDistrictEvents
+
+    /**
+     * This method sends the District Events Request.
+     *
+     * @param districtKey specifies the district key.
+     * @param verbosity specifies optional verbosity, null for full verbosity.
+     * @param projection specifies the projection of the replied data, null for the complete data.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return district events data.
+     */
+    public JsonStructure getDistrictEvents(
+        String districtKey, String verbosity, JsonProjection projection, PrintStream statusOut)
+    {
+        String request = "district/" + districtKey + "/events";
+        if (verbosity != null) request += "/" + verbosity;
+        return getProjected(request, statusOut, header, projection);
+    }   //getDistrictEvents
+
+    /**
+     * This method sends the Match Request.
+     *
+     * @param matchKey specifies the match key.
+     * @param verbosity specifies optional verbosity, null for full verbosity.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return match data.
+     */
+    public JsonStructure getMatch(String matchKey, String verbosity, PrintStream statusOut)
+    {
+        return getMatch(matchKey, verbosity, null, statusOut);
+    }   //getMatch
+
+    /**
+     * This method sends the Match Request.
+     *
+     * @param matchKey specifies the match key.
+     * @param verbosity specifies optional verbosity, null for full verbosity.
+     * @param projection specifies the projection of the replied data, null for the complete data.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return match data.
+     */
+    public JsonStructure getMatch(String matchKey, String verbosity, JsonProjection projection, PrintStream statusOut)
+    {
+        String request = "match/" + matchKey;
+        if (verbosity != null) request += "/" + verbosity;
+        return getProjected(request, statusOut, header, projection);
+    }   //getMatch
+
+    //
+    // TBA API v3 typed requests. Each request decodes the replied data straight into model objects, without
+    // building the JSON structure if the data is not already parsed in the cache. The simple verbosity is requested
+    // where it has all the fields of the model. Like the other requests, they return null if the reply had no data.
+    //
+
+    /**
+     * This method sends a Team List Request and decodes the teams. The pages of the team list are requested the
+     * same way as getTeams, each page is decoded as it arrives.
+     *
+     * @param year specifies the optional year, null for all years.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return list of teams.
+     */
+    public List<Team> getTeamRecords(String year, PrintStream statusOut)
+    {
+        ArrayList<Team> teams = new ArrayList<>();
+
+        forEachTeamsPage(
+            year, null, statusOut,
+            page ->
+            {
+                ModelDecoder<Team> decoder = new ModelDecoder<>(Team::decode, null);
+
+                decoder.accept(page);
+                teams.addAll(decoder.getModels());
+            });
+        teams.trimToSize();
+
+        return Collections.unmodifiableList(teams);
+    }   //getTeamRecords
+
+    /**
+     * This method sends a Single Team Request and decodes the team.
+     *
+     * @param teamKey specifies the team key.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return team, null if the reply had no data.
+     */
+    public Team getTeamRecord(String teamKey, PrintStream statusOut)
+    {
+        return getRecord("team/" + teamKey, Team::decode, statusOut);
+    }   //getTeamRecord
+
+    /**
+     * This method sends the Team Districts Request and decodes the districts.
+     *
+     * @param teamKey specifies the team key.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return list of districts, null if the reply had no data.
+     */
+    public List<District> getTeamDistrictRecords(String teamKey, PrintStream statusOut)
+    {
+        return getRecords("team/" + teamKey + "/districts", District::decode, null, statusOut);
+    }   //getTeamDistrictRecords
+
+    /**
+     * This method sends a Team Events Request and decodes the events.
+     *
+     * @param teamKey specifies the team key.
+     * @param year specifies the optional year, null for all years.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return list of events, null if the reply had no data.
+     */
+    public List<Event> getTeamEventRecords(String teamKey, String year, PrintStream statusOut)
+    {
+        String request = "team/" + teamKey + "/events";
+        if (year != null) request += "/" + year;
+        return getRecords(request + "/simple", Event::decode, null, statusOut);
+    }   //getTeamEventRecords
+
+    /**
+     * This method sends the Team Event Matches Request and decodes the matches.
+     *
+     * @param teamKey specifies the team key.
+     * @param eventKey specifies the event key.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return list of matches, null if the reply had no data.
+     */
+    public List<Match> getTeamEventMatchRecords(String teamKey, String eventKey, PrintStream statusOut)
+    {
+        return getRecords("team/" + teamKey + "/event/" + eventKey + "/matches", Match::decode, null, statusOut);
+    }   //getTeamEventMatchRecords
+
+    /**
+     * This method sends the Team Awards Request and decodes the awards.
+     *
+     * @param teamKey specifies the team key.
+     * @param year specifies the optional year, null for all years.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return list of awards, null if the reply had no data.
+     */
+    public List<Award> getTeamAwardRecords(String teamKey, String year, PrintStream statusOut)
+    {
+        String request = "team/" + teamKey + "/awards";
+        if (year != null) request += "/" + year;
+        return getRecords(request, Award::decode, null, statusOut);
+    }   //getTeamAwardRecords
+
+    /**
+     * This method sends the Team Matches Request and decodes the matches.
+     *
+     * @param teamKey specifies the team key.
+     * @param year specifies the year.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return list of matches, null if the reply had no data.
+     */
+    public List<Match> getTeamMatchRecords(String teamKey, String year, PrintStream statusOut)
+    {
+        return getRecords("team/" + teamKey + "/matches/" + year, Match::decode, null, statusOut);
+    }   //getTeamMatchRecords
+
+    /**
+     * This method sends the Event List Request and decodes the events.
+     *
+     * @param year specifies the year.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return list of events, null if the reply had no data.
+     */
+    public List<Event> getEventRecords(String year, PrintStream statusOut)
+    {
+        return getRecords("events/" + year + "/simple", Event::decode, null, statusOut);
+    }   //getEventRecords
+
+    /**
+     * This method sends the Event Info Request and decodes the event.
+     *
+     * @param eventKey specifies the event key.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return event, null if the reply had no data.
+     */
+    public Event getEventRecord(String eventKey, PrintStream statusOut)
+    {
+        return getRecord("event/" + eventKey, Event::decode, statusOut);
+    }   //getEventRecord
+
+    /**
+     * This method sends the Event Teams Request and decodes the teams.
+     *
+     * @param eventKey specifies the event key.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return list of teams, null if the reply had no data.
+     */
+    public List<Team> getEventTeamRecords(String eventKey, PrintStream statusOut)
+    {
+        return getRecords("event/" + eventKey + "/teams/simple", Team::decode, null, statusOut);
+    }   //getEventTeamRecords
+
+    /**
+     * This method sends the Event Rankings Request and decodes the rankings.
+     *
+     * @param eventKey specifies the event key.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return list of rankings, null if the reply had no data.
+     */
+    public List<Ranking> getEventRankingRecords(String eventKey, PrintStream statusOut)
+    {
+        return getRecords("event/" + eventKey + "/rankings", Ranking::decode, "rankings", statusOut);
+    }   //getEventRankingRecords
+
+    /**
+     * This method sends the Event Matches Request and decodes the matches.
+     *
+     * @param eventKey specifies the event key.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return list of matches, null if the reply had no data.
+     */
+    public List<Match> getEventMatchRecords(String eventKey, PrintStream statusOut)
+    {
+        return getRecords("event/" + eventKey + "/matches", Match::decode, null, statusOut);
+    }   //getEventMatchRecords
+
+    /**
+     * This method sends the Event Awards Request and decodes the awards.
+     *
+     * @param eventKey specifies the event key.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return list of awards, null if the reply had no data.
+     */
+    public List<Award> getEventAwardRecords(String eventKey, PrintStream statusOut)
+    {
+        return getRecords("event/" + eventKey + "/awards", Award::decode, null, statusOut);
+    }   //getEventAwardRecords
+
+    /**
+     * This method sends the District List Request and decodes the districts.
+     *
+     * @param year specifies the year.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return list of districts, null if the reply had no data.
+     */
+    public List<District> getDistrictRecords(String year, PrintStream statusOut)
+    {
+        return getRecords("districts/" + year, District::decode, null, statusOut);
+    }   //getDistrictRecords
+
+    /**
+     * This method sends the District Teams Request and decodes the teams.
      *
+     * @param districtKey specifies the district key.
      * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
-     * @return status data.
+     * @return list of teams, null if the reply had no data.
      */
-    public JsonStructure getStatus(PrintStream statusOut)
+    public List<Team> getDistrictTeamRecords(String districtKey, PrintStream statusOut)
     {
-        return get("status", statusOut, header);
-    }   //getStatus
+        return getRecords("district/" + districtKey + "/teams/simple", Team::decode, null, statusOut);
+    }   //getDistrictTeamRecords
 
     /**
-     * This method adds teams of the specified page to the teams array.
+     * This method sends the District Events Request and decodes the events.
      *
-     * @param arrBuilder specifies the array builder to add the teams into.
-     * @param year specifies the optional year, null for all years.
-     * @param pageNum specifies the page number.
-     * @param verbosity specifies optional verbosity, null for full verbosity.
+     * @param districtKey specifies the district key.
      * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
-     * @return true if successful, false if failed.
+     * @return list of events, null if the reply had no data.
      */
-    private boolean addTeams(
-        JsonArrayBuilder arrBuilder, String year, int pageNum, String verbosity, PrintStream statusOut)
+    public List<Event> getDistrictEventRecords(String districtKey, PrintStream statusOut)
     {
-        String request = "teams/";
-        if (year != null) request += year + "/";
-        request += pageNum;
-        if (verbosity != null) request += "/" + verbosity;
+        return getRecords("district/" + districtKey + "/events/simple", Event::decode, null, statusOut);
+    }   //getDistrictEventRecords
 
-        JsonStructure data = get(request, statusOut, header);
-        boolean success;
-        if (data != null && data.getValueType() == JsonValue.ValueType.ARRAY && !((JsonArray)data).isEmpty())
-        {
-            for (JsonValue team: (JsonArray)data)
-            {
-                arrBuilder.add(team);
-            }
-            success = true;
-        }
-        else
-        {
-            success = false;
-        }
+    /**
+     * This method sends the Match Request and decodes the match.
+     *
+     * @param matchKey specifies the match key.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return match, null if the reply had no data.
+     */
+    public Match getMatchRecord(String matchKey, PrintStream statusOut)
+    {
+        return getRecord("match/" + matchKey, Match::decode, statusOut);
+    }   //getMatchRecord
+
+    /**
+     * This method sends the request and decodes the replied list of models.
+     *
+     * @param <T> specifies the model type.
+     * @param request specifies the request string.
+     * @param decoder specifies the method that decodes a model.
+     * @param listName specifies the member of the replied object holding the list, null if the reply is the list.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return list of models, null if the reply had no data.
+     */
+    private <T> List<T> getRecords(
+        String request, ModelDecoder.Decoder<T> decoder, String listName, PrintStream statusOut)
+    {
+        ModelDecoder<T> modelDecoder = new ModelDecoder<>(decoder, listName);
+
+        get(request, statusOut, header, modelDecoder);
 
-        return success;
-    }   //addTeams
+        return modelDecoder.getModels();
+    }   //getRecords
 
     /**
-     * This method sends a Team List Request.
+     * This method sends the request and decodes the replied model.
      *
-     * @param year specifies the optional year, null for all years.
-     * @param verbosity specifies optional verbosity, null for full verbosity.
+     * @param <T> specifies the model type.
+     * @param request specifies the request string.
+     * @param decoder specifies the method that decodes the model.
      * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
-     * @return team list data.
+     * @return model, null if the reply had no data.
      */
-    public JsonStructure getTeams(String year, String verbosity, PrintStream statusOut)
+    private <T> T getRecord(String request, ModelDecoder.Decoder<T> decoder, PrintStream statusOut)
     {
-        JsonArrayBuilder arrBuilder = Json.createArrayBuilder();
+        ModelDecoder<T> modelDecoder = new ModelDecoder<>(decoder, null);
 
-        for (int page = 0; ; page++)
-        {
-            if (!addTeams(arrBuilder, year, page, verbosity, statusOut))
-                break;
-        }
+        get(request, statusOut, header, modelDecoder);
 
-        return arrBuilder.build();
-    }   //getTeams
+        return modelDecoder.getModel();
+    }   //getRecord
+
+    //
+    // TBA API v3 asynchronous requests. Each request runs on the asynchronous executor and its future completes
+    // exceptionally with the RuntimeException the synchronous request would have thrown.
+    //
 
     /**
-     * This method sends a Single Team Request.
+     * This method sends a Status Request asynchronously.
+     *
+     * @return future completing with status data.
+     */
+    public CompletableFuture<JsonStructure> getStatusAsync()
+    {
+        return supplyAsync(() -> getStatus(null));
+    }   //getStatusAsync
+
+    /**
+     * This method sends a Team List Request asynchronously.
+     *
+     * @param year specifies the optional year, null for all years.
+     * @param verbosity specifies optional verbosity, null for full verbosity.
+     * @return future completing with team list data.
+     */
+    public CompletableFuture<JsonStructure> getTeamsAsync(String year, String verbosity)
+    {
+        return supplyAsync(() -> getTeams(year, verbosity, null));
+    }   //getTeamsAsync
+
+    /**
+     * This method sends a Single Team Request asynchronously.
      *
      * @param teamKey specifies the team key.
      * @param verbosity specifies optional verbosity, null for full verbosity.
-     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
-     * @return single team data.
+     * @return future completing with single team data.
      */
-    public JsonStructure getTeam(String teamKey, String verbosity, PrintStream statusOut)
+    public CompletableFuture<JsonStructure> getTeamAsync(String teamKey, String verbosity)
     {
-        String request = "team/" + teamKey;
-        if (verbosity != null) request += "/" + verbosity;
-        return get(request, statusOut, header);
-    }   //getTeam
+        return supplyAsync(() -> getTeam(teamKey, verbosity, null));
+    }   //getTeamAsync
 
     /**
-     * This method sends the Team Years Participated Request.
+     * This method sends the Team Years Participated Request asynchronously.
      *
      * @param teamKey specifies the team key.
-     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
-     * @return team years participated data.
+     * @return future completing with team years participated data.
      */
-    public JsonStructure getTeamYearsParticipated(String teamKey, PrintStream statusOut)
+    public CompletableFuture<JsonStructure> getTeamYearsParticipatedAsync(String teamKey)
     {
-        return get("team/" + teamKey + "/years_participated", statusOut, header);
-    }   //getTeamYearsParticipated
+        return supplyAsync(() -> getTeamYearsParticipated(teamKey, null));
+    }   //getTeamYearsParticipatedAsync
 
     /**
-     * This method sends the Team Districts Request.
+     * This method sends the Team Districts Request asynchronously.
      *
      * @param teamKey specifies the team key.
-     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
-     * @return team districts data.
+     * @return future completing with team districts data.
      */
-    public JsonStructure getTeamDistricts(String teamKey, PrintStream statusOut)
+    public CompletableFuture<JsonStructure> getTeamDistrictsAsync(String teamKey)
     {
-        return get("team/" + teamKey + "/districts", statusOut, header);
-    }   //getTeamDistricts
+        return supplyAsync(() -> getTeamDistricts(teamKey, null));
+    }   //getTeamDistrictsAsync
 
     /**
-     * This method sends the Team Robots Request.
+     * This method sends the Team Robots Request asynchronously.
      *
      * @param teamKey specifies the team key.
-     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
-     * @return team robots data.
+     * @return future completing with team robots data.
      */
-    public JsonStructure getTeamRobots(String teamKey, PrintStream statusOut)
+    public CompletableFuture<JsonStructure> getTeamRobotsAsync(String teamKey)
     {
-        return get("team/" + teamKey + "/robots", statusOut, header);
-    }   //getTeamRobots
+        return supplyAsync(() -> getTeamRobots(teamKey, null));
+    }   //getTeamRobotsAsync
 
     /**
-     * This method sends a Team Events Request.
+     * This method sends a Team Events Request asynchronously.
      *
      * @param teamKey specifies the team key.
      * @param year specifies the optional year, null for all years.
      * @param verbosity specifies optional verbosity, null for full verbosity.
-     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
-     * @return team events data.
+     * @return future completing with team events data.
      */
-    public JsonStructure getTeamEvents(String teamKey, String year, String verbosity, PrintStream statusOut)
+    public CompletableFuture<JsonStructure> getTeamEventsAsync(String teamKey, String year, String verbosity)
     {
-        String request = "team/" + teamKey + "/events";
-        if (year != null) request += "/" + year;
-        if (verbosity != null) request += "/" + verbosity;
-        return get(request, statusOut, header);
-    }   //getTeamEvents
+        return supplyAsync(() -> getTeamEvents(teamKey, year, verbosity, null));
+    }   //getTeamEventsAsync
 
     /**
-     * This method sends the Team Event Matches Request.
+     * This method sends the Team Event Matches Request asynchronously.
      *
      * @param teamKey specifies the team key.
      * @param eventKey specifies the event key.
      * @param verbosity specifies optional verbosity, null for full verbosity.
-     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
-     * @return team event matches data.
+     * @return future completing with team event matches data.
      */
-    public JsonStructure getTeamEventMatches(String teamKey, String eventKey, String verbosity, PrintStream statusOut)
+    public CompletableFuture<JsonStructure> getTeamEventMatchesAsync(String teamKey, String eventKey, String verbosity)
     {
-        String request = "team/" + teamKey + "/event/" + eventKey + "/matches";
-        if (verbosity != null) request += "/" + verbosity;
-        return get(request, statusOut, header);
-    }   //getTeamEventMatches
+        return supplyAsync(() -> getTeamEventMatches(teamKey, eventKey, verbosity, null));
+    }   //getTeamEventMatchesAsync
 
     /**
-     * This method sends the Team Event Awards Request.
+     * This method sends the Team Event Awards Request asynchronously.
      *
      * @param teamKey specifies the team key.
      * @param eventKey specifies the event key.
-     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
-     * @return team event awards data.
+     * @return future completing with team event awards data.
      */
-    public JsonStructure getTeamEventAwards(String teamKey, String eventKey, PrintStream statusOut)
+    public CompletableFuture<JsonStructure> getTeamEventAwardsAsync(String teamKey, String eventKey)
     {
-        return get("team/" + teamKey + "/event/" + eventKey + "/awards", statusOut, header);
-    }   //getTeamEventAwards
+        return supplyAsync(() -> getTeamEventAwards(teamKey, eventKey, null));
+    }   //getTeamEventAwardsAsync
 
     /**
-     * This method sends the Team Event Status Request.
+     * This method sends the Team Event Status Request asynchronously.
      *
      * @param teamKey specifies the team key.
      * @param eventKey specifies the event key.
-     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
-     * @return team event status data.
+     * @return future completing with team event status data.
      */
-    public JsonStructure getTeamEventStatus(String teamKey, String eventKey, PrintStream statusOut)
+    public CompletableFuture<JsonStructure> getTeamEventStatusAsync(String teamKey, String eventKey)
     {
-        return get("team/" + teamKey + "/event/" + eventKey + "/status", statusOut, header);
-    }   //getTeamEventStatus
+        return supplyAsync(() -> getTeamEventStatus(teamKey, eventKey, null));
+    }   //getTeamEventStatusAsync
 
     /**
-     * This method sends the Team Awards Request.
+     * This method sends the Team Awards Request asynchronously.
      *
      * @param teamKey specifies the team key.
      * @param year specifies the optional year, null for all years.
-     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
-     * @return team awards data.
+     * @return future completing with team awards data.
      */
-    public JsonStructure getTeamAwards(String teamKey, String year, PrintStream statusOut)
+    public CompletableFuture<JsonStructure> getTeamAwardsAsync(String teamKey, String year)
     {
-        String request = "team/" + teamKey + "/awards";
-        if (year != null) request += "/" + year;
-        return get(request, statusOut, header);
-    }   //getTeamAwards
+        return supplyAsync(() -> getTeamAwards(teamKey, year, null));
+    }   //getTeamAwardsAsync
 
     /**
-     * This method sends the Team Matches Request.
+     * This method sends the Team Matches Request asynchronously.
      *
      * @param teamKey specifies the team key.
      * @param year specifies the optional year, null for all years.
      * @param verbosity specifies optional verbosity, null for full verbosity.
-     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
-     * @return team matches data.
+     * @return future completing with team matches data.
      */
-    public JsonStructure getTeamMatches(String teamKey, String year, String verbosity, PrintStream statusOut)
+    public CompletableFuture<JsonStructure> getTeamMatchesAsync(String teamKey, String year, String verbosity)
     {
-        String request = "team/" + teamKey + "/matches";
-        if (year != null) request += "/" + year;
-        if (verbosity != null) request += "/" + verbosity;
-        return get(request, statusOut, header);
-    }   //getTeamMatches
+        return supplyAsync(() -> getTeamMatches(teamKey, year, verbosity, null));
+    }   //getTeamMatchesAsync
 
     /**
-     * This method sends the Team Media Request.
+     * This method sends the Team Media Request asynchronously.
      *
      * @param teamKey specifies the team key.
      * @param year specifies the year.
-     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
-     * @return team media data.
+     * @return future completing with team media data.
      */
-    public JsonStructure getTeamMedia(String teamKey, String year, PrintStream statusOut)
+    public CompletableFuture<JsonStructure> getTeamMediaAsync(String teamKey, String year)
     {
-        return get("team/" + teamKey + "/media/" + year, statusOut, header);
-    }   //getTeamMedia
+        return supplyAsync(() -> getTeamMedia(teamKey, year, null));
+    }   //getTeamMediaAsync
 
     /**
-     * This method sends the Team Social Media Request.
+     * This method sends the Team Social Media Request asynchronously.
      *
      * @param teamKey specifies the team key.
-     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
-     * @return team social media data.
+     * @return future completing with team social media data.
      */
-    public JsonStructure getTeamSocialMedia(String teamKey, PrintStream statusOut)
+    public CompletableFuture<JsonStructure> getTeamSocialMediaAsync(String teamKey)
     {
-        return get("team/" + teamKey + "/social_media", statusOut, header);
-    }   //getTeamSocialMedia
+        return supplyAsync(() -> getTeamSocialMedia(teamKey, null));
+    }   //getTeamSocialMediaAsync
 
     /**
      * This methods sends the Event List Request.
      *
      * @param year specifies the year.
      * @param verbosity specifies optional verbosity, null for full verbosity.
-     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
-     * @return event list data.
+     * @return future completing with event list data.
      */
-    public JsonStructure getEvents(String year, String verbosity, PrintStream statusOut)
+    public CompletableFuture<JsonStructure> getEventsAsync(String year, String verbosity)
     {
-        String request = "events/" + year;
-        if (verbosity != null) request += "/" + verbosity;
-        return get(request, statusOut, header);
-    }   //getEvents
+        return supplyAsync(() -> getEvents(year, verbosity, null));
+    }   //getEventsAsync
 
     /**
-     * This method sends the Event Info Request.
+     * This method sends the Event Info Request asynchronously.
      *
      * @param eventKey specifies the event key.
      * @param verbosity specifies optional verbosity, null for full verbosity.
-     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
-     * @return event info data.
+     * @return future completing with event info data.
      */
-    public JsonStructure getEvent(String eventKey, String verbosity, PrintStream statusOut)
+    public CompletableFuture<JsonStructure> getEventAsync(String eventKey, String verbosity)
     {
-        String request = "event/" + eventKey;
-        if (verbosity != null) request += "/" + verbosity;
-        return get(request, statusOut, header);
-    }   //getEvent
+        return supplyAsync(() -> getEvent(eventKey, verbosity, null));
+    }   //getEventAsync
 
     /**
-     * This method sends the Event Teams Request.
+     * This method sends the Event Teams Request asynchronously.
      *
      * @param eventKey specifies the event key.
      * @param verbosity specifies optional verbosity, null for full verbosity.
-     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
-     * @return event teams data.
+     * @return future completing with event teams data.
      */
-    public JsonStructure getEventTeams(String eventKey, String verbosity, PrintStream statusOut)
+    public CompletableFuture<JsonStructure> getEventTeamsAsync(String eventKey, String verbosity)
     {
-        String request = "event/" + eventKey + "/teams";
-        if (verbosity != null) request += "/" + verbosity;
-        return get(request, statusOut, header);
-    }   //getEventTeams
+        return supplyAsync(() -> getEventTeams(eventKey, verbosity, null));
+    }   //getEventTeamsAsync
 
     /**
-     * This method sends the Event Alliances Request.
+     * This method sends the Event Alliances Request asynchronously.
      *
      * @param eventKey specifies the event key.
-     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
-     * @return event alliances data.
+     * @return future completing with event alliances data.
      */
-    public JsonStructure getEventAlliances(String eventKey, PrintStream statusOut)
+    public CompletableFuture<JsonStructure> getEventAlliancesAsync(String eventKey)
     {
-        return get("event/" + eventKey + "/alliances", statusOut, header);
-    }   //getEventAlliances
+        return supplyAsync(() -> getEventAlliances(eventKey, null));
+    }   //getEventAlliancesAsync
 
     /**
-     * This method sends the Event Insights Request.
+     * This method sends the Event Insights Request asynchronously.
      *
      * @param eventKey specifies the event key.
-     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
-     * @return event insights data.
+     * @return future completing with event insights data.
      */
-    public JsonStructure getEventInsights(String eventKey, PrintStream statusOut)
+    public CompletableFuture<JsonStructure> getEventInsightsAsync(String eventKey)
     {
-        return get("event/" + eventKey + "/insights", statusOut, header);
-    }   //getEventInsights
+        return supplyAsync(() -> getEventInsights(eventKey, null));
+    }   //getEventInsightsAsync
 
     /**
-     * This method sends the Event OPR Request.
+     * This method sends the Event OPR Request asynchronously.
      *
      * @param eventKey specifies the event key.
      * @param verboseLevel specifies verbose level.
-     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
-     * @return event OPR data.
+     * @return future completing with event OPR data.
      */
-    public JsonStructure getEventOprs(String eventKey, int verboseLevel, PrintStream statusOut)
+    public CompletableFuture<JsonStructure> getEventOprsAsync(String eventKey, int verboseLevel)
     {
-        JsonStructure data = get("event/" + eventKey + "/oprs", statusOut, header);
-
-        if (data != null && verboseLevel < 2)
-        {
-            data = (JsonStructure)((JsonObject)data).get("oprs");
-        }
-
-        return data;
-    }   //getEventOpr
+        return supplyAsync(() -> getEventOprs(eventKey, verboseLevel, null));
+    }   //getEventOprsAsync
 
     /**
-     * This method sends the Event Predictions Request.
+     * This method sends the Event Predictions Request asynchronously.
      *
      * @param eventKey specifies the event key.
-     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
-     * @return event rankings data.
+     * @return future completing with event rankings data.
      */
-    public JsonStructure getEventPredictions(String eventKey, PrintStream statusOut)
+    public CompletableFuture<JsonStructure> getEventPredictionsAsync(String eventKey)
     {
-        return get("event/" + eventKey + "/predictions", statusOut, header);
-    }   //getEventPreditions
+        return supplyAsync(() -> getEventPredictions(eventKey, null));
+    }   //getEventPredictionsAsync
 
     /**
-     * This method sends the Event Rankings Request.
+     * This method sends the Event Rankings Request asynchronously.
      *
      * @param eventKey specifies the event key.
      * @param verboseLevel specifies verbose level.
-     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
-     * @return event rankings data.
+     * @return future completing with event rankings data.
      */
-    public JsonStructure getEventRankings(String eventKey, int verboseLevel, PrintStream statusOut)
+    public CompletableFuture<JsonStructure> getEventRankingsAsync(String eventKey, int verboseLevel)
     {
-        JsonStructure data = get("event/" + eventKey + "/rankings", statusOut, header);
-
-        if (data != null && verboseLevel < 2)
-        {
-            data = (JsonStructure)((JsonObject)data).get("rankings");
-        }
-
-        return data;
-    }   //getEventRankings
+        return supplyAsync(() -> getEventRankings(eventKey, verboseLevel, null));
+    }   //getEventRankingsAsync
 
     /**
-     * This method sends the Event District Points Request.
+     * This method sends the Event District Points Request asynchronously.
      *
      * @param eventKey specifies the event key.
      * @param verboseLevel specifies verbose level.
-     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
-     * @return event district points data.
+     * @return future completing with event district points data.
      */
-    public JsonStructure getEventDistrictPoints(String eventKey, int verboseLevel, PrintStream statusOut)
+    public CompletableFuture<JsonStructure> getEventDistrictPointsAsync(String eventKey, int verboseLevel)
     {
-        JsonStructure data = get("event/" + eventKey + "/district_points", statusOut, header);
-
-        if (data != null && verboseLevel < 2)
-        {
-            data = (JsonStructure)((JsonObject)data).get("points");
-        }
-
-        return data;
-    }   //getEventDistrictPoints
+        return supplyAsync(() -> getEventDistrictPoints(eventKey, verboseLevel, null));
+    }   //getEventDistrictPointsAsync
 
     /**
-     * This method sends the Event Matches Request.
+     * This method sends the Event Matches Request asynchronously.
      *
      * @param eventKey specifies the event key.
      * @param verbosity specifies optional verbosity, null for full verbosity.
-     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
-     * @return event matches data.
+     * @return future completing with event matches data.
      */
-    public JsonStructure getEventMatches(String eventKey, String verbosity, PrintStream statusOut)
+    public CompletableFuture<JsonStructure> getEventMatchesAsync(String eventKey, String verbosity)
     {
-        String request = "event/" + eventKey + "/matches";
-        if (verbosity != null) request += "/" + verbosity;
-        return get(request, statusOut, header);
-    }   //getEventMatches
+        return supplyAsync(() -> getEventMatches(eventKey, verbosity, null));
+    }   //getEventMatchesAsync
 
     /**
-     * This method sends the Event Awards Request.
+     * This method sends the Event Awards Request asynchronously.
      *
      * @param eventKey specifies the event key.
-     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
-     * @return event awards data.
+     * @return future completing with event awards data.
      */
-    public JsonStructure getEventAwards(String eventKey, PrintStream statusOut)
+    public CompletableFuture<JsonStructure> getEventAwardsAsync(String eventKey)
     {
-        return get("event/" + eventKey + "/awards", statusOut, header);
-    }   //getEventAwards
+        return supplyAsync(() -> getEventAwards(eventKey, null));
+    }   //getEventAwardsAsync
 
     /**
-     * This method sends the District List Request.
+     * This method sends the District List Request asynchronously.
      *
      * @param year specifies the year.
-     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
-     * @return district list data.
+     * @return future completing with district list data.
      */
-    public JsonStructure getDistricts(String year, PrintStream statusOut)
+    public CompletableFuture<JsonStructure> getDistrictsAsync(String year)
     {
-        return get("districts/" + year, statusOut, header);
-    }   //getDistricts
+        return supplyAsync(() -> getDistricts(year, null));
+    }   //getDistrictsAsync
 
     /**
-     * This method sends the District Teams Request.
+     * This method sends the District Teams Request asynchronously.
      *
      * @param districtKey specifies the district key.
      * @param verbosity specifies optional verbosity, null for full verbosity.
-     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
-     * @return district teams data.
+     * @return future completing with district teams data.
      */
-    public JsonStructure getDistrictTeams(String districtKey, String verbosity, PrintStream statusOut)
+    public CompletableFuture<JsonStructure> getDistrictTeamsAsync(String districtKey, String verbosity)
     {
-        String request = "district/" + districtKey + "/teams";
-        if (verbosity != null) request += "/" + verbosity;
-        return get(request, statusOut, header);
-    }   //getDistrictTeams
+        return supplyAsync(() -> getDistrictTeams(districtKey, verbosity, null));
+    }   //getDistrictTeamsAsync
 
     /**
-     * This method sends the District Rankings Request.
+     * This method sends the District Rankings Request asynchronously.
      *
      * @param districtKey specifies the district key.
-     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
-     * @return district rankings data.
+     * @return future completing with district rankings data.
      */
-    public JsonStructure getDistrictRankings(String districtKey, PrintStream statusOut)
+    public CompletableFuture<JsonStructure> getDistrictRankingsAsync(String districtKey)
     {
-        return get("district/" + districtKey + "/rankings", statusOut, header);
-    }   //getDistrictRankings
+        return supplyAsync(() -> getDistrictRankings(districtKey, null));
+    }   //getDistrictRankingsAsync
 
     /**
-     * This method sends the District Events Request.
+     * This method sends the District Events Request asynchronously.
      *
      * @param districtKey specifies the district key.
      * @param verbosity specifies optional verbosity, null for full verbosity.
-     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
-     * @return district events data.
+     * @return future completing with district events data.
      */
-    public JsonStructure getDistrictEvents(String districtKey, String verbosity, PrintStream statusOut)
+    public CompletableFuture<JsonStructure> getDistrictEventsAsync(String districtKey, String verbosity)
     {
-        String request = "district/" + districtKey + "/events";
-        if (verbosity != null) request += "/" + verbosity;
-        return get(request, statusOut, header);
-    }   //getDistrictEvents
+        return supplyAsync(() -> getDistrictEvents(districtKey, verbosity, null));
+    }   //getDistrictEventsAsync
 
     /**
-     * This method sends the Match Request.
+     * This method sends the Match Request asynchronously.
      *
      * @param matchKey specifies the match key.
      * @param verbosity specifies optional verbosity, null for full verbosity.
-     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
-     * @return match data.
+     * @return future completing with match data.
      */
-    public JsonStructure getMatch(String matchKey, String verbosity, PrintStream statusOut)
+    public CompletableFuture<JsonStructure> getMatchAsync(String matchKey, String verbosity)
     {
-        String request = "match/" + matchKey;
-        if (verbosity != null) request += "/" + verbosity;
-        return get(request, statusOut, header);
-    }   //getMatch
+        return supplyAsync(() -> getMatch(matchKey, verbosity, null));
+    }   //getMatchAsync
 
 }   //class TbaApiV3
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2017 Titan Robotics Club (http://www.titanrobotics.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package webapi;
+
+import javax.json.stream.JsonParser;
+
+/**
+ * This class represents a team as returned by the team requests. It is decoded from either the simple or the full
+ * team data, fields not present in the data are null or 0.
+ */
+public class Team
+{
+    public final String key;
+    public final int teamNumber;
+    public final String nickname;
+    public final String name;
+    public final String city;
+    public final String stateProv;
+    public final String country;
+    public final int rookieYear;
+
+    /**
+     * Constructor: Create an instance of the object.
+     *
+     * @param key specifies the team key, such as "frc492".
+     * @param teamNumber specifies the team number.
+     * @param nickname specifies the team nickname.
+     * @param name specifies the official long name of the team.
+     * @param city specifies the city of the team.
+     * @param stateProv specifies the state or province of the team.
+     * @param country specifies the country of the team.
+     * @param rookieYear specifies the first year the team competed, 0 if unknown.
+     */
+    public Team(
+        String key, int teamNumber, String nickname, String name, String city, String stateProv, String country,
+        int rookieYear)
+    {
+        this.key = key;
+        this.teamNumber = teamNumber;
+        this.nickname = nickname;
+        this.name = name;
+        this.city = city;
+        this.stateProv = stateProv;
+        this.country = country;
+        this.rookieYear = rookieYear;
+    }   //Team
+
+    /**
+     * This method decodes the team from the JSON object whose START_OBJECT event has just been read.
+     *
+     * @param parser specifies the parser.
+     * @return decoded team.
+     */
+    public static Team decode(JsonParser parser)
+    {
+        String key = null;
+        int teamNumber = 0;
+        String nickname = null;
+        String name = null;
+        String city = null;
+        String stateProv = null;
+        String country = null;
+        int rookieYear = 0;
+        JsonParser.Event event;
+
+        while ((event = parser.next()) != JsonParser.Event.END_OBJECT)
+        {
+            String field = parser.getString();
+
+            event = parser.next();
+            switch (field)
+            {
+                case "key":
+                    key = ModelDecoder.readKey(parser, event);
+                    break;
+
+                case "team_number":
+                    teamNumber = ModelDecoder.readInt(parser, event, 0);
+                    break;
+
+                case "nickname":
+                    nickname = ModelDecoder.readString(parser, event);
+                    break;
+
+                case "name":
+                    name = ModelDecoder.readString(parser, event);
+                    break;
+
+                case "city":
+                    city = ModelDecoder.readKey(parser, event);
+                    break;
+
+                case "state_prov":
+                    stateProv = ModelDecoder.readKey(parser, event);
+                    break;
+
+                case "country":
+                    country = ModelDecoder.readKey(parser, event);
+                    break;
+
+                case "rookie_year":
+                    rookieYear = ModelDecoder.readInt(parser, event, 0);
+                    break;
+
+                default:
+                    ModelDecoder.skipValue(parser, event);
+                    break;
+            }
+        }
+
+        return new Team(key, teamNumber, nickname, name, city, stateProv, country, rookieYear);
+    }   //decode
+
+    /**
+     * This method returns the string form of the team for display.
+     *
+     * @return string form of the team.
+     */
+    @Override
+    public String toString()
+    {
+        return key + ": " + nickname;
+    }   //toString
+
+}   //class Team
@@ -0,0 +1,339 @@
+/*
+ * Copyright (c) 2017 Titan Robotics Club (http://www.titanrobotics.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package webapi;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class implements a byte-weighted W-TinyLFU cache policy. New entries enter a small LRU admission window.
+ * Entries leaving the window compete with the least recently used entry of the main cache for admission, using
+ * access frequencies estimated by a count-min sketch, so that a sweep of one-time requests cannot flush out the
+ * frequently used entries. The main cache is a segmented LRU with a probation and a protected segment.
+ */
+public class TinyLfuCachePolicy implements CachePolicy
+{
+    private static final double WINDOW_RATIO = 0.01;
+    private static final double PROTECTED_RATIO = 0.8;
+    private static final int SKETCH_WIDTH = 4096;
+
+    /**
+     * This class implements a count-min sketch with 4-bit saturating counters. The counters are halved periodically
+     * so that the frequencies reflect recent history.
+     */
+    private class FrequencySketch
+    {
+        private final int[] seeds = {0x97cb3127, 0xb3f1dc67, 0x5cba3e1f, 0x2d0d9d6b};
+        private final int[][] table;
+        private final int mask;
+        private final int sampleSize;
+        private int additions = 0;
+
+        /**
+         * Constructor: Create an instance of the object.
+         *
+         * @param width specifies the number of counters per row, must be a power of 2.
+         */
+        public FrequencySketch(int width)
+        {
+            table = new int[seeds.length][width];
+            mask = width - 1;
+            sampleSize = 10*width;
+        }   //FrequencySketch
+
+        /**
+         * This method increments the frequency of the specified key.
+         *
+         * @param key specifies the key.
+         */
+        public void increment(String key)
+        {
+            int hash = key.hashCode();
+            boolean added = false;
+
+            for (int i = 0; i < seeds.length; i++)
+            {
+                int index = indexOf(hash, i);
+                if (table[i][index] < 15)
+                {
+                    table[i][index]++;
+                    added = true;
+                }
+            }
+
+            if (added && ++additions >= sampleSize)
+            {
+                for (int[] row: table)
+                {
+                    for (int j = 0; j < row.length; j++)
+                    {
+                        row[j] >>>= 1;
+                    }
+                }
+                additions >>>= 1;
+            }
+        }   //increment
+
+        /**
+         * This method returns the estimated frequency of the specified key.
+         *
+         * @param key specifies the key.
+         * @return estimated frequency.
+         */
+        public int frequency(String key)
+        {
+            int hash = key.hashCode();
+            int frequency = Integer.MAX_VALUE;
+
+            for (int i = 0; i < seeds.length; i++)
+            {
+                frequency = Math.min(frequency, table[i][indexOf(hash, i)]);
+            }
+
+            return frequency;
+        }   //frequency
+
+        /**
+         * This method returns the counter index of the hash in the specified row.
+         *
+         * @param hash specifies the hash of the key.
+         * @param row specifies the row.
+         * @return counter index.
+         */
+        private int indexOf(int hash, int row)
+        {
+            int h = hash*seeds[row];
+            return (h ^ (h >>> 17)) & mask;
+        }   //indexOf
+
+    }   //class FrequencySketch
+
+    private final long capacity;
+    private final long windowCapacity;
+    private final long mainCapacity;
+    private final long protectedCapacity;
+    private final FrequencySketch sketch = new FrequencySketch(SKETCH_WIDTH);
+    private final LinkedHashMap<String, Long> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<String, Long> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<String, Long> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+    private long windowSize = 0;
+    private long probationSize = 0;
+    private long protectedSize = 0;
+
+    /**
+     * Constructor: Create an instance of the object.
+     *
+     * @param capacity specifies the capacity in bytes.
+     */
+    public TinyLfuCachePolicy(long capacity)
+    {
+        this.capacity = capacity;
+        this.windowCapacity = Math.max(1, (long)(capacity*WINDOW_RATIO));
+        this.mainCapacity = capacity - windowCapacity;
+        this.protectedCapacity = (long)(mainCapacity*PROTECTED_RATIO);
+    }   //TinyLfuCachePolicy
+
+    //
+    // Implements the CachePolicy interface.
+    //
+
+    /**
+     * This method returns the name of the policy.
+     *
+     * @return policy name.
+     */
+    @Override
+    public String getName()
+    {
+        return "tinylfu";
+    }   //getName
+
+    /**
+     * This method returns the capacity of the cache.
+     *
+     * @return capacity in bytes.
+     */
+    @Override
+    public long getCapacity()
+    {
+        return capacity;
+    }   //getCapacity
+
+    /**
+     * This method returns the total weight of the entries currently tracked by the policy.
+     *
+     * @return total weight in bytes.
+     */
+    @Override
+    public long getWeightedSize()
+    {
+        return windowSize + probationSize + protectedSize;
+    }   //getWeightedSize
+
+    /**
+     * This method records a cache hit on the specified key. A hit on a probation entry promotes it to the
+     * protected segment, demoting the least recently used protected entries if the segment overflows.
+     *
+     * @param key specifies the key of the entry.
+     */
+    @Override
+    public void recordAccess(String key)
+    {
+        sketch.increment(key);
+
+        if (window.get(key) == null && protectedSegment.get(key) == null)
+        {
+            Long weight = probation.remove(key);
+
+            if (weight != null)
+            {
+                probationSize -= weight;
+                protectedSegment.put(key, weight);
+                protectedSize += weight;
+
+                while (protectedSize > protectedCapacity && protectedSegment.size() > 1)
+                {
+                    Map.Entry<String, Long> eldest = protectedSegment.entrySet().iterator().next();
+                    protectedSegment.remove(eldest.getKey());
+                    protectedSize -= eldest.getValue();
+                    probation.put(eldest.getKey(), eldest.getValue());
+                    probationSize += eldest.getValue();
+                }
+            }
+        }
+    }   //recordAccess
+
+    /**
+     * This method records the insertion or replacement of an entry. New entries enter the admission window and
+     * entries pushed out of the window are admitted to the main cache only if they are accessed more frequently
+     * than the entries they would displace.
+     *
+     * @param key specifies the key of the entry.
+     * @param weight specifies the weight of the entry in bytes.
+     * @return keys of the entries to be evicted, empty if none.
+     */
+    @Override
+    public List<String> recordInsert(String key, long weight)
+    {
+        ArrayList<String> victims = new ArrayList<>();
+
+        sketch.increment(key);
+        recordRemove(key);
+        window.put(key, weight);
+        windowSize += weight;
+
+        while (windowSize > windowCapacity && !window.isEmpty())
+        {
+            Map.Entry<String, Long> eldest = window.entrySet().iterator().next();
+            String candidate = eldest.getKey();
+            long candidateWeight = eldest.getValue();
+
+            window.remove(candidate);
+            windowSize -= candidateWeight;
+            probation.put(candidate, candidateWeight);
+            probationSize += candidateWeight;
+
+            while (probationSize + protectedSize > mainCapacity)
+            {
+                String victim = findVictim(candidate);
+
+                if (victim == null || sketch.frequency(candidate) <= sketch.frequency(victim))
+                {
+                    //
+                    // The candidate lost, reject it.
+                    //
+                    probation.remove(candidate);
+                    probationSize -= candidateWeight;
+                    victims.add(candidate);
+                    break;
+                }
+                else
+                {
+                    recordRemove(victim);
+                    victims.add(victim);
+                }
+            }
+        }
+
+        return victims;
+    }   //recordInsert
+
+    /**
+     * This method records the removal of an entry that was not evicted by the policy.
+     *
+     * @param key specifies the key of the entry.
+     */
+    @Override
+    public void recordRemove(String key)
+    {
+        Long weight;
+
+        if ((weight = window.remove(key)) != null)
+        {
+            windowSize -= weight;
+        }
+        else if ((weight = probation.remove(key)) != null)
+        {
+            probationSize -= weight;
+        }
+        else if ((weight = protectedSegment.remove(key)) != null)
+        {
+            protectedSize -= weight;
+        }
+    }   //recordRemove
+
+    /**
+     * This method forgets all entries.
+     */
+    @Override
+    public void clear()
+    {
+        window.clear();
+        probation.clear();
+        protectedSegment.clear();
+        windowSize = probationSize = protectedSize = 0;
+    }   //clear
+
+    /**
+     * This method finds the main cache entry that the admission candidate competes against. It is the least
+     * recently used probation entry, or the least recently used protected entry if probation holds nothing else.
+     *
+     * @param candidate specifies the key of the admission candidate.
+     * @return key of the victim, null if the main cache holds nothing but the candidate.
+     */
+    private String findVictim(String candidate)
+    {
+        for (String key: probation.keySet())
+        {
+            if (!key.equals(candidate))
+            {
+                return key;
+            }
+        }
+
+        return protectedSegment.isEmpty()? null: protectedSegment.keySet().iterator().next();
+    }   //findVictim
+
+}   //class TinyLfuCachePolicy
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2017 Titan Robotics Club (http://www.titanrobotics.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package webapi;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class implements the transport that sends every request on a new HttpURLConnection. Connection reuse is
+ * left to the keep-alive cache of the Java runtime.
+ */
+public class UrlConnectionTransport implements HttpTransport
+{
+    private static final int CONNECT_TIMEOUT = 10000;
+    private static final int READ_TIMEOUT = 30000;
+
+    //
+    // Implements the HttpTransport interface.
+    //
+
+    /**
+     * This method returns the name of the transport.
+     *
+     * @return transport name.
+     */
+    @Override
+    public String getName()
+    {
+        return "legacy";
+    }   //getName
+
+    /**
+     * This method sends a GET request to the web server and returns its response. The response body is read
+     * completely before the method returns. The connect and read timeouts are bounded by the time left in the
+     * request context, and the connection is closed if the context is cancelled.
+     *
+     * @param url specifies the request URL.
+     * @param requestHeaders specifies the request headers.
+     * @return response of the web server.
+     * @throws IOException when the web server could not be reached or the connection failed.
+     */
+    @Override
+    public HttpResponse send(URL url, Map<String, String> requestHeaders) throws IOException
+    {
+        RequestContext.check();
+
+        HttpURLConnection conn = (HttpURLConnection)url.openConnection();
+        HashMap<String, String> headers = new HashMap<>();
+        byte[] body = new byte[0];
+        RequestContext context = RequestContext.current();
+        Runnable abort = conn::disconnect;
+
+        for (Map.Entry<String, String> header: requestHeaders.entrySet())
+        {
+            conn.addRequestProperty(header.getKey(), header.getValue());
+        }
+        conn.setRequestMethod("GET");
+        conn.setConnectTimeout(RequestContext.getTimeout(CONNECT_TIMEOUT));
+        conn.setReadTimeout(RequestContext.getTimeout(READ_TIMEOUT));
+
+        if (context != null)
+        {
+            context.addCancelListener(abort);
+        }
+
+        try
+        {
+            int responseCode = conn.getResponseCode();
+            for (Map.Entry<String, List<String>> field: conn.getHeaderFields().entrySet())
+            {
+                //
+                // The status line is returned with a null key.
+                //
+                if (field.getKey() != null)
+                {
+                    headers.put(field.getKey(), String.join(", ", field.getValue()));
+                }
+            }
+
+            //
+            // Read the body to the end even if it is an error page, so the connection can be kept alive.
+            //
+            InputStream is = responseCode >= 400? conn.getErrorStream(): conn.getInputStream();
+            if (is != null)
+            {
+                try
+                {
+                    body = HttpResponse.readBody(is);
+                }
+                finally
+                {
+                    is.close();
+                }
+            }
+
+            return new HttpResponse(responseCode, conn.getResponseMessage(), headers, body);
+        }
+        finally
+        {
+            if (context != null)
+            {
+                context.removeCancelListener(abort);
+            }
+        }
+    }   //send
+
+    /**
+     * This method closes the connections kept open by the transport. There are none since connections are left to
+     * the Java runtime.
+     */
+    @Override
+    public void close()
+    {
+    }   //close
+
+}   //class UrlConnectionTransport
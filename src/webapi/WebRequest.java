@@ -22,20 +22,48 @@
 
 package webapi;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintStream;
-import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
 
 import javax.json.Json;
 import javax.json.JsonArray;
+import javax.json.JsonException;
 import javax.json.JsonObject;
 import javax.json.JsonReader;
+import javax.json.JsonString;
 import javax.json.JsonStructure;
 import javax.json.JsonValue;
 import javax.json.stream.JsonParsingException;
@@ -46,25 +74,80 @@ import javax.json.stream.JsonParsingException;
 public class WebRequest
 {
     /**
-     * This class represents the JSON data with the last modified time stamp.
+     * This class represents the response body with the last modified time stamp, the entity tag and the time the
+     * data becomes stale. The body is kept as raw bytes, Deflate-compressed if that makes it smaller, and is only
+     * parsed into JSON data when it is served.
      */
     private class TimedData
     {
-        JsonStructure data;
+        byte[] body;
+        int rawLength;
+        boolean compressed;
         long lastModified;
+        String etag;
+        long expireTime;
+        long validatedTime;
+        int accessCount;
+        long size;
+        boolean verified;
 
         /**
          * Constructor: Create an instance of the object.
          *
-         * @param data specifies the JSON data.
+         * @param body specifies the raw response body.
          * @param lastModified specifies the last modified time stamp.
+         * @param etag specifies the entity tag, null if none.
+         * @param expireTime specifies the time the data becomes stale.
          */
-        public TimedData(JsonStructure data, long lastModified)
+        public TimedData(byte[] body, long lastModified, String etag, long expireTime)
         {
-            this.data = data;
+            byte[] deflated = compressCache && body.length >= MIN_COMPRESS_LENGTH? deflate(body): null;
+
+            this.compressed = deflated != null && deflated.length < body.length;
+            this.body = compressed? deflated: body;
+            this.rawLength = body.length;
             this.lastModified = lastModified;
+            this.etag = etag;
+            this.expireTime = expireTime;
+            this.validatedTime = System.currentTimeMillis();
+            this.accessCount = 0;
+            this.size = this.body.length + ENTRY_OVERHEAD;
+            this.verified = true;
         }   //TimedData
 
+        /**
+         * This method returns the raw response body, decompressing it if necessary.
+         *
+         * @return raw response body.
+         */
+        public byte[] getBody()
+        {
+            return compressed? inflate(body, rawLength): body;
+        }   //getBody
+
+        /**
+         * This method checks if the data can still be used without revalidating with the web server.
+         *
+         * @return true if the data is fresh, false if it is stale.
+         */
+        public boolean isFresh()
+        {
+            return System.currentTimeMillis() < expireTime;
+        }   //isFresh
+
+        /**
+         * This method checks if the data is frequently used and is about to become stale, so it should be
+         * refreshed ahead of time.
+         *
+         * @return true if the data should be refreshed, false otherwise.
+         */
+        public boolean isRefreshDue()
+        {
+            long refreshTime = expireTime - (long)((expireTime - validatedTime)*REFRESH_AHEAD_RATIO);
+            return accessCount >= REFRESH_AHEAD_MIN_ACCESSES && expireTime != Long.MAX_VALUE &&
+                   System.currentTimeMillis() >= refreshTime;
+        }   //isRefreshDue
+
     }   //class TimedData
 
     /**
@@ -89,9 +172,228 @@ public class WebRequest
 
     }   //class RequestProperty
 
+    /**
+     * This class wraps an input stream and keeps a copy of every byte read through it. It lets the response body be
+     * decompressed straight into the JSON reader while the decompressed bytes are kept for the cache.
+     */
+    private static class CopyingInputStream extends FilterInputStream
+    {
+        final ByteArrayOutputStream copy = new ByteArrayOutputStream();
+
+        /**
+         * Constructor: Create an instance of the object.
+         *
+         * @param in specifies the input stream to read from.
+         */
+        public CopyingInputStream(InputStream in)
+        {
+            super(in);
+        }   //CopyingInputStream
+
+        /**
+         * This method reads a byte and copies it.
+         *
+         * @return byte read, -1 at the end of the stream.
+         * @throws IOException when the read failed.
+         */
+        @Override
+        public int read() throws IOException
+        {
+            int b = in.read();
+
+            if (b != -1)
+            {
+                copy.write(b);
+            }
+
+            return b;
+        }   //read
+
+        /**
+         * This method reads bytes into the buffer and copies them.
+         *
+         * @param buffer specifies the buffer.
+         * @param offset specifies the offset in the buffer.
+         * @param length specifies the maximum number of bytes to read.
+         * @return number of bytes read, -1 at the end of the stream.
+         * @throws IOException when the read failed.
+         */
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException
+        {
+            int len = in.read(buffer, offset, length);
+
+            if (len > 0)
+            {
+                copy.write(buffer, offset, len);
+            }
+
+            return len;
+        }   //read
+
+        /**
+         * This method skips bytes by reading them, since skipped bytes must be copied too.
+         *
+         * @param n specifies the number of bytes to skip.
+         * @return number of bytes skipped.
+         * @throws IOException when the read failed.
+         */
+        @Override
+        public long skip(long n) throws IOException
+        {
+            byte[] buffer = new byte[(int)Math.min(n, 8192)];
+            int len = read(buffer, 0, buffer.length);
+
+            return Math.max(0, len);
+        }   //skip
+
+        /**
+         * This method returns false since the stream cannot be reset once bytes are copied.
+         *
+         * @return false.
+         */
+        @Override
+        public boolean markSupported()
+        {
+            return false;
+        }   //markSupported
+
+        /**
+         * This method does not close the underlying stream, so a reader closing the stream before its end does not
+         * prevent the rest from being drained. The underlying stream is closed by drain.
+         */
+        @Override
+        public void close()
+        {
+        }   //close
+
+        /**
+         * This method reads the rest of the stream so that the copy is complete, closes the underlying stream and
+         * returns the copy.
+         *
+         * @return all bytes read from the stream.
+         * @throws IOException when the read failed.
+         */
+        public byte[] drain() throws IOException
+        {
+            byte[] buffer = new byte[8192];
+
+            try
+            {
+                while (read(buffer, 0, buffer.length) != -1)
+                {
+                    // Keep reading to the end.
+                }
+            }
+            finally
+            {
+                in.close();
+            }
+
+            return copy.toByteArray();
+        }   //drain
+
+    }   //class CopyingInputStream
+
+    /**
+     * This class represents a request in flight that other callers of the same URL can wait for instead of sending
+     * the request again.
+     */
+    private static class InFlightRequest extends CompletableFuture<JsonStructure>
+    {
+        final RequestScheduler.Priority priority;
+        volatile boolean streamed = false;
+
+        /**
+         * Constructor: Create an instance of the object.
+         *
+         * @param priority specifies the priority class the request is scheduled with.
+         */
+        InFlightRequest(RequestScheduler.Priority priority)
+        {
+            this.priority = priority;
+        }   //InFlightRequest
+
+    }   //class InFlightRequest
+
+    /**
+     * This class represents a request failure caused by the web server being unreachable or failing, as opposed
+     * to a failure caused by the request itself. Cached data can still be served in place of the reply.
+     */
+    private static class ServerUnavailableException extends RuntimeException
+    {
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Constructor: Create an instance of the object.
+         *
+         * @param message specifies the error message.
+         */
+        public ServerUnavailableException(String message)
+        {
+            super(message);
+        }   //ServerUnavailableException
+
+    }   //class ServerUnavailableException
+
+    private static final long DEFAULT_CACHE_CAPACITY = 64L*1024*1024;
+    private static final long HOT_TIER_CAPACITY = 4L*1024*1024;
+    private static final int MIN_COMPRESS_LENGTH = 256;
+    private static final int ENTRY_OVERHEAD = 128;
+    private static final double REFRESH_AHEAD_RATIO = 0.2;
+    private static final int REFRESH_AHEAD_MIN_ACCESSES = 2;
+    private static final int NUM_REVALIDATION_THREADS = 2;
+    private static final long DEFAULT_NOT_FOUND_TTL = 5*60*1000;
+    private static final int MAX_NOT_FOUND_ENTRIES = 10000;
+    private static final double DEFAULT_REQUEST_RATE = 20.0;
+    private static final int DEFAULT_REQUEST_BURST = 20;
+    private static final int MAX_CONCURRENT_REQUESTS = 16;
+    private static final int LATENCY_WINDOW_SIZE = 128;
+    private static final int MIN_HEDGE_SAMPLES = 20;
+
     private String apiBase;
     private HashMap<String, TimedData> cachedRequests = new HashMap<>();
+    private CachePolicy cachePolicy = new LruCachePolicy(DEFAULT_CACHE_CAPACITY);
+    private HashMap<String, JsonStructure> hotData = new HashMap<>();
+    private CachePolicy hotPolicy = new LruCachePolicy(HOT_TIER_CAPACITY);
+    private boolean compressCache = true;
+    private volatile boolean lazyParsing = false;
+    private JsonInterner interner = new JsonInterner();
+    private long hitCount = 0;
+    private long freshHitCount = 0;
+    private long missCount = 0;
+    private long notModifiedCount = 0;
+    private long evictionCount = 0;
+    private long persistentHitCount = 0;
+    private long staleHitCount = 0;
+    private long staleOnErrorCount = 0;
+    private long revalidationCount = 0;
+    private long notFoundHitCount = 0;
+    private long parseCount = 0;
+    private long coalescedCount = 0;
+    private long wireByteCount = 0;
+    private long bodyByteCount = 0;
     private ArrayList<RequestProperty> requestProperties = new ArrayList<>();
+    private HttpTransport transport = new UrlConnectionTransport();
+    private CredentialPool credentialPool = null;
+    private RequestScheduler requestScheduler =
+        new RequestScheduler(DEFAULT_REQUEST_RATE, DEFAULT_REQUEST_BURST, 1, MAX_CONCURRENT_REQUESTS);
+    private PersistentCache persistentCache = null;
+    private volatile ResponseHistory responseHistory = null;
+    private volatile long maxStaleness = 0;
+    private ExecutorService revalidationExecutor = null;
+    private Executor asyncExecutor = null;
+    private ExecutorService internalExecutor = null;
+    private LatencyTracker latencyTracker = new LatencyTracker(LATENCY_WINDOW_SIZE);
+    private double hedgePercentile = 0.0;
+    private double hedgeBudget = 0.0;
+    private long hedgeableCount = 0;
+    private long hedgeCount = 0;
+    private long hedgeWinCount = 0;
+    private HashSet<String> pendingRevalidations = new HashSet<>();
+    private HashMap<String, InFlightRequest> inFlightRequests = new HashMap<>();
+    private LinkedHashMap<String, Long> notFoundRequests = new LinkedHashMap<>();
+    private long notFoundTtl = DEFAULT_NOT_FOUND_TTL;
 
     /**
      * Constructor: Create an instance of the object.
@@ -115,251 +417,1877 @@ public class WebRequest
     }   //addRequestProperty
 
     /**
-     * This method sends the GET request to the web server and returns the replied data if any.
+     * This method sets the transport that sends the requests to the web server. The previous transport is closed.
+     *
+     * @param transport specifies the transport.
+     */
+    public synchronized void setTransport(HttpTransport transport)
+    {
+        this.transport.close();
+        this.transport = transport;
+    }   //setTransport
+
+    /**
+     * This method returns the transport that sends the requests to the web server.
+     *
+     * @return transport.
+     */
+    public synchronized HttpTransport getTransport()
+    {
+        return transport;
+    }   //getTransport
+
+    /**
+     * This method sets the pool of credentials that take turns authenticating the requests. The credential of each
+     * request is set in the header named by the pool, replacing any request property of the same name.
+     *
+     * @param credentialPool specifies the credential pool, null to send the request properties only.
+     */
+    public synchronized void setCredentialPool(CredentialPool credentialPool)
+    {
+        this.credentialPool = credentialPool;
+    }   //setCredentialPool
+
+    /**
+     * This method returns the scheduler that admits the requests sent to the web server.
+     *
+     * @return request scheduler.
+     */
+    public synchronized RequestScheduler getRequestScheduler()
+    {
+        return requestScheduler;
+    }   //getRequestScheduler
+
+    /**
+     * This method sets the scheduler that admits the requests sent to the web server and retries them when the web
+     * server throttles them or fails.
+     *
+     * @param requestScheduler specifies the request scheduler.
+     */
+    public synchronized void setRequestScheduler(RequestScheduler requestScheduler)
+    {
+        this.requestScheduler = requestScheduler;
+    }   //setRequestScheduler
+
+    /**
+     * This method enables or disables hedged requests. When enabled, a request that has not completed within the
+     * specified percentile of the recent latencies of its endpoint is sent a second time, and whichever response
+     * comes first is used. The hedged requests are limited to the specified fraction of all requests so that a
+     * slow web server does not get twice the load.
+     *
+     * @param percentile specifies the latency percentile after which a request is hedged (e.g. 0.95), 0 to
+     *        disable hedging.
+     * @param budget specifies the maximum fraction of requests that can be hedged (e.g. 0.05).
+     */
+    public synchronized void setHedging(double percentile, double budget)
+    {
+        this.hedgePercentile = percentile;
+        this.hedgeBudget = budget;
+    }   //setHedging
+
+    /**
+     * This method sets the executor that runs the asynchronous requests. By default, each asynchronous request
+     * runs on its own virtual thread if the Java runtime supports them, otherwise on a pool of daemon threads.
+     * The executor may be bounded: the requests fanned out by a request, such as the pages of a team list and
+     * hedged requests, run on an unbounded internal executor, so an asynchronous request never waits for another
+     * task queued on this executor.
+     *
+     * @param asyncExecutor specifies the executor.
+     */
+    public synchronized void setAsyncExecutor(Executor asyncExecutor)
+    {
+        this.asyncExecutor = asyncExecutor;
+    }   //setAsyncExecutor
+
+    /**
+     * This method sets the persistent cache that backs the in-memory cache. Responses are written to the
+     * persistent cache so that subsequent runs of the program can revalidate them instead of downloading them again.
+     *
+     * @param persistentCache specifies the persistent cache, null to disable.
+     */
+    public void setPersistentCache(PersistentCache persistentCache)
+    {
+        this.persistentCache = persistentCache;
+    }   //setPersistentCache
+
+    /**
+     * This method sets the response history. Every distinct version of the responses received from the web server
+     * is recorded in the history so that it can be retrieved later.
+     *
+     * @param responseHistory specifies the response history, null to disable.
+     */
+    public void setResponseHistory(ResponseHistory responseHistory)
+    {
+        this.responseHistory = responseHistory;
+    }   //setResponseHistory
+
+    /**
+     * This method returns the times the versions of the response of the specified request were received.
      *
      * @param request specifies the request string.
-     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
      * @param header specifies the optional header, null if none.
-     * @return replied JSON data, null if request failed.
-     * @throws RuntimeException when request failed.
+     * @return list of time stamps in ascending order, empty if there is no history.
+     * @throws RuntimeException when the response history is not enabled.
      */
-    public JsonStructure get(String request, PrintStream statusOut, String header) throws RuntimeException
+    public List<Long> getHistoryTimestamps(String request, String header) throws RuntimeException
     {
-        JsonStructure jsonData = null;
-        String urlString = apiBase + "/" + request;
-
-        //
-        // Form the URL string.
-        //
-        if (header != null)
+        ResponseHistory history = responseHistory;
+        if (history == null)
         {
-            urlString += header;
+            throw new RuntimeException("Response history is not enabled.");
         }
 
-        //
-        // Check our cache if we have sent the same URL previously and retrieve its last modified time.
-        //
-        TimedData timedData = cachedRequests.get(urlString);
-        long lastModified = timedData != null? timedData.lastModified: 0;
+        return history.getTimestamps(apiBase + "/" + request + (header != null? header: ""));
+    }   //getHistoryTimestamps
 
-        URL url = null;
-        try
-        {
-            url = new URL(urlString);
-        }
-        catch (MalformedURLException e)
+    /**
+     * This method returns the version of the response of the specified request as of the specified time.
+     *
+     * @param request specifies the request string.
+     * @param header specifies the optional header, null if none.
+     * @param timestamp specifies the time.
+     * @return latest version received no later than the specified time, null if there is none.
+     * @throws RuntimeException when the response history is not enabled or cannot be read.
+     */
+    public JsonStructure getHistory(String request, String header, long timestamp) throws RuntimeException
+    {
+        ResponseHistory history = responseHistory;
+        if (history == null)
         {
-            throw new RuntimeException("Invalid URL <" + urlString + ">.\n" + e.getMessage());
+            throw new RuntimeException("Response history is not enabled.");
         }
 
-        //
-        // Open the web connection.
-        //
-        HttpURLConnection conn = null;
-        try
-        {
-            conn = (HttpURLConnection)url.openConnection();
-        }
-        catch (IOException e)
+        return history.get(apiBase + "/" + request + (header != null? header: ""), timestamp);
+    }   //getHistory
+
+    /**
+     * This method sets the eviction policy of the in-memory cache. Changing the policy empties the cache.
+     *
+     * @param cachePolicy specifies the cache policy.
+     */
+    public synchronized void setCachePolicy(CachePolicy cachePolicy)
+    {
+        this.cachePolicy = cachePolicy;
+        cachedRequests.clear();
+        clearHotData();
+    }   //setCachePolicy
+
+    /**
+     * This method enables or disables Deflate compression of the response bodies stored in the in-memory cache.
+     * It only affects responses cached after the call.
+     *
+     * @param enabled specifies true to compress cached responses, false otherwise.
+     */
+    public synchronized void setCacheCompression(boolean enabled)
+    {
+        this.compressCache = enabled;
+    }   //setCacheCompression
+
+    /**
+     * This method enables or disables lazy parsing of the responses. A lazily parsed response is only indexed when
+     * it is parsed, its objects and arrays are decoded when they are first accessed, so reading a few fields of a
+     * large response costs little more than indexing it. Lazily parsed data is not deduplicated since that would
+     * decode all of it. The parsed data already in the hot tier is dropped so all data is parsed the same way.
+     *
+     * @param enabled specifies true to parse responses lazily, false to parse them fully.
+     */
+    public synchronized void setLazyParsing(boolean enabled)
+    {
+        if (enabled != lazyParsing)
         {
-            throw new RuntimeException("Failed to open connection to <" + urlString + ">.\n" + e.getMessage());
+            lazyParsing = enabled;
+            clearHotData();
         }
+    }   //setLazyParsing
 
-        for (RequestProperty p: requestProperties)
+    /**
+     * This method evicts the cached data of the specified request from the in-memory cache, or all cached data
+     * if no request is specified. The persistent cache is not affected.
+     *
+     * @param request specifies the request string, null to evict everything.
+     * @param header specifies the optional header, null if none.
+     * @return number of evicted entries.
+     */
+    public synchronized int evictCache(String request, String header)
+    {
+        int numEvicted;
+
+        if (request == null)
         {
-            conn.addRequestProperty(p.key, p.value);
+            numEvicted = cachedRequests.size();
+            cachedRequests.clear();
+            cachePolicy.clear();
+            clearHotData();
+            notFoundRequests.clear();
         }
-
-        //
-        // Send the web request. If we have it in our cache, send the last modified time so the web service
-        // will give us data back only if it has changed since last modified time. If we don't have it in our
-        // cache, last modified time will be zero and the web service will reply with data.
-        //
-        try
+        else
         {
-            if (statusOut != null)
-            {
-                statusOut.print("Sending request <" + urlString + ">: ");
-            }
-            conn.setIfModifiedSince(lastModified);
-            conn.setRequestMethod("GET");
-            if (statusOut != null)
+            String urlString = apiBase + "/" + request;
+            if (header != null)
             {
-                statusOut.println(conn.getResponseMessage());
-            }
-            int responseCode = conn.getResponseCode();
-            if (responseCode == 200)
-            {
-                //
-                // Received "OK" response with data. Update cache with the new data.
-                //
-                try (InputStream is = conn.getInputStream();
-                     JsonReader rdr = Json.createReader(is))
-                {
-                    jsonData = rdr.read();
-                    lastModified = conn.getLastModified();
-                    cachedRequests.put(urlString, new TimedData(jsonData, lastModified));
-                }
-                catch (IOException e)
-                {
-                    throw new RuntimeException("Failed to open input stream.\n" + e.getMessage());
-                }
-                catch (JsonParsingException e)
-                {
-                    //
-                    // Failed to parse data probably because there is no data.
-                    //
-                    jsonData = null;
-                }
+                urlString += header;
             }
-            else if (responseCode == 304 && timedData != null)
+
+            notFoundRequests.remove(urlString);
+            if (cachedRequests.remove(urlString) != null)
             {
-                //
-                // Received "Not Modified" response with no data, return cached data from last time.
-                //
-                jsonData = timedData.data;
+                cachePolicy.recordRemove(urlString);
+                removeHotData(urlString);
+                numEvicted = 1;
             }
             else
             {
-                throw new RuntimeException("Request failed: " + conn.getResponseMessage() + " (" + responseCode + ")");
+                numEvicted = 0;
             }
         }
-        catch (IOException e)
+
+        return numEvicted;
+    }   //evictCache
+
+    /**
+     * This method returns the statistics of the in-memory cache.
+     *
+     * @return cache statistics.
+     */
+    public synchronized JsonObject getCacheStats()
+    {
+        long rawSize = 0;
+        long sharedSize = 0;
+        Set<JsonValue> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        for (TimedData timedData: cachedRequests.values())
         {
-            throw new RuntimeException("Failed to open connection to <" + urlString + ">.\n" + e.getMessage());
+            rawSize += timedData.rawLength;
         }
 
-        return jsonData;
-    }   //get
+        for (JsonStructure jsonData: hotData.values())
+        {
+            sharedSize += estimateSharedSize(jsonData, visited);
+        }
+
+        return Json.createObjectBuilder()
+            .add("policy", cachePolicy.getName())
+            .add("capacity", cachePolicy.getCapacity())
+            .add("size", cachePolicy.getWeightedSize())
+            .add("raw_size", rawSize)
+            .add("compression", compressCache)
+            .add("lazy_parsing", lazyParsing)
+            .add("entries", cachedRequests.size())
+            .add("hot_entries", hotData.size())
+            .add("hot_size", hotPolicy.getWeightedSize())
+            .add("dedup_saved", hotPolicy.getWeightedSize() - sharedSize)
+            .add("dedup_shared", interner.getSize())
+            .add("dedup_hits", interner.getHitCount())
+            .add("parses", parseCount)
+            .add("hits", hitCount)
+            .add("fresh_hits", freshHitCount)
+            .add("misses", missCount)
+            .add("not_modified", notModifiedCount)
+            .add("coalesced", coalescedCount)
+            .add("wire_bytes", wireByteCount)
+            .add("body_bytes", bodyByteCount)
+            .add("requests_sent", requestScheduler.getRequestCount())
+            .add("retries", requestScheduler.getRetryCount())
+            .add("throttled", requestScheduler.getThrottledCount())
+            .add("concurrency_limit", requestScheduler.getConcurrencyLimit())
+            .add("hedges", hedgeCount)
+            .add("hedge_wins", hedgeWinCount)
+            .add("credentials", credentialPool != null? credentialPool.getSize(): 0)
+            .add("credentials_available", credentialPool != null? credentialPool.getAvailableCount(): 0)
+            .add("credential_quarantines", credentialPool != null? credentialPool.getQuarantineCount(): 0)
+            .add("credential_failovers", credentialPool != null? credentialPool.getFailoverCount(): 0)
+            .add("evictions", evictionCount)
+            .add("persistent_hits", persistentHitCount)
+            .add("stale_hits", staleHitCount)
+            .add("stale_on_error", staleOnErrorCount)
+            .add("revalidations", revalidationCount)
+            .add("max_staleness", maxStaleness/1000)
+            .add("not_found_entries", notFoundRequests.size())
+            .add("not_found_hits", notFoundHitCount)
+            .build();
+    }   //getCacheStats
 
     /**
-     * This method sends the request to the web server and returns the replied data if any.
+     * This method enables or disables the stale-while-revalidate serving mode. In this mode, cached data that
+     * became stale no more than the specified time ago is returned immediately and revalidated in the background.
+     * Frequently used data is refreshed in the background shortly before it becomes stale. If the web server is
+     * unreachable or failing, cached data is returned regardless of how stale it is.
      *
-     * @param request specifies the request string.
-     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
-     * @return replied JSON data, null if request failed.
+     * @param maxStaleness specifies the maximum staleness in milliseconds of data served without waiting for
+     *        revalidation, 0 to disable the mode.
      */
-    public JsonStructure get(String request, PrintStream statusOut)
+    public synchronized void setStaleWhileRevalidate(long maxStaleness)
     {
-        return get(request, statusOut, null);
-    }   //get
+        this.maxStaleness = maxStaleness;
+        if (maxStaleness > 0 && revalidationExecutor == null)
+        {
+            revalidationExecutor = Executors.newFixedThreadPool(
+                NUM_REVALIDATION_THREADS,
+                r ->
+                {
+                    Thread thread = new Thread(r, "Revalidation");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        }
+    }   //setStaleWhileRevalidate
 
     /**
-     * This method prints the entire structure of the JSON data recursively.
+     * This method sets how long a request that failed with "Not Found" keeps failing without being sent to the
+     * web server again.
      *
-     * @param data specifies the JSON structure.
-     * @param dataOut specifies the output print stream for the data.
+     * @param notFoundTtl specifies the time in milliseconds to remember the failed request, 0 to disable.
      */
-    public void printData(JsonStructure data, PrintStream dataOut)
+    public synchronized void setNotFoundTtl(long notFoundTtl)
     {
-         printValue(null, data, 0, null, null, dataOut);
-    }   //printData
+        this.notFoundTtl = notFoundTtl;
+        if (notFoundTtl == 0)
+        {
+            notFoundRequests.clear();
+        }
+    }   //setNotFoundTtl
 
     /**
-     * This method prints the entire structure of the JSON data. If key1 is provided, it will only print the values
-     * of key1 and key2 if provided. If key1 is null, it will recurse into the JSON object and print all the nested
-     * structures.
+     * This method sends the GET request to the web server and returns the replied data if any.
      *
-     * @param data specifies the JSON structure.
-     * @param key1 specifies the first key.
-     * @param key2 specifies the second key.
+     * @param request specifies the request string.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @param header specifies the optional header, null if none.
+     * @return replied JSON data, null if request failed.
+     * @throws RuntimeException when request failed.
+     */
+    public JsonStructure get(String request, PrintStream statusOut, String header) throws RuntimeException
+    {
+        return get(request, statusOut, header, null);
+    }   //get
+
+    /**
+     * This method sends the GET request to the web server and prints the replied data as it is parsed, without
+     * building the JSON structure unless it is already cached in parsed form.
+     *
+     * @param request specifies the request string.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @param header specifies the optional header, null if none.
+     * @param key1 specifies the first key to print of each object, null to print all the nested structures.
+     * @param key2 specifies the second key to print of each object, null if none.
      * @param dataOut specifies the output print stream for the data.
+     * @return true if data was printed, false if the reply had no data.
+     * @throws RuntimeException when request failed.
      */
-    public void printData(JsonStructure data, String key1, String key2, PrintStream dataOut)
+    public boolean print(
+        String request, PrintStream statusOut, String header, String key1, String key2, PrintStream dataOut)
+        throws RuntimeException
     {
-        printValue(null, data, 0, key1, key2, dataOut);
-    }   //printData
+        JsonPrinter printer = new JsonPrinter(dataOut, key1, key2);
+
+        get(request, statusOut, header, printer);
+
+        return printer.hasPrinted();
+    }   //print
 
     /**
-     * This method prints the value of the JSON data. If the value is a JSON object and key1 is provided, it will
-     * only print the values of key1 and optionally key2. If key1 is null, it will recurse into the JSON object
-     * and print all the nested structures.
+     * This method sends the GET request to the web server and returns the replied data reduced to the fields of
+     * the projection. Data not already parsed in the cache is projected as it is parsed, so only the projected
+     * fields are built before the data is returned. The cache still keeps the complete response for later requests
+     * that need more fields. If response history is enabled, a changed response is parsed in full for the history
+     * only after it has been projected.
      *
-     * @param key specifies the key string of the JSON object, can be null if no associated key.
-     * @param value specifies the JSON value.
-     * @param level specifies the indentation level.
-     * @param key1 specifies the first key.
-     * @param key2 specifies the second key.
-     * @param dataOut specifies the output print stream.
+     * @param request specifies the request string.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @param header specifies the optional header, null if none.
+     * @param projection specifies the projection of the replied data, null to return the complete data.
+     * @return replied JSON data projected, null if request failed.
+     * @throws RuntimeException when request failed.
+     */
+    public JsonStructure getProjected(String request, PrintStream statusOut, String header, JsonProjection projection)
+        throws RuntimeException
+    {
+        JsonStructure data;
+
+        if (projection == null)
+        {
+            data = get(request, statusOut, header);
+        }
+        else
+        {
+            get(request, statusOut, header, projection);
+            data = projection.getData();
+        }
+
+        return data;
+    }   //getProjected
+
+    /**
+     * This method sends the GET request to the web server and returns the replied data if any. If a consumer is
+     * specified, the replied data is passed to it instead, streaming it from the response body where possible.
+     *
+     * @param request specifies the request string.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @param header specifies the optional header, null if none.
+     * @param consumer specifies the consumer of the replied data, null to return the data.
+     * @return replied JSON data, null if request failed or the data was passed to the consumer.
+     * @throws RuntimeException when request failed.
      */
-    private void printValue(String key, JsonValue value, int level, String key1, String key2, PrintStream dataOut)
+    protected JsonStructure get(String request, PrintStream statusOut, String header, JsonConsumer consumer)
+        throws RuntimeException
     {
-        JsonValue.ValueType valueType = value.getValueType();
+        JsonStructure jsonData = null;
+        String urlString = apiBase + "/" + request;
+
+        //
+        // Form the URL string.
+        //
+        if (header != null)
+        {
+            urlString += header;
+        }
 
-        switch (valueType)
+        //
+        // Fail right away if the same URL was not found recently.
+        //
+        if (isNotFound(urlString))
+        {
+            if (statusOut != null)
+            {
+                statusOut.println("Cached request <" + urlString + ">: Not Found");
+            }
+            throw new RuntimeException("Request failed: Not Found (404)");
+        }
+
+        //
+        // Check our cache if we have sent the same URL previously.
+        //
+        TimedData timedData = getCachedData(urlString);
+        boolean immutable = isImmutable(request);
+        long now = System.currentTimeMillis();
+
+        try
         {
-            case OBJECT:
-                JsonObject obj = (JsonObject)value;
-                printIndentation(level, dataOut);
-                if (key1 != null)
+            if (timedData != null && (timedData.isFresh() || immutable))
+            {
+                //
+                // The cached data has not expired yet or it can never change, no need to revalidate it with the web
+                // server.
+                //
+                synchronized (this)
+                {
+                    freshHitCount++;
+                }
+                if (statusOut != null)
+                {
+                    statusOut.println("Cached request <" + urlString + ">: " + (immutable? "Immutable": "Fresh"));
+                }
+                jsonData = serveCachedData(urlString, timedData, consumer);
+
+                if (maxStaleness > 0 && !immutable && timedData.isRefreshDue())
+                {
+                    //
+                    // The data is used frequently and is about to become stale, refresh it ahead of time so the next
+                    // caller won't find it stale.
+                    //
+                    revalidateAsync(urlString, timedData);
+                }
+            }
+            else if (timedData != null && maxStaleness > 0 && now - timedData.expireTime <= maxStaleness)
+            {
+                //
+                // The cached data is stale but still acceptable, return it right away and revalidate it in the
+                // background.
+                //
+                synchronized (this)
+                {
+                    staleHitCount++;
+                }
+                if (statusOut != null)
+                {
+                    statusOut.println("Cached request <" + urlString + ">: Stale (revalidating)");
+                }
+                jsonData = serveCachedData(urlString, timedData, consumer);
+                revalidateAsync(urlString, timedData);
+            }
+            else
+            {
+                try
+                {
+                    jsonData = sendSharedRequest(urlString, timedData, immutable, statusOut, consumer);
+                }
+                catch (ServerUnavailableException e)
                 {
-                    dataOut.print(obj.get(key1));
-                    if (key2 != null)
+                    if (timedData == null || maxStaleness == 0)
+                    {
+                        throw e;
+                    }
+
+                    //
+                    // The web server is not available, fall back to the cached data no matter how stale it is.
+                    //
+                    synchronized (this)
                     {
-                        dataOut.println(": " + obj.get(key2));
+                        staleOnErrorCount++;
                     }
-                    else
+                    if (statusOut != null)
                     {
-                        dataOut.println();
+                        statusOut.println("Cached request <" + urlString + ">: Stale (server unavailable)");
                     }
+                    jsonData = serveCachedData(urlString, timedData, consumer);
+                }
+            }
+        }
+        catch (JsonParsingException e)
+        {
+            //
+            // The body loaded from the persistent cache is corrupt and has been dropped, request the data afresh.
+            //
+            jsonData = sendSharedRequest(urlString, null, immutable, statusOut, consumer);
+        }
+
+        return jsonData;
+    }   //get
+
+    /**
+     * This method sends the GET request to the web server unless the same URL is already being requested by
+     * another caller, in which case it waits for that request and shares its result. Whether the request succeeds
+     * or fails, every caller waiting for it gets the same result or the same exception, except that a request
+     * cancelled on behalf of another command is sent again by one of its waiting callers. A caller never waits for
+     * a request of a lower priority class, which may still be queued behind other requests of its class. It sends
+     * the request itself and the callers that come later wait for its request instead. If the request passed its
+     * data to a consumer without parsing it, the waiting callers take the data from the cache.
+     *
+     * @param urlString specifies the request URL.
+     * @param timedData specifies the cached data of the request, null if none.
+     * @param immutable specifies true if the replied data can never change, so it never becomes stale.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @param consumer specifies the consumer of the replied data, null to return the data.
+     * @return replied JSON data, null if request failed or the data was passed to the consumer.
+     * @throws RuntimeException when request failed.
+     */
+    private JsonStructure sendSharedRequest(
+        String urlString, TimedData timedData, boolean immutable, PrintStream statusOut, JsonConsumer consumer)
+        throws RuntimeException
+    {
+        RequestContext context = RequestContext.current();
+        RequestScheduler.Priority priority = context != null? context.getPriority(): RequestScheduler.Priority.NORMAL;
+        JsonStructure jsonData = null;
+        InFlightRequest inFlight;
+        boolean shared;
+
+        while (true)
+        {
+            synchronized (this)
+            {
+                inFlight = inFlightRequests.get(urlString);
+                shared = inFlight != null && inFlight.priority.compareTo(priority) <= 0;
+                if (shared)
+                {
+                    coalescedCount++;
                 }
                 else
                 {
-                    if (key != null)
-                    {
-                        dataOut.print(key + ": ");
-                    }
-                    dataOut.println("{");
-                    Iterator<String> iterator = obj.keySet().iterator();
-                    while (iterator.hasNext())
+                    inFlight = new InFlightRequest(priority);
+                    inFlightRequests.put(urlString, inFlight);
+                }
+            }
+
+            if (!shared)
+            {
+                break;
+            }
+
+            if (statusOut != null)
+            {
+                statusOut.print("Waiting for request <" + urlString + ">: ");
+            }
+
+            try
+            {
+                jsonData = RequestContext.bound(inFlight).join();
+                if (statusOut != null)
+                {
+                    statusOut.println("Shared");
+                }
+
+                if (inFlight.streamed)
+                {
+                    TimedData cachedData = getCachedData(urlString);
+
+                    if (cachedData == null)
                     {
-                        String childKey = iterator.next();
-                        printValue(childKey, obj.get(childKey), level + 1, key1, key2, dataOut);
+                        //
+                        // The consumed data did not stay in the cache, send the request again.
+                        //
+                        synchronized (this)
+                        {
+                            inFlightRequests.remove(urlString, inFlight);
+                        }
+                        continue;
                     }
-                    printIndentation(level, dataOut);
-                    dataOut.println("}");
+                    jsonData = serveCachedData(urlString, cachedData, consumer);
+                }
+                else if (consumer != null && jsonData != null)
+                {
+                    consumer.accept(jsonData);
+                    jsonData = null;
                 }
                 break;
+            }
+            catch (CompletionException e)
+            {
+                RuntimeException cause = (RuntimeException)e.getCause();
 
-            case ARRAY:
-                printIndentation(level, dataOut);
-                if (key != null)
+                if (!(cause instanceof RequestCancelledException) || context != null && context.isDone())
+                {
+                    if (statusOut != null)
+                    {
+                        statusOut.println("Failed");
+                    }
+                    throw cause;
+                }
+                //
+                // The request was cancelled by the command that sent it, not by ours. Send it again.
+                //
+                if (statusOut != null)
                 {
-                    dataOut.print(key + ": ");
+                    statusOut.println("Retrying");
                 }
-                dataOut.println("[");
-                JsonArray array = (JsonArray)value;
-                for (int i = 0; i < array.size(); i++)
+                synchronized (this)
                 {
-                    printValue(null, array.get(i), level + 1, key1, key2, dataOut);
+                    inFlightRequests.remove(urlString, inFlight);
                 }
-                printIndentation(level, dataOut);
-                dataOut.println("]");
-                break;
+            }
+        }
+
+        if (!shared)
+        {
+            try
+            {
+                jsonData = sendRequest(urlString, timedData, immutable, statusOut, consumer);
+                inFlight.streamed = consumer != null;
+                inFlight.complete(jsonData);
+            }
+            catch (RuntimeException | Error e)
+            {
+                //
+                // Wrap errors so that the waiting callers only ever see runtime exceptions.
+                //
+                inFlight.completeExceptionally(
+                    e instanceof RuntimeException? e: new RuntimeException("Request failed: " + e, e));
+                throw e;
+            }
+            finally
+            {
+                synchronized (this)
+                {
+                    inFlightRequests.remove(urlString, inFlight);
+                }
+            }
+        }
+
+        return jsonData;
+    }   //sendSharedRequest
+
+    /**
+     * This method revalidates the cached data of the specified URL on a background thread, with the BACKGROUND
+     * priority. It does nothing if a revalidation of the URL is already pending. The revalidation is sent as a
+     * shared request, so it joins a request of the same URL already in flight instead of sending another one.
+     *
+     * @param urlString specifies the request URL.
+     * @param timedData specifies the cached data of the request.
+     */
+    private void revalidateAsync(String urlString, TimedData timedData)
+    {
+        synchronized (this)
+        {
+            if (!pendingRevalidations.add(urlString))
+            {
+                return;
+            }
+            revalidationCount++;
+        }
 
-            default:
-                printIndentation(level, dataOut);
-                if (key != null)
+        revalidationExecutor.execute(
+            () ->
+            {
+                //
+                // Nobody is waiting for the revalidation, so it must not hold up the requests that someone is.
+                //
+                RequestContext context = new RequestContext(0, RequestScheduler.Priority.BACKGROUND);
+                RequestContext prevContext = context.attach();
+                try
                 {
-                    dataOut.print(key + ": ");
+                    sendSharedRequest(urlString, timedData, false, null, null);
                 }
-                dataOut.println(value);
-                break;
+                catch (RuntimeException e)
+                {
+                    //
+                    // Keep serving the cached data, it will be revalidated again on the next access.
+                    //
+                }
+                finally
+                {
+                    RequestContext.detach(prevContext);
+                    synchronized (this)
+                    {
+                        pendingRevalidations.remove(urlString);
+                    }
+                }
+            });
+    }   //revalidateAsync
+
+    /**
+     * This method sends the GET request to the web server asynchronously. Status is not printed since the requests
+     * run concurrently. If the request fails, the future completes exceptionally with the same RuntimeException
+     * the synchronous request would have thrown.
+     *
+     * @param request specifies the request string.
+     * @param header specifies the optional header, null if none.
+     * @return future completing with the replied JSON data.
+     */
+    public CompletableFuture<JsonStructure> getAsync(String request, String header)
+    {
+        return supplyAsync(() -> get(request, null, header));
+    }   //getAsync
+
+    /**
+     * This method runs the specified request on the asynchronous executor.
+     *
+     * @param request specifies the request that returns the JSON data.
+     * @return future completing with the JSON data returned by the request.
+     */
+    protected CompletableFuture<JsonStructure> supplyAsync(Supplier<JsonStructure> request)
+    {
+        return CompletableFuture.supplyAsync(RequestContext.propagate(request), getAsyncExecutor());
+    }   //supplyAsync
+
+    /**
+     * This method runs the specified request on the internal executor. It is used for the requests fanned out by
+     * a request that waits for them, so they never wait behind the tasks of a bounded asynchronous executor.
+     *
+     * @param request specifies the request that returns the JSON data.
+     * @return future completing with the JSON data returned by the request.
+     */
+    protected CompletableFuture<JsonStructure> supplyInternal(Supplier<JsonStructure> request)
+    {
+        return CompletableFuture.supplyAsync(RequestContext.propagate(request), getInternalExecutor());
+    }   //supplyInternal
+
+    /**
+     * This method returns the internal executor, creating it if necessary. Unlike the asynchronous executor, it
+     * cannot be replaced, so it is always unbounded.
+     *
+     * @return internal executor.
+     */
+    protected synchronized ExecutorService getInternalExecutor()
+    {
+        if (internalExecutor == null)
+        {
+            internalExecutor = createAsyncExecutor();
+        }
+
+        return internalExecutor;
+    }   //getInternalExecutor
+
+    /**
+     * This method returns the executor of the asynchronous requests, creating the default one if none was set.
+     *
+     * @return asynchronous executor.
+     */
+    private synchronized Executor getAsyncExecutor()
+    {
+        if (asyncExecutor == null)
+        {
+            asyncExecutor = createAsyncExecutor();
+        }
+
+        return asyncExecutor;
+    }   //getAsyncExecutor
+
+    /**
+     * This method creates the default executor of the asynchronous requests. Virtual threads are looked up by
+     * reflection since they only exist in newer Java runtimes.
+     *
+     * @return executor running each request on a virtual thread if supported, on a daemon thread otherwise.
+     */
+    private static ExecutorService createAsyncExecutor()
+    {
+        ExecutorService executor;
+
+        try
+        {
+            executor = (ExecutorService)Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
         }
-    }   //printValue
+        catch (ReflectiveOperationException e)
+        {
+            executor = Executors.newCachedThreadPool(
+                r ->
+                {
+                    Thread thread = new Thread(r, "Async");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        }
+
+        return executor;
+    }   //createAsyncExecutor
 
     /**
-     * This method indents the line with the specified indentation level.
+     * This method sends the GET request to the web server and returns the replied data if any. If the request
+     * has cached data, the request is made conditional on its validators so that the web server only replies with
+     * data if it has changed.
      *
-     * @param level specifies the indentation level.
-     * @param dataOut specifies the output print stream.
+     * @param urlString specifies the request URL.
+     * @param timedData specifies the cached data of the request, null if none.
+     * @param immutable specifies true if the replied data can never change, so it never becomes stale.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @param consumer specifies the consumer of the replied data, null to return the data.
+     * @return replied JSON data, null if request failed or the data was passed to the consumer.
+     * @throws RuntimeException when request failed.
      */
-    private void printIndentation(int level, PrintStream dataOut)
+    private JsonStructure sendRequest(
+        String urlString, TimedData timedData, boolean immutable, PrintStream statusOut, JsonConsumer consumer)
+        throws RuntimeException
     {
-        for (int i = 0; i < level; i++)
+        JsonStructure jsonData = null;
+        long lastModified = timedData != null? timedData.lastModified: 0;
+
+        URL url = null;
+        try
+        {
+            url = new URL(urlString);
+        }
+        catch (MalformedURLException e)
+        {
+            throw new RuntimeException("Invalid URL <" + urlString + ">.\n" + e.getMessage());
+        }
+
+        LinkedHashMap<String, String> requestHeaders = new LinkedHashMap<>();
+        for (RequestProperty p: requestProperties)
         {
-            dataOut.print("    ");
+            requestHeaders.put(p.key, p.value);
         }
-    }   //printIndentation
+
+        //
+        // Send the web request. If we have it in our cache, send the last modified time and the entity tag so the
+        // web service will give us data back only if it has changed. If we don't have it in our cache, last
+        // modified time will be zero and the web service will reply with data.
+        //
+        try
+        {
+            if (statusOut != null)
+            {
+                statusOut.print("Sending request <" + urlString + ">: ");
+            }
+            long requestTime = System.currentTimeMillis();
+            if (lastModified != 0)
+            {
+                requestHeaders.put("If-Modified-Since", HttpResponse.formatDate(lastModified));
+            }
+            if (timedData != null && timedData.etag != null)
+            {
+                requestHeaders.put("If-None-Match", timedData.etag);
+            }
+            requestHeaders.put("Accept-Encoding", "gzip, deflate");
+            HttpTransport transport;
+            RequestScheduler scheduler;
+            synchronized (this)
+            {
+                transport = credentialPool != null? credentialPool.bind(this.transport): this.transport;
+                scheduler = requestScheduler;
+            }
+            HttpResponse response = sendHedged(
+                scheduler, transport, url, requestHeaders,
+                LatencyTracker.getEndpoint(urlString.substring(apiBase.length())));
+            if (statusOut != null)
+            {
+                statusOut.println(response.getMessage());
+            }
+            int responseCode = response.getStatusCode();
+            if (responseCode == 200)
+            {
+                //
+                // Received "OK" response with data. Update cache with the new data.
+                //
+                try
+                {
+                    byte[] body;
+                    boolean streamed = consumer != null;
+                    CopyingInputStream is = new CopyingInputStream(getBodyStream(response));
+                    try
+                    {
+                        if (streamed)
+                        {
+                            //
+                            // Consume the data as it is decompressed and parsed, only the body is kept for the cache.
+                            //
+                            consumer.accept(is);
+                        }
+                        else if (!lazyParsing)
+                        {
+                            jsonData = parseData(is);
+                        }
+                    }
+                    finally
+                    {
+                        body = is.drain();
+                        synchronized (this)
+                        {
+                            wireByteCount += response.getBody().length;
+                            bodyByteCount += body.length;
+                        }
+                    }
+                    if (!streamed && lazyParsing)
+                    {
+                        //
+                        // The tape indexes the whole body, so it is built once the body has been read.
+                        //
+                        jsonData = parseData(body);
+                    }
+                    lastModified = response.getDateHeader("Last-Modified");
+                    String etag = response.getHeader("ETag");
+                    long expireTime = immutable? Long.MAX_VALUE: getExpireTime(response, requestTime);
+                    putCachedData(urlString, new TimedData(body, lastModified, etag, expireTime), jsonData);
+                    if (persistentCache != null)
+                    {
+                        persistentCache.put(urlString, lastModified, etag, expireTime, body);
+                    }
+                    ResponseHistory history = responseHistory;
+                    if (history != null && (timedData == null || !Arrays.equals(timedData.getBody(), body)))
+                    {
+                        //
+                        // Streamed data has already been consumed by now, it is parsed for the history only after it
+                        // reached the consumer. An unchanged body has no new version to record.
+                        //
+                        history.record(urlString, requestTime, jsonData != null? jsonData: parseData(body));
+                    }
+                }
+                catch (JsonParsingException e)
+                {
+                    //
+                    // Failed to parse data probably because there is no data.
+                    //
+                    jsonData = null;
+                }
+                catch (IOException | JsonException e)
+                {
+                    //
+                    // The compressed body is corrupted or truncated.
+                    //
+                    throw new ServerUnavailableException(
+                        "Failed to decode response from <" + urlString + ">.\n" + e.getMessage());
+                }
+            }
+            else if (responseCode == 304 && timedData != null)
+            {
+                //
+                // Received "Not Modified" response with no data, return cached data from last time and extend its
+                // freshness.
+                //
+                String etag = response.getHeader("ETag");
+                synchronized (this)
+                {
+                    notModifiedCount++;
+                    timedData.expireTime = immutable? Long.MAX_VALUE: getExpireTime(response, requestTime);
+                    timedData.validatedTime = requestTime;
+                    if (etag != null)
+                    {
+                        timedData.etag = etag;
+                    }
+                }
+                jsonData = serveCachedData(urlString, timedData, consumer);
+            }
+            else if (responseCode == 404)
+            {
+                putNotFound(urlString);
+                throw new RuntimeException("Request failed: " + response.getMessage() + " (" + responseCode + ")");
+            }
+            else if (responseCode == 429 || responseCode >= 500)
+            {
+                //
+                // The web server is still throttling or failing after the retries.
+                //
+                throw new ServerUnavailableException(
+                    "Request failed: " + response.getMessage() + " (" + responseCode + ")");
+            }
+            else
+            {
+                throw new RuntimeException("Request failed: " + response.getMessage() + " (" + responseCode + ")");
+            }
+        }
+        catch (RequestCancelledException e)
+        {
+            if (statusOut != null)
+            {
+                statusOut.println("Aborted");
+            }
+            throw e;
+        }
+        catch (IOException e)
+        {
+            //
+            // The connection was closed or timed out because the request context is done.
+            //
+            RequestContext context = RequestContext.current();
+            if (context != null && context.isDone())
+            {
+                if (statusOut != null)
+                {
+                    statusOut.println("Aborted");
+                }
+                throw context.getException();
+            }
+
+            if (statusOut != null)
+            {
+                statusOut.println("Unreachable");
+            }
+            throw new ServerUnavailableException(
+                "Failed to open connection to <" + urlString + ">.\n" + e.getMessage());
+        }
+
+        return jsonData;
+    }   //sendRequest
+
+    /**
+     * This method sends the GET request through the scheduler, hedging it if hedging is enabled, the endpoint has
+     * enough latency statistics and the hedging budget allows. A hedged request and its hedge run on the internal
+     * executor, each in its own child of the request context, and the context of the loser is cancelled so that it
+     * stops waiting for the scheduler or closes its connection. The latency of every successful request is
+     * recorded in the statistics of its endpoint.
+     *
+     * @param scheduler specifies the request scheduler.
+     * @param transport specifies the transport.
+     * @param url specifies the request URL.
+     * @param requestHeaders specifies the request headers.
+     * @param endpoint specifies the endpoint of the request for the latency statistics.
+     * @return response of the web server, the first one if the request was hedged.
+     * @throws IOException when the web server could not be reached.
+     */
+    private HttpResponse sendHedged(
+        RequestScheduler scheduler, HttpTransport transport, URL url, Map<String, String> requestHeaders,
+        String endpoint) throws IOException
+    {
+        long hedgeDelay = -1;
+        long startTime = System.nanoTime();
+        HttpResponse response;
+
+        synchronized (this)
+        {
+            if (hedgePercentile > 0.0)
+            {
+                hedgeableCount++;
+                hedgeDelay = latencyTracker.getPercentile(endpoint, hedgePercentile, MIN_HEDGE_SAMPLES);
+            }
+        }
+
+        if (hedgeDelay < 0)
+        {
+            response = scheduler.send(transport, url, requestHeaders);
+        }
+        else
+        {
+            RequestContext primaryContext = RequestContext.fork();
+            RequestContext hedgeContext = null;
+            CompletableFuture<HttpResponse> primary =
+                sendAttemptAsync(primaryContext, scheduler, transport, url, requestHeaders);
+            CompletableFuture<HttpResponse> hedge = null;
+            CompletableFuture<HttpResponse> winner = primary;
+
+            response = null;
+            try
+            {
+                try
+                {
+                    response = RequestContext.bound(primary).get(hedgeDelay, TimeUnit.MILLISECONDS);
+                }
+                catch (TimeoutException e)
+                {
+                    boolean withinBudget;
+
+                    synchronized (this)
+                    {
+                        withinBudget = hedgeCount < hedgeBudget*hedgeableCount;
+                        if (withinBudget)
+                        {
+                            hedgeCount++;
+                        }
+                    }
+
+                    if (withinBudget)
+                    {
+                        hedgeContext = RequestContext.fork();
+                        hedge = sendAttemptAsync(hedgeContext, scheduler, transport, url, requestHeaders);
+                        winner = firstSuccessful(primary, hedge);
+                    }
+                    response = RequestContext.bound(winner).get();
+                    if (isResultOf(hedge, response))
+                    {
+                        synchronized (this)
+                        {
+                            hedgeWinCount++;
+                        }
+                    }
+                }
+            }
+            catch (ExecutionException e)
+            {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException)
+                {
+                    throw (IOException)cause;
+                }
+                throw cause instanceof RuntimeException? (RuntimeException)cause: new RuntimeException(cause);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for <" + url + ">.");
+            }
+            finally
+            {
+                //
+                // Cancel the context of the losing request, or of both if we stopped waiting, so that it stops
+                // waiting in the scheduler or closes its connection, giving back its slot right away.
+                //
+                if (!isResultOf(primary, response))
+                {
+                    primaryContext.cancel();
+                }
+                primaryContext.close();
+                if (hedge != null)
+                {
+                    if (!isResultOf(hedge, response))
+                    {
+                        hedgeContext.cancel();
+                    }
+                    hedgeContext.close();
+                }
+            }
+        }
+
+        if (response.getStatusCode() < 400)
+        {
+            latencyTracker.record(endpoint, (System.nanoTime() - startTime)/1000000);
+        }
+
+        return response;
+    }   //sendHedged
+
+    /**
+     * This method sends one attempt of a hedged request on the internal executor in its own request context, so
+     * that it can be cancelled without affecting the other attempt.
+     *
+     * @param context specifies the request context of the attempt.
+     * @param scheduler specifies the request scheduler.
+     * @param transport specifies the transport.
+     * @param url specifies the request URL.
+     * @param requestHeaders specifies the request headers.
+     * @return future completing with the response of the web server.
+     */
+    private CompletableFuture<HttpResponse> sendAttemptAsync(
+        RequestContext context, RequestScheduler scheduler, HttpTransport transport, URL url,
+        Map<String, String> requestHeaders)
+    {
+        return CompletableFuture.supplyAsync(
+            () ->
+            {
+                RequestContext prevContext = context.attach();
+                try
+                {
+                    return scheduler.send(transport, url, requestHeaders);
+                }
+                catch (IOException e)
+                {
+                    throw new CompletionException(e);
+                }
+                finally
+                {
+                    RequestContext.detach(prevContext);
+                }
+            },
+            getInternalExecutor());
+    }   //sendAttemptAsync
+
+    /**
+     * This method checks if the specified response is the result of the specified future.
+     *
+     * @param future specifies the future, can be null.
+     * @param response specifies the response, can be null.
+     * @return true if the future completed successfully with the response, false otherwise.
+     */
+    private static boolean isResultOf(CompletableFuture<HttpResponse> future, HttpResponse response)
+    {
+        return future != null && response != null && future.isDone() && !future.isCompletedExceptionally() &&
+               future.join() == response;
+    }   //isResultOf
+
+    /**
+     * This method returns a future that completes with the result of whichever of the two futures completes
+     * successfully first, or exceptionally if both fail.
+     *
+     * @param first specifies the first future.
+     * @param second specifies the second future.
+     * @return future of the first successful result.
+     */
+    private static CompletableFuture<HttpResponse> firstSuccessful(
+        CompletableFuture<HttpResponse> first, CompletableFuture<HttpResponse> second)
+    {
+        CompletableFuture<HttpResponse> result = new CompletableFuture<>();
+        AtomicInteger numFailed = new AtomicInteger();
+
+        BiConsumer<HttpResponse, Throwable> onCompletion =
+            (response, e) ->
+            {
+                if (e == null)
+                {
+                    result.complete(response);
+                }
+                else if (numFailed.incrementAndGet() == 2)
+                {
+                    result.completeExceptionally(e);
+                }
+            };
+
+        first.whenComplete(onCompletion);
+        second.whenComplete(onCompletion);
+
+        return result;
+    }   //firstSuccessful
+
+    /**
+     * This method determines the time the response becomes stale from its Cache-Control, Age and Expires headers.
+     *
+     * @param response specifies the response.
+     * @param requestTime specifies the time the request was sent.
+     * @return expiration time, zero if the response must be revalidated every time.
+     */
+    private long getExpireTime(HttpResponse response, long requestTime)
+    {
+        long expireTime = response.getDateHeader("Expires");
+        String cacheControl = response.getHeader("Cache-Control");
+
+        if (cacheControl != null)
+        {
+            for (String directive: cacheControl.split(","))
+            {
+                directive = directive.trim().toLowerCase();
+                if (directive.equals("no-cache") || directive.equals("no-store"))
+                {
+                    expireTime = 0;
+                    break;
+                }
+                else if (directive.startsWith("max-age="))
+                {
+                    try
+                    {
+                        long maxAge = Long.parseLong(directive.substring(8).trim());
+                        long age = response.getIntHeader("Age", 0);
+                        expireTime = requestTime + (maxAge - age)*1000;
+                    }
+                    catch (NumberFormatException e)
+                    {
+                        expireTime = 0;
+                    }
+                }
+            }
+        }
+
+        return expireTime;
+    }   //getExpireTime
+
+    /**
+     * This method looks up the cached data of the specified URL, loading it from the persistent cache if it is
+     * not in memory. The persistent cache is read without holding the lock of this object, so a slow disk does
+     * not hold up requests served from memory.
+     *
+     * @param urlString specifies the request URL.
+     * @return cached data, null if not found.
+     */
+    private TimedData getCachedData(String urlString)
+    {
+        TimedData timedData;
+        PersistentCache cache = null;
+
+        synchronized (this)
+        {
+            timedData = cachedRequests.get(urlString);
+            if (timedData != null)
+            {
+                hitCount++;
+                timedData.accessCount++;
+                cachePolicy.recordAccess(urlString);
+            }
+            else
+            {
+                missCount++;
+                cache = persistentCache;
+            }
+        }
+
+        if (cache != null)
+        {
+            timedData = loadPersistentData(cache, urlString);
+        }
+
+        return timedData;
+    }   //getCachedData
+
+    /**
+     * This method checks if the specified URL was not found by the web server recently.
+     *
+     * @param urlString specifies the request URL.
+     * @return true if the URL was not found recently, false otherwise.
+     */
+    private synchronized boolean isNotFound(String urlString)
+    {
+        Long expireTime = notFoundRequests.get(urlString);
+        boolean notFound = false;
+
+        if (expireTime != null)
+        {
+            if (System.currentTimeMillis() < expireTime)
+            {
+                notFoundHitCount++;
+                notFound = true;
+            }
+            else
+            {
+                notFoundRequests.remove(urlString);
+            }
+        }
+
+        return notFound;
+    }   //isNotFound
+
+    /**
+     * This method remembers that the specified URL was not found by the web server. The oldest entries are
+     * dropped if too many URLs are remembered.
+     *
+     * @param urlString specifies the request URL.
+     */
+    private synchronized void putNotFound(String urlString)
+    {
+        if (notFoundTtl > 0)
+        {
+            notFoundRequests.remove(urlString);
+            notFoundRequests.put(urlString, System.currentTimeMillis() + notFoundTtl);
+
+            Iterator<String> iterator = notFoundRequests.keySet().iterator();
+            while (notFoundRequests.size() > MAX_NOT_FOUND_ENTRIES)
+            {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+    }   //putNotFound
+
+    /**
+     * This method puts the data into the in-memory cache and evicts the entries chosen by the cache policy.
+     *
+     * @param urlString specifies the request URL.
+     * @param timedData specifies the data to be cached.
+     * @param jsonData specifies the parsed JSON data to be kept in the hot tier.
+     */
+    private synchronized void putCachedData(String urlString, TimedData timedData, JsonStructure jsonData)
+    {
+        cachedRequests.put(urlString, timedData);
+        if (jsonData != null)
+        {
+            putHotData(urlString, jsonData);
+        }
+        else
+        {
+            removeHotData(urlString);
+        }
+        for (String victim: cachePolicy.recordInsert(urlString, timedData.size))
+        {
+            cachedRequests.remove(victim);
+            removeHotData(victim);
+            evictionCount++;
+        }
+    }   //putCachedData
+
+    /**
+     * This method serves the cached response. If a consumer is specified, the data is passed to it instead of
+     * returned. Data still parsed in the hot tier is passed as is, anything else is streamed from the cached
+     * response body without building the JSON structure, unless the body has never been parsed.
+     *
+     * @param urlString specifies the request URL.
+     * @param timedData specifies the cached data of the request.
+     * @param consumer specifies the consumer of the data, null to return the data.
+     * @return parsed JSON data, null if the data was passed to the consumer.
+     * @throws JsonParsingException when the body loaded from the persistent cache is corrupt.
+     */
+    private JsonStructure serveCachedData(String urlString, TimedData timedData, JsonConsumer consumer)
+        throws JsonParsingException
+    {
+        JsonStructure jsonData;
+
+        if (consumer == null)
+        {
+            jsonData = getParsedData(urlString, timedData);
+        }
+        else
+        {
+            boolean verified;
+
+            synchronized (this)
+            {
+                jsonData = hotData.get(urlString);
+                if (jsonData != null)
+                {
+                    hotPolicy.recordAccess(urlString);
+                }
+                verified = timedData.verified;
+            }
+
+            if (jsonData == null && !verified)
+            {
+                //
+                // Parse the body before passing anything to the consumer, so a corrupt body is not half consumed.
+                //
+                jsonData = getParsedData(urlString, timedData);
+            }
+
+            if (jsonData != null)
+            {
+                consumer.accept(jsonData);
+            }
+            else
+            {
+                //
+                // The body has been parsed successfully before, so it can't fail to parse now.
+                //
+                consumer.accept(new ByteArrayInputStream(timedData.getBody()));
+            }
+            jsonData = null;
+        }
+
+        return jsonData;
+    }   //serveCachedData
+
+    /**
+     * This method returns the parsed JSON data of the cached response. Recently served data is kept parsed in the
+     * hot tier, anything else is parsed from the cached response body. A body loaded from the persistent cache is
+     * parsed for the first time here, if it turns out to be corrupt it is dropped from the cache.
+     *
+     * @param urlString specifies the request URL.
+     * @param timedData specifies the cached data of the request.
+     * @return parsed JSON data.
+     * @throws JsonParsingException when the body loaded from the persistent cache is corrupt.
+     */
+    private JsonStructure getParsedData(String urlString, TimedData timedData) throws JsonParsingException
+    {
+        JsonStructure jsonData;
+
+        synchronized (this)
+        {
+            jsonData = hotData.get(urlString);
+            if (jsonData != null)
+            {
+                hotPolicy.recordAccess(urlString);
+            }
+        }
+
+        if (jsonData == null)
+        {
+            try
+            {
+                jsonData = parseData(timedData.getBody());
+            }
+            catch (JsonParsingException e)
+            {
+                synchronized (this)
+                {
+                    if (cachedRequests.get(urlString) == timedData)
+                    {
+                        cachedRequests.remove(urlString);
+                        cachePolicy.recordRemove(urlString);
+                        removeHotData(urlString);
+                    }
+                }
+                throw e;
+            }
+
+            synchronized (this)
+            {
+                parseCount++;
+                timedData.verified = true;
+                if (cachedRequests.get(urlString) == timedData)
+                {
+                    putHotData(urlString, jsonData);
+                }
+            }
+        }
+
+        return jsonData;
+    }   //getParsedData
+
+    /**
+     * This method puts the parsed JSON data into the hot tier and evicts the least recently used data if the hot
+     * tier is full. The caller must hold the lock of this object.
+     *
+     * @param urlString specifies the request URL.
+     * @param jsonData specifies the parsed JSON data.
+     */
+    private void putHotData(String urlString, JsonStructure jsonData)
+    {
+        hotData.put(urlString, jsonData);
+        for (String victim: hotPolicy.recordInsert(urlString, estimateSize(jsonData)))
+        {
+            hotData.remove(victim);
+        }
+    }   //putHotData
+
+    /**
+     * This method removes the parsed JSON data from the hot tier. The caller must hold the lock of this object.
+     *
+     * @param urlString specifies the request URL.
+     */
+    private void removeHotData(String urlString)
+    {
+        if (hotData.remove(urlString) != null)
+        {
+            hotPolicy.recordRemove(urlString);
+        }
+    }   //removeHotData
+
+    /**
+     * This method empties the hot tier. The caller must hold the lock of this object.
+     */
+    private void clearHotData()
+    {
+        hotData.clear();
+        hotPolicy.clear();
+    }   //clearHotData
+
+    /**
+     * This method loads the cached response of the specified URL from the persistent cache into the in-memory
+     * cache. It is called without holding the lock of this object. If another thread cached the URL in the
+     * meantime, its data wins over the persisted one. The body is not parsed until it is served, so loading data
+     * that is only revalidated or evicted again costs no parsing.
+     *
+     * @param cache specifies the persistent cache.
+     * @param urlString specifies the request URL.
+     * @return cached data, null if not found.
+     */
+    private TimedData loadPersistentData(PersistentCache cache, String urlString)
+    {
+        TimedData timedData = null;
+        PersistentCache.Entry entry = cache.get(urlString);
+
+        if (entry != null)
+        {
+            timedData = new TimedData(entry.body, entry.lastModified, entry.etag, entry.expireTime);
+            timedData.verified = false;
+            synchronized (this)
+            {
+                TimedData cachedData = cachedRequests.get(urlString);
+                if (cachedData != null)
+                {
+                    timedData = cachedData;
+                }
+                else
+                {
+                    putCachedData(urlString, timedData, null);
+                    persistentHitCount++;
+                }
+            }
+        }
+
+        return timedData;
+    }   //loadPersistentData
+
+    /**
+     * This method parses the response body into JSON data. Objects and arrays equal to those of other cached
+     * responses are replaced by the shared instances so they are only held in memory once. In lazy parsing mode,
+     * the body is only indexed and its objects and arrays are decoded when they are accessed.
+     *
+     * @param body specifies the response body.
+     * @return parsed JSON data.
+     * @throws JsonParsingException when the body is not valid JSON.
+     */
+    private JsonStructure parseData(byte[] body) throws JsonParsingException
+    {
+        return lazyParsing? JsonTape.parse(body): parseData(new ByteArrayInputStream(body));
+    }   //parseData
+
+    /**
+     * This method parses the JSON data from the input stream and deduplicates it.
+     *
+     * @param is specifies the input stream.
+     * @return parsed JSON data.
+     * @throws JsonParsingException when the stream is not valid JSON.
+     */
+    private JsonStructure parseData(InputStream is) throws JsonParsingException
+    {
+        try (JsonReader rdr = Json.createReader(is))
+        {
+            return interner.intern(rdr.read());
+        }
+    }   //parseData
+
+    /**
+     * This method returns a stream of the response body that decompresses it on the fly according to its
+     * content encoding.
+     *
+     * @param response specifies the response.
+     * @return stream of the decompressed response body.
+     * @throws IOException when the content encoding is not supported or the compressed body is corrupted.
+     */
+    private InputStream getBodyStream(HttpResponse response) throws IOException
+    {
+        String encoding = response.getHeader("Content-Encoding");
+        InputStream is = new ByteArrayInputStream(response.getBody());
+
+        if (encoding != null)
+        {
+            encoding = encoding.trim().toLowerCase();
+            if (encoding.equals("gzip") || encoding.equals("x-gzip"))
+            {
+                is = new GZIPInputStream(is);
+            }
+            else if (encoding.equals("deflate"))
+            {
+                is = new InflaterInputStream(is);
+            }
+            else if (!encoding.isEmpty() && !encoding.equals("identity"))
+            {
+                throw new IOException("Unsupported content encoding <" + encoding + ">.");
+            }
+        }
+
+        return is;
+    }   //getBodyStream
+
+    /**
+     * This method compresses the data with Deflate.
+     *
+     * @param data specifies the data to be compressed.
+     * @return compressed data.
+     */
+    private static byte[] deflate(byte[] data)
+    {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length/4 + 64);
+        byte[] buffer = new byte[8192];
+
+        deflater.setInput(data);
+        deflater.finish();
+        while (!deflater.finished())
+        {
+            out.write(buffer, 0, deflater.deflate(buffer));
+        }
+        deflater.end();
+
+        return out.toByteArray();
+    }   //deflate
+
+    /**
+     * This method decompresses the Deflate-compressed data.
+     *
+     * @param data specifies the compressed data.
+     * @param length specifies the length of the decompressed data.
+     * @return decompressed data.
+     * @throws RuntimeException when the compressed data is corrupted.
+     */
+    private static byte[] inflate(byte[] data, int length) throws RuntimeException
+    {
+        Inflater inflater = new Inflater();
+        byte[] result = new byte[length];
+
+        inflater.setInput(data);
+        try
+        {
+            int offset = 0;
+            while (offset < length && !inflater.finished())
+            {
+                int len = inflater.inflate(result, offset, length - offset);
+                if (len == 0 && inflater.needsInput())
+                {
+                    throw new RuntimeException("Cached data is truncated.");
+                }
+                offset += len;
+            }
+        }
+        catch (DataFormatException e)
+        {
+            throw new RuntimeException("Cached data is corrupted.\n" + e.getMessage());
+        }
+        finally
+        {
+            inflater.end();
+        }
+
+        return result;
+    }   //inflate
+
+    /**
+     * This method estimates the heap size of the JSON value in bytes. It is an approximation of the object layout
+     * of a typical 64-bit JVM and is used to weigh the hot tier entries.
+     *
+     * @param value specifies the JSON value.
+     * @return estimated size in bytes.
+     */
+    private static long estimateSize(JsonValue value)
+    {
+        long size;
+        JsonTape jsonTape = JsonTape.getTape(value);
+
+        if (jsonTape != null)
+        {
+            //
+            // Lazily parsed data is weighed by its raw bytes and tape, the parts decoded later are not counted.
+            //
+            size = jsonTape.getSize();
+        }
+        else
+        {
+            switch (value.getValueType())
+            {
+                case OBJECT:
+                    JsonObject obj = (JsonObject)value;
+                    size = 64;
+                    for (Map.Entry<String, JsonValue> entry: obj.entrySet())
+                    {
+                        size += 48 + 40 + 2*entry.getKey().length() + estimateSize(entry.getValue());
+                    }
+                    break;
+
+                case ARRAY:
+                    JsonArray array = (JsonArray)value;
+                    size = 40;
+                    for (JsonValue element: array)
+                    {
+                        size += 8 + estimateSize(element);
+                    }
+                    break;
+
+                case STRING:
+                    size = 16 + 40 + 2*((JsonString)value).getString().length();
+                    break;
+
+                case NUMBER:
+                    size = 16 + 40;
+                    break;
+
+                default:
+                    //
+                    // TRUE, FALSE and NULL are shared constants.
+                    //
+                    size = 0;
+                    break;
+            }
+        }
+
+        return size;
+    }   //estimateSize
+
+    /**
+     * This method estimates the heap size of the JSON value in bytes, not counting the objects and arrays already
+     * counted for other values. Together with estimateSize, it tells how much memory the shared objects and arrays
+     * save.
+     *
+     * @param value specifies the JSON value.
+     * @param visited specifies the objects and arrays already counted, updated by this method.
+     * @return estimated size in bytes.
+     */
+    private static long estimateSharedSize(JsonValue value, Set<JsonValue> visited)
+    {
+        long size;
+        JsonTape jsonTape = JsonTape.getTape(value);
+
+        if (jsonTape != null)
+        {
+            size = visited.add(value)? jsonTape.getSize(): 0;
+        }
+        else
+        {
+            switch (value.getValueType())
+            {
+                case OBJECT:
+                    JsonObject obj = (JsonObject)value;
+                    size = 0;
+                    if (visited.add(obj))
+                    {
+                        size = 64;
+                        for (Map.Entry<String, JsonValue> entry: obj.entrySet())
+                        {
+                            size += 48 + 40 + 2*entry.getKey().length() +
+                                    estimateSharedSize(entry.getValue(), visited);
+                        }
+                    }
+                    break;
+
+                case ARRAY:
+                    JsonArray array = (JsonArray)value;
+                    size = 0;
+                    if (visited.add(array))
+                    {
+                        size = 40;
+                        for (JsonValue element: array)
+                        {
+                            size += 8 + estimateSharedSize(element, visited);
+                        }
+                    }
+                    break;
+
+                default:
+                    size = estimateSize(value);
+                    break;
+            }
+        }
+
+        return size;
+    }   //estimateSharedSize
+
+    /**
+     * This method sends the request to the web server and returns the replied data if any.
+     *
+     * @param request specifies the request string.
+     * @param statusOut specifies standard output stream for command status, can be null for quiet mode.
+     * @return replied JSON data, null if request failed.
+     */
+    public JsonStructure get(String request, PrintStream statusOut)
+    {
+        return get(request, statusOut, null);
+    }   //get
+
+    /**
+     * This method checks if the replied data of the request can never change. Such data is cached as permanently
+     * fresh and is never revalidated with the web server. The default implementation treats all data as mutable,
+     * subclasses with knowledge of the web service can override it.
+     *
+     * @param request specifies the request string.
+     * @return true if the data can never change, false otherwise.
+     */
+    protected boolean isImmutable(String request)
+    {
+        return false;
+    }   //isImmutable
+
+    /**
+     * This method prints the entire structure of the JSON data recursively.
+     *
+     * @param data specifies the JSON structure.
+     * @param dataOut specifies the output print stream for the data.
+     */
+    public void printData(JsonStructure data, PrintStream dataOut)
+    {
+        new JsonPrinter(dataOut, null, null).print(data);
+    }   //printData
+
+    /**
+     * This method prints the entire structure of the JSON data. If key1 is provided, it will only print the values
+     * of key1 and key2 if provided. If key1 is null, it will recurse into the JSON object and print all the nested
+     * structures.
+     *
+     * @param data specifies the JSON structure.
+     * @param key1 specifies the first key.
+     * @param key2 specifies the second key.
+     * @param dataOut specifies the output print stream for the data.
+     */
+    public void printData(JsonStructure data, String key1, String key2, PrintStream dataOut)
+    {
+        new JsonPrinter(dataOut, key1, key2).print(data);
+    }   //printData
 
 }   //class WebRequest